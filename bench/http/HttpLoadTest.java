@@ -0,0 +1,135 @@
+package http;
+
+import manager.Managers;
+import manager.TaskManager;
+import model.Status;
+import model.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class HttpLoadTest { // нагрузка на HttpTaskServer: запросы в секунду и задержки при многих клиентах
+
+    // Запуск: mvn -P jmh package && java -cp target/benchmarks.jar http.HttpLoadTest [клиентов] [секунд]
+    // Каждый клиент - отдельный поток, шлющий запросы один за другим: 9 из 10 - GET /tasks/{id},
+    // остальные - POST /tasks. Первые секунды - прогрев, в замер не входят.
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int TASKS = 10_000;
+    private static final int WARMUP_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        TaskManager taskManager = Managers.getConcurrent();
+        int[] ids = new int[TASKS];
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task("Задача " + i, "Описание задачи", Status.NEW, START.plusHours(i), Duration.ofMinutes(30));
+            taskManager.createTask(task);
+            ids[i] = task.getId();
+        }
+        HttpTaskServer.raiseIdleConnectionLimit(); // как в HttpTaskServer.main: клиентов больше 200
+        HttpTaskServer server = new HttpTaskServer(taskManager, 0);
+        server.start();
+        String base = "http://localhost:" + server.getPort();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        AtomicLong nextSlot = new AtomicLong(TASKS);
+        AtomicInteger errors = new AtomicInteger();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        long measureFrom = System.nanoTime() + WARMUP_SECONDS * 1_000_000_000L;
+        long measureTo = measureFrom + seconds * 1_000_000_000L;
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++) {
+            int number = c;
+            Thread thread = new Thread(() -> {
+                long[] own = new long[1024];
+                int count = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (true) {
+                        HttpRequest request;
+                        if (random.nextInt(10) == 0) {
+                            String json = "{\"name\":\"Задача\",\"startTime\":\"" + START.plusHours(nextSlot.getAndIncrement())
+                                    + "\",\"duration\":\"PT30M\"}";
+                            request = HttpRequest.newBuilder(URI.create(base + "/tasks"))
+                                    .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+                        } else {
+                            request = HttpRequest.newBuilder(URI.create(base + "/tasks/" + ids[random.nextInt(TASKS)]))
+                                    .GET().build();
+                        }
+                        long begin = System.nanoTime();
+                        if (begin >= measureTo) {
+                            break;
+                        }
+                        try {
+                            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                            if (response.statusCode() >= 300) {
+                                errors.incrementAndGet();
+                                firstError.compareAndSet(null, response.statusCode() + " " + response.body());
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                            firstError.compareAndSet(null, e.toString());
+                        }
+                        long end = System.nanoTime();
+                        if (begin >= measureFrom && end <= measureTo) {
+                            if (count == own.length) {
+                                own = Arrays.copyOf(own, count * 2);
+                            }
+                            own[count++] = end - begin;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latencies[number] = own;
+                    counts[number] = count;
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        server.stop();
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int position = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, position, counts[c]);
+            position += counts[c];
+        }
+        Arrays.sort(all);
+        System.out.printf("Клиентов: %d, виртуальные потоки сервера: %s, замер: %d с%n", clients,
+                server.usesVirtualThreads() ? "да" : "нет", seconds);
+        System.out.printf("Запросов: %d (%.0f в секунду), ошибок: %d%n", total, total / (double) seconds, errors.get());
+        if (firstError.get() != null) {
+            System.out.println("Первая ошибка: " + firstError.get());
+        }
+        if (total > 0) {
+            System.out.printf("Задержка p50 %.2f мс, p99 %.2f мс, max %.2f мс%n", percentile(all, 0.50),
+                    percentile(all, 0.99), all[total - 1] / 1e6);
+        }
+    }
+
+    private static double percentile(long[] sorted, double fraction) { // в миллисекундах
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+}
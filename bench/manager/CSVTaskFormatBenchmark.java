@@ -0,0 +1,41 @@
+package manager;
+
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CSVTaskFormatBenchmark { // разбор и форматирование одной строки CSV
+
+    private Task task;
+    private String line;
+
+    @Setup
+    public void setUp() {
+        task = new Subtask("Подзадача", "Описание подзадачи", Status.IN_PROGRESS, 1,
+                LocalDateTime.of(2025, 1, 1, 10, 0), Duration.ofMinutes(45));
+        task.setId(2);
+        line = CSVTaskFormat.toString(task);
+    }
+
+    @Benchmark
+    public String format() {
+        return CSVTaskFormat.toString(task);
+    }
+
+    @Benchmark
+    public Task parse() {
+        return CSVTaskFormat.fromString(line);
+    }
+
+}
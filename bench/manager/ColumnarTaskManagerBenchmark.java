@@ -0,0 +1,86 @@
+package manager;
+
+import model.Status;
+import model.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+public class ColumnarTaskManagerBenchmark { // колонки примитивов и записи вне кучи против объектов задач в памяти
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"in-memory", "columnar", "off-heap"})
+    public String implementation;
+
+    @Param({"1000000"})
+    public int size;
+
+    private TaskManager taskManager;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Задачи по 30 минут встык; названия повторяются из сотни, статусы вразброс. История короткая,
+        // чтобы просмотры в getById не накапливали объекты и не мешали сравнению хранилищ
+        random = new Random(1);
+        HistoryManager history = Managers.getDefaultHistory(100);
+        if ("columnar".equals(implementation)) {
+            taskManager = new ColumnarTaskManager(history);
+        } else if ("off-heap".equals(implementation)) {
+            taskManager = new OffHeapTaskManager(history);
+        } else {
+            taskManager = new InMemoryTaskManager(history);
+        }
+        Status[] statuses = Status.values();
+        for (int i = 0; i < size; i++) {
+            taskManager.createTask(new Task("Задача " + i % 100, "Описание задачи " + i,
+                    statuses[random.nextInt(statuses.length)], START.plusMinutes(30L * i), Duration.ofMinutes(30)));
+        }
+    }
+
+    @Benchmark
+    public Task getById() {
+        return taskManager.getTaskById(1 + random.nextInt(size));
+    }
+
+    @Benchmark
+    public long countDoneByScan() { // проход по всем задачам потоком
+        return taskManager.streamTasks().filter(task -> task.getStatus() == Status.DONE).count();
+    }
+
+    @Benchmark
+    public int countDone() {
+        return taskManager.countByStatus(Status.DONE);
+    }
+
+    @Benchmark
+    public List<Task> tasksByStatus() { // треть задач: у columnar проход по колонке статусов и создание объектов
+        return taskManager.getTasksByStatus(Status.IN_PROGRESS);
+    }
+
+    @Benchmark
+    public List<Task> window() { // рабочий день: 16 задач
+        LocalDateTime from = START.plusMinutes(30L * random.nextInt(size - 16));
+        return taskManager.getTasksInWindow(from, from.plusHours(8));
+    }
+
+    @Benchmark
+    public void updateStatus() { // обновление без смены времени
+        int id = 1 + random.nextInt(size);
+        Task task = new Task("Задача", "Описание", Status.DONE, START.plusMinutes(30L * (id - 1)), Duration.ofMinutes(30));
+        task.setId(id);
+        taskManager.updateTask(task);
+    }
+
+}
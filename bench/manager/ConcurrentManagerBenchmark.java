@@ -0,0 +1,100 @@
+package manager;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ConcurrentManagerBenchmark { // ConcurrentTaskManager против менеджера за общей блокировкой
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int TASKS = 10_000;
+    private static final int EPICS = 64;
+
+    @Param({"concurrent", "synchronized"})
+    public String implementation;
+
+    private TaskManager taskManager;
+    private int[] taskIds;
+    private int[] epicIds;
+    private final AtomicLong nextSlot = new AtomicLong(TASKS);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskManager = "concurrent".equals(implementation) ? new ConcurrentTaskManager() : new SynchronizedTaskManager();
+        taskIds = new int[TASKS];
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task("Задача", "Описание задачи", Status.NEW, START.plusMinutes(i * 30L),
+                    Duration.ofMinutes(30));
+            taskManager.createTask(task);
+            taskIds[i] = task.getId();
+        }
+        epicIds = new int[EPICS];
+        for (int i = 0; i < EPICS; i++) {
+            Epic epic = new Epic("Эпик", "Описание эпика");
+            taskManager.createEpic(epic);
+            epicIds[i] = epic.getId();
+        }
+    }
+
+    @Benchmark
+    public Task read() {
+        return taskManager.getTaskById(taskIds[ThreadLocalRandom.current().nextInt(TASKS)]);
+    }
+
+    @Benchmark
+    public void readMostly() { // девять чтений на одну запись
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(10) == 0) {
+            Task task = new Task("Задача", "Описание задачи", Status.NEW,
+                    START.plusMinutes(nextSlot.getAndIncrement() * 30), Duration.ofMinutes(30));
+            taskManager.createTask(task);
+            taskManager.deleteTask(task.getId());
+        } else {
+            taskManager.getTaskById(taskIds[random.nextInt(TASKS)]);
+        }
+    }
+
+    @Benchmark
+    public int snapshotRead() { // согласованное чтение: снимок и подзадачи эпика из него
+        TaskSnapshot snapshot = taskManager.snapshot();
+        return snapshot.getEpicSubtasks(epicIds[ThreadLocalRandom.current().nextInt(EPICS)]).size();
+    }
+
+    @Benchmark
+    public int snapshotScan() { // чтение из снимка: задача по id и страница приоритетов
+        TaskSnapshot snapshot = taskManager.snapshot();
+        Task task = snapshot.getTaskById(taskIds[ThreadLocalRandom.current().nextInt(TASKS)]);
+        return task.getId() + snapshot.getPrioritizedTasks(0, 50).size();
+    }
+
+    @Benchmark
+    public void taskWrites() { // создание и удаление задач без времени: интервалы не меняются
+        Task task = new Task("Задача", "Описание задачи", Status.NEW);
+        taskManager.createTask(task);
+        taskManager.deleteTask(task.getId());
+    }
+
+    @Benchmark
+    public void subtaskWrites() { // создание и удаление подзадач в разных эпиках
+        int epicId = epicIds[ThreadLocalRandom.current().nextInt(EPICS)];
+        Subtask subtask = new Subtask("Подзадача", "Описание подзадачи", Status.DONE, epicId);
+        taskManager.createSubtask(subtask);
+        taskManager.deleteSubtask(subtask.getId());
+    }
+
+}
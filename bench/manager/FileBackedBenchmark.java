@@ -0,0 +1,78 @@
+package manager;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class FileBackedBenchmark { // полная запись и загрузка снимка, память загрузки: -prof gc
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    public int rows;
+
+    @Param({"CSV", "BINARY"})
+    public SnapshotFormat format;
+
+    private File file;
+    private FileBackedTaskManager taskManager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("tasks-bench", ".csv").toFile();
+        taskManager = new FileBackedTaskManager(file, 0, FlushPolicy.batched(60_000, Integer.MAX_VALUE,
+                FlushPolicy.Durability.NONE), format); // наполнение без записи на каждое изменение
+        int epicCount = rows / 10;
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < rows - epicCount * 5; i++) {
+            tasks.add(new Task("Задача" + i, "Описание задачи" + i, Status.NEW));
+        }
+        taskManager.createTasks(tasks);
+        for (int i = 0; i < epicCount; i++) {
+            Epic epic = new Epic("Эпик" + i, "Описание эпика" + i);
+            taskManager.createEpic(epic);
+            List<Subtask> subtasks = new ArrayList<>();
+            for (int j = 0; j < 4; j++) {
+                subtasks.add(new Subtask("Подзадача" + j, "Описание подзадачи" + j, Status.DONE, epic.getId()));
+            }
+            taskManager.createSubtasks(subtasks);
+        }
+        taskManager.save();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        taskManager.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public void save() {
+        taskManager.save();
+    }
+
+    @Benchmark
+    public FileBackedTaskManager load() {
+        return FileBackedTaskManager.loadFromFile(file);
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) throws IOException { // только разбор файла, без построения менеджера
+        SnapshotFormat.read(file, blackhole::consume);
+    }
+
+}
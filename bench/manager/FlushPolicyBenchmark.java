@@ -0,0 +1,59 @@
+package manager;
+
+import model.Status;
+import model.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlushPolicyBenchmark { // пропускная способность изменений при разных режимах записи на диск
+
+    @Param({"snapshot", "journal", "batched", "batched-durable", "async", "async-durable"})
+    public String mode;
+
+    private File file;
+    private FileBackedTaskManager taskManager;
+    private Task task;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("tasks-bench", ".csv").toFile();
+        switch (mode) {
+            case "snapshot" -> taskManager = new FileBackedTaskManager(file);
+            case "journal" -> taskManager = new FileBackedTaskManager(file, 10_000);
+            case "batched" -> taskManager = new FileBackedTaskManager(file, 10_000,
+                    FlushPolicy.batched(50, 1000, FlushPolicy.Durability.NONE));
+            case "batched-durable" -> taskManager = new FileBackedTaskManager(file, 10_000,
+                    FlushPolicy.batched(50, 1000, FlushPolicy.Durability.BATCH));
+            case "async" -> taskManager = new FileBackedTaskManager(file, 10_000,
+                    FlushPolicy.async(4096, FlushPolicy.Durability.NONE));
+            default -> taskManager = new FileBackedTaskManager(file, 10_000,
+                    FlushPolicy.async(4096, FlushPolicy.Durability.BATCH));
+        }
+        task = new Task("Задача", "Описание задачи", Status.NEW);
+        taskManager.createTask(task);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        taskManager.close();
+        file.delete();
+        OperationJournal.fileFor(file).delete();
+    }
+
+    @Benchmark
+    public void update() {
+        task.setStatus(task.getStatus() == Status.NEW ? Status.IN_PROGRESS : Status.NEW);
+        taskManager.updateTask(task);
+    }
+
+}
@@ -0,0 +1,57 @@
+package manager;
+
+import model.Status;
+import model.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryManagerBenchmark { // запись просмотра и чтение истории
+
+    private static final int TASKS = 100_000;
+
+    @Param({"in-memory", "concurrent"})
+    public String implementation;
+
+    @Param({"10", "1000", "100000"})
+    public int capacity;
+
+    private HistoryManager historyManager;
+    private Task[] tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        historyManager = "concurrent".equals(implementation)
+                ? Managers.getConcurrentHistory(capacity) : Managers.getDefaultHistory(capacity);
+        tasks = new Task[TASKS];
+        for (int i = 0; i < TASKS; i++) {
+            tasks[i] = new Task("Задача", "Описание задачи", Status.NEW);
+            tasks[i].setId(i + 1);
+            historyManager.add(tasks[i]);
+        }
+    }
+
+    @Benchmark
+    public void add() {
+        historyManager.add(tasks[ThreadLocalRandom.current().nextInt(TASKS)]);
+    }
+
+    @Benchmark
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Benchmark
+    public List<Task> getHistoryPage() {
+        return historyManager.getHistory(0, 10);
+    }
+
+}
@@ -0,0 +1,78 @@
+package manager;
+
+import model.Status;
+import model.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class MappedTaskStoreBenchmark { // открытие снимка и чтение без загрузки задач в память
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private File file;
+    private MappedTaskStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("tasks-bench", ".bin").toFile();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file, 0,
+                FlushPolicy.batched(60_000, Integer.MAX_VALUE, FlushPolicy.Durability.NONE), SnapshotFormat.BINARY)) {
+            List<Task> tasks = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                tasks.add(new Task("Задача" + i, "Описание задачи" + i, Status.values()[i % 3],
+                        start.plusMinutes(i * 30L), Duration.ofMinutes(30)));
+            }
+            manager.createTasks(tasks);
+            manager.save();
+        }
+        store = MappedTaskStore.open(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.close();
+        file.delete();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MappedTaskStore open() {
+        return MappedTaskStore.open(file);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public FileBackedTaskManager loadFromFile() { // для сравнения: загрузка всех задач в память
+        return FileBackedTaskManager.loadFromFile(file);
+    }
+
+    @Benchmark
+    public Task getById() {
+        return store.getTaskById(1 + ThreadLocalRandom.current().nextInt(rows));
+    }
+
+    @Benchmark
+    public List<Task> firstPrioritized() { // первые 50 задач по времени
+        return new ArrayList<>(store.getPrioritizedTasks().subList(0, 50));
+    }
+
+}
@@ -0,0 +1,77 @@
+package manager;
+
+import model.Status;
+import model.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+public class SearchIndexBenchmark { // поиск по индексу против обхода всех задач
+
+    private static final String[] SYLLABLES = {"ка", "ла", "по", "ре", "ти", "мо", "ну", "сё", "вы", "дж", "ор", "ан"};
+
+    @Param({"in-memory", "concurrent"})
+    public String implementation;
+
+    @Param({"100000"})
+    public int size;
+
+    private TaskManager taskManager;
+    private String[] words;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Словарь из 5000 слов; частота слова в текстах убывает с номером, как в живом тексте
+        Random random = new Random(1);
+        words = new String[5_000];
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int j = 0; j < 2 + random.nextInt(3); j++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = word.append(i).toString();
+        }
+        taskManager = "concurrent".equals(implementation) ? new ConcurrentTaskManager() : new InMemoryTaskManager();
+        for (int i = 0; i < size; i++) {
+            taskManager.createTask(new Task(text(random, 4), text(random, 20), Status.NEW));
+        }
+    }
+
+    private String text(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(words[(int) (words.length * Math.pow(random.nextDouble(), 3))]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private String nextWord() { // слова средней частоты: встречаются в сотнях задач
+        cursor = (cursor + 1) % 500;
+        return words[500 + cursor];
+    }
+
+    @Benchmark
+    public List<Task> oneWord() {
+        return taskManager.search(nextWord(), 0, 20);
+    }
+
+    @Benchmark
+    public List<Task> twoWords() { // частое слово вместе со словом средней частоты
+        return taskManager.search(words[cursor % 10] + " " + nextWord(), 0, 20);
+    }
+
+    @Benchmark
+    public List<Task> prefix() { // префикс из первых трёх букв совпадает с десятками слов
+        return taskManager.search(nextWord().substring(0, 3) + "*", 0, 20);
+    }
+
+}
@@ -0,0 +1,153 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+class SynchronizedTaskManager extends InMemoryTaskManager { // все операции за одной общей блокировкой
+
+    @Override
+    public synchronized void createTask(Task task) {
+        super.createTask(task);
+    }
+
+    @Override
+    public synchronized void updateTask(Task task) {
+        super.updateTask(task);
+    }
+
+    @Override
+    public synchronized void createTasks(Collection<Task> tasks) {
+        super.createTasks(tasks);
+    }
+
+    @Override
+    public synchronized void updateTasks(Collection<Task> tasks) {
+        super.updateTasks(tasks);
+    }
+
+    @Override
+    public synchronized ArrayList<Task> getAllTasks() {
+        return super.getAllTasks();
+    }
+
+    @Override
+    public synchronized Task getTaskById(int id) {
+        return super.getTaskById(id);
+    }
+
+    @Override
+    public synchronized void deleteTask(int id) {
+        super.deleteTask(id);
+    }
+
+    @Override
+    public synchronized void deleteTasks(int[] ids) {
+        super.deleteTasks(ids);
+    }
+
+    @Override
+    public synchronized void deleteAllTasks() {
+        super.deleteAllTasks();
+    }
+
+    @Override
+    public synchronized void createEpic(Epic epic) {
+        super.createEpic(epic);
+    }
+
+    @Override
+    public synchronized void updateEpic(Epic epic) {
+        super.updateEpic(epic);
+    }
+
+    @Override
+    public synchronized ArrayList<Epic> getAllEpics() {
+        return super.getAllEpics();
+    }
+
+    @Override
+    public synchronized Epic getEpicById(int id) {
+        return super.getEpicById(id);
+    }
+
+    @Override
+    public synchronized void deleteEpic(int id) {
+        super.deleteEpic(id);
+    }
+
+    @Override
+    public synchronized void deleteAllEpics() {
+        super.deleteAllEpics();
+    }
+
+    @Override
+    public synchronized void createSubtask(Subtask subtask) {
+        super.createSubtask(subtask);
+    }
+
+    @Override
+    public synchronized void updateSubtask(Subtask subtask) {
+        super.updateSubtask(subtask);
+    }
+
+    @Override
+    public synchronized void createSubtasks(Collection<Subtask> subtasks) {
+        super.createSubtasks(subtasks);
+    }
+
+    @Override
+    public synchronized void updateSubtasks(Collection<Subtask> subtasks) {
+        super.updateSubtasks(subtasks);
+    }
+
+    @Override
+    public synchronized ArrayList<Subtask> getAllSubtasks() {
+        return super.getAllSubtasks();
+    }
+
+    @Override
+    public synchronized Subtask getSubtaskById(int id) {
+        return super.getSubtaskById(id);
+    }
+
+    @Override
+    public synchronized void deleteSubtask(Integer id) {
+        super.deleteSubtask(id);
+    }
+
+    @Override
+    public synchronized void deleteSubtasks(int[] ids) {
+        super.deleteSubtasks(ids);
+    }
+
+    @Override
+    public synchronized void deleteAllSubtasks() {
+        super.deleteAllSubtasks();
+    }
+
+    @Override
+    public synchronized ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        return super.getEpicSubtasks(epicId);
+    }
+
+    @Override
+    public synchronized ArrayList<Task> getHistory() {
+        return super.getHistory();
+    }
+
+    @Override
+    public synchronized List<Task> getHistory(int offset, int limit) {
+        return super.getHistory(offset, limit);
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasks() {
+        return super.getPrioritizedTasks();
+    }
+
+}
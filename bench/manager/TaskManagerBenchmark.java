@@ -0,0 +1,115 @@
+package manager;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskManagerBenchmark { // стоимость операций менеджера при заданном числе задач
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int EPIC_SUBTASKS = 1000;
+
+    @Param({"in-memory", "concurrent"})
+    public String implementation;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private TaskManager taskManager;
+    private int[] ids;
+    private int epicId;
+    private int cursor;
+    private long nextSlot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskManager = "concurrent".equals(implementation) ? new ConcurrentTaskManager() : new InMemoryTaskManager();
+        ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            Task task = timedTask(i);
+            taskManager.createTask(task);
+            ids[i] = task.getId();
+        }
+        nextSlot = size;
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        epicId = epic.getId();
+        for (int i = 0; i < EPIC_SUBTASKS; i++) {
+            taskManager.createSubtask(new Subtask("Подзадача", "Описание подзадачи", Status.NEW, epicId));
+        }
+    }
+
+    @Benchmark
+    public void createAndDelete() { // создание задачи в свободный интервал и её удаление
+        Task task = timedTask(nextSlot);
+        taskManager.createTask(task);
+        taskManager.deleteTask(task.getId());
+    }
+
+    @Benchmark
+    public void update() { // обновление задачи со сдвигом внутри её интервала
+        int id = ids[cursor++ % ids.length];
+        Task task = new Task("Задача", "Обновлённое описание", Status.IN_PROGRESS,
+                START.plusMinutes((id - 1) * 30L), Duration.ofMinutes(30));
+        task.setId(id);
+        taskManager.updateTask(task);
+    }
+
+    @Benchmark
+    public Task getById() {
+        return taskManager.getTaskById(ids[cursor++ % ids.length]);
+    }
+
+    @Benchmark
+    public Epic getEpicById() { // эпик из EPIC_SUBTASKS подзадач
+        return taskManager.getEpicById(epicId);
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasks() {
+        return taskManager.getPrioritizedTasks();
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedPage() { // первые 50 задач без копирования всего списка
+        return taskManager.getPrioritizedTasks(0, 50);
+    }
+
+    @Benchmark
+    public List<Task> getTasksPage() {
+        return taskManager.getTasks(0, 50);
+    }
+
+    @Benchmark
+    public int countByStatus() { // in-memory - по индексу статусов, concurrent - обходом задач
+        return taskManager.countByStatus(Status.NEW);
+    }
+
+    @Benchmark
+    public void conflictCheck(Blackhole blackhole) { // попытка занять уже занятый интервал
+        try {
+            taskManager.createTask(timedTask(cursor++ % size));
+        } catch (TimeConflictException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    private static Task timedTask(long slot) {
+        return new Task("Задача", "Описание задачи", Status.NEW, START.plusMinutes(slot * 30), Duration.ofMinutes(30));
+    }
+
+}
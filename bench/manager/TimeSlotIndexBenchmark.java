@@ -0,0 +1,45 @@
+package manager;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeSlotIndexBenchmark { // проверка пересечения должна расти логарифмически от числа интервалов
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private TimeSlotIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new TimeSlotIndex();
+        for (int i = 0; i < size; i++) {
+            index.add(i + 1, START.plusMinutes(i * 30L), START.plusMinutes(i * 30L + 20));
+        }
+    }
+
+    @Benchmark
+    public boolean overlaps() {
+        long minute = ThreadLocalRandom.current().nextLong(size * 30L);
+        return index.overlaps(START.plusMinutes(minute), START.plusMinutes(minute + 5), 0);
+    }
+
+    @Benchmark
+    public void addAndRemove() {
+        LocalDateTime start = START.plusMinutes(size * 30L);
+        index.add(-1, start, start.plusMinutes(20));
+        index.remove(-1);
+    }
+
+}
@@ -0,0 +1,78 @@
+package manager;
+
+import model.Status;
+import model.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+public class TimeWindowBenchmark { // запросы по времени к плотному календарю
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"in-memory", "concurrent"})
+    public String implementation;
+
+    @Param({"1000000"})
+    public int size;
+
+    private TaskManager taskManager;
+    private long cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Задачи по 30 минут встык; после каждой 50-й перерыв 30 минут, после каждой 1000-й - 2 часа
+        taskManager = "concurrent".equals(implementation) ? new ConcurrentTaskManager() : new InMemoryTaskManager();
+        LocalDateTime time = START;
+        for (int i = 1; i <= size; i++) {
+            taskManager.createTask(new Task("Задача", "Описание задачи", Status.NEW, time, Duration.ofMinutes(30)));
+            time = time.plusMinutes(30);
+            if (i % 1000 == 0) {
+                time = time.plusHours(2);
+            } else if (i % 50 == 0) {
+                time = time.plusMinutes(30);
+            }
+        }
+    }
+
+    private LocalDateTime nextMoment() { // моменты вразброс по календарю, не на границах задач
+        cursor = (cursor + 7_919) % size;
+        return START.plusMinutes(cursor * 30 + 7);
+    }
+
+    @Benchmark
+    public List<Task> window() { // рабочий день: 16 задач из миллиона
+        LocalDateTime from = nextMoment();
+        return taskManager.getTasksInWindow(from, from.plusHours(8));
+    }
+
+    @Benchmark
+    public List<Task> windowByScan() { // прежний способ: фильтрация всего списка приоритетов на клиенте
+        LocalDateTime from = nextMoment();
+        LocalDateTime to = from.plusHours(8);
+        return taskManager.getPrioritizedTasks().stream()
+                .filter(task -> task.getStartTime().isBefore(to) && task.getEndTime().isAfter(from))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public LocalDateTime nextFreeSlotShort() { // 30 минут: до ближайшего перерыва не больше 50 задач
+        return taskManager.nextFreeSlot(Duration.ofMinutes(30), nextMoment());
+    }
+
+    @Benchmark
+    public LocalDateTime nextFreeSlotLong() { // 90 минут: до ближайшего длинного перерыва до 1000 задач
+        return taskManager.nextFreeSlot(Duration.ofMinutes(90), nextMoment());
+    }
+
+}
@@ -0,0 +1,54 @@
+package model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EpicBenchmark { // пересчёт статуса и времени эпика при изменении одной подзадачи
+
+    @Param({"10", "1000", "100000"})
+    public int subtasks;
+
+    private Epic epic;
+    private Subtask[] items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        epic = new Epic("Эпик", "Описание эпика");
+        epic.setId(1);
+        items = new Subtask[subtasks];
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < subtasks; i++) {
+            items[i] = new Subtask("Подзадача", "Описание подзадачи", Status.NEW, 1, start.plusHours(i),
+                    Duration.ofMinutes(30));
+            items[i].setId(i + 2);
+            epic.putSubtask(items[i]);
+        }
+    }
+
+    @Benchmark
+    public Status updateSubtask() {
+        Subtask subtask = items[ThreadLocalRandom.current().nextInt(subtasks)];
+        subtask.setStatus(subtask.getStatus() == Status.NEW ? Status.DONE : Status.NEW);
+        epic.putSubtask(subtask);
+        return epic.getStatus();
+    }
+
+    @Benchmark
+    public Epic removeAndPut() {
+        Subtask subtask = items[ThreadLocalRandom.current().nextInt(subtasks)];
+        epic.removeSubtask(subtask.getId());
+        epic.putSubtask(subtask);
+        return epic;
+    }
+
+}
@@ -0,0 +1,98 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import manager.TaskManager;
+import manager.TimeConflictException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+abstract class BaseHttpHandler implements HttpHandler { // общий разбор запроса и ответы в JSON
+
+    protected final TaskManager taskManager;
+
+    protected BaseHttpHandler(TaskManager taskManager) {
+        this.taskManager = taskManager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException { // ошибки обработки превращаются в коды ответа
+        try (exchange) {
+            try {
+                handle(exchange, exchange.getRequestMethod(), pathParts(exchange));
+            } catch (TimeConflictException e) {
+                sendHasInteractions(exchange, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, TaskJson.error(e.getMessage()));
+            } catch (IOException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                send(exchange, 500, TaskJson.error("Внутренняя ошибка сервера"));
+            }
+        }
+    }
+
+    // parts - части пути после префикса обработчика: для /tasks/5 это ["5"]
+    protected abstract void handle(HttpExchange exchange, String method, String[] parts) throws IOException;
+
+    // Ответы
+    protected void sendJson(HttpExchange exchange, int code, String json) throws IOException {
+        send(exchange, code, json);
+    }
+
+    protected void sendNotFound(HttpExchange exchange, String message) throws IOException {
+        send(exchange, 404, TaskJson.error(message));
+    }
+
+    protected void sendHasInteractions(HttpExchange exchange, String message) throws IOException { // пересечение по времени
+        send(exchange, 406, TaskJson.error(message));
+    }
+
+    protected void sendMethodNotAllowed(HttpExchange exchange) throws IOException {
+        send(exchange, 405, TaskJson.error("Метод " + exchange.getRequestMethod() + " не поддерживается"));
+    }
+
+    protected void sendOk(HttpExchange exchange) throws IOException { // успешный ответ без тела
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private static void send(HttpExchange exchange, int code, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    // Разбор запроса
+    protected static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream input = exchange.getRequestBody()) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    protected static int parseId(String part) {
+        try {
+            return Integer.parseInt(part);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный id: " + part);
+        }
+    }
+
+    private static String[] pathParts(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        String rest = path.substring(Math.min(path.length(), exchange.getHttpContext().getPath().length()));
+        while (rest.startsWith("/")) {
+            rest = rest.substring(1);
+        }
+        while (rest.endsWith("/")) {
+            rest = rest.substring(0, rest.length() - 1);
+        }
+        return rest.isEmpty() ? new String[0] : rest.split("/");
+    }
+
+}
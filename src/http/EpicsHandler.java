@@ -0,0 +1,82 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import model.Epic;
+
+import java.io.IOException;
+
+class EpicsHandler extends BaseHttpHandler { // /epics, /epics/{id} и /epics/{id}/subtasks
+
+    EpicsHandler(TaskManager taskManager) {
+        super(taskManager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] parts) throws IOException {
+        if (parts.length > 2 || parts.length == 2 && !"subtasks".equals(parts[1])) {
+            sendNotFound(exchange, "Неизвестный путь " + exchange.getRequestURI().getPath());
+            return;
+        }
+        switch (method) {
+            case "GET":
+                if (parts.length == 0) {
+                    sendJson(exchange, 200, TaskJson.toJson(taskManager.getAllEpics()));
+                    return;
+                }
+                int id = parseId(parts[0]);
+                if (parts.length == 2) { // подзадачи эпика без записи эпика в историю
+                    if (taskManager.snapshot().getEpicById(id) == null) {
+                        sendNotFound(exchange, "Эпик " + id + " не найден");
+                    } else {
+                        sendJson(exchange, 200, TaskJson.toJson(taskManager.getEpicSubtasks(id)));
+                    }
+                    return;
+                }
+                Epic epic = taskManager.getEpicById(id);
+                if (epic == null) {
+                    sendNotFound(exchange, "Эпик " + id + " не найден");
+                } else {
+                    sendJson(exchange, 200, TaskJson.toJson(epic));
+                }
+                return;
+            case "POST":
+                if (parts.length == 2) {
+                    sendMethodNotAllowed(exchange);
+                    return;
+                }
+                Epic received = TaskJson.epicFromJson(readBody(exchange));
+                if (parts.length == 1) {
+                    received.setId(parseId(parts[0]));
+                }
+                if (received.getId() == 0) {
+                    taskManager.createEpic(received);
+                    sendJson(exchange, 201, TaskJson.toJson(received));
+                    return;
+                }
+                taskManager.updateEpic(received); // отсутствующий эпик менеджер не меняет
+                Epic stored = taskManager.snapshot().getEpicById(received.getId()); // статус и время по подзадачам
+                if (stored == null) {
+                    sendNotFound(exchange, "Эпик " + received.getId() + " не найден");
+                } else {
+                    sendJson(exchange, 201, TaskJson.toJson(stored));
+                }
+                return;
+            case "DELETE":
+                if (parts.length == 2) {
+                    sendMethodNotAllowed(exchange);
+                } else {
+                    if (parts.length == 0) {
+                        taskManager.deleteAllEpics();
+                    } else {
+                        taskManager.deleteEpic(parseId(parts[0]));
+                    }
+                    sendOk(exchange);
+                }
+                return;
+            default:
+                sendMethodNotAllowed(exchange);
+        }
+    }
+
+}
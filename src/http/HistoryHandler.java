@@ -0,0 +1,25 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+
+import java.io.IOException;
+
+class HistoryHandler extends BaseHttpHandler { // /history: просмотренные задачи
+
+    HistoryHandler(TaskManager taskManager) {
+        super(taskManager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] parts) throws IOException {
+        if (parts.length > 0) {
+            sendNotFound(exchange, "Неизвестный путь " + exchange.getRequestURI().getPath());
+        } else if (!"GET".equals(method)) {
+            sendMethodNotAllowed(exchange);
+        } else {
+            sendJson(exchange, 200, TaskJson.toJson(taskManager.getHistory()));
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package http;
+
+import com.sun.net.httpserver.HttpServer;
+import manager.Managers;
+import manager.TaskManager;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HttpTaskServer { // HTTP API менеджера задач на встроенном сервере JDK
+
+    // Каждый запрос обрабатывается в своём виртуальном потоке (Java 21+): поток, ждущий сеть или блокировку
+    // менеджера, не занимает поток ОС, и тысячи одновременных клиентов не упираются в размер пула.
+    // На старых JDK - пул обычных потоков; сборка на Java 17 проверяет только его, ветку виртуальных потоков
+    // тесты проходят лишь при запуске на Java 21+. Менеджер вызывается из многих потоков сразу, поэтому он должен
+    // допускать одновременный доступ; по умолчанию - ConcurrentTaskManager. Обработчики читают состояние без
+    // записи в историю через snapshot(), поэтому нужен менеджер со снимком за O(1): у остальных менеджеров
+    // snapshot() копирует всё состояние на каждый такой запрос.
+    // Сервер JDK держит не больше 200 простаивающих соединений и закрывает лишние, а клиент может успеть отправить
+    // в закрытое соединение запрос. Предел - общее свойство JVM sun.net.httpserver.maxIdleConnections, читается
+    // при создании первого сервера. main поднимает его до BACKLOG, а приложение, встраивающее сервер, задаёт его
+    // само, например -Dsun.net.httpserver.maxIdleConnections=1024.
+    public static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 1024; // очередь соединений, ещё не принятых сервером
+    private static final int FALLBACK_THREADS = 200;
+    private static final String MAX_IDLE_CONNECTIONS = "sun.net.httpserver.maxIdleConnections";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    public HttpTaskServer() throws IOException {
+        this(Managers.getConcurrent(), DEFAULT_PORT);
+    }
+
+    public HttpTaskServer(TaskManager taskManager, int port) throws IOException { // порт 0 - любой свободный
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.createContext("/tasks", new TasksHandler(taskManager));
+        server.createContext("/subtasks", new SubtasksHandler(taskManager));
+        server.createContext("/epics", new EpicsHandler(taskManager));
+        server.createContext("/history", new HistoryHandler(taskManager));
+        server.createContext("/prioritized", new PrioritizedHandler(taskManager));
+        ExecutorService virtual = newVirtualThreadExecutor();
+        virtualThreads = virtual != null;
+        executor = virtualThreads ? virtual : newThreadPool();
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() { // дождаться запросов в обработке, но не дольше секунды
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    static void raiseIdleConnectionLimit() { // до создания первого сервера; заданное при запуске JVM не меняется
+        if (System.getProperty(MAX_IDLE_CONNECTIONS) == null) {
+            System.setProperty(MAX_IDLE_CONNECTIONS, String.valueOf(BACKLOG));
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() { // через отражение: проект собирается и под Java 17
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newThreadPool() {
+        AtomicInteger number = new AtomicInteger();
+        return Executors.newFixedThreadPool(FALLBACK_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "http-task-server-" + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        raiseIdleConnectionLimit();
+        HttpTaskServer server = new HttpTaskServer();
+        server.start();
+        System.out.println("HTTP-сервер запущен на порту " + server.getPort());
+    }
+
+}
@@ -0,0 +1,75 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import model.Subtask;
+
+import java.io.IOException;
+
+class SubtasksHandler extends BaseHttpHandler { // /subtasks и /subtasks/{id}
+
+    SubtasksHandler(TaskManager taskManager) {
+        super(taskManager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] parts) throws IOException {
+        if (parts.length > 1) {
+            sendNotFound(exchange, "Неизвестный путь " + exchange.getRequestURI().getPath());
+            return;
+        }
+        switch (method) {
+            case "GET":
+                if (parts.length == 0) {
+                    sendJson(exchange, 200, TaskJson.toJson(taskManager.getAllSubtasks()));
+                    return;
+                }
+                Subtask subtask = taskManager.getSubtaskById(parseId(parts[0]));
+                if (subtask == null) {
+                    sendNotFound(exchange, "Подзадача " + parts[0] + " не найдена");
+                } else {
+                    sendJson(exchange, 200, TaskJson.toJson(subtask));
+                }
+                return;
+            case "POST":
+                Subtask received = TaskJson.subtaskFromJson(readBody(exchange));
+                if (parts.length == 1) {
+                    received.setId(parseId(parts[0]));
+                }
+                if (received.getId() == 0) {
+                    taskManager.createSubtask(received);
+                    if (received.getId() == 0) { // подзадачу без эпика менеджер не создаёт
+                        sendNotFound(exchange, "Эпик " + received.getEpicId() + " не найден");
+                    } else {
+                        sendJson(exchange, 201, TaskJson.toJson(received));
+                    }
+                    return;
+                }
+                if (taskManager.snapshot().getEpicById(received.getEpicId()) == null) {
+                    sendNotFound(exchange, "Эпик " + received.getEpicId() + " не найден");
+                    return;
+                }
+                taskManager.updateSubtask(received);
+                Subtask stored = taskManager.snapshot().getSubtaskById(received.getId());
+                if (stored == null) {
+                    sendNotFound(exchange, "Подзадача " + received.getId() + " не найдена");
+                } else if (stored.getEpicId() != received.getEpicId()) { // эпик удалён одновременно с запросом - перенос не выполнен
+                    sendNotFound(exchange, "Эпик " + received.getEpicId() + " не найден");
+                } else {
+                    sendJson(exchange, 201, TaskJson.toJson(stored));
+                }
+                return;
+            case "DELETE":
+                if (parts.length == 0) {
+                    taskManager.deleteAllSubtasks();
+                } else {
+                    taskManager.deleteSubtask(parseId(parts[0]));
+                }
+                sendOk(exchange);
+                return;
+            default:
+                sendMethodNotAllowed(exchange);
+        }
+    }
+
+}
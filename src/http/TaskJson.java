@@ -0,0 +1,389 @@
+package http;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class TaskJson { // задачи в JSON и обратно без сторонних библиотек
+
+    // {"id":1,"type":"SUBTASK","name":"...","description":"...","status":"NEW","startTime":"2025-01-01T10:00",
+    // "duration":"PT30M","endTime":"2025-01-01T10:30","epicId":2}; у эпика вместо epicId - "subtaskIds":[3,4].
+    // Время и продолжительность в ISO-8601. При разборе id необязателен (0 - новая задача), а тип, время
+    // окончания, статус эпика и список его подзадач не читаются: их определяет менеджер.
+
+    private TaskJson() {
+    }
+
+    static String toJson(Task task) {
+        StringBuilder json = new StringBuilder(160);
+        append(json, task);
+        return json.toString();
+    }
+
+    static String toJson(Collection<? extends Task> tasks) {
+        StringBuilder json = new StringBuilder(16 + tasks.size() * 160);
+        json.append('[');
+        boolean first = true;
+        for (Task task : tasks) {
+            if (!first) {
+                json.append(',');
+            }
+            append(json, task);
+            first = false;
+        }
+        return json.append(']').toString();
+    }
+
+    static String error(String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        appendString(json, message);
+        return json.append('}').toString();
+    }
+
+    static Task taskFromJson(String json) {
+        Map<String, Object> fields = new Parser(json).object();
+        Task task = new Task(requiredString(fields, "name"), string(fields, "description"), status(fields),
+                time(fields, "startTime"), duration(fields));
+        task.setId(id(fields));
+        return task;
+    }
+
+    static Epic epicFromJson(String json) {
+        Map<String, Object> fields = new Parser(json).object();
+        Epic epic = new Epic(requiredString(fields, "name"), string(fields, "description"));
+        epic.setId(id(fields));
+        return epic;
+    }
+
+    static Subtask subtaskFromJson(String json) {
+        Map<String, Object> fields = new Parser(json).object();
+        if (!(fields.get("epicId") instanceof Long)) {
+            throw new IllegalArgumentException("Не указан epicId подзадачи");
+        }
+        Subtask subtask = new Subtask(requiredString(fields, "name"), string(fields, "description"), status(fields),
+                toInt(fields.get("epicId"), "epicId"), time(fields, "startTime"), duration(fields));
+        subtask.setId(id(fields));
+        return subtask;
+    }
+
+    // Запись
+    private static void append(StringBuilder json, Task task) {
+        json.append("{\"id\":").append(task.getId());
+        json.append(",\"type\":\"").append(task.getType()).append('"');
+        json.append(",\"name\":");
+        appendString(json, task.getName());
+        json.append(",\"description\":");
+        appendString(json, task.getDescription());
+        json.append(",\"status\":\"").append(task.getStatus()).append('"');
+        json.append(",\"startTime\":");
+        appendValue(json, task.getStartTime());
+        json.append(",\"duration\":");
+        appendValue(json, task.getDuration());
+        json.append(",\"endTime\":");
+        appendValue(json, task.getEndTime());
+        if (task instanceof Subtask) {
+            json.append(",\"epicId\":").append(((Subtask) task).getEpicId());
+        } else if (task instanceof Epic) {
+            json.append(",\"subtaskIds\":").append(((Epic) task).getSubtaskIds().toString().replace(" ", ""));
+        }
+        json.append('}');
+    }
+
+    private static void appendValue(StringBuilder json, Object value) { // время и продолжительность строкой ISO-8601
+        if (value == null) {
+            json.append("null");
+        } else {
+            json.append('"').append(value).append('"');
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    // Поля запроса
+    private static int id(Map<String, Object> fields) {
+        Object id = fields.get("id");
+        return id == null ? 0 : toInt(id, "id");
+    }
+
+    private static String string(Map<String, Object> fields, String name) {
+        Object value = fields.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("Поле " + name + " должно быть строкой");
+        }
+        return (String) value;
+    }
+
+    private static String requiredString(Map<String, Object> fields, String name) {
+        String value = string(fields, name);
+        if (value == null) {
+            throw new IllegalArgumentException("Не указано поле " + name);
+        }
+        return value;
+    }
+
+    private static Status status(Map<String, Object> fields) {
+        String status = string(fields, "status");
+        if (status == null) {
+            return Status.NEW;
+        }
+        try {
+            return Status.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный статус: " + status);
+        }
+    }
+
+    private static LocalDateTime time(Map<String, Object> fields, String name) {
+        String value = string(fields, name);
+        try {
+            return value == null ? null : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Поле " + name + " не в формате ISO-8601: " + value);
+        }
+    }
+
+    private static Duration duration(Map<String, Object> fields) {
+        String value = string(fields, "duration");
+        try {
+            return value == null ? Duration.ZERO : Duration.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Поле duration не в формате ISO-8601: " + value);
+        }
+    }
+
+    private static int toInt(Object value, String name) {
+        if (!(value instanceof Long) || (Long) value != ((Long) value).intValue()) {
+            throw new IllegalArgumentException("Поле " + name + " должно быть целым числом");
+        }
+        return ((Long) value).intValue();
+    }
+
+    private static final class Parser { // разбор одного объекта: строки, целые числа, true/false/null, массивы
+        private final String json;
+        private int position;
+
+        Parser(String json) {
+            this.json = json;
+        }
+
+        Map<String, Object> object() { // весь текст - один объект
+            skipSpaces();
+            Map<String, Object> result = readObject();
+            skipSpaces();
+            if (position != json.length()) {
+                throw error("лишние символы после объекта");
+            }
+            return result;
+        }
+
+        private Object readValue() {
+            skipSpaces();
+            if (position == json.length()) {
+                throw error("неожиданный конец");
+            }
+            char c = json.charAt(position);
+            if (c == '{') {
+                return readObject();
+            }
+            if (c == '[') {
+                return readArray();
+            }
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '-' || c >= '0' && c <= '9') {
+                return readNumber();
+            }
+            if (json.startsWith("true", position)) {
+                position += 4;
+                return Boolean.TRUE;
+            }
+            if (json.startsWith("false", position)) {
+                position += 5;
+                return Boolean.FALSE;
+            }
+            if (json.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+            throw error("неожиданный символ '" + c + "'");
+        }
+
+        private Map<String, Object> readObject() {
+            expect('{');
+            Map<String, Object> result = new LinkedHashMap<>();
+            skipSpaces();
+            if (peek() == '}') {
+                position++;
+                return result;
+            }
+            while (true) {
+                skipSpaces();
+                String key = readString();
+                skipSpaces();
+                expect(':');
+                result.put(key, readValue());
+                skipSpaces();
+                if (peek() == ',') {
+                    position++;
+                } else {
+                    expect('}');
+                    return result;
+                }
+            }
+        }
+
+        private List<Object> readArray() {
+            expect('[');
+            List<Object> result = new ArrayList<>();
+            skipSpaces();
+            if (peek() == ']') {
+                position++;
+                return result;
+            }
+            while (true) {
+                result.add(readValue());
+                skipSpaces();
+                if (peek() == ',') {
+                    position++;
+                } else {
+                    expect(']');
+                    return result;
+                }
+            }
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder result = new StringBuilder();
+            while (position < json.length()) {
+                char c = json.charAt(position++);
+                if (c == '"') {
+                    return result.toString();
+                }
+                if (c != '\\') {
+                    result.append(c);
+                    continue;
+                }
+                if (position == json.length()) {
+                    break;
+                }
+                char escaped = json.charAt(position++);
+                switch (escaped) {
+                    case 'n':
+                        result.append('\n');
+                        break;
+                    case 'r':
+                        result.append('\r');
+                        break;
+                    case 't':
+                        result.append('\t');
+                        break;
+                    case 'b':
+                        result.append('\b');
+                        break;
+                    case 'f':
+                        result.append('\f');
+                        break;
+                    case 'u':
+                        if (position + 4 > json.length()) {
+                            throw error("неполная escape-последовательность");
+                        }
+                        try {
+                            result.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("неверная escape-последовательность");
+                        }
+                        position += 4;
+                        break;
+                    default:
+                        result.append(escaped); // \" \\ \/
+                }
+            }
+            throw error("незакрытая строка");
+        }
+
+        private Long readNumber() { // поля задач - целые числа
+            int start = position;
+            if (peek() == '-') {
+                position++;
+            }
+            while (position < json.length() && Character.isDigit(json.charAt(position))) {
+                position++;
+            }
+            if (position < json.length() && ".eE".indexOf(json.charAt(position)) >= 0) {
+                throw error("ожидалось целое число");
+            }
+            try {
+                return Long.parseLong(json.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("неверное число");
+            }
+        }
+
+        private void expect(char expected) {
+            if (peek() != expected) {
+                throw error("ожидался '" + expected + "'");
+            }
+            position++;
+        }
+
+        private char peek() {
+            return position < json.length() ? json.charAt(position) : 0;
+        }
+
+        private void skipSpaces() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Некорректный JSON в позиции " + position + ": " + message);
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import model.Task;
+
+import java.io.IOException;
+
+class TasksHandler extends BaseHttpHandler { // /tasks и /tasks/{id}
+
+    TasksHandler(TaskManager taskManager) {
+        super(taskManager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] parts) throws IOException {
+        if (parts.length > 1) {
+            sendNotFound(exchange, "Неизвестный путь " + exchange.getRequestURI().getPath());
+            return;
+        }
+        switch (method) {
+            case "GET":
+                if (parts.length == 0) {
+                    sendJson(exchange, 200, TaskJson.toJson(taskManager.getAllTasks()));
+                    return;
+                }
+                Task task = taskManager.getTaskById(parseId(parts[0]));
+                if (task == null) {
+                    sendNotFound(exchange, "Задача " + parts[0] + " не найдена");
+                } else {
+                    sendJson(exchange, 200, TaskJson.toJson(task));
+                }
+                return;
+            case "POST":
+                Task received = TaskJson.taskFromJson(readBody(exchange));
+                if (parts.length == 1) {
+                    received.setId(parseId(parts[0]));
+                }
+                if (received.getId() == 0) {
+                    taskManager.createTask(received);
+                    sendJson(exchange, 201, TaskJson.toJson(received));
+                    return;
+                }
+                taskManager.updateTask(received); // отсутствующую задачу менеджер не меняет
+                Task stored = taskManager.snapshot().getTaskById(received.getId());
+                if (stored == null) {
+                    sendNotFound(exchange, "Задача " + received.getId() + " не найдена");
+                } else {
+                    sendJson(exchange, 201, TaskJson.toJson(stored));
+                }
+                return;
+            case "DELETE":
+                if (parts.length == 0) {
+                    taskManager.deleteAllTasks();
+                } else {
+                    taskManager.deleteTask(parseId(parts[0]));
+                }
+                sendOk(exchange);
+                return;
+            default:
+                sendMethodNotAllowed(exchange);
+        }
+    }
+
+}
@@ -0,0 +1,350 @@
+package manager;
+
+import model.*;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+public class BinaryTaskFormat { // двоичный снимок: сигнатура, версия, записи задач и байт конца
+
+    // Запись: тип (1 байт), id (varint), статус (1 байт), флаги (1 байт), название и описание
+    // (varint длины + 1, 0 - null, затем UTF-8), начало (zigzag varint минут от эпохи UTC или секунд и нано
+    // при флаге PRECISE), продолжительность в минутах (zigzag varint), id эпика у подзадачи (varint).
+    // Тип и статус хранятся порядковыми номерами: изменение порядка в enum требует новой версии формата.
+    static final byte[] MAGIC = {'K', 'B', 'A', 'N'};
+    static final byte VERSION = 1;
+
+    private static final byte END = 0;
+    private static final int HAS_START = 1;
+    private static final int PRECISE_START = 2;
+    private static final int HAS_DURATION = 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    static SnapshotWriter writer(WritableByteChannel channel) throws IOException {
+        Output out = new Output(channel);
+        out.ensure(MAGIC.length + 1);
+        out.buffer.put(MAGIC).put(VERSION);
+        return new SnapshotWriter() {
+            @Override
+            public void write(Task task) throws IOException {
+                out.writeTask(task);
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.ensure(1);
+                out.buffer.put(END);
+                out.drain();
+            }
+        };
+    }
+
+    static void read(File file, Consumer<Task> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            in.require(MAGIC.length + 1);
+            readHeader(in.buffer);
+            while (true) {
+                in.require(1);
+                int type = in.buffer.get();
+                if (type == END) {
+                    return;
+                }
+                consumer.accept(in.readTask(type));
+            }
+        }
+    }
+
+    private static final class Output {
+        final WritableByteChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        Output(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void writeTask(Task task) throws IOException {
+            LocalDateTime start = task.getStartTime();
+            boolean precise = start != null && (start.getSecond() != 0 || start.getNano() != 0);
+            int flags = (start != null ? HAS_START : 0) | (precise ? PRECISE_START : 0)
+                    | (task.getDuration() != null ? HAS_DURATION : 0);
+
+            ensure(64); // все поля, кроме строк, занимают меньше
+            buffer.put((byte) (task.getType().ordinal() + 1));
+            putVarLong(task.getId() & 0xFFFFFFFFL);
+            buffer.put((byte) task.getStatus().ordinal());
+            buffer.put((byte) flags);
+            writeString(task.getName());
+            writeString(task.getDescription());
+            ensure(64);
+            if (start != null) {
+                long seconds = start.toEpochSecond(ZoneOffset.UTC);
+                if (precise) {
+                    putVarLong(zigzag(seconds));
+                    putVarLong(start.getNano());
+                } else {
+                    putVarLong(zigzag(seconds / 60));
+                }
+            }
+            if (task.getDuration() != null) {
+                putVarLong(zigzag(task.getDuration().toMinutes()));
+            }
+            if (task instanceof Subtask) {
+                putVarLong(((Subtask) task).getEpicId() & 0xFFFFFFFFL);
+            }
+        }
+
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                ensure(1);
+                buffer.put((byte) 0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(10);
+            putVarLong(bytes.length + 1L);
+            if (bytes.length > buffer.capacity()) { // длинная строка пишется мимо буфера
+                drain();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+                return;
+            }
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void putVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+        }
+
+        void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    static int readHeader(ByteBuffer buffer) throws IOException { // проверить сигнатуру и версию, вернуть начало записей
+        Input in = new Input(buffer);
+        in.require(MAGIC.length + 1);
+        for (byte b : MAGIC) {
+            if (buffer.get() != b) {
+                throw new IOException("Файл не является двоичным снимком");
+            }
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия снимка " + version);
+        }
+        return buffer.position();
+    }
+
+    static Task decode(ByteBuffer buffer) throws IOException { // разобрать запись с текущей позиции буфера
+        Input in = new Input(buffer);
+        in.require(1);
+        return in.readTask(buffer.get());
+    }
+
+    static boolean scan(ByteBuffer buffer, RecordInfo info) throws IOException { // поля для индекса без разбора строк
+        Input in = new Input(buffer);
+        in.require(1);
+        int typeCode = buffer.get();
+        if (typeCode == END) {
+            return false;
+        }
+        if (typeCode < 1 || typeCode > TYPES.length) {
+            throw new IOException("Неизвестный тип задачи в снимке: " + typeCode);
+        }
+        info.type = TYPES[typeCode - 1];
+        info.id = (int) in.readVarLong();
+        in.require(2);
+        buffer.get();
+        int flags = buffer.get();
+        in.skipString();
+        in.skipString();
+        info.timed = (flags & HAS_START) != 0;
+        if ((flags & PRECISE_START) != 0) {
+            info.startSecond = unzigzag(in.readVarLong());
+            info.startNano = (int) in.readVarLong();
+        } else if (info.timed) {
+            info.startSecond = unzigzag(in.readVarLong()) * 60;
+            info.startNano = 0;
+        }
+        if ((flags & HAS_DURATION) != 0) {
+            in.readVarLong();
+        }
+        info.epicId = info.type == TaskType.SUBTASK ? (int) in.readVarLong() : 0;
+        return true;
+    }
+
+    static final class RecordInfo { // поля записи, нужные для индекса
+        TaskType type;
+        int id;
+        boolean timed;
+        long startSecond; // секунды от эпохи UTC
+        int startNano;
+        int epicId;
+    }
+
+    private static final class Input {
+        final FileChannel channel; // null - все данные уже в буфере
+        final ByteBuffer buffer;
+
+        Input(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.flip(); // пустой буфер в режиме чтения
+        }
+
+        Input(ByteBuffer buffer) {
+            this.channel = null;
+            this.buffer = buffer;
+        }
+
+        Task readTask(int typeCode) throws IOException {
+            if (typeCode < 1 || typeCode > TYPES.length) {
+                throw new IOException("Неизвестный тип задачи в снимке: " + typeCode);
+            }
+            TaskType type = TYPES[typeCode - 1];
+            int id = (int) readVarLong();
+            require(2);
+            int statusCode = buffer.get();
+            int flags = buffer.get();
+            if (statusCode < 0 || statusCode >= STATUSES.length) {
+                throw new IOException("Неизвестный статус в снимке: " + statusCode);
+            }
+            Status status = STATUSES[statusCode];
+            String name = readString();
+            String description = readString();
+
+            LocalDateTime startTime = null;
+            if ((flags & PRECISE_START) != 0) {
+                long seconds = unzigzag(readVarLong());
+                startTime = LocalDateTime.ofEpochSecond(seconds, (int) readVarLong(), ZoneOffset.UTC);
+            } else if ((flags & HAS_START) != 0) {
+                startTime = LocalDateTime.ofEpochSecond(unzigzag(readVarLong()) * 60, 0, ZoneOffset.UTC);
+            }
+            Duration duration = (flags & HAS_DURATION) != 0 ? Duration.ofMinutes(unzigzag(readVarLong())) : null;
+
+            switch (type) {
+                case TASK:
+                    Task task = new Task(name, description, status, startTime, duration);
+                    task.setId(id);
+                    return task;
+                case EPIC:
+                    Epic epic = new Epic(name, description);
+                    epic.setId(id);
+                    epic.setStatus(status);
+                    return epic;
+                default:
+                    Subtask subtask = new Subtask(name, description, status, (int) readVarLong(), startTime, duration);
+                    subtask.setId(id);
+                    return subtask;
+            }
+        }
+
+        String readString() throws IOException {
+            long length = readVarLong() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Слишком длинная строка в снимке: " + length);
+            }
+            int size = (int) length;
+            if (size <= buffer.capacity() && buffer.hasArray()) {
+                require(size);
+                String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), size,
+                        StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + size);
+                return value;
+            }
+            byte[] bytes = new byte[size]; // строка длиннее буфера или буфер отображён на файл
+            int copied = Math.min(buffer.remaining(), size);
+            buffer.get(bytes, 0, copied);
+            ByteBuffer wrapped = ByteBuffer.wrap(bytes, copied, size - copied);
+            while (wrapped.hasRemaining()) {
+                if (channel == null || channel.read(wrapped) < 0) {
+                    throw new EOFException("Снимок оборван посреди строки");
+                }
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        void skipString() throws IOException {
+            long size = readVarLong() - 1;
+            if (size <= 0) {
+                return;
+            }
+            if (channel != null || size > buffer.remaining()) {
+                throw new EOFException("Снимок оборван посреди строки");
+            }
+            buffer.position(buffer.position() + (int) size);
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                require(1);
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Неверное число в снимке");
+        }
+
+        void require(int bytes) throws IOException { // дочитать в буфер не меньше bytes байт
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            if (channel == null) {
+                throw new EOFException("Снимок оборван");
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Снимок оборван");
+                }
+            }
+            buffer.flip();
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
@@ -2,36 +2,117 @@ package manager;
 
 import model.*;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
 
 public class CSVTaskFormat {
 
+    static final String HEADER = "id,type,name,status,description,startTime,duration,epic";
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    static SnapshotWriter writer(WritableByteChannel channel) throws IOException { // снимок CSV с заголовком
+        Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 1 << 16);
+        writer.write(HEADER + "\n");
+        StringBuilder line = new StringBuilder(128); // один буфер на все строки снимка
+        return new SnapshotWriter() {
+            @Override
+            public void write(Task task) throws IOException {
+                line.setLength(0);
+                appendTo(line, task).append('\n');
+                writer.append(line);
+            }
+
+            @Override
+            public void close() throws IOException { // close у Writer закрыл бы и канал
+                writer.flush();
+            }
+        };
+    }
+
+    static void read(File file, Consumer<Task> consumer) throws IOException { // прочитать снимок CSV по записям
+        // В памяти только текущая запись, а не всё содержимое файла. Записи разделяются только '\n' вне кавычек:
+        // readLine разбивал бы и по одиночному '\r', и '\r' внутри поля в кавычках терялся бы
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            reader.readLine(); // заголовок
+            StringBuilder record = new StringBuilder(128);
+            char[] buffer = new char[1 << 13];
+            boolean quoted = false; // внутри поля в кавычках
+            int length;
+            while ((length = reader.read(buffer)) != -1) {
+                int start = 0;
+                for (int i = 0; i < length; i++) {
+                    char c = buffer[i];
+                    if (c == '"') {
+                        quoted = !quoted;
+                    } else if (c == '\n' && !quoted) {
+                        record.append(buffer, start, i - start);
+                        accept(record, consumer);
+                        start = i + 1;
+                    }
+                }
+                record.append(buffer, start, length - start);
+            }
+            if (quoted) {
+                fromString(record); // незакрытые кавычки в конце файла - ошибка разбора
+            }
+            accept(record, consumer); // последняя запись без перевода строки
+        }
+    }
+
+    private static void accept(StringBuilder record, Consumer<Task> consumer) {
+        String text = record.toString();
+        if (!text.isBlank()) {
+            consumer.accept(fromString(text.trim())); // trim убирает '\r' от окончаний строк CRLF
+        }
+        record.setLength(0);
+    }
+
     public static String toString(Task task) { // преобразовать задачу в строку CSV
+        return appendTo(new StringBuilder(), task).toString();
+    }
+
+    public static StringBuilder appendTo(StringBuilder out, Task task) { // дописать строку CSV в переиспользуемый буфер
+        out.append(task.getId()).append(',')
+                .append(task.getType().name()).append(',');
+        appendText(out, task.getName()).append(',')
+                .append(task.getStatus().name()).append(',');
+        appendText(out, task.getDescription()).append(',');
+        if (task.getStartTime() != null) {
+            appendDateTime(out, task.getStartTime());
+        }
+        out.append(',');
+        if (task.getDuration() != null) {
+            out.append(task.getDuration().toMinutes());
+        }
+        out.append(',');
+        if (task instanceof Subtask) {
+            out.append(((Subtask) task).getEpicId());
+        }
+        return out;
+    }
 
-        return new StringBuilder()
-                .append(task.getId()).append(',')
-                .append(task.getType().name()).append(',')
-                .append(task.getName()).append(',')
-                .append(task.getStatus().name()).append(',')
-                .append(task.getDescription()).append(',')
-                .append(task.getStartTime() != null ? task.getStartTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : "").append(',')
-                .append(task.getDuration() != null ? task.getDuration().toMinutes() : "").append(',')
-                .append(task instanceof Subtask ? ((Subtask) task).getEpicId() : "")
-                .toString();
-    }
-
-    public static Task fromString(String value) {
-        String[] fields = value.split(",");
-        int id = Integer.parseInt(fields[0]);
-        TaskType type = TaskType.valueOf(fields[1]);
-        String name = fields[2];
-        Status status = Status.valueOf(fields[3]);
-        String description = fields[4];
-
-        LocalDateTime startTime = !fields[5].isEmpty() ? LocalDateTime.parse(fields[5], DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
-        Duration duration = !fields[6].isEmpty() ? Duration.ofMinutes(Long.parseLong(fields[6])) : null;
+    public static Task fromString(CharSequence value) {
+        Parser parser = new Parser(value);
+        int id = parser.nextInt();
+        TaskType type = parser.nextEnum(TYPES);
+        String name = parser.nextText();
+        Status status = parser.nextEnum(STATUSES);
+        String description = parser.nextText();
+        LocalDateTime startTime = parser.nextDateTime();
+        Duration duration = parser.nextDuration();
 
         switch (type) {
             case TASK:
@@ -44,7 +125,7 @@ public class CSVTaskFormat {
                 epic.setStatus(status);
                 return epic;
             case SUBTASK:
-                int epicId = Integer.parseInt(fields[7]);
+                int epicId = parser.nextInt();
                 Subtask subtask = new Subtask(name, description, status, epicId, startTime, duration);
                 subtask.setId(id);
                 return subtask;
@@ -53,4 +134,185 @@ public class CSVTaskFormat {
         }
     }
 
+    static boolean isComplete(CharSequence record) { // нет незакрытых кавычек - запись не продолжается на новой строке
+        int quotes = 0;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 == 0;
+    }
+
+    // Поле в кавычках, если в нём есть , " или перевод строки. null записывается пустым полем, как и пустая
+    // строка, и читается как пустая строка: формат снимка их не различает
+    private static StringBuilder appendText(StringBuilder out, String text) {
+        if (text == null) {
+            return out;
+        }
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return out.append(text);
+        }
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        return out.append('"');
+    }
+
+    private static void appendDateTime(StringBuilder out, LocalDateTime time) { // yyyy-MM-ddTHH:mm:ss без форматтера
+        if (time.getYear() < 0 || time.getYear() > 9999 || time.getNano() != 0) {
+            out.append(time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        appendDigits(out, time.getYear(), 4).append('-');
+        appendDigits(out, time.getMonthValue(), 2).append('-');
+        appendDigits(out, time.getDayOfMonth(), 2).append('T');
+        appendDigits(out, time.getHour(), 2).append(':');
+        appendDigits(out, time.getMinute(), 2).append(':');
+        appendDigits(out, time.getSecond(), 2);
+    }
+
+    private static StringBuilder appendDigits(StringBuilder out, int value, int width) {
+        for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+        return out;
+    }
+
+    private static final class Parser { // разбор полей строки по месту, без split и промежуточных строк
+        private final CharSequence line;
+        private int pos;
+
+        Parser(CharSequence line) {
+            this.line = line;
+        }
+
+        private int fieldEnd() { // конец поля без кавычек
+            int end = pos;
+            while (end < line.length() && line.charAt(end) != ',') {
+                end++;
+            }
+            return end;
+        }
+
+        private void skipSeparator(int end) {
+            pos = end < line.length() ? end + 1 : end;
+        }
+
+        int nextInt() {
+            long value = nextLong();
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Число вне диапазона int: " + value);
+            }
+            return (int) value;
+        }
+
+        long nextLong() {
+            int end = fieldEnd();
+            long value = parseLong(pos, end);
+            skipSeparator(end);
+            return value;
+        }
+
+        private long parseLong(int from, int to) {
+            boolean negative = from < to && line.charAt(from) == '-';
+            int i = negative ? from + 1 : from;
+            if (i == to) {
+                throw new NumberFormatException("Пустое число в строке: " + line);
+            }
+            long value = 0;
+            for (; i < to; i++) {
+                int digit = line.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException("Неверное число в строке: " + line);
+                }
+                value = value * 10 + digit;
+            }
+            return negative ? -value : value;
+        }
+
+        <E extends Enum<E>> E nextEnum(E[] values) {
+            int end = fieldEnd();
+            for (E value : values) {
+                if (regionEquals(pos, end, value.name())) {
+                    skipSeparator(end);
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестное значение " + line.subSequence(pos, end)
+                    + " в строке: " + line);
+        }
+
+        private boolean regionEquals(int from, int to, String name) {
+            if (to - from != name.length()) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (line.charAt(from + i) != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        String nextText() {
+            if (pos >= line.length() || line.charAt(pos) != '"') {
+                int end = fieldEnd();
+                String text = line.subSequence(pos, end).toString();
+                skipSeparator(end);
+                return text;
+            }
+            StringBuilder text = new StringBuilder();
+            int i = pos + 1;
+            while (true) {
+                if (i >= line.length()) {
+                    throw new IllegalArgumentException("Незакрытые кавычки в строке: " + line);
+                }
+                char c = line.charAt(i++);
+                if (c == '"') {
+                    if (i < line.length() && line.charAt(i) == '"') {
+                        i++; // "" внутри кавычек - сама кавычка
+                    } else {
+                        break;
+                    }
+                }
+                text.append(c);
+            }
+            skipSeparator(i);
+            return text.toString();
+        }
+
+        LocalDateTime nextDateTime() {
+            int end = fieldEnd();
+            LocalDateTime time = null;
+            if (end - pos == 19 && line.charAt(pos + 4) == '-' && line.charAt(pos + 7) == '-'
+                    && line.charAt(pos + 10) == 'T' && line.charAt(pos + 13) == ':' && line.charAt(pos + 16) == ':') {
+                time = LocalDateTime.of((int) parseLong(pos, pos + 4), (int) parseLong(pos + 5, pos + 7),
+                        (int) parseLong(pos + 8, pos + 10), (int) parseLong(pos + 11, pos + 13),
+                        (int) parseLong(pos + 14, pos + 16), (int) parseLong(pos + 17, pos + 19));
+            } else if (end > pos) { // редкие форматы: доли секунды, год вне 0000-9999
+                time = LocalDateTime.parse(line.subSequence(pos, end), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            }
+            skipSeparator(end);
+            return time;
+        }
+
+        Duration nextDuration() {
+            int end = fieldEnd();
+            Duration duration = end > pos ? Duration.ofMinutes(parseLong(pos, end)) : null;
+            skipSeparator(end);
+            return duration;
+        }
+    }
+
 }
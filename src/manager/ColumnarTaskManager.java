@@ -0,0 +1,323 @@
+package manager;
+
+import model.Status;
+import model.TaskType;
+import util.IntObjectMap;
+import util.StringPool;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+public class ColumnarTaskManager extends RecordTaskManager { // задачи в параллельных массивах примитивов, объекты создаются при чтении
+
+    // Строка - задача, эпик или подзадача, строки идут в порядке создания. Удалённая строка помечается FREE,
+    // живые строки уплотняются, когда удалённых становится больше живых или кончается место.
+    // Время хранится в минутах от 1970-01-01 без часового пояса; значения, не кратные минуте, лежат целиком
+    // в exactStarts/exactDurations, чтобы точность не терялась.
+    private static final byte FREE = -1;
+    private static final int MIN_CAPACITY = 16;
+    private static final byte EXACT_START = 1;
+    private static final byte EXACT_DURATION = 2;
+    private static final byte NO_START = 4;
+    private static final byte NO_DURATION = 8;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private int[] rowById = new int[MIN_CAPACITY]; // строка + 1, 0 - задачи нет
+
+    // Колонки
+    private int[] ids;
+    private byte[] types; // TaskType.ordinal() или FREE
+    private byte[] statuses;
+    private byte[] flags;
+    private long[] startMinutes; // для EXACT_START - минута, в которую попадает начало
+    private int[] durationMinutes;
+    private int[] names; // ссылки в пул строк
+    private int[] descriptions;
+    private int[] epicIds; // эпик подзадачи
+    private int[] nextIds;
+    private int[] previousIds;
+
+    private int used; // занятые строки, включая удалённые
+    private int size;
+    private final StringPool strings = new StringPool();
+    private final IntObjectMap<LocalDateTime> exactStarts = new IntObjectMap<>(); // по id
+    private final IntObjectMap<Duration> exactDurations = new IntObjectMap<>();
+    private final IntObjectMap<int[]> epicCounts = new IntObjectMap<>(); // id эпика -> число подзадач по статусам
+
+    public ColumnarTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public ColumnarTaskManager(HistoryManager historyManager) {
+        super(historyManager);
+        allocate(MIN_CAPACITY);
+    }
+
+    @Override
+    protected int row(int id) {
+        return id > 0 && id < rowById.length ? rowById[id] - 1 : -1;
+    }
+
+    @Override
+    protected int append(int id, TaskType type) { // новая строка в конце
+        if (used == ids.length) {
+            allocate(size * 2 > ids.length ? ids.length * 2 : ids.length); // рост или только уплотнение
+        }
+        if (id >= rowById.length) {
+            rowById = Arrays.copyOf(rowById, Math.max(id + 1, rowById.length * 2));
+        }
+        int row = used++;
+        rowById[id] = row + 1;
+        ids[row] = id;
+        types[row] = (byte) type.ordinal();
+        statuses[row] = (byte) Status.NEW.ordinal();
+        flags[row] = NO_START | NO_DURATION;
+        names[row] = StringPool.NULL;
+        descriptions[row] = StringPool.NULL;
+        epicIds[row] = NONE;
+        nextIds[row] = NONE;
+        previousIds[row] = NONE;
+        if (type == TaskType.EPIC) {
+            epicCounts.put(id, new int[STATUSES.length]);
+        }
+        size++;
+        return row;
+    }
+
+    @Override
+    protected void free(int row) {
+        int id = ids[row];
+        exactStarts.remove(id);
+        exactDurations.remove(id);
+        epicCounts.remove(id);
+        strings.release(names[row]);
+        strings.release(descriptions[row]);
+        types[row] = FREE;
+        rowById[id] = 0;
+        size--;
+    }
+
+    @Override
+    protected void compact() { // удалённых строк больше живых - уплотнить, чтобы проход не шёл по пустым
+        if (used - size > size && ids.length > MIN_CAPACITY) {
+            allocate(Math.max(MIN_CAPACITY, size * 2));
+        }
+    }
+
+    @Override
+    protected IntStream rows(TaskType type) {
+        byte code = (byte) type.ordinal();
+        return IntStream.range(0, used).filter(row -> types[row] == code);
+    }
+
+    @Override
+    protected IntStream rows(TaskType type, Status status) { // проход по колонкам типа и статуса
+        byte code = (byte) status.ordinal();
+        return rows(type).filter(row -> statuses[row] == code);
+    }
+
+    @Override
+    protected int id(int row) {
+        return ids[row];
+    }
+
+    @Override
+    protected TaskType type(int row) {
+        return TYPES[types[row]];
+    }
+
+    @Override
+    protected Status status(int row) {
+        return STATUSES[statuses[row]];
+    }
+
+    @Override
+    protected void setStatus(int row, Status status) {
+        statuses[row] = (byte) status.ordinal();
+    }
+
+    @Override
+    protected String name(int row) {
+        return strings.get(names[row]);
+    }
+
+    @Override
+    protected String description(int row) {
+        return strings.get(descriptions[row]);
+    }
+
+    @Override
+    protected void setText(int row, String name, String description) { // новая строка берётся из пула до освобождения старой
+        int nameRef = strings.acquire(name);
+        int descriptionRef = strings.acquire(description);
+        strings.release(names[row]);
+        strings.release(descriptions[row]);
+        names[row] = nameRef;
+        descriptions[row] = descriptionRef;
+    }
+
+    @Override
+    protected LocalDateTime start(int row) {
+        if ((flags[row] & NO_START) != 0) {
+            return null;
+        }
+        if ((flags[row] & EXACT_START) != 0) {
+            return exactStarts.get(ids[row]);
+        }
+        return LocalDateTime.ofEpochSecond(startMinutes[row] * 60, 0, ZoneOffset.UTC);
+    }
+
+    @Override
+    protected Duration duration(int row) {
+        if ((flags[row] & NO_DURATION) != 0) {
+            return null;
+        }
+        if ((flags[row] & EXACT_DURATION) != 0) {
+            return exactDurations.get(ids[row]);
+        }
+        return Duration.ofMinutes(durationMinutes[row]);
+    }
+
+    @Override
+    protected void setTime(int row, LocalDateTime start, Duration duration) {
+        int id = ids[row];
+        byte flag = 0;
+        exactStarts.remove(id);
+        exactDurations.remove(id);
+        if (start == null) {
+            flag |= NO_START;
+            startMinutes[row] = 0;
+        } else {
+            long seconds = start.toEpochSecond(ZoneOffset.UTC);
+            startMinutes[row] = Math.floorDiv(seconds, 60);
+            if (Math.floorMod(seconds, 60) != 0 || start.getNano() != 0) {
+                flag |= EXACT_START;
+                exactStarts.put(id, start);
+            }
+        }
+        if (duration == null) {
+            flag |= NO_DURATION;
+            durationMinutes[row] = 0;
+        } else {
+            long minutes = duration.toMinutes();
+            if (minutes == (int) minutes && duration.toSecondsPart() == 0 && duration.toNanosPart() == 0) {
+                durationMinutes[row] = (int) minutes;
+            } else {
+                flag |= EXACT_DURATION;
+                exactDurations.put(id, duration);
+            }
+        }
+        flags[row] = flag;
+    }
+
+    @Override
+    protected int compareStart(int first, int second) { // минута из колонки, доли минуты - только у точных значений
+        int order = Long.compare(startMinutes[first], startMinutes[second]);
+        return order != 0 ? order : Long.compare(nanoOfMinute(first), nanoOfMinute(second));
+    }
+
+    @Override
+    protected int compareStart(int row, LocalDateTime time) {
+        long minute = Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+        int order = Long.compare(startMinutes[row], minute);
+        return order != 0 ? order : Long.compare(nanoOfMinute(row), nanoOfMinute(time));
+    }
+
+    private long nanoOfMinute(int row) {
+        return (flags[row] & EXACT_START) != 0 ? nanoOfMinute(exactStarts.get(ids[row])) : 0;
+    }
+
+    private static long nanoOfMinute(LocalDateTime time) {
+        return Math.floorMod(time.toEpochSecond(ZoneOffset.UTC), 60) * 1_000_000_000L + time.getNano();
+    }
+
+    @Override
+    protected int epicId(int row) {
+        return epicIds[row];
+    }
+
+    @Override
+    protected void setEpicId(int row, int epicId) {
+        epicIds[row] = epicId;
+    }
+
+    @Override
+    protected int next(int row) {
+        return nextIds[row];
+    }
+
+    @Override
+    protected void setNext(int row, int id) {
+        nextIds[row] = id;
+    }
+
+    @Override
+    protected int previous(int row) {
+        return previousIds[row];
+    }
+
+    @Override
+    protected void setPrevious(int row, int id) {
+        previousIds[row] = id;
+    }
+
+    @Override
+    protected int subtaskCount(int epicRow, Status status) {
+        return epicCounts.get(ids[epicRow])[status.ordinal()];
+    }
+
+    @Override
+    protected void addSubtaskCount(int epicRow, Status status, int delta) {
+        epicCounts.get(ids[epicRow])[status.ordinal()] += delta;
+    }
+
+    private void allocate(int capacity) { // новые колонки на capacity строк, живые строки переносятся по порядку
+        int[] oldIds = ids;
+        byte[] oldTypes = types;
+        byte[] oldStatuses = statuses;
+        byte[] oldFlags = flags;
+        long[] oldStartMinutes = startMinutes;
+        int[] oldDurationMinutes = durationMinutes;
+        int[] oldNames = names;
+        int[] oldDescriptions = descriptions;
+        int[] oldEpicIds = epicIds;
+        int[] oldNextIds = nextIds;
+        int[] oldPreviousIds = previousIds;
+        int oldUsed = used;
+        ids = new int[capacity];
+        types = new byte[capacity];
+        statuses = new byte[capacity];
+        flags = new byte[capacity];
+        startMinutes = new long[capacity];
+        durationMinutes = new int[capacity];
+        names = new int[capacity];
+        descriptions = new int[capacity];
+        epicIds = new int[capacity];
+        nextIds = new int[capacity];
+        previousIds = new int[capacity];
+        used = 0;
+        for (int row = 0; row < oldUsed; row++) {
+            if (oldTypes[row] == FREE) {
+                continue;
+            }
+            ids[used] = oldIds[row];
+            types[used] = oldTypes[row];
+            statuses[used] = oldStatuses[row];
+            flags[used] = oldFlags[row];
+            startMinutes[used] = oldStartMinutes[row];
+            durationMinutes[used] = oldDurationMinutes[row];
+            names[used] = oldNames[row];
+            descriptions[used] = oldDescriptions[row];
+            epicIds[used] = oldEpicIds[row];
+            nextIds[used] = oldNextIds[row];
+            previousIds[used] = oldPreviousIds[row];
+            rowById[ids[used]] = used + 1; // связи и порядок по времени хранят id, их переносить не нужно
+            used++;
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package manager;
+
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentHistoryManager implements HistoryManager { // история просмотров без общей блокировки
+
+    private static final class View { // один просмотр задачи
+        final Task task;
+
+        View(Task task) {
+            this.task = task;
+        }
+    }
+
+    // Просмотры дописываются в конец очереди. Устаревший просмотр остаётся в очереди, пока его не уберёт сжатие:
+    // актуален только тот, на который указывает lastViews.
+    private final ConcurrentHashMap<Integer, View> lastViews = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<View> views = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger stale = new AtomicInteger(); // сколько просмотров устарело с последнего сжатия
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final int capacity;
+
+    public ConcurrentHistoryManager() { // история без ограничения размера
+        this(Integer.MAX_VALUE);
+    }
+
+    public ConcurrentHistoryManager(int capacity) { // при переполнении вытесняются самые давние просмотры
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void add(Task task) { // добавление истории
+        if (task == null) return;
+        View view = new View(task);
+        lastViews.compute(task.getId(), (id, previous) -> { // порядок в очереди совпадает с порядком замен для id
+            views.offer(view);
+            if (previous != null) {
+                stale.incrementAndGet();
+            }
+            return view;
+        });
+        while (lastViews.size() > capacity) {
+            View oldest = views.poll();
+            if (oldest == null) {
+                break;
+            }
+            if (!lastViews.remove(oldest.task.getId(), oldest)) { // устаревший просмотр просто выбрасывается
+                stale.updateAndGet(count -> count > 0 ? count - 1 : 0); // сжатие могло уже обнулить счётчик
+            }
+        }
+        compactIfNeeded();
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        return collect(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) { // страница истории от самых давних просмотров
+        HistoryManager.checkPage(offset, limit);
+        return collect(offset, limit);
+    }
+
+    @Override
+    public void remove(int id) {
+        if (lastViews.remove(id) != null) {
+            stale.incrementAndGet();
+            compactIfNeeded();
+        }
+    }
+
+    int staleViews() { // устаревшие просмотры, ещё лежащие в очереди
+        return stale.get();
+    }
+
+    private boolean isActual(View view) {
+        return lastViews.get(view.task.getId()) == view;
+    }
+
+    private void compactIfNeeded() { // убрать устаревшие просмотры, когда их больше, чем актуальных
+        if (stale.get() <= lastViews.size() + 64 || !compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            stale.set(0);
+            Iterator<View> iterator = views.iterator();
+            while (iterator.hasNext()) {
+                if (!isActual(iterator.next())) { // устаревший просмотр больше не станет актуальным
+                    iterator.remove();
+                }
+            }
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private ArrayList<Task> collect(int offset, int limit) {
+        // Обход идёт параллельно с изменениями и может встретить задачу дважды - остаётся первый просмотр
+        ArrayList<Task> result = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        int skipped = 0;
+        for (View view : views) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (!isActual(view) || !seen.add(view.task.getId())) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(view.task);
+            }
+        }
+        return result;
+    }
+
+}
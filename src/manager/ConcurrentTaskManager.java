@@ -0,0 +1,720 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.SubtaskTotals;
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+public class ConcurrentTaskManager implements TaskManager { // менеджер задач для одновременной работы многих потоков
+
+    // Задачи, подзадачи и эпики хранятся неизменяемыми и отдаются без копирования, как в InMemoryTaskManager:
+    // вклады подзадач эпика ведёт его EpicState, и при их изменении эпик заменяется новым значением.
+    // Порядок блокировок: полоса задачи или EpicState -> индекс интервалов -> publishLock. Индекс интервалов
+    // блокируется, только если изменение занимает или освобождает интервал: тогда задача попадает в карту
+    // и в список приоритетов (и уходит из них) под одной блокировкой записи, и читатель списка не увидит
+    // задачу, которой нет в карте, и наоборот. Задачи без времени меняются только под полосой или эпиком.
+    private static final int STRIPES = 64;
+
+    private static final class EpicState { // блокировка эпика и вклады его подзадач
+        final int id;
+        final SubtaskTotals totals = new SubtaskTotals();
+
+        EpicState(int id) {
+            this.id = id;
+        }
+    }
+
+    private final ConcurrentHashMap<Integer, Task> tasks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Epic> epics = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, EpicState> epicStates = new ConcurrentHashMap<>(); // меняются под своей блокировкой
+    private final ConcurrentHashMap<Integer, Subtask> subtasks = new ConcurrentHashMap<>();
+    private final HistoryManager historyManager;
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Object[] taskLocks = new Object[STRIPES]; // изменения одной задачи упорядочены по полосе её id
+    private final ReadWriteLock scheduleLock = new ReentrantReadWriteLock(); // индекс интервалов и список приоритетов
+    private final TreeSet<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime,
+            Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(Task::getId));
+    private final TimeSlotIndex timeSlots = new TimeSlotIndex();
+    // Последняя версия снимка. Изменение публикует новую версию под полосой задачи или эпиком, поэтому версии
+    // одной задачи идут по порядку, а эпик согласован с подзадачами. Изменение интервалов занимает publishLock
+    // до снятия блокировки индекса и строит версию уже без неё: версии выходят в порядке изменений индекса.
+    // Версии строятся по одной под publishLock: при CAS одновременные писатели повторяли бы копирование путей
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private volatile TaskSnapshot state = TaskSnapshot.EMPTY;
+
+    public ConcurrentTaskManager() {
+        this(Managers.getConcurrentHistory());
+    }
+
+    public ConcurrentTaskManager(HistoryManager historyManager) { // история должна допускать доступ из многих потоков
+        this.historyManager = historyManager;
+        for (int i = 0; i < STRIPES; i++) {
+            taskLocks[i] = new Object();
+        }
+    }
+
+    // Методы для задач
+    @Override
+    public void createTask(Task task) { // создать задачу
+        TaskManager.checkNew(task);
+        Task newTask = new Task(task.getName(), task.getDescription(), task.getStatus(), task.getStartTime(),
+                task.getDuration());
+        create(List.of(newTask), "Задача пересекается по времени с существующей");
+        task.setId(newTask.getId());
+    }
+
+    @Override
+    public void updateTask(Task task) { // обновить задачу
+        synchronized (taskLock(task.getId())) {
+            Task oldTask = tasks.get(task.getId());
+            if (oldTask == null) {
+                return;
+            }
+            Task stored = task.asFrozen();
+            schedule(List.of(stored), List.of(oldTask), null, () -> tasks.put(stored.getId(), stored),
+                    snapshot -> snapshot.withTask(stored), "Обновление задачи приводит к пересечению по времени");
+        }
+    }
+
+    @Override
+    public void createTasks(Collection<Task> batch) { // создать задачи одним пакетом
+        List<Task> newTasks = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            TaskManager.checkNew(task);
+            newTasks.add(new Task(task.getName(), task.getDescription(), task.getStatus(), task.getStartTime(),
+                    task.getDuration()));
+        }
+        create(newTasks, "Пакет задач пересекается по времени с существующими");
+
+        Iterator<Task> source = batch.iterator();
+        for (Task newTask : newTasks) {
+            source.next().setId(newTask.getId());
+        }
+    }
+
+    private void create(List<Task> newTasks, String message) { // сохранить новые задачи и опубликовать их
+        Runnable store = () -> newTasks.forEach(newTask -> tasks.put(newTask.getId(), newTask));
+        if (hasSlots(newTasks)) {
+            schedule(newTasks, List.of(), () -> newTasks.forEach(this::assignId), store, withTasks(newTasks), message);
+            return;
+        }
+        newTasks.forEach(this::assignId);
+        lockStripes(stripesOf(newTasks), 0, () -> { // новую задачу не изменят раньше, чем она попадёт в снимок
+            store.run();
+            publish(withTasks(newTasks));
+        });
+    }
+
+    @Override
+    public void updateTasks(Collection<Task> source) { // обновить задачи одним пакетом
+        Collection<Task> batch = TaskManager.lastById(source);
+        lockStripes(stripesOf(batch), 0, () -> {
+            List<Task> updates = new ArrayList<>(batch.size());
+            List<Task> oldTasks = new ArrayList<>(batch.size());
+            for (Task task : batch) {
+                Task oldTask = tasks.get(task.getId());
+                if (oldTask != null) {
+                    updates.add(task.asFrozen());
+                    oldTasks.add(oldTask);
+                }
+            }
+            schedule(updates, oldTasks, null, () -> updates.forEach(task -> tasks.put(task.getId(), task)),
+                    withTasks(updates), "Обновление пакета задач приводит к пересечению по времени");
+        });
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() { // получить все задачи
+        return new ArrayList<>(tasks.values());
+    }
+
+    @Override
+    public Task getTaskById(int id) { // получить задачу по id
+        Task task = tasks.get(id);
+        historyManager.add(task);
+        return task;
+    }
+
+    @Override
+    public void deleteTask(int id) { // удалить задачу
+        synchronized (taskLock(id)) {
+            Task task = tasks.get(id);
+            if (task != null) {
+                unschedule(List.of(task), () -> tasks.remove(id), snapshot -> snapshot.withoutTask(id));
+                historyManager.remove(id);
+            }
+        }
+    }
+
+    @Override
+    public void deleteTasks(int[] ids) { // удалить задачи по списку id
+        for (int id : ids) {
+            deleteTask(id);
+        }
+    }
+
+    @Override
+    public void deleteAllTasks() { // удалить все задачи
+        for (Integer id : tasks.keySet()) {
+            deleteTask(id);
+        }
+    }
+
+    // Методы для эпиков
+    @Override
+    public void createEpic(Epic epic) { // создать эпик; хранится неизменяемая копия, как у задач
+        TaskManager.checkNew(epic);
+        epic.setId(nextId.getAndIncrement());
+        EpicState state = new EpicState(epic.getId());
+        Epic stored = epic.withTotals(state.totals);
+        synchronized (state) {
+            epicStates.put(state.id, state);
+            epics.put(state.id, stored);
+            publish(snapshot -> snapshot.withEpic(stored));
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) { // обновить эпик
+        EpicState state = epicStates.get(epic.getId());
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            if (epicStates.get(state.id) != state) {
+                return; // эпик удалён, пока ждали блокировку
+            }
+            Epic stored = epics.get(state.id).withName(epic.getName()); // статус и время эпика определяются подзадачами
+            stored.setDescription(epic.getDescription());
+            epics.put(state.id, stored.freeze());
+            publish(snapshot -> snapshot.withEpic(stored));
+        }
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() { // получить все эпики
+        return new ArrayList<>(epics.values());
+    }
+
+    @Override
+    public Epic getEpicById(int id) { // получить эпик по id
+        Epic epic = epics.get(id);
+        historyManager.add(epic);
+        return epic;
+    }
+
+    @Override
+    public void deleteEpic(int id) { // удалить эпик
+        EpicState state = epicStates.get(id);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            if (epicStates.get(id) != state) {
+                return;
+            }
+            List<Task> removed = subtasksOf(state);
+            unschedule(removed, () -> {
+                epicStates.remove(id);
+                epics.remove(id);
+                removed.forEach(subtask -> subtasks.remove(subtask.getId()));
+            }, snapshot -> snapshot.withoutEpic(id));
+            removed.forEach(subtask -> historyManager.remove(subtask.getId()));
+            historyManager.remove(id);
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() { // удалить все эпики вместе с подзадачами
+        for (Integer id : epics.keySet()) {
+            deleteEpic(id);
+        }
+    }
+
+    // Методы для подзадач
+    @Override
+    public void createSubtask(Subtask subtask) { // создать подзадачу
+        createSubtasks(List.of(subtask));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) { // обновить подзадачу
+        updateSubtasks(List.of(subtask));
+    }
+
+    @Override
+    public void createSubtasks(Collection<Subtask> batch) { // создать подзадачи одним пакетом
+        batch.forEach(TaskManager::checkNew);
+        List<EpicState> lockedEpics = epicsOf(batch);
+        lockEpics(lockedEpics, 0, () -> {
+            List<Subtask> sources = new ArrayList<>(batch.size());
+            List<Subtask> newSubtasks = new ArrayList<>(batch.size());
+            List<EpicState> changedEpics = new ArrayList<>(lockedEpics.size()); // заблокированы и не удалены
+            for (Subtask subtask : batch) {
+                EpicState epic = epicStates.get(subtask.getEpicId());
+                if (lockedEpics.contains(epic)) {
+                    sources.add(subtask);
+                    newSubtasks.add(subtask.copy());
+                    if (!changedEpics.contains(epic)) {
+                        changedEpics.add(epic);
+                    }
+                }
+            }
+            schedule(newSubtasks, List.of(), () -> {
+                for (int i = 0; i < newSubtasks.size(); i++) {
+                    assignId(newSubtasks.get(i));
+                    sources.get(i).setId(newSubtasks.get(i).getId());
+                }
+            }, () -> {
+                for (Subtask subtask : newSubtasks) {
+                    subtasks.put(subtask.getId(), subtask);
+                    epicStates.get(subtask.getEpicId()).totals.put(subtask);
+                }
+                changedEpics.forEach(this::refreshEpic);
+            }, withSubtasks(newSubtasks, changedEpics), "Подзадача пересекается по времени с существующей");
+        });
+    }
+
+    @Override
+    public void updateSubtasks(Collection<Subtask> source) { // обновить подзадачи одним пакетом
+        Collection<Subtask> batch = TaskManager.lastById(source);
+        boolean[] done = new boolean[1];
+        while (!done[0]) { // подзадачу могли перенести в другой эпик, пока ждали блокировки - повторяем
+            List<Subtask> candidates = new ArrayList<>(batch);
+            for (Subtask subtask : batch) {
+                Subtask oldSubtask = subtasks.get(subtask.getId());
+                if (oldSubtask != null && oldSubtask.getEpicId() != subtask.getEpicId()) {
+                    candidates.add(oldSubtask); // прежний эпик подзадачи тоже блокируется
+                }
+            }
+            List<EpicState> lockedEpics = epicsOf(candidates);
+            lockEpics(lockedEpics, 0, () -> {
+                List<Subtask> updates = new ArrayList<>(batch.size());
+                List<Subtask> oldSubtasks = new ArrayList<>(batch.size());
+                for (Subtask subtask : batch) {
+                    Subtask oldSubtask = subtasks.get(subtask.getId());
+                    EpicState epic = epicStates.get(subtask.getEpicId());
+                    if (oldSubtask == null || epic == null) {
+                        continue; // перенос в несуществующий эпик не выполняется, как и создание в нём
+                    }
+                    EpicState oldEpic = epicStates.get(oldSubtask.getEpicId());
+                    if (!lockedEpics.contains(epic) || oldEpic != null && !lockedEpics.contains(oldEpic)) {
+                        return;
+                    }
+                    updates.add(subtask.asFrozen());
+                    oldSubtasks.add(oldSubtask);
+                }
+                List<Subtask> moved = new ArrayList<>(updates);
+                moved.addAll(oldSubtasks);
+                List<EpicState> changedEpics = epicsOf(moved); // прежние и новые эпики, заблокированы и не удалены
+                schedule(updates, oldSubtasks, null, () -> {
+                    for (int i = 0; i < updates.size(); i++) {
+                        Subtask subtask = updates.get(i);
+                        Subtask oldSubtask = oldSubtasks.get(i);
+                        subtasks.put(subtask.getId(), subtask);
+                        EpicState oldEpic = epicStates.get(oldSubtask.getEpicId());
+                        if (oldSubtask.getEpicId() != subtask.getEpicId() && oldEpic != null) {
+                            oldEpic.totals.remove(oldSubtask.getId());
+                        }
+                        epicStates.get(subtask.getEpicId()).totals.put(subtask);
+                    }
+                    changedEpics.forEach(this::refreshEpic);
+                }, withSubtasks(updates, changedEpics), "Обновление подзадачи приводит к пересечению по времени");
+                done[0] = true;
+            });
+        }
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() { // получить все подзадачи
+        return new ArrayList<>(subtasks.values());
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) { // получить подзадачу по id
+        Subtask subtask = subtasks.get(id);
+        historyManager.add(subtask);
+        return subtask;
+    }
+
+    @Override
+    public void deleteSubtask(Integer id) { // удалить подзадачу
+        while (true) {
+            Subtask subtask = subtasks.get(id);
+            if (subtask == null) {
+                return;
+            }
+            EpicState epic = epicStates.get(subtask.getEpicId());
+            if (epic == null) { // подзадача без эпика: блокировать нечего, удаляем, если её не изменили
+                boolean removed;
+                scheduleLock.writeLock().lock();
+                try {
+                    removed = subtasks.remove(id, subtask);
+                    if (removed) {
+                        removeScheduled(subtask);
+                        publish(snapshot -> snapshot.withoutSubtask(id));
+                    }
+                } finally {
+                    scheduleLock.writeLock().unlock();
+                }
+                if (removed) {
+                    historyManager.remove(id);
+                    return;
+                }
+                continue;
+            }
+            synchronized (epic) {
+                Subtask current = subtasks.get(id);
+                if (current == null || current.getEpicId() != epic.id || epicStates.get(epic.id) != epic) {
+                    continue; // подзадачу перенесли или удалили, пока ждали блокировку эпика
+                }
+                unschedule(List.of(current), () -> {
+                    subtasks.remove(id);
+                    epic.totals.remove(id);
+                    refreshEpic(epic);
+                }, snapshot -> snapshot.withoutSubtask(id).withEpic(epics.get(epic.id)));
+                historyManager.remove(id);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void deleteSubtasks(int[] ids) { // удалить подзадачи по списку id
+        for (int id : ids) {
+            deleteSubtask(id);
+        }
+    }
+
+    @Override
+    public void deleteAllSubtasks() { //удалить все подзадачи
+        for (EpicState epic : epicStates.values()) {
+            synchronized (epic) {
+                if (epicStates.get(epic.id) != epic) {
+                    continue; // эпик удалён вместе с подзадачами
+                }
+                List<Task> removed = subtasksOf(epic);
+                unschedule(removed, () -> {
+                    removed.forEach(subtask -> subtasks.remove(subtask.getId()));
+                    epic.totals.clear();
+                    refreshEpic(epic);
+                }, snapshot -> {
+                    for (Task subtask : removed) {
+                        snapshot = snapshot.withoutSubtask(subtask.getId());
+                    }
+                    return snapshot.withEpic(epics.get(epic.id));
+                });
+                removed.forEach(subtask -> historyManager.remove(subtask.getId()));
+            }
+        }
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) { // получить эпик к подзадаче
+        Epic epic = epics.get(epicId);
+        if (epic == null) {
+            return new ArrayList<>();
+        }
+        List<Integer> ids = epic.getSubtaskIds();
+        ArrayList<Subtask> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Subtask subtask = subtasks.get(id);
+            if (subtask != null) {
+                result.add(subtask);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() { // получить историю
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) { // получить страницу истории
+        return historyManager.getHistory(offset, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        scheduleLock.readLock().lock();
+        try {
+            return new ArrayList<>(prioritizedTasks);
+        } finally {
+            scheduleLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to) {
+        TimeSlotIndex.checkWindow(from, to);
+        scheduleLock.readLock().lock();
+        try {
+            return TimeSlotIndex.inWindow(TimeSlotIndex.from(prioritizedTasks, from), from, to);
+        } finally {
+            scheduleLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public LocalDateTime nextFreeSlot(Duration length, LocalDateTime after) { // ответ может устареть после снятия блокировки
+        scheduleLock.readLock().lock();
+        try {
+            return TimeSlotIndex.nextFree(TimeSlotIndex.from(prioritizedTasks, after), after, length);
+        } finally {
+            scheduleLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskSnapshot snapshot() { // O(1): готовая версия, без блокировок и копирования
+        return state;
+    }
+
+    @Override
+    public Stream<Task> streamTasks() { // обход слабо согласован: параллельные изменения допустимы
+        return tasks.values().stream();
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return epics.values().stream();
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return subtasks.values().stream();
+    }
+
+    @Override
+    public Stream<Task> streamPrioritizedTasks() { // снимок: список приоритетов защищён блокировкой
+        return getPrioritizedTasks().stream();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(int offset, int limit) { // копируется только нужная страница
+        HistoryManager.checkPage(offset, limit);
+        scheduleLock.readLock().lock();
+        try {
+            List<Task> result = new ArrayList<>(Math.min(limit, Math.max(prioritizedTasks.size() - offset, 0)));
+            Iterator<Task> iterator = prioritizedTasks.iterator();
+            for (int i = 0; i < offset && iterator.hasNext(); i++) {
+                iterator.next();
+            }
+            while (iterator.hasNext() && result.size() < limit) {
+                result.add(iterator.next());
+            }
+            return result;
+        } finally {
+            scheduleLock.readLock().unlock();
+        }
+    }
+
+    // Проверить пакет, занять его интервалы и сохранить пакет атомарно: store кладёт задачи в карты под той же
+    // блокировкой записи, под которой меняется список приоритетов, а change публикуется уже после её снятия
+    // и читает эпики, заменённые в store. Если интервалы не меняются, индекс не блокируется вовсе
+    private void schedule(List<? extends Task> batch, List<? extends Task> replaced, Runnable assignIds,
+                          Runnable store, UnaryOperator<TaskSnapshot> change, String message) {
+        if (!hasSlots(batch) && !hasSlots(replaced)) {
+            if (assignIds != null) {
+                assignIds.run();
+            }
+            store.run(); // изменения одной задачи упорядочены её полосой или эпиком, занятыми до публикации
+            publish(change);
+            return;
+        }
+        scheduleLock.writeLock().lock();
+        try {
+            if (timeSlots.overlapsBatch(batch)) {
+                throw new TimeConflictException(message);
+            }
+            if (assignIds != null) {
+                assignIds.run();
+            }
+            for (Task task : replaced) {
+                removeScheduled(task);
+            }
+            for (Task task : batch) {
+                if (task.getStartTime() != null) {
+                    prioritizedTasks.add(task);
+                    timeSlots.add(task);
+                }
+            }
+            store.run();
+            publishLock.lock(); // очередь публикации занимается до снятия блокировки индекса
+        } finally {
+            scheduleLock.writeLock().unlock();
+        }
+        publishLocked(change);
+    }
+
+    // Убрать задачи из карт и освободить интервалы атомарно; публикация - как в schedule
+    private void unschedule(List<? extends Task> removed, Runnable remove, UnaryOperator<TaskSnapshot> change) {
+        if (!hasSlots(removed)) {
+            remove.run();
+            publish(change);
+            return;
+        }
+        scheduleLock.writeLock().lock();
+        try {
+            remove.run();
+            for (Task task : removed) {
+                removeScheduled(task);
+            }
+            publishLock.lock();
+        } finally {
+            scheduleLock.writeLock().unlock();
+        }
+        publishLocked(change);
+    }
+
+    private void assignId(Task task) { // до публикации: в снимок и карты попадает уже неизменяемая задача
+        task.setId(nextId.getAndIncrement());
+        task.freeze();
+    }
+
+    private static boolean hasSlots(List<? extends Task> batch) { // занимает ли пакет интервалы
+        for (Task task : batch) {
+            if (task.getStartTime() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Task> subtasksOf(EpicState epic) { // подзадачи эпика; вызывается под блокировкой эпика
+        List<Task> result = new ArrayList<>();
+        for (Integer subtaskId : epics.get(epic.id).getSubtaskIds()) {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                result.add(subtask);
+            }
+        }
+        return result;
+    }
+
+    private void removeScheduled(Task task) {
+        if (task.getStartTime() != null) {
+            prioritizedTasks.remove(task);
+        }
+        timeSlots.remove(task.getId());
+    }
+
+    private void publish(UnaryOperator<TaskSnapshot> change) { // новая версия снимка поверх последней
+        publishLock.lock();
+        publishLocked(change);
+    }
+
+    private void publishLocked(UnaryOperator<TaskSnapshot> change) { // publishLock уже занят, здесь он снимается
+        try {
+            state = change.apply(state);
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private static UnaryOperator<TaskSnapshot> withTasks(List<Task> changed) { // задачи уже неизменяемы, без копий
+        return snapshot -> {
+            for (Task task : changed) {
+                snapshot = snapshot.withTask(task);
+            }
+            return snapshot;
+        };
+    }
+
+    // Подзадачи и их эпики; эпики читаются при публикации, под их блокировками, уже заменёнными в store
+    private UnaryOperator<TaskSnapshot> withSubtasks(List<Subtask> changed, List<EpicState> changedEpics) {
+        return snapshot -> {
+            for (Subtask subtask : changed) {
+                snapshot = snapshot.withSubtask(subtask);
+            }
+            for (EpicState epic : changedEpics) {
+                snapshot = snapshot.withEpic(epics.get(epic.id));
+            }
+            return snapshot;
+        };
+    }
+
+    private void refreshEpic(EpicState epic) { // заменить эпик значением с новым итогом по подзадачам, O(1)
+        epics.put(epic.id, epics.get(epic.id).withTotals(epic.totals));
+    }
+
+    private Object taskLock(int id) {
+        return taskLocks[stripe(id)];
+    }
+
+    private static int stripe(int id) {
+        return Math.floorMod(id, STRIPES);
+    }
+
+    private static int[] stripesOf(Collection<? extends Task> batch) { // полосы пакета по возрастанию, без повторов
+        int[] stripes = new int[batch.size()];
+        int count = 0;
+        for (Task task : batch) {
+            stripes[count++] = stripe(task.getId());
+        }
+        Arrays.sort(stripes);
+        count = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            if (i == 0 || stripes[i] != stripes[i - 1]) {
+                stripes[count++] = stripes[i];
+            }
+        }
+        return count == stripes.length ? stripes : Arrays.copyOf(stripes, count);
+    }
+
+    private void lockStripes(int[] stripes, int index, Runnable action) { // блокировки полос берутся по возрастанию
+        if (index == stripes.length) {
+            action.run();
+            return;
+        }
+        synchronized (taskLocks[stripes[index]]) {
+            lockStripes(stripes, index + 1, action);
+        }
+    }
+
+    private List<EpicState> epicsOf(Collection<Subtask> batch) { // эпики пакета в порядке возрастания id
+        TreeMap<Integer, EpicState> result = new TreeMap<>();
+        for (Subtask subtask : batch) {
+            EpicState epic = epicStates.get(subtask.getEpicId());
+            if (epic != null) {
+                result.put(epic.id, epic);
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    private void lockEpics(List<EpicState> lockedEpics, int index, Runnable action) { // блокировки эпиков по возрастанию id
+        if (index == lockedEpics.size()) {
+            action.run();
+            return;
+        }
+        EpicState epic = lockedEpics.get(index);
+        synchronized (epic) {
+            if (epicStates.get(epic.id) != epic) {
+                lockEpics(without(lockedEpics, index), index, action); // эпик удалён, пока ждали блокировку
+                return;
+            }
+            lockEpics(lockedEpics, index + 1, action);
+        }
+    }
+
+    private static List<EpicState> without(List<EpicState> list, int index) {
+        List<EpicState> result = new ArrayList<>(list);
+        result.remove(index);
+        return result;
+    }
+
+}
@@ -3,82 +3,486 @@ package manager;
 import model.Epic;
 import model.Status;
 import model.Subtask;
+import model.SubtaskTotals;
 import model.Task;
+import model.TaskType;
+import util.IntObjectMap;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-public class FileBackedTaskManager extends InMemoryTaskManager { // логика сохранения в файл
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable { // логика сохранения в файл
 
     private final File file;
+    private final OperationJournal journal;
+    private final int journalCompactionThreshold; // 0 - каждое изменение переписывает файл целиком
+    private final FlushPolicy flushPolicy;
+    private final SnapshotFormat snapshotFormat; // формат записи; загрузка понимает любой
+    private final ScheduledExecutorService flusher; // null - изменения записываются сразу
+    private final ExecutorService renamer; // null - снимок заменяет файл в том же потоке, где записан
+    private final PersistencePipeline pipeline; // null - изменения записывает сам изменяющий поток
+    private final Object writeLock = new Object(); // порядок записи пакетов на диск
+    private Future<?> pendingRename; // замена файла предыдущим снимком, под writeLock
+    private int tempSlot; // какой из двух временных файлов занять следующим снимком
+    private boolean journalStarted = false;
     private boolean isLoading = false;
+    private boolean dirty = false;
+    private int pendingMutations = 0;
+    private boolean flushRequested = false;
+    private volatile ManagerSaveException flushFailure;
+    private int queuedRecords = 0; // записи журнала, переданные в очередь после последнего снимка
+    private boolean snapshotRequired = false; // запись журнала не удалась - журнал на диске отстал от памяти
 
     public FileBackedTaskManager(File file) {
+        this(file, 0);
+    }
+
+    public FileBackedTaskManager(File file, int journalCompactionThreshold) { // 0 - без журнала операций
+        this(file, journalCompactionThreshold, FlushPolicy.IMMEDIATE);
+    }
+
+    public FileBackedTaskManager(File file, int journalCompactionThreshold, FlushPolicy flushPolicy) {
+        this(file, journalCompactionThreshold, flushPolicy, SnapshotFormat.CSV);
+    }
+
+    public FileBackedTaskManager(File file, int journalCompactionThreshold, FlushPolicy flushPolicy,
+                                 SnapshotFormat snapshotFormat) {
+        if (journalCompactionThreshold < 0) {
+            throw new IllegalArgumentException("Порог сжатия журнала не может быть отрицательным");
+        }
+        if (flushPolicy.isAsync() && journalCompactionThreshold == 0) {
+            throw new IllegalArgumentException("Асинхронная запись ведётся через журнал операций");
+        }
         this.file = file;
+        this.journalCompactionThreshold = journalCompactionThreshold;
+        this.journal = new OperationJournal(file, this::journalChannel);
+        this.flushPolicy = flushPolicy;
+        this.snapshotFormat = snapshotFormat;
+        if (flushPolicy.isBatched()) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-manager-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long delay = flushPolicy.getMaxDelayMillis();
+            flusher.scheduleWithFixedDelay(this::flushQuietly, delay, delay, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+        if (flushPolicy.isPipelined() && journalCompactionThreshold == 0) {
+            renamer = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-manager-renamer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            renamer = null;
+        }
+        if (flushPolicy.isAsync()) {
+            int capacity = flushPolicy.getQueueCapacity();
+            int maxBatch = flushPolicy.getDurability() == FlushPolicy.Durability.OPERATION ? 1 : capacity;
+            pipeline = new PersistencePipeline(capacity, maxBatch, this::writeBatch, file.getName());
+        } else {
+            pipeline = null;
+        }
+    }
+
+    protected void save() { // сохранить текущее состояние всех задач, подзадач и эпиков в выбранном формате
+        // Снимок пишется во временный файл и заменяет прежний переименованием: сбой посреди записи
+        // оставляет на месте предыдущий целый снимок
+        try {
+            SnapshotFile.write(file, snapshotFormat, flushPolicy.forcesEachWrite(), this::snapshotChannel, writer -> {
+                writeAll(writer, getAllTasks());
+                writeAll(writer, getAllEpics());
+                writeAll(writer, getAllSubtasks());
+            });
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения в файл: " + file.getName(), e);
+        }
+    }
+
+    WritableByteChannel snapshotChannel(WritableByteChannel channel) { // канал записи снимка; проверки обрывают в нём запись
+        return channel;
+    }
+
+    WritableByteChannel journalChannel(WritableByteChannel channel) { // канал записи журнала; проверки обрывают в нём запись
+        return channel;
+    }
+
+    private static void writeAll(SnapshotWriter writer, Collection<? extends Task> items) throws IOException {
+        for (Task item : items) {
+            writer.write(item);
+        }
     }
 
-    protected void save() { // сохранить текущее состояние всех задач, подзадач и эпиков в CSV
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write("id,type,name,status,description,startTime,duration,epic\n");
-            for (Task task : getAllTasks()) {
-                writer.write(CSVTaskFormat.toString(task) + "\n");
+    private List<Task> copyState() { // состояние для записи снимка вне блокировки, пока менеджер меняется
+        List<Task> copies = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+        copies.addAll(tasks.values()); // все задачи неизменяемы, копируются только ссылки
+        copies.addAll(epics.values());
+        copies.addAll(subtasks.values());
+        return copies;
+    }
+
+    private void savePipelined(List<Task> snapshot) { // записать снимок, пока предыдущий заменяет файл
+        File temp = SnapshotFile.tempFor(file, 1 + tempSlot); // 0 занят синхронной записью save
+        tempSlot ^= 1;
+        FileChannel channel;
+        try {
+            channel = SnapshotFile.prepare(temp, snapshotFormat, this::snapshotChannel, writer -> writeAll(writer, snapshot));
+        } catch (IOException e) {
+            synchronized (this) {
+                dirty = true;
+            }
+            throw new ManagerSaveException("Ошибка сохранения в файл: " + file.getName(), e);
+        }
+        try {
+            awaitRename(); // снимки заменяют файл строго по порядку
+        } catch (ManagerSaveException e) {
+            SnapshotFile.discard(channel, temp, e);
+            throw e;
+        }
+        boolean force = flushPolicy.forcesEachWrite();
+        pendingRename = renamer.submit(() -> {
+            SnapshotFile.commit(channel, temp, file, force);
+            journal.reset(); // журнал прошлого запуска уже учтён в снимке
+            return null;
+        });
+    }
+
+    private void awaitRename() { // дождаться замены файла предыдущим снимком
+        Future<?> rename = pendingRename;
+        if (rename == null) {
+            return;
+        }
+        pendingRename = null;
+        try {
+            rename.get();
+        } catch (InterruptedException | ExecutionException e) {
+            synchronized (this) {
+                dirty = true; // снимок не попал на диск - следующая запись повторит его целиком
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new ManagerSaveException("Запись снимка прервана: " + file.getName(), e);
             }
-            for (Epic epic : getAllEpics()) {
-                writer.write(CSVTaskFormat.toString(epic) + "\n");
+            if (e.getCause() instanceof ManagerSaveException) {
+                throw (ManagerSaveException) e.getCause();
             }
-            for (Subtask subtask : getAllSubtasks()) {
-                writer.write(CSVTaskFormat.toString(subtask) + "\n");
+            throw new ManagerSaveException("Ошибка сохранения в файл: " + file.getName(), e.getCause());
+        }
+    }
+
+    protected void compact() { // записать снимок и очистить журнал операций
+        save();
+        journal.reset();
+        journalStarted = true;
+        snapshotRequired = false;
+    }
+
+    private boolean needsSnapshot() { // журнал выключен, ещё не начат, отстал после ошибки или пора его сжать
+        return journalCompactionThreshold == 0 || !journalStarted || snapshotRequired
+                || journal.size() >= journalCompactionThreshold;
+    }
+
+    private void persist(String record) { // сохранить изменение: в журнал или перезаписью файла
+        persist(record != null ? List.of(record) : List.of());
+    }
+
+    private synchronized void persist(List<String> records) { // сохранить изменения одной записью на диск
+        if (isLoading) {
+            return;
+        }
+        if (pipeline != null) {
+            ManagerSaveException failure = pipeline.takeFailure();
+            if (failure != null) {
+                snapshotRequired = true;
+                throw failure;
             }
+            submit(records);
+            return;
+        }
+        if (flushPolicy.isBatched()) {
+            ManagerSaveException failure = flushFailure;
+            if (failure != null) {
+                flushFailure = null;
+                throw failure;
+            }
+            if (journalCompactionThreshold > 0 && journalStarted) {
+                records.forEach(journal::append);
+            }
+            dirty = true;
+            if (++pendingMutations >= flushPolicy.getMaxMutations() && !flushRequested) {
+                flushRequested = true;
+                flusher.execute(this::flushQuietly);
+            }
+            return;
+        }
+        if (journalCompactionThreshold == 0 || !journalStarted || snapshotRequired) {
+            compact(); // новый менеджер начинает журнал с чистого снимка
+            return;
+        }
+        if (!records.isEmpty()) {
+            records.forEach(journal::append);
+            try {
+                journal.flush(flushPolicy.forcesEachWrite());
+            } catch (ManagerSaveException e) {
+                // Изменение уже в памяти, а в конце журнала мог остаться обрывок записи: дописывать после него
+                // нельзя, следующее изменение перепишет снимок целиком
+                snapshotRequired = true;
+                throw e;
+            }
+            if (journal.size() >= journalCompactionThreshold) {
+                compact();
+            }
+        }
+    }
+
+    private void submit(List<String> records) { // передать изменение потоку записи; под блокировкой менеджера
+        // Снимок - копия состояния, сделанная здесь же: поток записи не берёт блокировку менеджера и не
+        // мешает изменяющим потокам, которые ждут места в очереди
+        if (snapshotRequired || !journalStarted || queuedRecords + records.size() >= journalCompactionThreshold) {
+            pipeline.submit(List.of(), copyState());
+            queuedRecords = 0;
+            journalStarted = true;
+            snapshotRequired = false;
+        } else if (!records.isEmpty()) {
+            pipeline.submit(records, null);
+            queuedRecords += records.size();
+        }
+    }
+
+    private void writeBatch(List<PersistencePipeline.Change> batch) throws IOException { // поток записи: пакет изменений
+        boolean force = flushPolicy.forcesEachWrite();
+        for (PersistencePipeline.Change change : batch) {
+            if (change.snapshot != null) {
+                SnapshotFile.write(file, snapshotFormat, force, this::snapshotChannel,
+                        writer -> writeAll(writer, change.snapshot));
+                journal.reset();
+            } else {
+                change.records.forEach(journal::append);
+            }
+        }
+        journal.flush(force);
+    }
+
+    public CompletableFuture<Void> whenPersisted() { // завершится, когда изменения, сделанные до вызова, будут на диске
+        if (pipeline != null) {
+            return pipeline.lastSubmitted();
+        }
+        if (flusher != null && !flusher.isShutdown()) {
+            return CompletableFuture.runAsync(this::flush, flusher);
+        }
+        return CompletableFuture.completedFuture(null); // изменения записываются сразу
+    }
+
+    public int getQueueDepth() { // изменения, ожидающие потока записи
+        return pipeline != null ? pipeline.queueDepth() : 0;
+    }
+
+    public Duration getWriteLag() { // от изменения до записи на диск, для последнего записанного пакета
+        return pipeline != null ? pipeline.lastWriteLag() : Duration.ZERO;
+    }
+
+    public Duration getMaxWriteLag() {
+        return pipeline != null ? pipeline.maxWriteLag() : Duration.ZERO;
+    }
+
+    private void persistPut(Task task) {
+        persist(task != null ? OperationJournal.putRecord(task) : null);
+    }
+
+    private void persistPuts(Collection<? extends Task> batch, IntObjectMap<? extends Task> stored) {
+        List<String> records = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            Task storedTask = stored.get(task.getId());
+            if (storedTask != null) {
+                records.add(OperationJournal.putRecord(storedTask));
+            }
+        }
+        persist(records);
+    }
+
+    private void persistDeletes(int[] ids) {
+        List<String> records = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            records.add(OperationJournal.deleteRecord(id));
+        }
+        persist(records);
+    }
+
+    public void flush() { // записать накопленные изменения на диск
+        if (pipeline != null) {
+            awaitPipeline();
+            return;
+        }
+        synchronized (writeLock) {
+            writePending();
+            awaitRename();
+        }
+    }
+
+    private void awaitPipeline() { // дождаться записи всего, что передано в очередь
+        synchronized (this) {
+            if (snapshotRequired) {
+                submit(List.of());
+            }
+        }
+        try {
+            pipeline.lastSubmitted().join();
+        } catch (CompletionException e) {
+            synchronized (this) {
+                pipeline.takeFailure(); // ошибка сообщается здесь, а не следующему изменению
+                snapshotRequired = true;
+            }
+            throw e.getCause() instanceof ManagerSaveException ? (ManagerSaveException) e.getCause()
+                    : new ManagerSaveException("Ошибка записи в файл: " + file.getName(), e.getCause());
+        }
+    }
+
+    private void writePending() { // записать изменения; при конвейере замена файла может ещё идти
+        synchronized (writeLock) {
+            String records;
+            List<Task> snapshot;
+            synchronized (this) {
+                if (!dirty) {
+                    return;
+                }
+                dirty = false;
+                pendingMutations = 0;
+                flushRequested = false;
+                if (renamer != null) {
+                    snapshot = copyState();
+                    records = null;
+                } else if (needsSnapshot()) {
+                    try {
+                        compact();
+                    } catch (ManagerSaveException e) {
+                        dirty = true; // снимок не записан - следующая запись повторит его
+                        throw e;
+                    }
+                    return;
+                } else {
+                    snapshot = null;
+                    records = journal.drainPending();
+                }
+            }
+            if (snapshot != null) {
+                savePipelined(snapshot); // менеджер не блокируется на время записи снимка
+                return;
+            }
+            try {
+                journal.write(records, flushPolicy.forcesEachWrite()); // менеджер не блокируется на время записи
+            } catch (ManagerSaveException e) {
+                synchronized (this) {
+                    // Забранные записи уже не в буфере, а в конце журнала мог остаться обрывок:
+                    // следующая запись переписывает снимок целиком
+                    dirty = true;
+                    snapshotRequired = true;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void flushQuietly() { // запись фоновым потоком: ошибка передаётся следующему изменению
+        try {
+            writePending();
+        } catch (ManagerSaveException e) {
+            flushFailure = e;
+        }
+    }
+
+    @Override
+    public void close() { // записать оставшиеся изменения и остановить фоновую запись
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } finally {
+            if (renamer != null) {
+                renamer.shutdown();
+            }
+            if (pipeline != null) {
+                pipeline.close();
+            }
+        }
+        try {
+            journal.close();
         } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка сохранения в файл: " + file.getName(), e);
+            throw new ManagerSaveException("Ошибка закрытия журнала: " + file.getName(), e);
         }
     }
 
     public static FileBackedTaskManager loadFromFile(File file) { // восстановить из файла
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
-        manager.isLoading = true;
+        return loadFromFile(file, 0);
+    }
 
-        try {
-            String content = Files.readString(file.toPath());
-            String[] lines = content.split("\n");
+    public static FileBackedTaskManager loadFromFile(File file, int journalCompactionThreshold) { // восстановить из снимка и журнала
+        return loadFromFile(file, journalCompactionThreshold, FlushPolicy.IMMEDIATE);
+    }
 
-            for (int i = 1; i < lines.length; i++) {
-                String line = lines[i].trim();
-                if (line.isEmpty()) continue;
+    public static FileBackedTaskManager loadFromFile(File file, int journalCompactionThreshold, FlushPolicy flushPolicy) {
+        return loadFromFile(file, journalCompactionThreshold, flushPolicy, SnapshotFormat.CSV);
+    }
 
-                Task task = CSVTaskFormat.fromString(line);
-                switch (task.getType()) {
-                    case TASK:
-                        manager.tasks.put(task.getId(), task);
-                        manager.prioritizedTasks.add(task);
-                        break;
-                    case EPIC:
-                        manager.epics.put(task.getId(), (Epic) task);
-                        break;
-                    case SUBTASK:
-                        manager.subtasks.put(task.getId(), (Subtask) task);
-                        manager.prioritizedTasks.add(task);
-                        break;
-                }
+    public static FileBackedTaskManager loadFromFile(File file, int journalCompactionThreshold, FlushPolicy flushPolicy,
+                                                     SnapshotFormat snapshotFormat) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, journalCompactionThreshold, flushPolicy,
+                snapshotFormat);
+        manager.isLoading = true;
 
-                if (task.getId() >= manager.nextId) {
-                    manager.nextId = task.getId() + 1;
-                }
+        try {
+            if (file.exists() || !manager.journal.exists()) {
+                SnapshotFormat.read(file, manager::putLoaded);
             }
 
-            for (Subtask subtask : manager.subtasks.values()) {
-                Epic epic = manager.epics.get(subtask.getEpicId());
-                if (epic != null) {
-                    epic.addSubtaskId(subtask.getId());
-                }
+            for (String record : manager.journal.readRecords()) {
+                manager.replay(record);
             }
+            manager.journalStarted = true;
 
-            for (Epic epic : manager.getAllEpics()) {
-                List<Subtask> subtasks = manager.getEpicSubtasks(epic.getId());
-                epic.updateTime(subtasks);
+            for (Task task : manager.tasks.values()) {
+                manager.addToIndexes(task);
+                manager.trackId(task.getId());
+            }
+            for (Epic epic : manager.epics.values()) { // статус и время эпика определяются подзадачами, а не файлом
+                manager.epicTotals.put(epic.getId(), new SubtaskTotals());
+                manager.trackId(epic.getId());
+            }
+            for (Subtask subtask : new ArrayList<>(manager.subtasks.values())) {
+                SubtaskTotals totals = manager.epicTotals.get(subtask.getEpicId());
+                if (totals != null) {
+                    totals.put(subtask);
+                    manager.addToIndexes(subtask);
+                } else {
+                    manager.subtasks.remove(subtask.getId()); // эпик удалён - подзадача тоже
+                }
+                manager.trackId(subtask.getId());
+            }
+            for (int epicId : manager.epics.keys()) {
+                Epic epic = manager.epics.get(epicId).withTotals(manager.epicTotals.get(epicId));
+                manager.epics.put(epicId, epic);
+                manager.addEpicToIndexes(epic);
             }
 
         } catch (IOException e) {
@@ -89,103 +493,171 @@ public class FileBackedTaskManager extends InMemoryTaskManager { // логика
         return manager;
     }
 
+    private void putLoaded(Task task) { // положить загруженную задачу в хранилище нужного типа
+        switch (task.getType()) {
+            case TASK:
+                tasks.put(task.getId(), task.freeze());
+                break;
+            case EPIC:
+                epics.put(task.getId(), (Epic) task);
+                break;
+            case SUBTASK:
+                subtasks.put(task.getId(), (Subtask) task.freeze());
+                break;
+        }
+    }
+
+    private void replay(String record) { // применить запись журнала к загруженному состоянию
+        String value = record.substring(2);
+        switch (record.charAt(0)) {
+            case OperationJournal.PUT:
+                putLoaded(CSVTaskFormat.fromString(value));
+                break;
+            case OperationJournal.DELETE:
+                int id = Integer.parseInt(value);
+                tasks.remove(id);
+                epics.remove(id);
+                subtasks.remove(id);
+                break;
+            case OperationJournal.CLEAR:
+                switch (TaskType.valueOf(value)) {
+                    case TASK:
+                        tasks.clear();
+                        break;
+                    case EPIC:
+                        epics.clear();
+                        subtasks.clear();
+                        break;
+                    case SUBTASK:
+                        subtasks.clear();
+                        break;
+                }
+                break;
+            default:
+                throw new ManagerSaveException("Неизвестная запись журнала: " + record, null);
+        }
+    }
+
+    private void trackId(int id) {
+        if (id >= nextId) {
+            nextId = id + 1;
+        }
+    }
+
     // Методы для задач
     @Override
-    public void createTask(Task task) { // создать задачу
+    public synchronized void createTask(Task task) { // создать задачу
         super.createTask(task);
-        if (!isLoading) {
-            save();
-        }
+        persistPut(tasks.get(task.getId()));
     }
 
     @Override
-    public void updateTask(Task task) { // обновить задачу
+    public synchronized void updateTask(Task task) { // обновить задачу
         super.updateTask(task);
-        if (!isLoading) {
-            save();
-        }
+        persistPut(tasks.get(task.getId()));
+    }
+
+    @Override
+    public synchronized void createTasks(Collection<Task> batch) { // создать задачи одним пакетом
+        super.createTasks(batch);
+        persistPuts(batch, tasks);
+    }
+
+    @Override
+    public synchronized void updateTasks(Collection<Task> batch) { // обновить задачи одним пакетом
+        super.updateTasks(batch);
+        persistPuts(batch, tasks);
     }
 
     @Override
-    public void deleteTask(int id) { // удалить задачу
+    public synchronized void deleteTask(int id) { // удалить задачу
         super.deleteTask(id);
-        if (!isLoading) {
-            save();
-        }
+        persist(OperationJournal.deleteRecord(id));
     }
 
     @Override
-    public void deleteAllTasks() { // удалить все задачи
+    public synchronized void deleteTasks(int[] ids) { // удалить задачи по списку id
+        super.deleteTasks(ids);
+        persistDeletes(ids);
+    }
+
+    @Override
+    public synchronized void deleteAllTasks() { // удалить все задачи
         super.deleteAllTasks();
-        if (!isLoading) {
-            save();
-        }
+        persist(OperationJournal.clearRecord(TaskType.TASK));
     }
 
     // Методы для эпиков
     @Override
-    public void createEpic(Epic epic) { // создать эпик
+    public synchronized void createEpic(Epic epic) { // создать эпик
         super.createEpic(epic);
-        if (!isLoading) {
-            save();
-        }
+        persistPut(epics.get(epic.getId()));
     }
 
     @Override
-    public void updateEpic(Epic epic) { // обновить эпик
+    public synchronized void updateEpic(Epic epic) { // обновить эпик
         super.updateEpic(epic);
-        if (!isLoading) {
-            save();
-        }
+        persistPut(epics.get(epic.getId()));
     }
 
     @Override
-    public void deleteEpic(int id) { // удалить эпик
+    public synchronized void deleteEpic(int id) { // удалить эпик
         super.deleteEpic(id);
-        if (!isLoading) {
-            save();
-        }
+        persist(OperationJournal.deleteRecord(id));
     }
 
     @Override
-    public void deleteAllEpics() { // удалить все эпики вместе с подзадачами
+    public synchronized void deleteAllEpics() { // удалить все эпики вместе с подзадачами
         super.deleteAllEpics();
-        if (!isLoading) {
-            save();
-        }
+        persist(OperationJournal.clearRecord(TaskType.EPIC));
     }
 
     // Методы для подзадач
     @Override
-    public void createSubtask(Subtask subtask) { // создать подзадачу
+    public synchronized void createSubtask(Subtask subtask) { // создать подзадачу
         super.createSubtask(subtask);
-        if (!isLoading) {
-            save();
-        }
+        persistPut(subtasks.get(subtask.getId()));
     }
 
     @Override
-    public void updateSubtask(Subtask subtask) { // обновить подзадачу
+    public synchronized void updateSubtask(Subtask subtask) { // обновить подзадачу
         super.updateSubtask(subtask);
-        if (!isLoading) {
-            save();
-        }
+        persistPut(subtasks.get(subtask.getId()));
+    }
+
+    @Override
+    public synchronized void createSubtasks(Collection<Subtask> batch) { // создать подзадачи одним пакетом
+        super.createSubtasks(batch);
+        persistPuts(batch, subtasks);
     }
 
     @Override
-    public void deleteSubtask(Integer id) { // удалить подзадачу
+    public synchronized void updateSubtasks(Collection<Subtask> batch) { // обновить подзадачи одним пакетом
+        super.updateSubtasks(batch);
+        persistPuts(batch, subtasks);
+    }
+
+    @Override
+    public synchronized void deleteSubtask(Integer id) { // удалить подзадачу
         super.deleteSubtask(id);
-        if (!isLoading) {
-            save();
-        }
+        persist(OperationJournal.deleteRecord(id));
     }
 
     @Override
-    public void deleteAllSubtasks() { //удалить все подзадачи
+    public synchronized void deleteSubtasks(int[] ids) { // удалить подзадачи по списку id
+        super.deleteSubtasks(ids);
+        persistDeletes(ids);
+    }
+
+    @Override
+    public synchronized void deleteAllSubtasks() { //удалить все подзадачи
         super.deleteAllSubtasks();
-        if (!isLoading) {
-            save();
-        }
+        persist(OperationJournal.clearRecord(TaskType.SUBTASK));
+    }
+
+    @Override
+    public synchronized TaskSnapshot snapshot() { // копия берётся под той же блокировкой, что и изменения
+        return super.snapshot();
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,88 @@
+package manager;
+
+public class FlushPolicy { // когда и насколько надёжно FileBackedTaskManager записывает изменения на диск
+
+    public enum Durability {
+        NONE, // без fsync, данные остаются в кеше ОС
+        BATCH, // fsync после каждой записи пакета
+        OPERATION // fsync после каждого изменения, пакеты не накапливаются
+    }
+
+    public static final FlushPolicy IMMEDIATE = immediate(Durability.NONE);
+
+    private final long maxDelayMillis;
+    private final int maxMutations;
+    private final Durability durability;
+    private final boolean pipelined;
+    private final int queueCapacity; // 0 - без очереди записи
+
+    private FlushPolicy(long maxDelayMillis, int maxMutations, Durability durability, boolean pipelined,
+                        int queueCapacity) {
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxMutations = maxMutations;
+        this.durability = durability;
+        this.pipelined = pipelined;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public static FlushPolicy immediate(Durability durability) { // запись при каждом изменении
+        return new FlushPolicy(0, 1, durability, false, 0);
+    }
+
+    public static FlushPolicy batched(long maxDelayMillis, int maxMutations, Durability durability) { // запись пакетами
+        if (maxDelayMillis <= 0 || maxMutations <= 0) {
+            throw new IllegalArgumentException("Порог записи пакета должен быть положительным");
+        }
+        return new FlushPolicy(maxDelayMillis, maxMutations, durability, false, 0);
+    }
+
+    // Запись пакетами снимков: следующий снимок пишется во второй временный файл, пока предыдущий
+    // сбрасывается на диск и переименовывается отдельным потоком. Действует без журнала операций
+    public static FlushPolicy pipelined(long maxDelayMillis, int maxMutations, Durability durability) {
+        FlushPolicy batched = batched(maxDelayMillis, maxMutations, durability);
+        return new FlushPolicy(batched.maxDelayMillis, batched.maxMutations, batched.durability, true, 0);
+    }
+
+    // Изменения уходят в ограниченную очередь единственному потоку записи: вызывающий поток платит только
+    // за работу в памяти и ждёт, лишь когда очередь заполнена. Запись подтверждает
+    // FileBackedTaskManager.whenPersisted(). Требует журнала операций
+    public static FlushPolicy async(int queueCapacity, Durability durability) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Размер очереди записи должен быть положительным");
+        }
+        return new FlushPolicy(0, 1, durability, false, queueCapacity);
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public int getMaxMutations() {
+        return maxMutations;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public boolean isBatched() { // изменения копятся и записываются фоновым потоком
+        return maxMutations > 1 && durability != Durability.OPERATION;
+    }
+
+    public boolean isPipelined() {
+        return pipelined && isBatched();
+    }
+
+    public boolean isAsync() {
+        return queueCapacity > 0;
+    }
+
+    boolean forcesEachWrite() { // нужен ли fsync после записи
+        return durability != Durability.NONE;
+    }
+
+}
@@ -3,6 +3,7 @@ package manager;
 import model.Task;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public interface HistoryManager {
 
@@ -12,4 +13,12 @@ public interface HistoryManager {
 
     ArrayList<Task> getHistory();
 
+    List<Task> getHistory(int offset, int limit); // не более limit записей, пропустив первые offset
+
+    static void checkPage(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Смещение и размер страницы не могут быть отрицательными");
+        }
+    }
+
 }
@@ -4,6 +4,7 @@ import model.Task;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class InMemoryHistoryManager implements HistoryManager {
@@ -19,14 +20,29 @@ public class InMemoryHistoryManager implements HistoryManager {
     }
 
     private final Map<Integer, Node> historyMap = new HashMap<>();
+    private final int capacity;
     private Node head;
     private Node tail;
 
+    public InMemoryHistoryManager() { // история без ограничения размера
+        this(Integer.MAX_VALUE);
+    }
+
+    public InMemoryHistoryManager(int capacity) { // при переполнении вытесняются самые давние просмотры
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным");
+        }
+        this.capacity = capacity;
+    }
+
     @Override
     public void add(Task task) { // добавление истории
         if (task == null) return;
         remove(task.getId());
         linkLast(task);
+        if (historyMap.size() > capacity) {
+            remove(head.task.getId());
+        }
     }
 
     @Override
@@ -40,6 +56,21 @@ public class InMemoryHistoryManager implements HistoryManager {
         return result;
     }
 
+    @Override
+    public List<Task> getHistory(int offset, int limit) { // страница истории от самых давних просмотров
+        HistoryManager.checkPage(offset, limit);
+        List<Task> result = new ArrayList<>(Math.min(limit, Math.max(historyMap.size() - offset, 0)));
+        Node current = head;
+        for (int i = 0; i < offset && current != null; i++) {
+            current = current.next;
+        }
+        while (current != null && result.size() < limit) {
+            result.add(current.task);
+            current = current.next;
+        }
+        return result;
+    }
+
     @Override
     public void remove(int id) {
         Node node = historyMap.remove(id);
@@ -3,27 +3,48 @@ package manager;
 import model.Epic;
 import model.Status;
 import model.Subtask;
+import model.SubtaskTotals;
 import model.Task;
+import model.TaskType;
+import util.IntObjectMap;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class InMemoryTaskManager implements TaskManager {
 
-    protected final HashMap<Integer, Task> tasks = new HashMap<>();
-    protected final HashMap<Integer, Epic> epics = new HashMap<>();
-    protected final HashMap<Integer, Subtask> subtasks = new HashMap<>();
-    protected final HistoryManager historyManager = Managers.getDefaultHistory();
+    // Задачи и подзадачи хранятся неизменяемыми (Task.freeze) и отдаются без копирования; переданный в create
+    // или update объект не сохраняется, поэтому вызывающий может менять его дальше. Эпик тоже хранится неизменяемым
+    // значением: вклады подзадач менеджер ведёт в epicTotals и при их изменении заменяет эпик новым (Epic.withTotals).
+    // Неизменяемый объект в create передать нельзя: ему не присвоить id.
+
+    protected final IntObjectMap<Task> tasks = new IntObjectMap<>(); // ключи без упаковки, обход в порядке добавления
+    protected final IntObjectMap<Epic> epics = new IntObjectMap<>();
+    protected final IntObjectMap<Subtask> subtasks = new IntObjectMap<>();
+    protected final IntObjectMap<SubtaskTotals> epicTotals = new IntObjectMap<>(); // по id эпика
+    protected final HistoryManager historyManager;
     protected int nextId = 1;
     protected final TreeSet<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime,
             Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(Task::getId));
+    protected final TimeSlotIndex timeSlots = new TimeSlotIndex();
+    protected final StatusIndex statusIndex = new StatusIndex();
+    protected final SearchIndex searchIndex = new SearchIndex();
+
+    public InMemoryTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+    }
 
     // Методы для задач
     @Override
     public void createTask(Task task) { // создать задачу
-
+        TaskManager.checkNew(task);
         Task newTask = new Task(
                 task.getName(),
                 task.getDescription(),
@@ -31,15 +52,15 @@ public class InMemoryTaskManager implements TaskManager {
                 task.getStartTime(),
                 task.getDuration()
         );
-        newTask.setId(nextId++);
 
-        if (hasIntersections(task)) {
+        if (hasIntersections(newTask)) {
             throw new TimeConflictException("Задача пересекается по времени с существующей");
         }
 
-        task.setId(nextId++);
-        tasks.put(newTask.getId(), newTask);
-        prioritizedTasks.add(task);
+        newTask.setId(nextId++);
+        task.setId(newTask.getId());
+        tasks.put(newTask.getId(), newTask.freeze());
+        addToIndexes(newTask);
     }
 
     @Override
@@ -53,14 +74,49 @@ public class InMemoryTaskManager implements TaskManager {
             throw new TimeConflictException("Обновление задачи приводит к пересечению по времени");
         }
 
-        if (oldTask.getStartTime() != null) {
-            prioritizedTasks.remove(oldTask);
+        Task stored = task.asFrozen();
+        removeFromIndexes(oldTask);
+        tasks.put(stored.getId(), stored);
+        addToIndexes(stored);
+    }
+
+    @Override
+    public void createTasks(Collection<Task> batch) { // создать задачи одним пакетом
+        List<Task> newTasks = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            TaskManager.checkNew(task);
+            newTasks.add(new Task(task.getName(), task.getDescription(), task.getStatus(), task.getStartTime(),
+                    task.getDuration()));
         }
+        checkBatchIntersections(newTasks, "Пакет задач пересекается по времени с существующими");
+
+        Iterator<Task> source = batch.iterator();
+        for (Task newTask : newTasks) {
+            newTask.setId(nextId++);
+            source.next().setId(newTask.getId());
+            tasks.put(newTask.getId(), newTask.freeze());
+            addToIndexes(newTask);
+        }
+    }
 
-        tasks.put(task.getId(), task);
+    @Override
+    public void updateTasks(Collection<Task> batch) { // обновить задачи одним пакетом
+        List<Task> updates = new ArrayList<>(batch.size());
+        List<Task> oldTasks = new ArrayList<>(batch.size());
+        for (Task task : TaskManager.lastById(batch)) {
+            Task oldTask = tasks.get(task.getId());
+            if (oldTask != null) {
+                updates.add(task.asFrozen());
+                oldTasks.add(oldTask);
+            }
+        }
+        checkBatchIntersections(updates, "Обновление пакета задач приводит к пересечению по времени");
 
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
+        for (int i = 0; i < updates.size(); i++) {
+            Task task = updates.get(i);
+            removeFromIndexes(oldTasks.get(i));
+            tasks.put(task.getId(), task);
+            addToIndexes(task);
         }
     }
 
@@ -78,12 +134,21 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteTask(int id) { // удалить задачу
+        removeTask(id);
+    }
+
+    @Override
+    public void deleteTasks(int[] ids) { // удалить задачи по списку id
+        for (int id : ids) {
+            removeTask(id);
+        }
+    }
+
+    private void removeTask(int id) {
         Task task = tasks.remove(id);
         if (task != null) {
             historyManager.remove(id);
-            if (task.getStartTime() != null) {
-                prioritizedTasks.remove(task);
-            }
+            removeFromIndexes(task);
         }
     }
 
@@ -91,33 +156,34 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteAllTasks() { // удалить все задачи
         for (Task task : tasks.values()) {
             historyManager.remove(task.getId());
-            if (task.getStartTime() != null) {
-                prioritizedTasks.remove(task);
-            }
+            removeFromIndexes(task);
         }
         tasks.clear();
     }
 
     // Методы для эпиков
     @Override
-    public void createEpic(Epic epic) { // создать эпик
+    public void createEpic(Epic epic) { // создать эпик; хранится неизменяемая копия, как у задач
+        TaskManager.checkNew(epic);
         epic.setId(nextId++);
-        epics.put(epic.getId(), epic);
+        SubtaskTotals totals = new SubtaskTotals();
+        Epic stored = epic.withTotals(totals);
+        epicTotals.put(stored.getId(), totals);
+        epics.put(stored.getId(), stored);
+        addEpicToIndexes(stored);
     }
 
     @Override
     public void updateEpic(Epic epic) { // обновить эпик
         Epic savedEpic = epics.get(epic.getId());
-        if (savedEpic != null) {
+        if (savedEpic == null) {
             return;
         }
-        if (hasIntersections(epic)) {
-            throw new TimeConflictException("Обновление эпика приводит к пересечению");
-        }
 
-        savedEpic.setName(epic.getName());
-        savedEpic.setDescription(epic.getDescription());
-        updateEpicStatus(savedEpic);
+        Epic stored = savedEpic.withName(epic.getName()); // статус и время эпика определяются подзадачами
+        stored.setDescription(epic.getDescription());
+        epics.put(stored.getId(), stored.freeze());
+        searchIndex.put(stored);
     }
 
     @Override
@@ -136,16 +202,17 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteEpic(int id) { // удалить эпик
         Epic epic = epics.remove(id);
         if (epic != null) {
+            epicTotals.remove(id);
             for (Integer subtaskId : epic.getSubtaskIds()) {
                 Subtask subtask = subtasks.remove(subtaskId);
                 if (subtask != null) {
                     historyManager.remove(subtaskId);
-                    if (subtask.getStartTime() != null) {
-                        prioritizedTasks.remove(subtask);
-                    }
+                    removeFromIndexes(subtask);
                 }
             }
             historyManager.remove(id);
+            statusIndex.remove(epic);
+            searchIndex.remove(id);
         }
     }
 
@@ -153,24 +220,25 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteAllEpics() { // удалить все эпики вместе с подзадачами
         for (Subtask subtask : subtasks.values()) {
             historyManager.remove(subtask.getId());
-            if (subtask.getStartTime() != null) {
-                prioritizedTasks.remove(subtask);
-            }
+            removeFromIndexes(subtask);
         }
         subtasks.clear();
 
-        for (Integer epicId : epics.keySet()) {
-            historyManager.remove(epicId);
+        for (Epic epic : epics.values()) {
+            historyManager.remove(epic.getId());
+            searchIndex.remove(epic.getId());
         }
         epics.clear();
+        epicTotals.clear();
+        statusIndex.clear(TaskType.EPIC);
     }
 
     // Методы для подзадач
     @Override
     public void createSubtask(Subtask subtask) { // создать подзадачу
+        TaskManager.checkNew(subtask);
         int epicId = subtask.getEpicId();
-        Epic epic = epics.get(epicId);
-        if (epic == null) {
+        if (!epics.containsKey(epicId)) {
             return;
         }
 
@@ -179,39 +247,74 @@ public class InMemoryTaskManager implements TaskManager {
         }
 
         subtask.setId(nextId++);
-        subtasks.put(subtask.getId(), subtask);
-        epic.addSubtaskId(subtask.getId());
-        updateEpicStatus(epic);
-        updateEpicTime(epic);
+        Subtask stored = subtask.copy().freeze();
+        subtasks.put(stored.getId(), stored);
+        epicTotals.get(epicId).put(stored);
+        refreshEpic(epicId);
 
-        prioritizedTasks.add(subtask);
+        addToIndexes(stored);
     }
 
     @Override
     public void updateSubtask(Subtask subtask) { // обновить подзадачу
         Subtask oldSubtask = subtasks.get(subtask.getId());
-        if (oldSubtask == null) {
-            return;
+        if (oldSubtask == null || !epics.containsKey(subtask.getEpicId())) {
+            return; // перенос в несуществующий эпик не выполняется, как и создание в нём
         }
 
         if (hasIntersections(subtask)) {
             throw new TimeConflictException("Обновление подзадачи приводит к пересечению по времени");
         }
 
-        if (oldSubtask.getStartTime() != null) {
-            prioritizedTasks.remove(oldSubtask);
-        }
+        Subtask stored = subtask.asFrozen();
+        removeFromIndexes(oldSubtask);
+        subtasks.put(stored.getId(), stored);
+        addToIndexes(stored);
 
-        subtasks.put(subtask.getId(), subtask);
+        updateEpicSubtask(oldSubtask, stored);
+    }
 
-        if (subtask.getStartTime() != null) {
-            prioritizedTasks.add(subtask);
+    @Override
+    public void createSubtasks(Collection<Subtask> batch) { // создать подзадачи одним пакетом
+        List<Subtask> newSubtasks = new ArrayList<>(batch.size());
+        for (Subtask subtask : batch) {
+            TaskManager.checkNew(subtask);
+            if (epics.containsKey(subtask.getEpicId())) {
+                newSubtasks.add(subtask);
+            }
+        }
+        checkBatchIntersections(newSubtasks, "Пакет подзадач пересекается по времени с существующими");
+
+        for (Subtask subtask : newSubtasks) {
+            subtask.setId(nextId++);
+            Subtask stored = subtask.copy().freeze();
+            subtasks.put(stored.getId(), stored);
+            epicTotals.get(stored.getEpicId()).put(stored);
+            refreshEpic(stored.getEpicId());
+            addToIndexes(stored);
         }
+    }
 
-        Epic epic = epics.get(subtask.getEpicId());
-        if (epic != null) {
-            updateEpicStatus(epic);
-            updateEpicTime(epic);
+    @Override
+    public void updateSubtasks(Collection<Subtask> batch) { // обновить подзадачи одним пакетом
+        List<Subtask> updates = new ArrayList<>(batch.size());
+        List<Subtask> oldSubtasks = new ArrayList<>(batch.size());
+        for (Subtask subtask : TaskManager.lastById(batch)) {
+            Subtask oldSubtask = subtasks.get(subtask.getId());
+            if (oldSubtask != null && epics.containsKey(subtask.getEpicId())) {
+                updates.add(subtask.asFrozen());
+                oldSubtasks.add(oldSubtask);
+            }
+        }
+        checkBatchIntersections(updates,
+                "Обновление пакета подзадач приводит к пересечению по времени");
+
+        for (int i = 0; i < updates.size(); i++) {
+            Subtask subtask = updates.get(i);
+            removeFromIndexes(oldSubtasks.get(i));
+            subtasks.put(subtask.getId(), subtask);
+            addToIndexes(subtask);
+            updateEpicSubtask(oldSubtasks.get(i), subtask);
         }
     }
 
@@ -231,15 +334,21 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteSubtask(Integer id) { // удалить подзадачу
         Subtask subtask = subtasks.remove(id);
         if (subtask != null) {
-            Epic epic = epics.get(subtask.getEpicId());
-            if (epic != null) {
-                epic.removeSubtaskId(id);
-                updateEpicStatus(epic);
-                updateEpicTime(epic);
-            }
-            if (subtask.getStartTime() != null) {
-                prioritizedTasks.remove(subtask);
+            removeEpicSubtask(subtask);
+            removeFromIndexes(subtask);
+            historyManager.remove(id);
+        }
+    }
+
+    @Override
+    public void deleteSubtasks(int[] ids) { // удалить подзадачи по списку id
+        for (int id : ids) {
+            Subtask subtask = subtasks.remove(id);
+            if (subtask == null) {
+                continue;
             }
+            removeEpicSubtask(subtask);
+            removeFromIndexes(subtask);
             historyManager.remove(id);
         }
     }
@@ -248,34 +357,13 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteAllSubtasks() { //удалить все подзадачи
         for (Subtask subtask : subtasks.values()) {
             historyManager.remove(subtask.getId());
-            if (subtask.getStartTime() != null) {
-                prioritizedTasks.remove(subtask);
-            }
+            removeFromIndexes(subtask);
         }
 
         subtasks.clear();
-        for (Epic epic : epics.values()) {
-            epic.getSubtaskIds().clear();
-            updateEpicStatus(epic);
-        }
-    }
-
-    protected void updateEpicStatus(Epic epic) { // обновить статус эпика у подзадачи
-        ArrayList<Subtask> epicSubtasks = getEpicSubtasks(epic.getId());
-        if (epicSubtasks.isEmpty()) {
-            epic.setStatus(Status.NEW);
-            return;
-        }
-
-        boolean allDone = epicSubtasks.stream().allMatch(subtask -> subtask.getStatus() == Status.DONE);
-        boolean allNew = epicSubtasks.stream().allMatch(subtask -> subtask.getStatus() == Status.NEW);
-
-        if (allDone) {
-            epic.setStatus(Status.DONE);
-        } else if (allNew) {
-            epic.setStatus(Status.NEW);
-        } else {
-            epic.setStatus(Status.IN_PROGRESS);
+        for (int epicId : epics.keys()) {
+            epicTotals.get(epicId).clear();
+            refreshEpic(epicId);
         }
     }
 
@@ -297,15 +385,9 @@ public class InMemoryTaskManager implements TaskManager {
         return new ArrayList<>(historyManager.getHistory());
     }
 
-    private void updateEpicTime(Epic epic) {
-        List<Subtask> subtasks = getEpicSubtasks(epic.getId());
-        if (subtasks.isEmpty()) {
-            epic.setStartTime(null);
-            epic.setDuration(Duration.ZERO);
-            epic.setEndTime(null);
-        } else {
-            epic.updateTime(subtasks);
-        }
+    @Override
+    public List<Task> getHistory(int offset, int limit) { // получить страницу истории
+        return historyManager.getHistory(offset, limit);
     }
 
     @Override
@@ -313,19 +395,144 @@ public class InMemoryTaskManager implements TaskManager {
         return new ArrayList<>(prioritizedTasks);
     }
 
-    private boolean hasIntersections(Task task) { // проверка пересечения задачи с любой другой
-        if (task.getStartTime() == null) {
-            return false;
+    @Override
+    public List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to) { // поиск по списку приоритетов за O(log N + k)
+        TimeSlotIndex.checkWindow(from, to);
+        return TimeSlotIndex.inWindow(TimeSlotIndex.from(prioritizedTasks, from), from, to);
+    }
+
+    @Override
+    public LocalDateTime nextFreeSlot(Duration length, LocalDateTime after) {
+        return TimeSlotIndex.nextFree(TimeSlotIndex.from(prioritizedTasks, after), after, length);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) { // по индексу статусов: O(k) вместо обхода всех задач
+        return byIds(statusIndex.ids(TaskType.TASK, status), tasks);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return byIds(statusIndex.ids(TaskType.EPIC, status), epics);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return byIds(statusIndex.ids(TaskType.SUBTASK, status), subtasks);
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) { // O(1)
+        return statusIndex.count(type, status);
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        return statusIndex.count(status);
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        return statusIndex.count(type);
+    }
+
+    @Override
+    public List<Task> search(String query, int offset, int limit) { // поиск по обратному индексу без обхода задач
+        List<Task> result = new ArrayList<>();
+        for (int id : searchIndex.search(query, offset, limit)) {
+            Task task = tasks.get(id);
+            if (task == null) {
+                task = epics.containsKey(id) ? epics.get(id) : subtasks.get(id);
+            }
+            result.add(task);
         }
+        return result;
+    }
+
+    private static <T extends Task> List<T> byIds(int[] ids, IntObjectMap<T> storage) {
+        List<T> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(storage.get(id));
+        }
+        return result;
+    }
 
-        LocalDateTime start = task.getStartTime();
-        LocalDateTime end = task.getEndTime();
+    @Override
+    public Stream<Task> streamTasks() {
+        return Collections.unmodifiableCollection(tasks.values()).stream();
+    }
 
-        return prioritizedTasks.stream()
-                .filter(t -> t.getId() != task.getId())
-                .anyMatch(t -> t.getStartTime() != null &&
-                        start.isBefore(t.getEndTime()) &&
-                        t.getStartTime().isBefore(end));
+    @Override
+    public Stream<Epic> streamEpics() {
+        return Collections.unmodifiableCollection(epics.values()).stream();
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return Collections.unmodifiableCollection(subtasks.values()).stream();
+    }
+
+    @Override
+    public Stream<Task> streamPrioritizedTasks() {
+        return Collections.unmodifiableSet(prioritizedTasks).stream();
+    }
+
+    protected void addToIndexes(Task task) { // добавить задачу или подзадачу в список приоритетов и индексы
+        if (task.getStartTime() != null) {
+            prioritizedTasks.add(task);
+            timeSlots.add(task);
+        }
+        statusIndex.put(task);
+        searchIndex.put(task);
+    }
+
+    protected void removeFromIndexes(Task task) { // убрать задачу или подзадачу из списка приоритетов и индексов
+        if (task.getStartTime() != null) {
+            prioritizedTasks.remove(task);
+        }
+        timeSlots.remove(task.getId());
+        statusIndex.remove(task);
+        searchIndex.remove(task.getId());
+    }
+
+    protected void addEpicToIndexes(Epic epic) {
+        statusIndex.put(epic);
+        searchIndex.put(epic);
+    }
+
+    protected void refreshEpic(int epicId) { // заменить эпик значением с новым итогом по подзадачам, O(1)
+        Epic epic = epics.get(epicId).withTotals(epicTotals.get(epicId));
+        epics.put(epicId, epic);
+        statusIndex.put(epic); // статус эпика меняется вместе с его подзадачами
+    }
+
+    private void removeEpicSubtask(Subtask subtask) { // убрать вклад подзадачи из её эпика
+        SubtaskTotals totals = epicTotals.get(subtask.getEpicId());
+        if (totals != null) {
+            totals.remove(subtask.getId());
+            refreshEpic(subtask.getEpicId());
+        }
+    }
+
+    private void updateEpicSubtask(Subtask oldSubtask, Subtask subtask) { // обновить вклад подзадачи в эпик
+        if (oldSubtask.getEpicId() != subtask.getEpicId()) {
+            removeEpicSubtask(oldSubtask);
+        }
+        SubtaskTotals totals = epicTotals.get(subtask.getEpicId());
+        if (totals != null) {
+            totals.put(subtask);
+            refreshEpic(subtask.getEpicId());
+        }
+    }
+
+    private boolean hasIntersections(Task task) { // проверка пересечения задачи с любой другой
+        return timeSlots.overlaps(task);
+    }
+
+    private void checkBatchIntersections(List<? extends Task> batch, String message) { // проверка пакета до изменений
+        if (timeSlots.overlapsBatch(batch)) {
+            throw new TimeConflictException(message);
+        }
     }
 
 }
@@ -8,8 +8,36 @@ public class Managers {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getDefault(int historyCapacity) { // менеджер с ограниченной историей просмотров
+        return new InMemoryTaskManager(getDefaultHistory(historyCapacity));
+    }
+
+    public static TaskManager getConcurrent() { // менеджер для одновременного доступа из нескольких потоков
+        return new ConcurrentTaskManager();
+    }
+
+    public static TaskManager getColumnar() { // компактное хранение в колонках примитивов, задачи создаются при чтении
+        return new ColumnarTaskManager();
+    }
+
+    public static TaskManager getOffHeap() { // записи задач в прямых буферах вне кучи, для очень больших досок
+        return new OffHeapTaskManager();
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
 
+    public static HistoryManager getDefaultHistory(int capacity) { // история не длиннее capacity просмотров
+        return new InMemoryHistoryManager(capacity);
+    }
+
+    public static HistoryManager getConcurrentHistory() { // история для одновременных просмотров из многих потоков
+        return new ConcurrentHistoryManager();
+    }
+
+    public static HistoryManager getConcurrentHistory(int capacity) {
+        return new ConcurrentHistoryManager(capacity);
+    }
+
 }
@@ -0,0 +1,395 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import util.IntList;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+public class MappedTaskStore implements TaskQueries, AutoCloseable { // только чтение двоичного снимка без загрузки в память
+
+    // В памяти только отображение файла и индексы из примитивных массивов. Задачи разбираются из файла
+    // при каждом обращении и отдаются неизменяемыми, как у менеджеров. close отпускает отображение: после
+    // него обращения к записям запрещены, а память освобождает сборщик мусора, когда уходят последние ссылки.
+    private final File file;
+    private volatile ByteBuffer data; // отображение файла только для чтения, null после close; у каждого обращения своя копия позиции
+    private final long[] tasks; // id << 32 | смещение записи, по возрастанию id
+    private final long[] epics;
+    private final long[] subtasks;
+    private final long[] subtasksByEpic; // id эпика << 32 | смещение подзадачи
+    private final int[] prioritized; // смещения задач и подзадач со временем начала в порядке приоритета
+    private final HistoryManager historyManager = Managers.getConcurrentHistory();
+
+    private MappedTaskStore(File file, ByteBuffer data, long[] tasks, long[] epics, long[] subtasks,
+                            long[] subtasksByEpic, int[] prioritized) {
+        this.file = file;
+        this.data = data;
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+        this.subtasksByEpic = subtasksByEpic;
+        this.prioritized = prioritized;
+    }
+
+    public static MappedTaskStore open(File file) { // открыть двоичный снимок (SnapshotFormat.BINARY)
+        if (SnapshotFormat.detect(file) != SnapshotFormat.BINARY) {
+            throw new IllegalArgumentException("Ожидается двоичный снимок, преобразуйте файл через "
+                    + "SnapshotFormat.convert: " + file.getName());
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Снимок больше 2 ГБ не отображается одним буфером: "
+                        + file.getName());
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return index(file, data);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения файла: " + file.getName(), e);
+        }
+    }
+
+    private static MappedTaskStore index(File file, ByteBuffer data) throws IOException { // один проход по записям
+        ByteBuffer cursor = data.duplicate();
+        BinaryTaskFormat.readHeader(cursor);
+        LongList tasks = new LongList();
+        LongList epics = new LongList();
+        LongList subtasks = new LongList();
+        LongList subtaskEpics = new LongList(); // id эпика << 32 | номер подзадачи в subtasks
+        LongList startSeconds = new LongList();
+        LongList timed = new LongList(); // id << 32 | смещение задач со временем начала
+        IntList startNanos = new IntList();
+        BinaryTaskFormat.RecordInfo info = new BinaryTaskFormat.RecordInfo();
+
+        int offset = cursor.position();
+        while (BinaryTaskFormat.scan(cursor, info)) {
+            long key = (long) info.id << 32 | offset;
+            switch (info.type) {
+                case TASK:
+                    tasks.add(key);
+                    break;
+                case EPIC:
+                    epics.add(key);
+                    break;
+                case SUBTASK:
+                    subtaskEpics.add((long) info.epicId << 32 | subtasks.size);
+                    subtasks.add(key);
+                    break;
+            }
+            if (info.timed && info.type != TaskType.EPIC) {
+                timed.add(key);
+                startSeconds.add(info.startSecond);
+                startNanos.add(info.startNano);
+            }
+            offset = cursor.position();
+        }
+
+        long[] sortedEpics = epics.sorted();
+        long[] allSubtasks = subtasks.toArray();
+        LongList keptSubtasks = new LongList();
+        LongList byEpic = new LongList();
+        Set<Long> orphans = new HashSet<>();
+        long[] subtaskEpicPairs = subtaskEpics.toArray();
+        for (long pair : subtaskEpicPairs) {
+            int epicId = (int) (pair >>> 32);
+            long subtask = allSubtasks[(int) pair];
+            if (find(sortedEpics, epicId) >= 0) {
+                keptSubtasks.add(subtask);
+                byEpic.add((long) epicId << 32 | (subtask & 0xFFFFFFFFL));
+            } else {
+                orphans.add(subtask); // эпик удалён - подзадача тоже, как при loadFromFile
+            }
+        }
+
+        Integer[] order = new Integer[timed.size];
+        long[] timedKeys = timed.toArray();
+        long[] seconds = startSeconds.toArray();
+        int[] nanos = startNanos.toArray();
+        int kept = 0;
+        for (int i = 0; i < timedKeys.length; i++) {
+            if (!orphans.contains(timedKeys[i])) {
+                order[kept++] = i;
+            }
+        }
+        Arrays.sort(order, 0, kept, Comparator.<Integer>comparingLong(i -> seconds[i])
+                .thenComparingInt(i -> nanos[i])
+                .thenComparingInt(i -> (int) (timedKeys[i] >>> 32)));
+        int[] prioritized = new int[kept];
+        for (int i = 0; i < kept; i++) {
+            prioritized[i] = (int) timedKeys[order[i]];
+        }
+
+        return new MappedTaskStore(file, data, tasks.sorted(), sortedEpics, keptSubtasks.sorted(), byEpic.sorted(),
+                prioritized);
+    }
+
+    private static int find(long[] index, int id) { // позиция записи с данным id или отрицательное число
+        int low = 0;
+        int high = index.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = (int) (index[mid] >>> 32);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private Task decode(int offset) { // задача или подзадача неизменяема, эпик замораживает decodeEpic
+        ByteBuffer mapped = data;
+        if (mapped == null) {
+            throw new IllegalStateException("Хранилище закрыто: " + file.getName());
+        }
+        ByteBuffer view = mapped.duplicate();
+        view.position(offset);
+        try {
+            Task task = BinaryTaskFormat.decode(view);
+            return task instanceof Epic ? task : task.freeze();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения файла: " + file.getName(), e);
+        }
+    }
+
+    private Task decodeById(long[] index, int id) {
+        int position = find(index, id);
+        return position >= 0 ? decode((int) index[position]) : null;
+    }
+
+    private Epic decodeEpic(int offset) { // статус и время эпика считаются по его подзадачам, как при загрузке
+        Epic epic = (Epic) decode(offset);
+        epic.clearSubtasks();
+        for (Subtask subtask : getEpicSubtasks(epic.getId())) {
+            epic.putSubtask(subtask);
+        }
+        return epic.freeze();
+    }
+
+    // Чтение
+    public List<Task> tasksView() { // все задачи; каждая разбирается из файла при обращении
+        return new DecodedList<>(tasks.length, i -> decode((int) tasks[i]));
+    }
+
+    public List<Epic> epicsView() {
+        return new DecodedList<>(epics.length, i -> decodeEpic((int) epics[i]));
+    }
+
+    public List<Subtask> subtasksView() {
+        return new DecodedList<>(subtasks.length, i -> (Subtask) decode((int) subtasks[i]));
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() {
+        return new ArrayList<>(tasksView());
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        Task task = decodeById(tasks, id);
+        historyManager.add(task);
+        return task;
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() {
+        return new ArrayList<>(epicsView());
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        int position = find(epics, id);
+        Epic epic = position >= 0 ? decodeEpic((int) epics[position]) : null;
+        historyManager.add(epic);
+        return epic;
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() {
+        return new ArrayList<>(subtasksView());
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        Subtask subtask = (Subtask) decodeById(subtasks, id);
+        historyManager.add(subtask);
+        return subtask;
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        ArrayList<Subtask> result = new ArrayList<>();
+        int position = find(subtasksByEpic, epicId);
+        if (position < 0) {
+            return result;
+        }
+        while (position > 0 && (int) (subtasksByEpic[position - 1] >>> 32) == epicId) {
+            position--;
+        }
+        for (; position < subtasksByEpic.length && (int) (subtasksByEpic[position] >>> 32) == epicId; position++) {
+            result.add((Subtask) decode((int) subtasksByEpic[position]));
+        }
+        return result;
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        return historyManager.getHistory(offset, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() { // порядок посчитан при открытии, задачи разбираются при обращении
+        return new DecodedList<>(prioritized.length, i -> decode(prioritized[i]));
+    }
+
+    @Override
+    public List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to) { // разбираются O(log N + k) записей
+        TimeSlotIndex.checkWindow(from, to);
+        return TimeSlotIndex.inWindow(prioritizedFrom(from), from, to);
+    }
+
+    @Override
+    public LocalDateTime nextFreeSlot(Duration length, LocalDateTime after) {
+        return TimeSlotIndex.nextFree(prioritizedFrom(after), after, length);
+    }
+
+    private Iterator<Task> prioritizedFrom(LocalDateTime time) { // как TimeSlotIndex.from, двоичным поиском
+        List<Task> byStart = getPrioritizedTasks();
+        int position = firstStartingAt(byStart, time);
+        if (position > 0) { // последнее начало перед time: накрывающий time интервал начинается там
+            position = firstStartingAt(byStart, byStart.get(position - 1).getStartTime());
+        }
+        return byStart.subList(position, byStart.size()).iterator();
+    }
+
+    private static int firstStartingAt(List<Task> byStart, LocalDateTime time) { // первая задача с началом не раньше time
+        int low = 0;
+        int high = byStart.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (byStart.get(mid).getStartTime().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public Stream<Task> streamTasks() {
+        return tasksView().stream();
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return epicsView().stream();
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return subtasksView().stream();
+    }
+
+    @Override
+    public Stream<Task> streamPrioritizedTasks() {
+        return getPrioritizedTasks().stream();
+    }
+
+    @Override
+    public List<Task> getTasks(int offset, int limit) { // разбираются только записи страницы
+        return page(tasksView(), offset, limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int offset, int limit) {
+        return page(epicsView(), offset, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int offset, int limit) {
+        return page(subtasksView(), offset, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(int offset, int limit) {
+        return page(getPrioritizedTasks(), offset, limit);
+    }
+
+    private static <T> List<T> page(List<T> view, int offset, int limit) {
+        HistoryManager.checkPage(offset, limit);
+        int from = Math.min(offset, view.size());
+        return new ArrayList<>(view.subList(from, (int) Math.min((long) from + limit, view.size())));
+    }
+
+    @Override
+    public void close() { // отпустить отображение; освобождает его сборщик мусора
+        data = null;
+    }
+
+    private interface Decoder<T> {
+        T decode(int index);
+    }
+
+    private static final class DecodedList<T> extends AbstractList<T> implements RandomAccess { // неизменяемое представление
+        private final int size;
+        private final Decoder<T> decoder;
+
+        DecodedList(int size, Decoder<T> decoder) {
+            this.size = size;
+            this.decoder = decoder;
+        }
+
+        @Override
+        public T get(int index) {
+            Objects.checkIndex(index, size);
+            return decoder.decode(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private static final class LongList { // растущий массив long без упаковки
+        long[] values = new long[16];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        long[] sorted() {
+            long[] result = toArray();
+            Arrays.sort(result);
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,335 @@
+package manager;
+
+import model.Status;
+import model.TaskType;
+import util.SlabAllocator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class OffHeapTaskManager extends RecordTaskManager { // записи задач вне кучи: сборщик мусора их не обходит
+
+    // Записи фиксированной длины RECORD лежат в прямых буферах по PAGE_RECORDS штук, номер записи (слот)
+    // не меняется до удаления. Освобождённый слот встаёт в список свободных и занимается следующей новой
+    // записью. Порядок создания держат списки записей каждого типа (ORDER_NEXT/ORDER_PREVIOUS). Названия и
+    // описания в UTF-8 лежат в участках SlabAllocator. Соответствие id -> слот - тоже вне кучи, страницами.
+    // В куче остаются только порядок по времени (массивы int) и счётчики. Память вне кучи возвращается,
+    // когда менеджер становится недостижим.
+    private static final int PAGE_SHIFT = 14;
+    private static final int PAGE_RECORDS = 1 << PAGE_SHIFT;
+    private static final int ID_PAGE_SHIFT = 16;
+    private static final int NO_SLOT = -1;
+    private static final byte FREE = -1;
+    private static final byte NO_START = 1;
+    private static final byte NO_DURATION = 2;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    // Раскладка записи
+    private static final int ID = 0;
+    private static final int TYPE = 4; // TaskType.ordinal() или FREE
+    private static final int STATUS = 5;
+    private static final int FLAGS = 6;
+    private static final int START_SECOND = 8; // секунды от 1970-01-01 без часового пояса
+    private static final int SUBTASK_COUNTS = 8; // у эпика вместо времени: число подзадач по статусам
+    private static final int DURATION_SECOND = 16;
+    private static final int NAME = 24; // ссылки SlabAllocator
+    private static final int DESCRIPTION = 32;
+    private static final int START_NANO = 40;
+    private static final int DURATION_NANO = 44;
+    private static final int EPIC_ID = 48;
+    private static final int NEXT = 52; // id соседних подзадач эпика
+    private static final int PREVIOUS = 56;
+    private static final int ORDER_NEXT = 60; // слоты соседей в порядке создания; у свободной записи - следующая свободная
+    private static final int ORDER_PREVIOUS = 64;
+    private static final int RECORD = 72;
+
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private final List<ByteBuffer> idPages = new ArrayList<>(); // id -> слот + 1, 0 - записи нет
+    private final SlabAllocator text = new SlabAllocator();
+    private final int[] heads = new int[TYPES.length]; // первая и последняя запись каждого типа
+    private final int[] tails = new int[TYPES.length];
+    private int used; // слоты, выданные хотя бы раз
+    private int freeSlot = NO_SLOT;
+
+    public OffHeapTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public OffHeapTaskManager(HistoryManager historyManager) {
+        super(historyManager);
+        Arrays.fill(heads, NO_SLOT);
+        Arrays.fill(tails, NO_SLOT);
+    }
+
+    public long offHeapBytes() { // память вне кучи: записи, соответствие id и текст
+        return (long) pages.size() * PAGE_RECORDS * RECORD + (long) idPages.size() * (Integer.BYTES << ID_PAGE_SHIFT)
+                + text.reservedBytes();
+    }
+
+    @Override
+    protected int row(int id) {
+        int page = id >>> ID_PAGE_SHIFT;
+        if (id <= 0 || page >= idPages.size()) {
+            return -1;
+        }
+        return idPages.get(page).getInt((id & ((1 << ID_PAGE_SHIFT) - 1)) * Integer.BYTES) - 1;
+    }
+
+    private void setRow(int id, int slot) {
+        int page = id >>> ID_PAGE_SHIFT;
+        while (page >= idPages.size()) {
+            idPages.add(ByteBuffer.allocateDirect(Integer.BYTES << ID_PAGE_SHIFT)); // прямой буфер заполнен нулями
+        }
+        idPages.get(page).putInt((id & ((1 << ID_PAGE_SHIFT) - 1)) * Integer.BYTES, slot + 1);
+    }
+
+    @Override
+    protected int append(int id, TaskType type) { // занять свободный слот или новый в конце
+        int slot;
+        if (freeSlot != NO_SLOT) {
+            slot = freeSlot;
+            freeSlot = getInt(slot, ORDER_NEXT);
+        } else {
+            if (used == pages.size() * PAGE_RECORDS) {
+                pages.add(ByteBuffer.allocateDirect(PAGE_RECORDS * RECORD));
+            }
+            slot = used++;
+        }
+        ByteBuffer page = page(slot);
+        int offset = offset(slot);
+        for (int position = 0; position < RECORD; position += Long.BYTES) {
+            page.putLong(offset + position, 0);
+        }
+        page.putInt(offset + ID, id);
+        page.put(offset + TYPE, (byte) type.ordinal());
+        page.put(offset + STATUS, (byte) Status.NEW.ordinal());
+        page.put(offset + FLAGS, (byte) (NO_START | NO_DURATION));
+        page.putLong(offset + NAME, SlabAllocator.NULL);
+        page.putLong(offset + DESCRIPTION, SlabAllocator.NULL);
+
+        int last = tails[type.ordinal()]; // в конец списка своего типа
+        page.putInt(offset + ORDER_PREVIOUS, last);
+        page.putInt(offset + ORDER_NEXT, NO_SLOT);
+        if (last == NO_SLOT) {
+            heads[type.ordinal()] = slot;
+        } else {
+            putInt(last, ORDER_NEXT, slot);
+        }
+        tails[type.ordinal()] = slot;
+        setRow(id, slot);
+        return slot;
+    }
+
+    @Override
+    protected void free(int slot) {
+        freeText(slot);
+        int type = getByte(slot, TYPE);
+        int previous = getInt(slot, ORDER_PREVIOUS);
+        int next = getInt(slot, ORDER_NEXT);
+        if (previous == NO_SLOT) {
+            heads[type] = next;
+        } else {
+            putInt(previous, ORDER_NEXT, next);
+        }
+        if (next == NO_SLOT) {
+            tails[type] = previous;
+        } else {
+            putInt(next, ORDER_PREVIOUS, previous);
+        }
+        setRow(getInt(slot, ID), NO_SLOT);
+        page(slot).put(offset(slot) + TYPE, FREE);
+        putInt(slot, ORDER_NEXT, freeSlot);
+        freeSlot = slot;
+    }
+
+    @Override
+    protected void compact() { // слоты не переезжают: освобождённые занимаются заново
+    }
+
+    @Override
+    protected IntStream rows(TaskType type) {
+        return IntStream.iterate(heads[type.ordinal()], slot -> slot != NO_SLOT, slot -> getInt(slot, ORDER_NEXT));
+    }
+
+    @Override
+    protected int id(int slot) {
+        return getInt(slot, ID);
+    }
+
+    @Override
+    protected TaskType type(int slot) {
+        return TYPES[getByte(slot, TYPE)];
+    }
+
+    @Override
+    protected Status status(int slot) {
+        return STATUSES[getByte(slot, STATUS)];
+    }
+
+    @Override
+    protected void setStatus(int slot, Status status) {
+        page(slot).put(offset(slot) + STATUS, (byte) status.ordinal());
+    }
+
+    @Override
+    protected String name(int slot) {
+        return loadText(getLong(slot, NAME));
+    }
+
+    @Override
+    protected String description(int slot) {
+        return loadText(getLong(slot, DESCRIPTION));
+    }
+
+    @Override
+    protected void setText(int slot, String name, String description) {
+        long nameRef = storeText(name);
+        long descriptionRef = storeText(description);
+        freeText(slot);
+        putLong(slot, NAME, nameRef);
+        putLong(slot, DESCRIPTION, descriptionRef);
+    }
+
+    private long storeText(String value) {
+        return value != null ? text.store(value.getBytes(StandardCharsets.UTF_8)) : SlabAllocator.NULL;
+    }
+
+    private String loadText(long ref) {
+        return ref != SlabAllocator.NULL ? new String(text.load(ref), StandardCharsets.UTF_8) : null;
+    }
+
+    private void freeText(int slot) {
+        for (int field : new int[]{NAME, DESCRIPTION}) {
+            long ref = getLong(slot, field);
+            if (ref != SlabAllocator.NULL) {
+                text.free(ref);
+                putLong(slot, field, SlabAllocator.NULL);
+            }
+        }
+    }
+
+    @Override
+    protected LocalDateTime start(int slot) {
+        if ((getByte(slot, FLAGS) & NO_START) != 0) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(getLong(slot, START_SECOND), getInt(slot, START_NANO), ZoneOffset.UTC);
+    }
+
+    @Override
+    protected Duration duration(int slot) {
+        if ((getByte(slot, FLAGS) & NO_DURATION) != 0) {
+            return null;
+        }
+        return Duration.ofSeconds(getLong(slot, DURATION_SECOND), getInt(slot, DURATION_NANO));
+    }
+
+    @Override
+    protected void setTime(int slot, LocalDateTime start, Duration duration) {
+        byte flags = 0;
+        if (start == null) {
+            flags |= NO_START;
+        } else {
+            putLong(slot, START_SECOND, start.toEpochSecond(ZoneOffset.UTC));
+            putInt(slot, START_NANO, start.getNano());
+        }
+        if (duration == null) {
+            flags |= NO_DURATION;
+        } else {
+            putLong(slot, DURATION_SECOND, duration.getSeconds());
+            putInt(slot, DURATION_NANO, duration.getNano());
+        }
+        page(slot).put(offset(slot) + FLAGS, flags);
+    }
+
+    @Override
+    protected int compareStart(int first, int second) {
+        int order = Long.compare(getLong(first, START_SECOND), getLong(second, START_SECOND));
+        return order != 0 ? order : Integer.compare(getInt(first, START_NANO), getInt(second, START_NANO));
+    }
+
+    @Override
+    protected int compareStart(int slot, LocalDateTime time) {
+        int order = Long.compare(getLong(slot, START_SECOND), time.toEpochSecond(ZoneOffset.UTC));
+        return order != 0 ? order : Integer.compare(getInt(slot, START_NANO), time.getNano());
+    }
+
+    @Override
+    protected int epicId(int slot) {
+        return getInt(slot, EPIC_ID);
+    }
+
+    @Override
+    protected void setEpicId(int slot, int epicId) {
+        putInt(slot, EPIC_ID, epicId);
+    }
+
+    @Override
+    protected int next(int slot) {
+        return getInt(slot, NEXT);
+    }
+
+    @Override
+    protected void setNext(int slot, int id) {
+        putInt(slot, NEXT, id);
+    }
+
+    @Override
+    protected int previous(int slot) {
+        return getInt(slot, PREVIOUS);
+    }
+
+    @Override
+    protected void setPrevious(int slot, int id) {
+        putInt(slot, PREVIOUS, id);
+    }
+
+    @Override
+    protected int subtaskCount(int epicSlot, Status status) {
+        return getInt(epicSlot, SUBTASK_COUNTS + status.ordinal() * Integer.BYTES);
+    }
+
+    @Override
+    protected void addSubtaskCount(int epicSlot, Status status, int delta) {
+        int field = SUBTASK_COUNTS + status.ordinal() * Integer.BYTES;
+        putInt(epicSlot, field, getInt(epicSlot, field) + delta);
+    }
+
+    // Доступ к полям записи
+    private ByteBuffer page(int slot) {
+        return pages.get(slot >>> PAGE_SHIFT);
+    }
+
+    private static int offset(int slot) {
+        return (slot & (PAGE_RECORDS - 1)) * RECORD;
+    }
+
+    private byte getByte(int slot, int field) {
+        return page(slot).get(offset(slot) + field);
+    }
+
+    private int getInt(int slot, int field) {
+        return page(slot).getInt(offset(slot) + field);
+    }
+
+    private void putInt(int slot, int field, int value) {
+        page(slot).putInt(offset(slot) + field, value);
+    }
+
+    private long getLong(int slot, int field) {
+        return page(slot).getLong(offset(slot) + field);
+    }
+
+    private void putLong(int slot, int field, long value) {
+        page(slot).putLong(offset(slot) + field, value);
+    }
+
+}
@@ -0,0 +1,152 @@
+package manager;
+
+import model.Task;
+import model.TaskType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+class OperationJournal { // журнал операций: каждая запись — строка, дописываемая в конец файла
+
+    static final char PUT = '+';
+    static final char DELETE = '-';
+    static final char CLEAR = '!';
+
+    private final Path path;
+    private final UnaryOperator<WritableByteChannel> channels; // канал записи; проверки обрывают в нём запись
+    private final StringBuilder pending = new StringBuilder();
+    private FileChannel channel;
+    private int records = 0;
+
+    OperationJournal(File snapshotFile) {
+        this(snapshotFile, UnaryOperator.identity());
+    }
+
+    OperationJournal(File snapshotFile, UnaryOperator<WritableByteChannel> channels) {
+        this.path = fileFor(snapshotFile).toPath();
+        this.channels = channels;
+    }
+
+    static File fileFor(File snapshotFile) { // файл журнала рядом со снимком
+        return new File(snapshotFile.getPath() + ".journal");
+    }
+
+    static String putRecord(Task task) {
+        return CSVTaskFormat.appendTo(new StringBuilder(128).append(PUT).append(','), task).toString();
+    }
+
+    static String deleteRecord(int id) {
+        return DELETE + "," + id;
+    }
+
+    static String clearRecord(TaskType type) {
+        return CLEAR + "," + type.name();
+    }
+
+    void append(String record) { // добавить запись в буфер; запись считается целой только вместе с переводом строки
+        pending.append(record).append('\n');
+        records++;
+    }
+
+    String drainPending() { // забрать накопленные записи для записи вне блокировки менеджера
+        String result = pending.toString();
+        pending.setLength(0);
+        return result;
+    }
+
+    void flush(boolean force) { // дописать накопленные записи в файл
+        write(drainPending(), force);
+    }
+
+    void write(String data, boolean force) { // дописать записи в конец файла, при необходимости сбросить на диск
+        if (data.isEmpty()) {
+            return;
+        }
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(data);
+            WritableByteChannel target = channels.apply(channel);
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            if (force) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи журнала: " + path.getFileName(), e);
+        }
+    }
+
+    int size() { // количество записей с момента последнего сжатия
+        return records;
+    }
+
+    void reset() { // очистить журнал после записи снимка
+        try {
+            close();
+            pending.setLength(0);
+            Files.deleteIfExists(path);
+            records = 0;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка очистки журнала: " + path.getFileName(), e);
+        }
+    }
+
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    List<String> readRecords() { // прочитать целые записи; оборванная последняя запись отбрасывается
+        List<String> result = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return result;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            int complete = bytes.length;
+            while (complete > 0 && bytes[complete - 1] != '\n') {
+                complete--; // хвост без перевода строки может обрываться посреди символа
+            }
+            String content = new String(bytes, 0, complete, StandardCharsets.UTF_8);
+            int recordStart = 0;
+            int lineEnd;
+            int searchFrom = 0;
+            while ((lineEnd = content.indexOf('\n', searchFrom)) >= 0) {
+                String record = content.substring(recordStart, lineEnd);
+                searchFrom = lineEnd + 1;
+                if (!CSVTaskFormat.isComplete(record)) {
+                    continue; // перевод строки внутри поля в кавычках
+                }
+                if (!record.isEmpty()) {
+                    result.add(record);
+                }
+                recordStart = searchFrom;
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения журнала: " + path.getFileName(), e);
+        }
+        records = result.size();
+        return result;
+    }
+
+    boolean exists() {
+        return Files.exists(path);
+    }
+
+}
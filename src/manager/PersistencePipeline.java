@@ -0,0 +1,152 @@
+package manager;
+
+import model.Task;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+class PersistencePipeline { // ограниченная очередь изменений и единственный поток, который их записывает
+
+    // Изменение - неизменяемые строки журнала или копия всего состояния (снимок). Поток записи забирает из
+    // очереди всё накопленное и пишет одним пакетом; изменения до последнего снимка в пакете уже вошли в него
+    // и отдельно не пишутся. После ошибки записи журнал на диске отстаёт от памяти, поэтому следующие
+    // изменения отклоняются, пока не придёт снимок.
+    static final class Change {
+        final List<String> records;
+        final List<Task> snapshot; // null - только записи журнала
+        final long enqueuedNanos = System.nanoTime();
+        final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        private Change(List<String> records, List<Task> snapshot) {
+            this.records = records;
+            this.snapshot = snapshot;
+        }
+    }
+
+    interface Sink {
+        void write(List<Change> batch) throws IOException; // записать пакет по порядку и сбросить на диск
+    }
+
+    private static final Change STOP = new Change(List.of(), null);
+
+    private final BlockingQueue<Change> queue;
+    private final int maxBatch;
+    private final Sink sink;
+    private final String fileName;
+    private final Thread writer;
+    private volatile CompletableFuture<Void> lastSubmitted = CompletableFuture.completedFuture(null);
+    private volatile ManagerSaveException unreported; // ошибка, о которой ещё не узнал изменяющий поток
+    private ManagerSaveException failure; // только поток записи: снимка после ошибки ещё не было
+    private volatile long lastLagNanos;
+    private volatile long maxLagNanos;
+
+    PersistencePipeline(int capacity, int maxBatch, Sink sink, String fileName) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.sink = sink;
+        this.fileName = fileName;
+        this.writer = new Thread(this::run, "task-manager-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    CompletableFuture<Void> submit(List<String> records, List<Task> snapshot) { // ждёт, пока в очереди нет места
+        Change change = new Change(List.copyOf(records), snapshot);
+        try {
+            queue.put(change);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Ожидание очереди записи прервано: " + fileName, e);
+        }
+        lastSubmitted = change.written;
+        return change.written;
+    }
+
+    CompletableFuture<Void> lastSubmitted() { // завершится, когда записаны все переданные изменения
+        return lastSubmitted;
+    }
+
+    ManagerSaveException takeFailure() { // ошибка записи сообщается один раз
+        ManagerSaveException result = unreported;
+        if (result != null) {
+            unreported = null;
+        }
+        return result;
+    }
+
+    int queueDepth() {
+        return queue.size();
+    }
+
+    Duration lastWriteLag() { // от передачи изменения до записи на диск, для последнего пакета
+        return Duration.ofNanos(lastLagNanos);
+    }
+
+    Duration maxWriteLag() {
+        return Duration.ofNanos(maxLagNanos);
+    }
+
+    void close() { // записать очередь до конца и остановить поток
+        try {
+            queue.put(STOP);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Change> batch = new ArrayList<>();
+        boolean stopped = false;
+        while (!stopped) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            stopped = batch.remove(STOP); // после STOP в очередь ничего не кладут
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<Change> batch) {
+        int from = 0; // последний снимок в пакете, изменения до него в нём учтены
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (batch.get(i).snapshot != null) {
+                from = i;
+                failure = null;
+                break;
+            }
+        }
+        if (failure == null) {
+            try {
+                sink.write(batch.subList(from, batch.size()));
+            } catch (IOException | RuntimeException e) {
+                failure = e instanceof ManagerSaveException ? (ManagerSaveException) e
+                        : new ManagerSaveException("Ошибка записи в файл: " + fileName, e);
+                unreported = failure;
+            }
+        }
+        long now = System.nanoTime();
+        long lag = now - batch.get(0).enqueuedNanos;
+        lastLagNanos = lag;
+        maxLagNanos = Math.max(maxLagNanos, lag);
+        for (Change change : batch) {
+            if (failure == null) {
+                change.written.complete(null);
+            } else {
+                change.written.completeExceptionally(failure);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,706 @@
+package manager;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import util.IntHashSet;
+import util.IntSortedSet;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+abstract class RecordTaskManager implements TaskManager { // менеджер поверх хранилища записей без объектов задач
+
+    // Запись - задача, эпик или подзадача; как и где лежат поля, решает наследник. Объекты Task создаются
+    // при чтении, поэтому возвращаются копии: изменения в них попадают в менеджер только через update.
+    // Номер записи (row) действителен до следующего append или compact, поэтому связи между записями и
+    // порядок по времени хранят id. Подзадачи эпика связаны в список в порядке добавления через next/previous;
+    // у записи эпика next/previous - первая и последняя подзадача.
+    protected static final int NONE = 0; // id не бывает нулевым
+
+    protected final HistoryManager historyManager;
+    private int nextId = 1;
+    private final int[][] counts = new int[TaskType.values().length][Status.values().length]; // тип, статус -> число
+    private final IntSortedSet byStart = new IntSortedSet(this::compareByStart); // id задач и подзадач со временем
+
+    protected RecordTaskManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+    }
+
+    // Хранилище записей
+    protected abstract int row(int id); // запись по id или -1
+
+    protected abstract int append(int id, TaskType type); // новая запись: NEW, без текста и времени, связи NONE
+
+    protected abstract void free(int row); // освободить запись вместе с текстом
+
+    protected abstract void compact(); // вызывается после удалений; записи могут сменить номера
+
+    protected abstract IntStream rows(TaskType type); // записи типа в порядке создания
+
+    protected abstract int id(int row);
+
+    protected abstract TaskType type(int row);
+
+    protected abstract Status status(int row);
+
+    protected abstract void setStatus(int row, Status status);
+
+    protected abstract String name(int row);
+
+    protected abstract String description(int row);
+
+    protected abstract void setText(int row, String name, String description);
+
+    protected abstract LocalDateTime start(int row);
+
+    protected abstract Duration duration(int row);
+
+    protected abstract void setTime(int row, LocalDateTime start, Duration duration);
+
+    protected abstract int compareStart(int first, int second); // сравнение начал двух записей со временем
+
+    protected abstract int compareStart(int row, LocalDateTime time);
+
+    protected abstract int epicId(int row);
+
+    protected abstract void setEpicId(int row, int epicId);
+
+    protected abstract int next(int row);
+
+    protected abstract void setNext(int row, int id);
+
+    protected abstract int previous(int row);
+
+    protected abstract void setPrevious(int row, int id);
+
+    protected abstract int subtaskCount(int epicRow, Status status); // подзадачи эпика в статусе
+
+    protected abstract void addSubtaskCount(int epicRow, Status status, int delta);
+
+    protected IntStream rows(TaskType type, Status status) {
+        return rows(type).filter(row -> status(row) == status);
+    }
+
+    // Методы для задач
+    @Override
+    public void createTask(Task task) { // создать задачу
+        TaskManager.checkNew(task);
+        if (overlaps(task, id -> false)) {
+            throw new TimeConflictException("Задача пересекается по времени с существующей");
+        }
+        task.setId(nextId++);
+        insert(task, TaskType.TASK);
+    }
+
+    @Override
+    public void updateTask(Task task) { // обновить задачу
+        int row = row(task.getId(), TaskType.TASK);
+        if (row < 0) {
+            return;
+        }
+        if (overlaps(task, id -> id == task.getId())) {
+            throw new TimeConflictException("Обновление задачи приводит к пересечению по времени");
+        }
+        write(row, task);
+    }
+
+    @Override
+    public void createTasks(Collection<Task> batch) { // создать задачи одним пакетом
+        batch.forEach(TaskManager::checkNew);
+        checkBatchIntersections(batch, new IntHashSet(), "Пакет задач пересекается по времени с существующими");
+        for (Task task : batch) {
+            task.setId(nextId++);
+            insert(task, TaskType.TASK);
+        }
+    }
+
+    @Override
+    public void updateTasks(Collection<Task> batch) { // обновить задачи одним пакетом
+        List<Task> updates = present(TaskManager.lastById(batch), TaskType.TASK);
+        checkBatchIntersections(updates, ids(updates), "Обновление пакета задач приводит к пересечению по времени");
+        for (Task task : updates) {
+            write(row(task.getId()), task);
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() { // получить все задачи
+        return rows(TaskType.TASK).mapToObj(this::materialize).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Override
+    public Task getTaskById(int id) { // получить задачу по id
+        int row = row(id, TaskType.TASK);
+        Task task = row >= 0 ? materialize(row) : null;
+        historyManager.add(task);
+        return task;
+    }
+
+    @Override
+    public void deleteTask(int id) { // удалить задачу
+        deleteTasks(new int[]{id});
+    }
+
+    @Override
+    public void deleteTasks(int[] ids) { // удалить задачи по списку id
+        for (int id : ids) {
+            int row = row(id, TaskType.TASK);
+            if (row >= 0) {
+                historyManager.remove(id);
+                discard(row);
+            }
+        }
+        compact();
+    }
+
+    @Override
+    public void deleteAllTasks() { // удалить все задачи
+        deleteAll(TaskType.TASK);
+        compact();
+    }
+
+    // Методы для эпиков
+    @Override
+    public void createEpic(Epic epic) { // создать эпик
+        TaskManager.checkNew(epic);
+        epic.setId(nextId++);
+        int row = append(epic.getId(), TaskType.EPIC);
+        counts[TaskType.EPIC.ordinal()][Status.NEW.ordinal()]++;
+        setText(row, epic.getName(), epic.getDescription());
+    }
+
+    @Override
+    public void updateEpic(Epic epic) { // обновить эпик
+        int row = row(epic.getId(), TaskType.EPIC);
+        if (row >= 0) {
+            setText(row, epic.getName(), epic.getDescription()); // статус и время эпика определяются подзадачами
+        }
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() { // получить все эпики
+        return rows(TaskType.EPIC).mapToObj(this::materializeEpic).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Override
+    public Epic getEpicById(int id) { // получить эпик по id
+        int row = row(id, TaskType.EPIC);
+        Epic epic = row >= 0 ? materializeEpic(row) : null;
+        historyManager.add(epic);
+        return epic;
+    }
+
+    @Override
+    public void deleteEpic(int id) { // удалить эпик
+        int row = row(id, TaskType.EPIC);
+        if (row < 0) {
+            return;
+        }
+        for (int subtaskId = next(row); subtaskId != NONE; ) {
+            int subtaskRow = row(subtaskId);
+            historyManager.remove(subtaskId);
+            subtaskId = next(subtaskRow);
+            discard(subtaskRow);
+        }
+        historyManager.remove(id);
+        discard(row);
+        compact();
+    }
+
+    @Override
+    public void deleteAllEpics() { // удалить все эпики вместе с подзадачами
+        deleteAll(TaskType.SUBTASK);
+        deleteAll(TaskType.EPIC);
+        compact();
+    }
+
+    // Методы для подзадач
+    @Override
+    public void createSubtask(Subtask subtask) { // создать подзадачу
+        TaskManager.checkNew(subtask);
+        if (row(subtask.getEpicId(), TaskType.EPIC) < 0) {
+            return;
+        }
+        if (overlaps(subtask, id -> id == subtask.getId())) {
+            throw new TimeConflictException("Подзадача пересекается по времени с существующей");
+        }
+        subtask.setId(nextId++);
+        link(insert(subtask, TaskType.SUBTASK));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) { // обновить подзадачу
+        int row = row(subtask.getId(), TaskType.SUBTASK);
+        if (row < 0 || row(subtask.getEpicId(), TaskType.EPIC) < 0) {
+            return; // перенос в несуществующий эпик не выполняется, как и создание в нём
+        }
+        if (overlaps(subtask, id -> id == subtask.getId())) {
+            throw new TimeConflictException("Обновление подзадачи приводит к пересечению по времени");
+        }
+        writeSubtask(row, subtask);
+    }
+
+    @Override
+    public void createSubtasks(Collection<Subtask> batch) { // создать подзадачи одним пакетом
+        batch.forEach(TaskManager::checkNew);
+        List<Subtask> newSubtasks = new ArrayList<>(batch.size());
+        for (Subtask subtask : batch) {
+            if (row(subtask.getEpicId(), TaskType.EPIC) >= 0) {
+                newSubtasks.add(subtask);
+            }
+        }
+        checkBatchIntersections(newSubtasks, ids(newSubtasks), "Пакет подзадач пересекается по времени с существующими");
+        for (Subtask subtask : newSubtasks) {
+            subtask.setId(nextId++);
+            link(insert(subtask, TaskType.SUBTASK));
+        }
+    }
+
+    @Override
+    public void updateSubtasks(Collection<Subtask> batch) { // обновить подзадачи одним пакетом
+        List<Subtask> updates = present(TaskManager.lastById(batch), TaskType.SUBTASK);
+        updates.removeIf(subtask -> row(subtask.getEpicId(), TaskType.EPIC) < 0);
+        checkBatchIntersections(updates, ids(updates), "Обновление пакета подзадач приводит к пересечению по времени");
+        for (Subtask subtask : updates) {
+            writeSubtask(row(subtask.getId()), subtask);
+        }
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() { // получить все подзадачи
+        return rows(TaskType.SUBTASK).mapToObj(this::materializeSubtask)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) { // получить подзадачу по id
+        int row = row(id, TaskType.SUBTASK);
+        Subtask subtask = row >= 0 ? materializeSubtask(row) : null;
+        historyManager.add(subtask);
+        return subtask;
+    }
+
+    @Override
+    public void deleteSubtask(Integer id) { // удалить подзадачу
+        deleteSubtasks(new int[]{id});
+    }
+
+    @Override
+    public void deleteSubtasks(int[] ids) { // удалить подзадачи по списку id
+        for (int id : ids) {
+            int row = row(id, TaskType.SUBTASK);
+            if (row >= 0) {
+                unlink(row);
+                historyManager.remove(id);
+                discard(row);
+            }
+        }
+        compact();
+    }
+
+    @Override
+    public void deleteAllSubtasks() { //удалить все подзадачи
+        deleteAll(TaskType.SUBTASK);
+        for (int row : rows(TaskType.EPIC).toArray()) {
+            setNext(row, NONE);
+            setPrevious(row, NONE);
+            for (Status status : Status.values()) {
+                addSubtaskCount(row, status, -subtaskCount(row, status));
+            }
+            writeStatus(row, Status.NEW);
+        }
+        compact();
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) { // получить эпик к подзадаче
+        ArrayList<Subtask> result = new ArrayList<>();
+        int row = row(epicId, TaskType.EPIC);
+        if (row >= 0) {
+            for (int subtaskId = next(row); subtaskId != NONE; subtaskId = next(row(subtaskId))) {
+                result.add(materializeSubtask(row(subtaskId)));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() { // получить историю
+        return new ArrayList<>(historyManager.getHistory());
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) { // получить страницу истории
+        return historyManager.getHistory(offset, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        List<Task> result = new ArrayList<>(byStart.size());
+        materialize(byStart.iterator(0)).forEachRemaining(result::add);
+        return result;
+    }
+
+    @Override
+    public List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to) { // создаются O(k) объектов окна
+        TimeSlotIndex.checkWindow(from, to);
+        return TimeSlotIndex.inWindow(prioritizedFrom(from), from, to);
+    }
+
+    @Override
+    public LocalDateTime nextFreeSlot(Duration length, LocalDateTime after) {
+        return TimeSlotIndex.nextFree(prioritizedFrom(after), after, length);
+    }
+
+    // Выборки по статусу - проход по записям типа, объекты создаются только для найденных
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return rows(TaskType.TASK, status).mapToObj(this::materialize).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return rows(TaskType.EPIC, status).mapToObj(this::materializeEpic).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return rows(TaskType.SUBTASK, status).mapToObj(this::materializeSubtask).collect(Collectors.toList());
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) { // O(1)
+        return counts[type.ordinal()][status.ordinal()];
+    }
+
+    @Override
+    public Stream<Task> streamTasks() {
+        return rows(TaskType.TASK).mapToObj(this::materialize);
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return rows(TaskType.EPIC).mapToObj(this::materializeEpic);
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return rows(TaskType.SUBTASK).mapToObj(this::materializeSubtask);
+    }
+
+    @Override
+    public Stream<Task> streamPrioritizedTasks() {
+        return IntStream.range(0, byStart.size()).map(byStart::get).mapToObj(id -> materialize(row(id)));
+    }
+
+    @Override
+    public List<Task> getTasks(int offset, int limit) { // объекты создаются только для записей страницы
+        return page(rows(TaskType.TASK), offset, limit).mapToObj(this::materialize).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Epic> getEpics(int offset, int limit) {
+        return page(rows(TaskType.EPIC), offset, limit).mapToObj(this::materializeEpic).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int offset, int limit) {
+        return page(rows(TaskType.SUBTASK), offset, limit).mapToObj(this::materializeSubtask)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(int offset, int limit) {
+        HistoryManager.checkPage(offset, limit);
+        List<Task> result = new ArrayList<>();
+        Iterator<Task> page = materialize(byStart.iterator(Math.min(offset, byStart.size())));
+        while (page.hasNext() && result.size() < limit) {
+            result.add(page.next());
+        }
+        return result;
+    }
+
+    private static IntStream page(IntStream rows, int offset, int limit) {
+        HistoryManager.checkPage(offset, limit);
+        return rows.skip(offset).limit(limit);
+    }
+
+    // Записи
+    private int row(int id, TaskType type) { // запись по id, если это запись данного типа
+        int row = row(id);
+        return row >= 0 && type(row) == type ? row : -1;
+    }
+
+    private int insert(Task task, TaskType type) { // запись задачи или подзадачи с id, уже присвоенным task
+        int row = append(task.getId(), type);
+        counts[type.ordinal()][Status.NEW.ordinal()]++;
+        if (type == TaskType.SUBTASK) {
+            setEpicId(row, ((Subtask) task).getEpicId());
+        }
+        write(row, task);
+        return row;
+    }
+
+    private void write(int row, Task task) { // текст, статус и время задачи или подзадачи
+        int id = id(row);
+        if (start(row) != null) {
+            byStart.remove(id); // порядок читает время записи: сначала убрать, потом менять
+        }
+        setText(row, task.getName(), task.getDescription());
+        writeStatus(row, task.getStatus());
+        setTime(row, task.getStartTime(), task.getDuration());
+        if (task.getStartTime() != null) {
+            byStart.add(id);
+        }
+    }
+
+    private void writeStatus(int row, Status status) {
+        TaskType type = type(row);
+        counts[type.ordinal()][status(row).ordinal()]--;
+        setStatus(row, status);
+        counts[type.ordinal()][status.ordinal()]++;
+    }
+
+    private void discard(int row) { // убрать запись из порядка по времени и счётчиков, освободить
+        if (start(row) != null) {
+            byStart.remove(id(row));
+        }
+        counts[type(row).ordinal()][status(row).ordinal()]--;
+        free(row);
+    }
+
+    private void deleteAll(TaskType type) {
+        for (int row : rows(type).toArray()) {
+            historyManager.remove(id(row));
+            discard(row);
+        }
+    }
+
+    // Подзадачи эпика
+    private void link(int row) { // добавить подзадачу в конец списка её эпика
+        int epicRow = row(epicId(row), TaskType.EPIC);
+        if (epicRow < 0) {
+            return;
+        }
+        int id = id(row);
+        int last = previous(epicRow);
+        setPrevious(row, last);
+        setNext(row, NONE);
+        if (last == NONE) {
+            setNext(epicRow, id);
+        } else {
+            setNext(row(last), id);
+        }
+        setPrevious(epicRow, id);
+        addSubtaskCount(epicRow, status(row), 1);
+        refreshEpic(epicRow);
+    }
+
+    private void unlink(int row) { // убрать подзадачу из списка её эпика
+        int epicRow = row(epicId(row), TaskType.EPIC);
+        if (epicRow < 0) {
+            return;
+        }
+        int previous = previous(row);
+        int next = next(row);
+        if (previous == NONE) {
+            setNext(epicRow, next);
+        } else {
+            setNext(row(previous), next);
+        }
+        if (next == NONE) {
+            setPrevious(epicRow, previous);
+        } else {
+            setPrevious(row(next), previous);
+        }
+        setNext(row, NONE);
+        setPrevious(row, NONE);
+        addSubtaskCount(epicRow, status(row), -1);
+        refreshEpic(epicRow);
+    }
+
+    private void writeSubtask(int row, Subtask subtask) { // в прежнем эпике подзадача сохраняет место в списке
+        int epicRow = row(epicId(row), TaskType.EPIC);
+        if (epicId(row) == subtask.getEpicId() && epicRow >= 0) {
+            addSubtaskCount(epicRow, status(row), -1);
+            write(row, subtask);
+            addSubtaskCount(epicRow, status(row), 1);
+            refreshEpic(epicRow);
+        } else {
+            unlink(row);
+            write(row, subtask);
+            setEpicId(row, subtask.getEpicId());
+            link(row);
+        }
+    }
+
+    private void refreshEpic(int epicRow) { // статус эпика по числу подзадач в каждом статусе, как Epic
+        int total = 0;
+        for (Status status : Status.values()) {
+            total += subtaskCount(epicRow, status);
+        }
+        if (total == 0 || subtaskCount(epicRow, Status.NEW) == total) {
+            writeStatus(epicRow, Status.NEW);
+        } else if (subtaskCount(epicRow, Status.DONE) == total) {
+            writeStatus(epicRow, Status.DONE);
+        } else {
+            writeStatus(epicRow, Status.IN_PROGRESS);
+        }
+    }
+
+    // Создание объектов; задачи, подзадачи и эпики неизменяемы, как у остальных менеджеров
+    private Task materialize(int row) {
+        switch (type(row)) {
+            case EPIC:
+                return materializeEpic(row);
+            case SUBTASK:
+                return materializeSubtask(row);
+            default:
+                Task task = new Task(name(row), description(row), status(row), start(row), duration(row));
+                task.setId(id(row));
+                return task.freeze();
+        }
+    }
+
+    private Subtask materializeSubtask(int row) {
+        Subtask subtask = new Subtask(name(row), description(row), status(row), epicId(row), start(row),
+                duration(row));
+        subtask.setId(id(row));
+        return subtask.freeze();
+    }
+
+    private Epic materializeEpic(int row) { // статус и время эпика считает Epic по его подзадачам
+        Epic epic = new Epic(name(row), description(row));
+        epic.setId(id(row));
+        for (int subtaskId = next(row); subtaskId != NONE; subtaskId = next(row(subtaskId))) {
+            epic.putSubtask(materializeSubtask(row(subtaskId)));
+        }
+        return epic.freeze();
+    }
+
+    private Iterator<Task> materialize(PrimitiveIterator.OfInt ids) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public Task next() {
+                return materialize(row(ids.nextInt()));
+            }
+        };
+    }
+
+    // Время
+    private int compareByStart(int first, int second) { // порядок по началу, затем по id
+        int order = compareStart(row(first), row(second));
+        return order != 0 ? order : Integer.compare(first, second);
+    }
+
+    private int countStartingBefore(LocalDateTime time, boolean inclusive) { // позиция первой задачи с началом после time
+        return byStart.headCount(id -> {
+            int order = compareStart(row(id), time);
+            return order < 0 || inclusive && order == 0;
+        });
+    }
+
+    private Iterator<Task> prioritizedFrom(LocalDateTime time) { // как TimeSlotIndex.from, по позициям в byStart
+        int position = countStartingBefore(time, false);
+        if (position > 0) { // последнее начало перед time: накрывающий time интервал начинается там
+            position = countStartingBefore(start(row(byStart.get(position - 1))), false);
+        }
+        return materialize(byStart.iterator(position));
+    }
+
+    private LocalDateTime end(int row) {
+        Duration duration = duration(row);
+        return duration != null ? start(row).plus(duration) : start(row);
+    }
+
+    private boolean isPoint(int row) { // задача нулевой длительности
+        Duration duration = duration(row);
+        return duration == null || duration.isZero() || duration.isNegative();
+    }
+
+    // Пересечения по времени, те же правила, что в TimeSlotIndex: непустые интервалы не пересекаются друг
+    // с другом, задача нулевой длительности пересекается только с интервалом, строго накрывающим её момент
+    private boolean overlaps(Task task, IntPredicate excluded) {
+        return task.getStartTime() != null && overlaps(task.getStartTime(), TimeSlotIndex.endOf(task), excluded);
+    }
+
+    private boolean overlaps(LocalDateTime start, LocalDateTime end, IntPredicate excluded) {
+        boolean point = !start.isBefore(end);
+        for (int position = countStartingBefore(point ? start : end, false) - 1; position >= 0; position--) {
+            int row = row(byStart.get(position)); // последний непустой интервал, начатый раньше конца
+            if (excluded.test(id(row)) || isPoint(row)) {
+                continue;
+            }
+            if (end(row).isAfter(start)) {
+                return true;
+            }
+            break;
+        }
+        if (point) {
+            return false;
+        }
+        PrimitiveIterator.OfInt inside = byStart.iterator(countStartingBefore(start, true));
+        while (inside.hasNext()) { // задачи нулевой длительности строго внутри интервала
+            int row = row(inside.nextInt());
+            if (!start(row).isBefore(end)) {
+                break;
+            }
+            if (isPoint(row) && !excluded.test(id(row))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkBatchIntersections(Collection<? extends Task> batch, IntHashSet batchIds, String message) {
+        TimeSlotIndex batchSlots = new TimeSlotIndex(); // пересечения внутри пакета
+        int batchId = -1;
+        for (Task task : batch) {
+            if (task.getStartTime() == null) {
+                continue;
+            }
+            LocalDateTime start = task.getStartTime();
+            LocalDateTime end = TimeSlotIndex.endOf(task);
+            if (overlaps(start, end, batchIds::contains) || batchSlots.overlaps(start, end, 0)) {
+                throw new TimeConflictException(message);
+            }
+            batchSlots.add(batchId--, start, end);
+        }
+    }
+
+    private <T extends Task> List<T> present(Collection<T> batch, TaskType type) { // записи пакета, которые есть в менеджере
+        List<T> result = new ArrayList<>(batch.size());
+        for (T task : batch) {
+            if (row(task.getId(), type) >= 0) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    private static IntHashSet ids(Collection<? extends Task> batch) { // прежние интервалы пакета не мешают новым
+        IntHashSet result = new IntHashSet();
+        for (Task task : batch) {
+            result.add(task.getId());
+        }
+        return result;
+    }
+
+}
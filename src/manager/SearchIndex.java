@@ -0,0 +1,196 @@
+package manager;
+
+import model.Task;
+import util.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+class SearchIndex { // обратный индекс по словам названий и описаний задач
+
+    // Слово - непрерывная последовательность букв и цифр любого алфавита в нижнем регистре, ё приравнена к е.
+    // Запрос - слова через пробел, все должны встретиться в задаче; слово со * на конце ищется как префикс.
+    // Ранг - сумма по словам запроса: вес слова в задаче * ln(1 + число задач / число задач со словом).
+    private static final int NAME_WEIGHT = 3; // слово в названии важнее слова в описании
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final TreeMap<String, Map<Integer, Integer>> postings = new TreeMap<>(); // слово -> id -> вес
+    private final IntObjectMap<String[]> documents = new IntObjectMap<>(); // id -> слова задачи, для удаления
+
+    public void put(Task task) { // проиндексировать задачу заново, например после изменения текста
+        remove(task.getId());
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(task.getName(), word -> weights.merge(word, NAME_WEIGHT, Integer::sum));
+        tokenize(task.getDescription(), word -> weights.merge(word, DESCRIPTION_WEIGHT, Integer::sum));
+        String[] words = new String[weights.size()];
+        int count = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            String word = entry.getKey();
+            Map.Entry<String, Map<Integer, Integer>> known = postings.ceilingEntry(word);
+            Map<Integer, Integer> ids;
+            if (known != null && known.getKey().equals(word)) {
+                word = known.getKey(); // одна строка на слово во всём индексе
+                ids = known.getValue();
+            } else {
+                ids = new HashMap<>();
+                postings.put(word, ids);
+            }
+            ids.put(task.getId(), entry.getValue());
+            words[count++] = word;
+        }
+        documents.put(task.getId(), words);
+    }
+
+    public void remove(int id) {
+        String[] words = documents.remove(id);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Map<Integer, Integer> ids = postings.get(word);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public List<Integer> search(String query, int offset, int limit) { // id по убыванию ранга, при равенстве - по id
+        HistoryManager.checkPage(offset, limit);
+        List<List<Map<Integer, Integer>>> terms = new ArrayList<>(); // слово запроса -> подходящие списки id
+        parse(query, (word, prefix) -> terms.add(postingsOf(word, prefix)));
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        terms.sort(Comparator.comparingLong(SearchIndex::count)); // пересечение начинается с самого редкого слова
+        Map<Integer, Double> scores = new HashMap<>();
+        accumulate(terms.get(0), scores);
+        for (List<Map<Integer, Integer>> term : terms.subList(1, terms.size())) {
+            if (scores.isEmpty()) {
+                break;
+            }
+            if ((long) scores.size() * term.size() <= count(term)) { // кандидатов мало - проверить каждого
+                Iterator<Map.Entry<Integer, Double>> iterator = scores.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<Integer, Double> entry = iterator.next();
+                    double score = score(term, entry.getKey());
+                    if (score == 0) {
+                        iterator.remove();
+                    } else {
+                        entry.setValue(entry.getValue() + score);
+                    }
+                }
+            } else {
+                Map<Integer, Double> match = new HashMap<>();
+                accumulate(term, match);
+                scores.entrySet().removeIf(entry -> !match.containsKey(entry.getKey()));
+                scores.replaceAll((id, score) -> score + match.get(id));
+            }
+        }
+        return top(scores, offset, limit);
+    }
+
+    private static List<Integer> top(Map<Integer, Double> scores, int offset, int limit) { // страница без полной сортировки
+        Comparator<Map.Entry<Integer, Double>> rank = Map.Entry.<Integer, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        int keep = (int) Math.min((long) offset + limit, scores.size());
+        List<Integer> result = new ArrayList<>();
+        if (keep <= offset) {
+            return result;
+        }
+        PriorityQueue<Map.Entry<Integer, Double>> best = new PriorityQueue<>(keep, rank.reversed()); // худший в голове
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            if (best.size() < keep) {
+                best.add(entry);
+            } else if (rank.compare(entry, best.peek()) < 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+        List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(best);
+        ranked.sort(rank);
+        for (Map.Entry<Integer, Double> entry : ranked.subList(offset, ranked.size())) {
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+
+    private List<Map<Integer, Integer>> postingsOf(String word, boolean prefix) {
+        if (prefix) {
+            return new ArrayList<>(postings.subMap(word, true, word + Character.MAX_VALUE, false).values());
+        }
+        Map<Integer, Integer> ids = postings.get(word);
+        return ids != null ? List.of(ids) : List.of();
+    }
+
+    private static long count(List<Map<Integer, Integer>> term) {
+        long count = 0;
+        for (Map<Integer, Integer> ids : term) {
+            count += ids.size();
+        }
+        return count;
+    }
+
+    private double idf(Map<Integer, Integer> ids) { // редкое слово весит больше частого
+        return Math.log(1 + (double) documents.size() / ids.size());
+    }
+
+    private void accumulate(List<Map<Integer, Integer>> term, Map<Integer, Double> scores) {
+        for (Map<Integer, Integer> ids : term) {
+            double idf = idf(ids);
+            for (Map.Entry<Integer, Integer> entry : ids.entrySet()) {
+                scores.merge(entry.getKey(), entry.getValue() * idf, Double::sum);
+            }
+        }
+    }
+
+    private double score(List<Map<Integer, Integer>> term, int id) { // вклад слова запроса в ранг задачи, 0 - нет слова
+        double score = 0;
+        for (Map<Integer, Integer> ids : term) {
+            Integer weight = ids.get(id);
+            if (weight != null) {
+                score += weight * idf(ids);
+            }
+        }
+        return score;
+    }
+
+    static void parse(String query, BiConsumer<String, Boolean> consumer) { // слова запроса и признак префикса
+        scan(query, (word, end) -> consumer.accept(word, end < query.length() && query.charAt(end) == '*'));
+    }
+
+    static void tokenize(String text, Consumer<String> consumer) {
+        scan(text, (word, end) -> consumer.accept(word));
+    }
+
+    private static void scan(String text, ObjIntConsumer<String> consumer) { // слово и позиция за его концом
+        if (text == null) {
+            return;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                c = Character.toLowerCase(c);
+                word.append(c == 'ё' ? 'е' : c);
+            } else if (word.length() > 0) {
+                consumer.accept(word.toString(), i);
+                word.setLength(0);
+            }
+        }
+    }
+
+}
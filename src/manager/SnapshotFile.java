@@ -0,0 +1,95 @@
+package manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.UnaryOperator;
+
+final class SnapshotFile { // снимок пишется во временный файл рядом и атомарно заменяет прежний
+
+    // Файл снимка не бывает записан наполовину: сбой посреди записи оставляет прежний снимок и временный
+    // файл, который загрузка не читает, а следующая запись перезаписывает. Запись разделена на подготовку
+    // и замену, чтобы следующий снимок мог готовиться, пока предыдущий сбрасывается на диск.
+    interface Content {
+        void writeTo(SnapshotWriter writer) throws IOException;
+    }
+
+    private SnapshotFile() {
+    }
+
+    static File tempFor(File target, int slot) { // в том же каталоге: переименование не выходит за файловую систему
+        return new File(target.getPath() + ".tmp" + slot);
+    }
+
+    static void write(File target, SnapshotFormat format, boolean force, UnaryOperator<WritableByteChannel> channels,
+                      Content content) throws IOException {
+        File temp = tempFor(target, 0);
+        commit(prepare(temp, format, channels, content), temp, target, force);
+    }
+
+    // Записать снимок во временный файл; канал остаётся открытым до commit. channels оборачивает канал
+    // записи - так проверки обрывают запись на заданном байте
+    static FileChannel prepare(File temp, SnapshotFormat format, UnaryOperator<WritableByteChannel> channels,
+                               Content content) throws IOException {
+        FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            try (SnapshotWriter writer = format.openWriter(channels.apply(channel))) {
+                content.writeTo(writer);
+            }
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            discard(channel, temp, e);
+            throw e;
+        }
+    }
+
+    static void commit(FileChannel channel, File temp, File target, boolean force) throws IOException { // заменить снимок
+        try {
+            try (channel) {
+                if (force) {
+                    channel.force(false); // данные на диске раньше, чем имя указывает на них
+                }
+            }
+            try {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            discard(channel, temp, e);
+            throw e;
+        }
+        if (force) {
+            syncDirectory(target.getAbsoluteFile().toPath().getParent());
+        }
+    }
+
+    static void discard(FileChannel channel, File temp, Exception failure) { // закрыть и удалить недописанный файл
+        try {
+            channel.close();
+            Files.deleteIfExists(temp.toPath());
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private static void syncDirectory(Path directory) { // сохранить на диске и само переименование
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // не везде каталог открывается как файл; тогда переименование остаётся в кеше ОС
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package manager;
+
+import model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+public enum SnapshotFormat { // формат файла снимка; при загрузке определяется по содержимому
+    CSV,
+    BINARY;
+
+    public static SnapshotFormat detect(File file) { // двоичный снимок начинается с сигнатуры
+        byte[] magic = BinaryTaskFormat.MAGIC;
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            byte[] head = in.readNBytes(magic.length);
+            for (int i = 0; i < magic.length; i++) {
+                if (head.length != magic.length || head[i] != magic[i]) {
+                    return CSV;
+                }
+            }
+            return BINARY;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения файла: " + file.getName(), e);
+        }
+    }
+
+    public static void convert(File source, File target, SnapshotFormat format) { // переписать снимок в другом формате
+        try {
+            SnapshotFile.write(target, format, false, UnaryOperator.identity(), writer -> read(source, task -> {
+                try {
+                    writer.write(task);
+                } catch (IOException e) {
+                    throw new ManagerSaveException("Ошибка сохранения в файл: " + target.getName(), e);
+                }
+            }));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения в файл: " + target.getName(), e);
+        }
+    }
+
+    SnapshotWriter openWriter(WritableByteChannel channel) throws IOException {
+        return this == BINARY ? BinaryTaskFormat.writer(channel) : CSVTaskFormat.writer(channel);
+    }
+
+    static void read(File file, Consumer<Task> consumer) throws IOException { // прочитать снимок любого формата
+        if (detect(file) == BINARY) {
+            BinaryTaskFormat.read(file, consumer);
+        } else {
+            CSVTaskFormat.read(file, consumer);
+        }
+    }
+
+}
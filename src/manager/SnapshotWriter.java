@@ -0,0 +1,15 @@
+package manager;
+
+import model.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+interface SnapshotWriter extends Closeable { // запись снимка по одной задаче в чужой канал
+
+    void write(Task task) throws IOException;
+
+    @Override
+    void close() throws IOException; // дописать конец снимка и буфер; канал закрывает тот, кто его открыл
+
+}
@@ -0,0 +1,80 @@
+package manager;
+
+import model.Status;
+import model.Task;
+import model.TaskType;
+import util.IntHashSet;
+import util.IntObjectMap;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+class StatusIndex { // вторичный индекс: тип и статус -> id задач, счётчики за O(1)
+
+    // Статус запоминается при индексации, как вклад подзадачи в эпик: изменение объекта задачи
+    // без вызова update менеджера индекс не меняет
+    private final IntObjectMap<Status> statuses = new IntObjectMap<>();
+    private final Map<TaskType, Map<Status, IntHashSet>> ids = new EnumMap<>(TaskType.class);
+
+    StatusIndex() {
+        for (TaskType type : TaskType.values()) {
+            Map<Status, IntHashSet> byStatus = new EnumMap<>(Status.class);
+            for (Status status : Status.values()) {
+                byStatus.put(status, new IntHashSet());
+            }
+            ids.put(type, byStatus);
+        }
+    }
+
+    public void put(Task task) { // добавить задачу или перенести её к новому статусу
+        Status status = task.getStatus();
+        Status previous = statuses.put(task.getId(), status);
+        if (previous == status) {
+            return;
+        }
+        Map<Status, IntHashSet> byStatus = ids.get(task.getType());
+        if (previous != null) {
+            byStatus.get(previous).remove(task.getId());
+        }
+        byStatus.get(status).add(task.getId());
+    }
+
+    public void remove(Task task) {
+        Status previous = statuses.remove(task.getId());
+        if (previous != null) {
+            ids.get(task.getType()).get(previous).remove(task.getId());
+        }
+    }
+
+    public void clear(TaskType type) { // убрать все задачи одного типа
+        for (IntHashSet set : ids.get(type).values()) {
+            set.forEach(statuses::remove);
+            set.clear();
+        }
+    }
+
+    public int[] ids(TaskType type, Status status) {
+        return ids.get(type).get(status).toArray();
+    }
+
+    public int count(TaskType type, Status status) {
+        return ids.get(type).get(status).size();
+    }
+
+    public int count(Status status) {
+        int count = 0;
+        for (TaskType type : TaskType.values()) {
+            count += count(type, status);
+        }
+        return count;
+    }
+
+    public int count(TaskType type) {
+        int count = 0;
+        for (Status status : Status.values()) {
+            count += count(type, status);
+        }
+        return count;
+    }
+
+}
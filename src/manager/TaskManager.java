@@ -4,22 +4,25 @@ import model.Epic;
 import model.Subtask;
 import model.Task;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
-public interface TaskManager {
+public interface TaskManager extends TaskQueries { // чтение из TaskQueries и изменение задач
 
     // Методы для задач
     void createTask(Task task); // создать задачу
 
     void updateTask(Task task); // обновить задачу
 
-    ArrayList<Task> getAllTasks(); // получить все задачи
+    void createTasks(Collection<Task> tasks); // создать задачи одним пакетом
 
-    Task getTaskById(int id); // получить задачу по id
+    void updateTasks(Collection<Task> tasks); // обновить задачи одним пакетом; из повторов одного id действует последний
 
     void deleteTask(int id); // удалить задачу
 
+    void deleteTasks(int[] ids); // удалить задачи по списку id
+
     void deleteAllTasks(); // удалить все задачи
 
     // Методы для эпиков
@@ -27,10 +30,6 @@ public interface TaskManager {
 
     void updateEpic(Epic epic); // обновить эпик
 
-    ArrayList<Epic> getAllEpics(); // получить все эпики
-
-    Epic getEpicById(int id); // получить эпик по id
-
     void deleteEpic(int id); // удалить эпик
 
     void deleteAllEpics(); // удалить все эпики вместе с подзадачами
@@ -38,20 +37,30 @@ public interface TaskManager {
     // Методы для подзадач
     void createSubtask(Subtask subtask); // создать подзадачу
 
-    void updateSubtask(Subtask subtask); // обновить подзадачу
+    void updateSubtask(Subtask subtask); // обновить подзадачу; перенос в несуществующий эпик не выполняется
 
-    ArrayList<Subtask> getAllSubtasks(); // получить все подзадачи
+    void createSubtasks(Collection<Subtask> subtasks); // создать подзадачи одним пакетом
 
-    Subtask getSubtaskById(int id); // получить подзадачу по id
+    void updateSubtasks(Collection<Subtask> subtasks); // обновить подзадачи одним пакетом; повторы - как у задач
 
     void deleteSubtask(Integer id); // удалить подзадачу
 
-    void deleteAllSubtasks(); //удалить все подзадачи
-
-    ArrayList<Subtask> getEpicSubtasks(int epicId); // получить эпик к подзадаче
+    void deleteSubtasks(int[] ids); // удалить подзадачи по списку id
 
-    ArrayList<Task> getHistory(); // получить историю
+    void deleteAllSubtasks(); //удалить все подзадачи
 
-    List<Task> getPrioritizedTasks(); // сортировка всех задач по приоритету
+    static void checkNew(Task task) { // создаваемой задаче присваивается id, поэтому неизменяемую передать нельзя
+        if (task.isFrozen()) {
+            throw new IllegalArgumentException("Задача " + task.getId() + " неизменяема, для создания передайте copy()");
+        }
+    }
+
+    static <T extends Task> Collection<T> lastById(Collection<T> batch) { // пакет без повторов id: остаётся последний
+        Map<Integer, T> result = new LinkedHashMap<>(batch.size() * 2);
+        for (T task : batch) {
+            result.put(task.getId(), task);
+        }
+        return result.size() == batch.size() ? batch : result.values();
+    }
 
 }
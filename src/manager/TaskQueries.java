@@ -0,0 +1,133 @@
+package manager;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public interface TaskQueries { // чтение задач; менеджеры добавляют к нему изменения (TaskManager)
+
+    // Методы для задач
+    ArrayList<Task> getAllTasks(); // получить все задачи
+
+    Task getTaskById(int id); // получить задачу по id
+
+    // Методы для эпиков
+    ArrayList<Epic> getAllEpics(); // получить все эпики
+
+    Epic getEpicById(int id); // получить эпик по id
+
+    // Методы для подзадач
+    ArrayList<Subtask> getAllSubtasks(); // получить все подзадачи
+
+    Subtask getSubtaskById(int id); // получить подзадачу по id
+
+    ArrayList<Subtask> getEpicSubtasks(int epicId); // получить эпик к подзадаче
+
+    ArrayList<Task> getHistory(); // получить историю
+
+    List<Task> getHistory(int offset, int limit); // получить страницу истории без копирования всей истории
+
+    List<Task> getPrioritizedTasks(); // сортировка всех задач по приоритету
+
+    List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to); // задачи, пересекающие [from, to), по приоритету
+
+    LocalDateTime nextFreeSlot(Duration length, LocalDateTime after); // самое раннее начало свободного интервала не раньше after
+
+    // Потоки без копирования всей коллекции; изменять менеджер до окончания обхода нельзя
+    Stream<Task> streamTasks();
+
+    Stream<Epic> streamEpics();
+
+    Stream<Subtask> streamSubtasks();
+
+    Stream<Task> streamPrioritizedTasks(); // в порядке приоритета
+
+    // Неизменяемое состояние на момент вызова: задачи, эпики, подзадачи и порядок приоритета согласованы между собой.
+    // По умолчанию копируется всё состояние, и менять менеджер во время вызова нельзя
+    default TaskSnapshot snapshot() {
+        return TaskSnapshot.of(getAllTasks(), getAllEpics(), getAllSubtasks());
+    }
+
+    // Выборки и счётчики по статусу; по умолчанию обходом всех задач
+    default List<Task> getTasksByStatus(Status status) {
+        return streamTasks().filter(task -> task.getStatus() == status).collect(Collectors.toList());
+    }
+
+    default List<Epic> getEpicsByStatus(Status status) {
+        return streamEpics().filter(epic -> epic.getStatus() == status).collect(Collectors.toList());
+    }
+
+    default List<Subtask> getSubtasksByStatus(Status status) {
+        return streamSubtasks().filter(subtask -> subtask.getStatus() == status).collect(Collectors.toList());
+    }
+
+    default int countByStatus(TaskType type, Status status) {
+        Stream<? extends Task> stream = type == TaskType.TASK ? streamTasks()
+                : type == TaskType.EPIC ? streamEpics() : streamSubtasks();
+        return (int) stream.filter(task -> task.getStatus() == status).count();
+    }
+
+    default int countByStatus(Status status) { // задачи, эпики и подзадачи вместе
+        int count = 0;
+        for (TaskType type : TaskType.values()) {
+            count += countByStatus(type, status);
+        }
+        return count;
+    }
+
+    default int countByType(TaskType type) {
+        int count = 0;
+        for (Status status : Status.values()) {
+            count += countByStatus(type, status);
+        }
+        return count;
+    }
+
+    // Поиск по словам названий и описаний задач, эпиков и подзадач: все слова запроса должны встретиться,
+    // слово со * на конце - префикс. Результат по убыванию ранга. По умолчанию индекс строится на каждый запрос.
+    default List<Task> search(String query, int offset, int limit) {
+        SearchIndex index = new SearchIndex();
+        Map<Integer, Task> byId = new HashMap<>();
+        Stream.of(streamTasks(), streamEpics(), streamSubtasks()).flatMap(stream -> stream).forEach(task -> {
+            index.put(task);
+            byId.put(task.getId(), task);
+        });
+        return index.search(query, offset, limit).stream().map(byId::get).collect(Collectors.toList());
+    }
+
+    // Страницы: не более limit элементов, пропустив первые offset, в порядке соответствующего потока
+    default List<Task> getTasks(int offset, int limit) {
+        return page(streamTasks(), offset, limit);
+    }
+
+    default List<Epic> getEpics(int offset, int limit) {
+        return page(streamEpics(), offset, limit);
+    }
+
+    default List<Subtask> getSubtasks(int offset, int limit) {
+        return page(streamSubtasks(), offset, limit);
+    }
+
+    default List<Task> getPrioritizedTasks(int offset, int limit) {
+        return page(streamPrioritizedTasks(), offset, limit);
+    }
+
+    private static <T> List<T> page(Stream<T> stream, int offset, int limit) {
+        HistoryManager.checkPage(offset, limit);
+        try (stream) {
+            return stream.skip(offset).limit(limit).collect(Collectors.toList());
+        }
+    }
+
+}
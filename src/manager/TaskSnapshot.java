@@ -0,0 +1,154 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.PersistentSortedMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+public final class TaskSnapshot { // согласованное неизменяемое состояние менеджера на момент снимка
+
+    // Снимок хранит неизменяемые задачи (Task.freeze) в неизменяемых деревьях и отдаёт их без копирования. Новая версия после изменения отличается
+    // от прежней O(log n) узлами, остальное общее, поэтому менеджер может строить версию на каждое изменение,
+    // а читатель получает снимок без копирования. Эпик хранится готовым значением: менеджер заменяет его
+    // вместе с подзадачами (Epic.withTotals), поэтому чтение эпика не обходит его подзадачи.
+    // Чтение из снимка не попадает в историю.
+    private static final Comparator<Task> PRIORITY = Comparator.comparing(Task::getStartTime)
+            .thenComparingInt(Task::getId);
+
+    static final TaskSnapshot EMPTY = new TaskSnapshot(PersistentSortedMap.empty(), PersistentSortedMap.empty(),
+            PersistentSortedMap.empty(), PersistentSortedMap.empty(), PersistentSortedMap.empty(PRIORITY));
+
+    private final PersistentSortedMap<Integer, Task> tasks;
+    private final PersistentSortedMap<Integer, Epic> epics;
+    private final PersistentSortedMap<Integer, Subtask> subtasks;
+    private final PersistentSortedMap<Long, Subtask> epicSubtasks; // по ключу epicKey: подзадачи эпика подряд
+    private final PersistentSortedMap<Task, Task> prioritized; // задачи и подзадачи со временем начала
+
+    private TaskSnapshot(PersistentSortedMap<Integer, Task> tasks, PersistentSortedMap<Integer, Epic> epics,
+                         PersistentSortedMap<Integer, Subtask> subtasks, PersistentSortedMap<Long, Subtask> epicSubtasks,
+                         PersistentSortedMap<Task, Task> prioritized) {
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+        this.epicSubtasks = epicSubtasks;
+        this.prioritized = prioritized;
+    }
+
+    static TaskSnapshot of(Collection<Task> tasks, Collection<Epic> epics, Collection<Subtask> subtasks) {
+        TaskSnapshot snapshot = EMPTY;
+        for (Task task : tasks) {
+            snapshot = snapshot.withTask(task.asFrozen());
+        }
+        for (Epic epic : epics) {
+            snapshot = snapshot.withEpic(epic.asFrozen());
+        }
+        for (Subtask subtask : subtasks) {
+            snapshot = snapshot.withSubtask(subtask.asFrozen());
+        }
+        return snapshot;
+    }
+
+    // Чтение; задачи неизменяемы и отдаются как есть
+    public ArrayList<Task> getAllTasks() {
+        return new ArrayList<>(tasks.values());
+    }
+
+    public Task getTaskById(int id) {
+        return tasks.get(id);
+    }
+
+    public ArrayList<Epic> getAllEpics() {
+        return new ArrayList<>(epics.values());
+    }
+
+    public Epic getEpicById(int id) { // O(log n)
+        return epics.get(id);
+    }
+
+    public ArrayList<Subtask> getAllSubtasks() {
+        return new ArrayList<>(subtasks.values());
+    }
+
+    public Subtask getSubtaskById(int id) {
+        return subtasks.get(id);
+    }
+
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) { // по возрастанию id
+        return new ArrayList<>(subtasksOf(epicId));
+    }
+
+    public List<Task> getPrioritizedTasks() { // задачи и подзадачи со временем начала, по возрастанию начала
+        return prioritized.values();
+    }
+
+    public List<Task> getPrioritizedTasks(int offset, int limit) { // страница без обхода всего списка
+        HistoryManager.checkPage(offset, limit);
+        return prioritized.values(offset, limit);
+    }
+
+    // Новые версии для менеджера; передаются неизменяемые задачи
+    TaskSnapshot withTask(Task task) {
+        return new TaskSnapshot(tasks.put(task.getId(), task), epics, subtasks, epicSubtasks,
+                reschedule(tasks.get(task.getId()), task));
+    }
+
+    TaskSnapshot withoutTask(int id) {
+        Task task = tasks.get(id);
+        return task == null ? this : new TaskSnapshot(tasks.remove(id), epics, subtasks, epicSubtasks,
+                reschedule(task, null));
+    }
+
+    TaskSnapshot withEpic(Epic epic) { // подзадачи эпика не меняются
+        return new TaskSnapshot(tasks, epics.put(epic.getId(), epic), subtasks, epicSubtasks, prioritized);
+    }
+
+    TaskSnapshot withoutEpic(int id) { // вместе с подзадачами эпика
+        if (!epics.containsKey(id)) {
+            return this;
+        }
+        TaskSnapshot result = new TaskSnapshot(tasks, epics.remove(id), subtasks, epicSubtasks, prioritized);
+        for (Subtask subtask : subtasksOf(id)) {
+            result = result.withoutSubtask(subtask.getId());
+        }
+        return result;
+    }
+
+    TaskSnapshot withSubtask(Subtask subtask) {
+        Subtask previous = subtasks.get(subtask.getId());
+        PersistentSortedMap<Long, Subtask> byEpic = previous != null ? epicSubtasks.remove(epicKey(previous))
+                : epicSubtasks;
+        return new TaskSnapshot(tasks, epics, subtasks.put(subtask.getId(), subtask),
+                byEpic.put(epicKey(subtask), subtask), reschedule(previous, subtask));
+    }
+
+    TaskSnapshot withoutSubtask(int id) {
+        Subtask subtask = subtasks.get(id);
+        return subtask == null ? this : new TaskSnapshot(tasks, epics, subtasks.remove(id),
+                epicSubtasks.remove(epicKey(subtask)), reschedule(subtask, null));
+    }
+
+    private List<Subtask> subtasksOf(int epicId) {
+        return epicSubtasks.values((long) epicId << 32, (long) (epicId + 1) << 32);
+    }
+
+    private static long epicKey(Subtask subtask) { // id эпика в старших битах, id подзадачи в младших
+        return (long) subtask.getEpicId() << 32 | subtask.getId() & 0xFFFFFFFFL;
+    }
+
+    private PersistentSortedMap<Task, Task> reschedule(Task previous, Task current) {
+        PersistentSortedMap<Task, Task> result = prioritized;
+        if (previous != null && previous.getStartTime() != null) {
+            result = result.remove(previous);
+        }
+        if (current != null && current.getStartTime() != null) {
+            result = result.put(current, current);
+        }
+        return result;
+    }
+
+}
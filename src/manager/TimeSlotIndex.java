@@ -0,0 +1,213 @@
+package manager;
+
+import model.Status;
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+
+class TimeSlotIndex { // индекс занятых интервалов времени для проверки пересечений за O(log N)
+
+    private static class Slot {
+        final int id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+
+        Slot(int id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+
+        boolean isPoint() {
+            return !start.isBefore(end);
+        }
+    }
+
+    // непустые интервалы не пересекаются, поэтому начало однозначно определяет интервал
+    private final TreeMap<LocalDateTime, Slot> intervals = new TreeMap<>();
+    // задачи нулевой длительности: момент времени -> количество задач
+    private final TreeMap<LocalDateTime, Integer> points = new TreeMap<>();
+    private final Map<Integer, Slot> slots = new HashMap<>();
+
+    public boolean overlaps(Task task) { // пересекается ли задача с любой другой, кроме неё самой
+        if (task.getStartTime() == null) {
+            return false;
+        }
+        return overlaps(task.getStartTime(), endOf(task), task.getId());
+    }
+
+    public boolean overlaps(LocalDateTime start, LocalDateTime end, int excludeId) { // пересечение [start, end)
+        Slot own = slots.get(excludeId);
+
+        Map.Entry<LocalDateTime, Slot> entry = start.isBefore(end) ? intervals.lowerEntry(end) : intervals.lowerEntry(start);
+        if (entry != null && entry.getValue() == own) {
+            entry = intervals.lowerEntry(own.start);
+        }
+        if (entry != null && entry.getValue().end.isAfter(start)) {
+            return true;
+        }
+
+        if (!start.isBefore(end)) {
+            return false;
+        }
+        for (Map.Entry<LocalDateTime, Integer> point : points.subMap(start, false, end, false).entrySet()) {
+            int count = point.getValue();
+            if (own != null && own.isPoint() && own.start.equals(point.getKey())) {
+                count--;
+            }
+            if (count > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean overlapsBatch(Collection<? extends Task> batch) { // пересечение пакета с индексом и внутри пакета
+        List<Slot> released = new ArrayList<>(); // прежние интервалы задач пакета не мешают новым
+        for (Task task : batch) {
+            Slot slot = slots.get(task.getId());
+            if (slot != null) {
+                released.add(slot);
+                remove(slot.id);
+            }
+        }
+        try {
+            TimeSlotIndex batchSlots = new TimeSlotIndex();
+            int batchId = -1; // временные id не совпадают с id задач
+            for (Task task : batch) {
+                if (task.getStartTime() == null) {
+                    continue;
+                }
+                LocalDateTime start = task.getStartTime();
+                LocalDateTime end = endOf(task);
+                if (overlaps(start, end, task.getId()) || batchSlots.overlaps(start, end, 0)) {
+                    return true;
+                }
+                batchSlots.add(batchId--, start, end);
+            }
+            return false;
+        } finally {
+            for (Slot slot : released) {
+                add(slot.id, slot.start, slot.end);
+            }
+        }
+    }
+
+    public void add(Task task) { // занять интервал задачи
+        if (task.getStartTime() == null) {
+            return;
+        }
+        add(task.getId(), task.getStartTime(), endOf(task));
+    }
+
+    public void add(int id, LocalDateTime start, LocalDateTime end) { // занять интервал [start, end)
+        remove(id);
+        Slot slot = new Slot(id, start, end);
+        slots.put(slot.id, slot);
+        if (slot.isPoint()) {
+            points.merge(slot.start, 1, Integer::sum);
+        } else {
+            intervals.put(slot.start, slot);
+        }
+    }
+
+    public void remove(int id) { // освободить интервал задачи
+        Slot slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        if (slot.isPoint()) {
+            points.computeIfPresent(slot.start, (time, count) -> count > 1 ? count - 1 : null);
+        } else {
+            intervals.remove(slot.start, slot);
+        }
+    }
+
+    public void clear() {
+        intervals.clear();
+        points.clear();
+        slots.clear();
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    // Запросы по времени к задачам, упорядоченным по началу. Непустые интервалы не пересекаются, поэтому
+    // интервал, накрывающий момент time, начинается не позже последнего начала перед time, и обход можно
+    // начинать с этого начала: пропускается O(log N), просматриваются только задачи рядом с окном.
+
+    static Iterator<Task> from(NavigableSet<Task> byStart, LocalDateTime time) { // обход с последнего начала до time
+        Task previous = byStart.lower(probe(time));
+        return byStart.tailSet(probe(previous != null ? previous.getStartTime() : time), true).iterator();
+    }
+
+    static List<Task> inWindow(Iterator<Task> byStart, LocalDateTime from, LocalDateTime to) { // пересекающие [from, to)
+        checkWindow(from, to);
+        List<Task> result = new ArrayList<>();
+        while (byStart.hasNext() && from.isBefore(to)) { // пустое окно ничего не пересекает
+            Task task = byStart.next();
+            LocalDateTime start = task.getStartTime();
+            if (!start.isBefore(to)) {
+                break;
+            }
+            LocalDateTime end = endOf(task);
+            if (start.isBefore(end) ? end.isAfter(from) : !start.isBefore(from)) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    static LocalDateTime nextFree(Iterator<Task> byStart, LocalDateTime after,
+                                  Duration length) { // самое раннее начало не раньше after без пересечений
+        if (length.isNegative()) {
+            throw new IllegalArgumentException("Отрицательная продолжительность: " + length);
+        }
+        LocalDateTime candidate = after;
+        while (byStart.hasNext()) {
+            Task task = byStart.next();
+            LocalDateTime start = task.getStartTime();
+            LocalDateTime candidateEnd = candidate.plus(length);
+            if (!start.isBefore(candidateEnd)) {
+                break; // дальше задачи начинаются после конца кандидата
+            }
+            LocalDateTime end = endOf(task);
+            if (start.isBefore(end)) {
+                if (end.isAfter(candidate)) {
+                    candidate = end; // сдвиг за занятый интервал
+                }
+            } else if (start.isAfter(candidate)) {
+                candidate = start; // задача нулевой длительности внутри кандидата: с неё можно начать
+            }
+        }
+        return candidate;
+    }
+
+    static void checkWindow(LocalDateTime from, LocalDateTime to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Конец окна " + to + " раньше начала " + from);
+        }
+    }
+
+    private static Task probe(LocalDateTime time) { // граница для поиска: раньше всех задач с тем же началом
+        Task probe = new Task(null, null, Status.NEW, time, null);
+        probe.setId(Integer.MIN_VALUE);
+        return probe;
+    }
+
+    static LocalDateTime endOf(Task task) {
+        Duration duration = task.getDuration();
+        return duration != null ? task.getStartTime().plus(duration) : task.getStartTime();
+    }
+
+}
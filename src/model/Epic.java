@@ -3,66 +3,122 @@ package model;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.List;
 
 public class Epic extends Task {
 
-    private final ArrayList<Integer> subtaskIds = new ArrayList<>();
+    // Эпик хранит только итог по подзадачам: статус, время, id подзадач и счётчики статусов. Массивы id и счётчиков
+    // не меняются после присвоения и делятся между копиями, поэтому копия и withTotals - O(1). Сами вклады подзадач
+    // ведёт SubtaskTotals: менеджер держит его у себя и заменяет эпик-значение через withTotals, а putSubtask и
+    // removeSubtask заводят собственный SubtaskTotals у эпика, собранного вне менеджера.
+
+    private static final int[] NO_IDS = new int[0];
+
+    private int[] subtaskIds = NO_IDS; // в порядке добавления
+    private int[] statusCounts = new int[Status.values().length];
+    private SubtaskTotals totals; // только у эпика, подзадачи которого добавлены через putSubtask
     private LocalDateTime endTime;
 
     public Epic(String name, String description) { // конструктор
         super(name, description, Status.NEW, null, Duration.ZERO);
     }
 
-    public ArrayList<Integer> getSubtaskIds() { // получить подзадачу
-        return subtaskIds;
+    public Epic(Epic other) { // конструктор
+        super(other);
+        subtaskIds = other.subtaskIds;
+        statusCounts = other.statusCounts;
+        totals = other.totals != null ? new SubtaskTotals(other.totals) : null;
+        endTime = other.endTime;
     }
 
-    public void addSubtaskId(int id) { // добавить подзадачу
-        subtaskIds.add(id);
+    @Override
+    public Epic copy() { // O(1), если подзадачи эпика ведёт менеджер
+        return new Epic(this);
     }
 
-    public void removeSubtaskId(Integer id) { // удалить ид подзадачи
-        subtaskIds.remove(id);
+    @Override
+    public Epic freeze() {
+        return (Epic) super.freeze();
     }
 
     @Override
-    public TaskType getType() {
-        return TaskType.EPIC;
+    public Epic asFrozen() {
+        return (Epic) super.asFrozen();
+    }
+
+    @Override
+    public Epic withName(String name) {
+        return (Epic) super.withName(name);
+    }
+
+    @Override
+    public Epic withDescription(String description) {
+        return (Epic) super.withDescription(description);
+    }
+
+    public Epic withTotals(SubtaskTotals totals) { // неизменяемый эпик с итогом по подзадачам, O(1)
+        Epic epic = new Epic(getName(), getDescription());
+        epic.setId(getId());
+        epic.apply(totals);
+        return epic.freeze();
     }
 
-    public void updateTime(List<Subtask> subtasks) { // расчёт времени эпика
-        if (subtasks == null || subtasks.isEmpty()) {
-            this.startTime = null;
-            this.duration = Duration.ZERO;
-            this.endTime = null;
-            return;
+    public ArrayList<Integer> getSubtaskIds() { // получить подзадачу
+        ArrayList<Integer> result = new ArrayList<>(subtaskIds.length);
+        for (int id : subtaskIds) {
+            result.add(id);
         }
+        return result;
+    }
 
-        LocalDateTime minStart = LocalDateTime.MAX;
-        LocalDateTime maxEnd = LocalDateTime.MIN;
-        Duration totalDuration = Duration.ZERO;
+    public int getSubtaskCount(Status status) { // число подзадач эпика в статусе, O(1)
+        return statusCounts[status.ordinal()];
+    }
 
-        for (Subtask subtask : subtasks) {
-            Duration duration = subtask.getDuration() != null ? subtask.getDuration() : Duration.ZERO;
-            totalDuration = totalDuration.plus(duration);
+    public void putSubtask(Subtask subtask) { // добавить подзадачу или обновить её вклад в статус и время эпика
+        checkMutable();
+        SubtaskTotals totals = totals();
+        totals.put(subtask);
+        apply(totals);
+    }
 
-            if (subtask.getStartTime() != null) {
-                if (subtask.getStartTime().isBefore(minStart)) {
-                    minStart = subtask.getStartTime();
-                }
+    public void removeSubtask(int id) { // удалить подзадачу
+        checkMutable();
+        SubtaskTotals totals = totals();
+        totals.remove(id);
+        apply(totals);
+    }
 
-                LocalDateTime endTime = subtask.getEndTime();
-                if (endTime != null && endTime.isAfter(maxEnd)) {
-                    maxEnd = endTime;
-                }
-            }
+    public void clearSubtasks() { // удалить все подзадачи
+        checkMutable();
+        if (totals == null) {
+            totals = new SubtaskTotals();
         }
+        totals.clear();
+        apply(totals);
+    }
 
-        this.startTime = minStart.equals(LocalDateTime.MAX) ? null : minStart;
-        this.endTime = maxEnd.equals(LocalDateTime.MIN) ? null : maxEnd;
-        this.duration = totalDuration;
+    @Override
+    public TaskType getType() {
+        return TaskType.EPIC;
+    }
+
+    private SubtaskTotals totals() {
+        if (totals == null) {
+            if (subtaskIds.length > 0) {
+                throw new IllegalStateException("Подзадачи эпика " + getId() + " ведёт менеджер");
+            }
+            totals = new SubtaskTotals();
+        }
+        return totals;
+    }
 
+    private void apply(SubtaskTotals totals) { // статус и время эпика по итогу подзадач
+        setStatus(totals.getStatus());
+        this.startTime = totals.getStartTime();
+        this.endTime = totals.getEndTime();
+        this.duration = totals.getDuration();
+        this.subtaskIds = totals.ids();
+        this.statusCounts = totals.statusCounts();
     }
 
     @Override
@@ -71,6 +127,7 @@ public class Epic extends Task {
     }
 
     public void setEndTime(LocalDateTime endTime) {
+        checkMutable();
         this.endTime = endTime;
     }
 
@@ -21,6 +21,52 @@ public class Subtask extends Task {
         this.epicId = other.epicId;
     }
 
+    @Override
+    public Subtask copy() {
+        return new Subtask(this);
+    }
+
+    @Override
+    public Subtask freeze() {
+        return (Subtask) super.freeze();
+    }
+
+    @Override
+    public Subtask asFrozen() {
+        return (Subtask) super.asFrozen();
+    }
+
+    @Override
+    public Subtask withName(String name) {
+        return (Subtask) super.withName(name);
+    }
+
+    @Override
+    public Subtask withDescription(String description) {
+        return (Subtask) super.withDescription(description);
+    }
+
+    @Override
+    public Subtask withStatus(Status status) {
+        return (Subtask) super.withStatus(status);
+    }
+
+    @Override
+    public Subtask withStartTime(LocalDateTime startTime) {
+        return (Subtask) super.withStartTime(startTime);
+    }
+
+    @Override
+    public Subtask withDuration(Duration duration) {
+        return (Subtask) super.withDuration(duration);
+    }
+
+    public Subtask withEpicId(int epicId) { // перенос в другой эпик
+        Subtask copy = new Subtask(getName(), getDescription(), getStatus(), epicId, getStartTime(), getDuration());
+        copy.setId(getId());
+        return copy;
+    }
+
     public int getEpicId() {
         return epicId;
     }
@@ -0,0 +1,137 @@
+package model;
+
+import util.IntObjectMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.TreeMap;
+
+public final class SubtaskTotals { // вклад подзадач в статус и время эпика; ведёт его владелец эпика
+
+    // Эпик-значение (Epic.withTotals) берёт отсюда только итог: статус, время и массивы id и счётчиков.
+    // Массивы не меняются после выдачи: изменение состава или статусов заводит новые, поэтому эпики-значения
+    // делят их без копирования, а копия массива id делается только при добавлении и удалении подзадачи.
+
+    private static class SubtaskState { // вклад подзадачи в эпик на момент последнего добавления
+        final Status status;
+        final LocalDateTime startTime;
+        final LocalDateTime endTime;
+        final Duration duration;
+
+        SubtaskState(Subtask subtask) {
+            this.status = subtask.getStatus();
+            this.startTime = subtask.getStartTime();
+            this.duration = subtask.getDuration() != null ? subtask.getDuration() : Duration.ZERO;
+            this.endTime = startTime != null ? startTime.plus(duration) : null;
+        }
+    }
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final IntObjectMap<SubtaskState> states = new IntObjectMap<>(); // в порядке добавления
+    private final TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>(); // мультимножество начал подзадач
+    private final TreeMap<LocalDateTime, Integer> endTimes = new TreeMap<>(); // мультимножество окончаний подзадач
+    private int[] statusCounts = new int[Status.values().length];
+    private int[] ids = NO_IDS; // null - состав изменился, массив соберётся при следующем запросе
+    private Duration totalDuration = Duration.ZERO;
+
+    public SubtaskTotals() {
+    }
+
+    public SubtaskTotals(SubtaskTotals other) { // O(k) для k подзадач
+        for (int id : other.states.keys()) {
+            states.put(id, other.states.get(id)); // состояния подзадач неизменяемые
+        }
+        startTimes.putAll(other.startTimes);
+        endTimes.putAll(other.endTimes);
+        statusCounts = other.statusCounts;
+        ids = other.ids;
+        totalDuration = other.totalDuration;
+    }
+
+    public void put(Subtask subtask) { // добавить подзадачу или обновить её вклад
+        SubtaskState state = new SubtaskState(subtask);
+        SubtaskState previous = states.put(subtask.getId(), state);
+        int[] counts = statusCounts.clone();
+        if (previous != null) {
+            unaccount(previous, counts);
+        } else {
+            ids = null;
+        }
+        account(state, counts);
+        statusCounts = counts;
+    }
+
+    public void remove(int id) {
+        SubtaskState previous = states.remove(id);
+        if (previous != null) {
+            int[] counts = statusCounts.clone();
+            unaccount(previous, counts);
+            statusCounts = counts;
+            ids = null;
+        }
+    }
+
+    public void clear() {
+        states.clear();
+        startTimes.clear();
+        endTimes.clear();
+        statusCounts = new int[Status.values().length];
+        ids = NO_IDS;
+        totalDuration = Duration.ZERO;
+    }
+
+    public boolean isEmpty() {
+        return states.isEmpty();
+    }
+
+    public Status getStatus() { // все NEW или подзадач нет - NEW, все DONE - DONE, иначе IN_PROGRESS
+        int total = states.size();
+        if (total == 0 || statusCounts[Status.NEW.ordinal()] == total) {
+            return Status.NEW;
+        }
+        return statusCounts[Status.DONE.ordinal()] == total ? Status.DONE : Status.IN_PROGRESS;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTimes.isEmpty() ? null : startTimes.firstKey();
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTimes.isEmpty() ? null : endTimes.lastKey();
+    }
+
+    public Duration getDuration() {
+        return totalDuration;
+    }
+
+    int[] ids() { // id подзадач в порядке добавления; массив не меняется
+        if (ids == null) {
+            ids = states.keys();
+        }
+        return ids;
+    }
+
+    int[] statusCounts() { // число подзадач по статусам; массив не меняется
+        return statusCounts;
+    }
+
+    private void account(SubtaskState state, int[] counts) {
+        counts[state.status.ordinal()]++;
+        totalDuration = totalDuration.plus(state.duration);
+        if (state.startTime != null) {
+            startTimes.merge(state.startTime, 1, Integer::sum);
+            endTimes.merge(state.endTime, 1, Integer::sum);
+        }
+    }
+
+    private void unaccount(SubtaskState state, int[] counts) {
+        counts[state.status.ordinal()]--;
+        totalDuration = totalDuration.minus(state.duration);
+        if (state.startTime != null) {
+            startTimes.computeIfPresent(state.startTime, (time, count) -> count > 1 ? count - 1 : null);
+            endTimes.computeIfPresent(state.endTime, (time, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+}
@@ -6,12 +6,18 @@ import java.util.Objects;
 
 public class Task {
 
+    // Неизменяемый (замороженный) экземпляр нельзя изменить сеттерами: менеджер хранит такие и отдаёт их без
+    // копирования, их можно читать из любых потоков и держать в снимках. Изменённую версию дают with-методы:
+    // они возвращают изменяемую копию, которую можно передать в update. Поля не final из-за сеттеров изменяемых
+    // экземпляров: другим потокам замороженный объект передаётся через потокобезопасные коллекции менеджера.
+
     private String name;
     private String description; // описание задачи
     private Status status;
     private int id;
     protected Duration duration;
     protected LocalDateTime startTime;
+    private volatile boolean frozen; // проверка в сеттере видит заморозку из другого потока
 
     public Task(String name, String description, Status status, LocalDateTime startTime, Duration duration) { // конструктор
         this.name = name;
@@ -34,6 +40,53 @@ public class Task {
         this.duration = other.duration;
     }
 
+    public Task copy() { // изменяемая копия
+        return new Task(this);
+    }
+
+    public Task freeze() { // сделать этот экземпляр неизменяемым
+        frozen = true;
+        return this;
+    }
+
+    public Task asFrozen() { // этот экземпляр, если он уже неизменяем, иначе неизменяемая копия
+        return frozen ? this : copy().freeze();
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    public Task withName(String name) {
+        Task copy = copy();
+        copy.name = name;
+        return copy;
+    }
+
+    public Task withDescription(String description) {
+        Task copy = copy();
+        copy.description = description;
+        return copy;
+    }
+
+    public Task withStatus(Status status) {
+        Task copy = copy();
+        copy.status = status;
+        return copy;
+    }
+
+    public Task withStartTime(LocalDateTime startTime) {
+        Task copy = copy();
+        copy.startTime = startTime;
+        return copy;
+    }
+
+    public Task withDuration(Duration duration) {
+        Task copy = copy();
+        copy.duration = duration;
+        return copy;
+    }
+
     public String getName() {
         return name;
     }
@@ -63,29 +116,41 @@ public class Task {
     }
 
     public void setName(String name) {
+        checkMutable();
         this.name = name;
     }
 
     public void setDescription(String description) {
+        checkMutable();
         this.description = description;
     }
 
     public void setStatus(Status status) {
+        checkMutable();
         this.status = status;
     }
 
     public void setId(int id) {
+        checkMutable();
         this.id = id;
     }
 
     public void setStartTime(LocalDateTime startTime) {
+        checkMutable();
         this.startTime = startTime;
     }
 
     public void setDuration(Duration duration) {
+        checkMutable();
         this.duration = duration;
     }
 
+    protected final void checkMutable() {
+        if (frozen) {
+            throw new IllegalStateException("Задача " + id + " неизменяема, изменённую копию дают with-методы");
+        }
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true; // проверяем адреса объектов
@@ -0,0 +1,140 @@
+package util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public class IntHashSet { // множество int без упаковки: открытая адресация, порядок обхода не определён
+
+    // 0 в таблице означает пустую ячейку, поэтому сам ключ 0 хранится отдельным флагом. Удаление сдвигает
+    // следующие элементы цепочки назад, поэтому таблица обходится без пометок об удалении.
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] table = new int[MIN_CAPACITY];
+    private boolean containsZero;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int mask = table.length - 1;
+        for (int slot = hash(value) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            if (table[slot] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean add(int value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        for (; table[slot] != 0; slot = (slot + 1) & mask) {
+            if (table[slot] == value) {
+                return false;
+            }
+        }
+        table[slot] = value;
+        size++;
+        if (size * 2 > table.length) { // заполнение не больше половины
+            resize(table.length * 2);
+        }
+        return true;
+    }
+
+    public boolean remove(int value) {
+        if (value == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        while (table[slot] != value) {
+            if (table[slot] == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int next = slot;
+        while (true) { // сдвиг назад элементов, чья цепочка проходит через освобождённую ячейку
+            next = (next + 1) & mask;
+            if (table[next] == 0) {
+                break;
+            }
+            int home = hash(table[next]) & mask;
+            boolean movable = slot <= next ? home <= slot || home > next : home <= slot && home > next;
+            if (movable) {
+                table[slot] = table[next];
+                slot = next;
+            }
+        }
+        table[slot] = 0;
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        if (containsZero) {
+            action.accept(0);
+        }
+        for (int value : table) {
+            if (value != 0) {
+                action.accept(value);
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        int[] count = {0};
+        forEach(value -> result[count[0]++] = value);
+        return result;
+    }
+
+    private void resize(int capacity) {
+        int[] old = table;
+        table = new int[capacity];
+        int mask = capacity - 1;
+        for (int value : old) {
+            if (value != 0) {
+                int slot = hash(value) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    private static int hash(int value) { // перемешивание: растущие id не собираются в длинные серии
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
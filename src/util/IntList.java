@@ -0,0 +1,47 @@
+package util;
+
+import java.util.Arrays;
+
+public class IntList { // растущий массив int без упаковки
+
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this(16);
+    }
+
+    public IntList(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    public int get(int position) {
+        if (position >= size) {
+            throw new IndexOutOfBoundsException("Позиция " + position + " при размере " + size);
+        }
+        return values[position];
+    }
+
+    public int removeLast() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("Список пуст");
+        }
+        return values[--size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+}
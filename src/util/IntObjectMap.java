@@ -0,0 +1,195 @@
+package util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class IntObjectMap<V> { // отображение int -> V без упаковки ключей; обход в порядке добавления
+
+    // Записи лежат подряд в keys/values в порядке добавления, index - открытая адресация: ключ << 32 | номер
+    // записи + 1 (0 - пустая ячейка), так что проба читает один массив. Удалённая запись помечается REMOVED
+    // и остаётся в index до уплотнения при заполнении массивов записей: живые записи переносятся по порядку,
+    // index строится заново.
+    private static final Object REMOVED = new Object();
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private Object[] values;
+    private long[] index;
+    private int shift; // 64 - log2(index.length)
+    private int used; // занятые записи, включая удалённые
+    private int size;
+    private int modCount;
+
+    public IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        allocate(Math.max(expectedSize, MIN_CAPACITY));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int entry = find(key);
+        return entry >= 0 ? (V) values[entry] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) { // существующий ключ сохраняет своё место в порядке обхода
+        int entry = find(key);
+        if (entry >= 0) {
+            V previous = (V) values[entry];
+            values[entry] = value;
+            return previous;
+        }
+        if (used == keys.length) {
+            allocate(size * 2 > keys.length ? keys.length * 2 : keys.length); // рост или только уплотнение
+        }
+        keys[used] = key;
+        values[used] = value;
+        insert(key, used++);
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int entry = find(key);
+        if (entry < 0) {
+            return null;
+        }
+        V previous = (V) values[entry];
+        values[entry] = REMOVED;
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0, used, null);
+        Arrays.fill(index, 0);
+        used = 0;
+        size = 0;
+        modCount++;
+    }
+
+    public int[] keys() { // ключи в порядке добавления
+        int[] result = new int[size];
+        int count = 0;
+        for (int entry = 0; entry < used; entry++) {
+            if (values[entry] != REMOVED) {
+                result[count++] = keys[entry];
+            }
+        }
+        return result;
+    }
+
+    public Collection<V> values() { // представление значений в порядке добавления, без копирования
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int find(int key) { // номер живой записи с ключом или -1
+        int mask = index.length - 1;
+        for (int slot = slot(key); index[slot] != 0; slot = (slot + 1) & mask) {
+            long cell = index[slot];
+            if ((int) (cell >>> 32) == key) {
+                int entry = (int) cell - 1;
+                if (values[entry] != REMOVED) {
+                    return entry;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void insert(int key, int entry) {
+        int mask = index.length - 1;
+        int slot = slot(key);
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = (long) key << 32 | (entry + 1);
+    }
+
+    private void allocate(int capacity) { // новые массивы на capacity записей, живые записи переносятся по порядку
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        int oldUsed = used;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        index = new long[Integer.highestOneBit(capacity * 2 - 1) * 2]; // заполнение index не больше половины
+        shift = 64 - Integer.numberOfTrailingZeros(index.length);
+        used = 0;
+        for (int entry = 0; entry < oldUsed; entry++) {
+            if (oldValues[entry] != REMOVED) {
+                keys[used] = oldKeys[entry];
+                values[used] = oldValues[entry];
+                insert(keys[used], used);
+                used++;
+            }
+        }
+    }
+
+    private int slot(int key) { // старшие биты произведения Фибоначчи: растущие id не собираются в длинные серии
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private class ValueIterator implements Iterator<V> {
+        private final int expectedModCount = modCount;
+        private int next = skipRemoved(0);
+
+        private int skipRemoved(int entry) {
+            while (entry < used && values[entry] == REMOVED) {
+                entry++;
+            }
+            return entry;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < used;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= used) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) values[next];
+            next = skipRemoved(next + 1);
+            return value;
+        }
+    }
+
+}
@@ -0,0 +1,266 @@
+package util;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+
+public class IntSortedSet { // множество int в порядке внешнего сравнения, без упаковки и узлов дерева
+
+    // Элементы лежат в отсортированных блоках до BLOCK штук: вставка сдвигает только свой блок, полный блок
+    // делится пополам, пустой убирается, соседние малые сливаются. first[b] - позиция первого элемента блока b
+    // во всём множестве, по ней позиция находится двоичным поиском. Сравнение задаётся снаружи и может
+    // читать внешние массивы, поэтому порядок не должен меняться, пока элемент в множестве.
+    private static final int BLOCK = 1024;
+
+    private final IntBinaryOperator comparator;
+    private int[][] blocks = new int[4][];
+    private int[] sizes = new int[4];
+    private int[] first = new int[4];
+    private int blockCount;
+    private int size;
+    private int modCount;
+
+    public IntSortedSet(IntBinaryOperator comparator) {
+        this.comparator = comparator;
+        clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean add(int value) {
+        int block = blockFor(value);
+        int position = search(block, value);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        if (sizes[block] == BLOCK) {
+            split(block);
+            if (position > sizes[block]) {
+                position -= sizes[block];
+                block++;
+            }
+        }
+        int[] values = blocks[block];
+        System.arraycopy(values, position, values, position + 1, sizes[block] - position);
+        values[position] = value;
+        sizes[block]++;
+        shiftFirst(block + 1, 1);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int block = blockFor(value);
+        int position = search(block, value);
+        if (position < 0) {
+            return false;
+        }
+        int[] values = blocks[block];
+        System.arraycopy(values, position + 1, values, position, sizes[block] - position - 1);
+        sizes[block]--;
+        shiftFirst(block + 1, -1);
+        size--;
+        modCount++;
+        if (sizes[block] == 0 && blockCount > 1) {
+            removeBlock(block);
+        } else if (block + 1 < blockCount && sizes[block] + sizes[block + 1] <= BLOCK / 2) {
+            merge(block);
+        } else if (block > 0 && sizes[block - 1] + sizes[block] <= BLOCK / 2) {
+            merge(block - 1);
+        }
+        return true;
+    }
+
+    public void clear() {
+        blocks = new int[4][];
+        sizes = new int[4];
+        first = new int[4];
+        blocks[0] = new int[BLOCK];
+        blockCount = 1;
+        size = 0;
+        modCount++;
+    }
+
+    public int get(int position) { // элемент на позиции в порядке сравнения, O(log N)
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Позиция " + position + " при размере " + size);
+        }
+        int block = blockAt(position);
+        return blocks[block][position - first[block]];
+    }
+
+    // Число начальных элементов, для которых before истинно; предикат должен быть истинным на начале
+    // порядка и ложным на остальном, как «элемент раньше границы». Это позиция первого элемента после границы.
+    public int headCount(IntPredicate before) {
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) { // первый блок, последний элемент которого не раньше границы
+            int mid = (low + high) >>> 1;
+            if (before.test(blocks[mid][sizes[mid] - 1])) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int[] values = blocks[low];
+        int from = 0;
+        int to = sizes[low];
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (before.test(values[mid])) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return first[low] + from;
+    }
+
+    public PrimitiveIterator.OfInt iterator(int position) { // обход с позиции; изменять множество при обходе нельзя
+        if (position < 0 || position > size) {
+            throw new IndexOutOfBoundsException("Позиция " + position + " при размере " + size);
+        }
+        return new BlockIterator(position);
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        for (int block = 0; block < blockCount; block++) {
+            System.arraycopy(blocks[block], 0, result, first[block], sizes[block]);
+        }
+        return result;
+    }
+
+    private int blockFor(int value) { // блок, куда входит значение: первый с последним элементом не меньше значения
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.applyAsInt(blocks[mid][sizes[mid] - 1], value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int search(int block, int value) { // как Arrays.binarySearch внутри блока
+        int[] values = blocks[block];
+        int low = 0;
+        int high = sizes[block] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int order = comparator.applyAsInt(values[mid], value);
+            if (order < 0) {
+                low = mid + 1;
+            } else if (order > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int blockAt(int position) { // последний блок, начинающийся не позже позиции
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (first[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private void shiftFirst(int fromBlock, int delta) {
+        for (int block = fromBlock; block < blockCount; block++) {
+            first[block] += delta;
+        }
+    }
+
+    private void split(int block) { // вторая половина полного блока переходит в новый блок за ним
+        insertBlock(block + 1);
+        int half = sizes[block] / 2;
+        int moved = sizes[block] - half;
+        System.arraycopy(blocks[block], half, blocks[block + 1], 0, moved);
+        sizes[block] = half;
+        sizes[block + 1] = moved;
+        first[block + 1] = first[block] + half;
+    }
+
+    private void merge(int block) { // блок за block переходит в конец block
+        System.arraycopy(blocks[block + 1], 0, blocks[block], sizes[block], sizes[block + 1]);
+        sizes[block] += sizes[block + 1];
+        removeBlock(block + 1);
+    }
+
+    private void insertBlock(int block) {
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blockCount * 2);
+            sizes = Arrays.copyOf(sizes, blockCount * 2);
+            first = Arrays.copyOf(first, blockCount * 2);
+        }
+        System.arraycopy(blocks, block, blocks, block + 1, blockCount - block);
+        System.arraycopy(sizes, block, sizes, block + 1, blockCount - block);
+        System.arraycopy(first, block, first, block + 1, blockCount - block);
+        blocks[block] = new int[BLOCK];
+        blockCount++;
+    }
+
+    private void removeBlock(int block) {
+        System.arraycopy(blocks, block + 1, blocks, block, blockCount - block - 1);
+        System.arraycopy(sizes, block + 1, sizes, block, blockCount - block - 1);
+        System.arraycopy(first, block + 1, first, block, blockCount - block - 1);
+        blockCount--;
+        blocks[blockCount] = null;
+    }
+
+    private class BlockIterator implements PrimitiveIterator.OfInt {
+        private final int expectedModCount = modCount;
+        private int block;
+        private int offset;
+
+        BlockIterator(int position) {
+            block = position < size ? blockAt(position) : blockCount;
+            offset = position < size ? position - first[block] : 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return block < blockCount;
+        }
+
+        @Override
+        public int nextInt() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (block >= blockCount) {
+                throw new NoSuchElementException();
+            }
+            int value = blocks[block][offset++];
+            if (offset == sizes[block]) {
+                block++;
+                offset = 0;
+            }
+            return value;
+        }
+    }
+
+}
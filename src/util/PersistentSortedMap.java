@@ -0,0 +1,219 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public final class PersistentSortedMap<K, V> { // неизменяемое упорядоченное отображение, изменение даёт новую версию
+
+    // Декартово дерево (treap): ключи упорядочены как в дереве поиска, случайные приоритеты - как в куче,
+    // поэтому глубина в среднем O(log n). Изменение копирует только узлы на пути от корня, остальные
+    // узлы общие со старой версией: старая версия остаётся целой, а новая стоит O(log n) памяти.
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final int priority;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int size;
+
+        Node(K key, V value, int priority, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        Node<K, V> with(Node<K, V> left, Node<K, V> right) {
+            return new Node<>(key, value, priority, left, right);
+        }
+    }
+
+    private final Comparator<? super K> comparator;
+    private final Node<K, V> root;
+
+    private PersistentSortedMap(Comparator<? super K> comparator, Node<K, V> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    public static <K extends Comparable<? super K>, V> PersistentSortedMap<K, V> empty() {
+        return new PersistentSortedMap<>(Comparator.naturalOrder(), null);
+    }
+
+    public static <K, V> PersistentSortedMap<K, V> empty(Comparator<? super K> comparator) {
+        return new PersistentSortedMap<>(comparator, null);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int order = comparator.compare(key, node.key);
+            if (order == 0) {
+                return node.value;
+            }
+            node = order < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    public PersistentSortedMap<K, V> put(K key, V value) { // значение null не хранится
+        if (value == null) {
+            throw new IllegalArgumentException("Значение не может быть null");
+        }
+        Node<K, V> newRoot = containsKey(key) ? replace(root, key, value)
+                : insert(root, key, value, ThreadLocalRandom.current().nextInt());
+        return new PersistentSortedMap<>(comparator, newRoot);
+    }
+
+    public PersistentSortedMap<K, V> remove(K key) {
+        Node<K, V> newRoot = remove(root, key);
+        return newRoot == root ? this : new PersistentSortedMap<>(comparator, newRoot);
+    }
+
+    public List<V> values() { // значения в порядке ключей
+        List<V> result = new ArrayList<>(size());
+        collect(root, result);
+        return result;
+    }
+
+    public List<V> values(K from, K to) { // значения с ключами из [from, to), O(log n + k)
+        List<V> result = new ArrayList<>();
+        collect(root, from, to, result);
+        return result;
+    }
+
+    public List<V> values(int offset, int limit) { // не более limit значений, пропустив offset, O(log n + limit)
+        List<V> result = new ArrayList<>(Math.max(Math.min(limit, size() - offset), 0));
+        collect(root, offset, limit, result);
+        return result;
+    }
+
+    private Node<K, V> replace(Node<K, V> node, K key, V value) { // ключ есть: форма дерева не меняется
+        int order = comparator.compare(key, node.key);
+        if (order == 0) {
+            return new Node<>(key, value, node.priority, node.left, node.right);
+        }
+        return order < 0 ? node.with(replace(node.left, key, value), node.right)
+                : node.with(node.left, replace(node.right, key, value));
+    }
+
+    private Node<K, V> insert(Node<K, V> node, K key, V value, int priority) { // ключа нет
+        if (node == null) {
+            return new Node<>(key, value, priority, null, null);
+        }
+        if (priority > node.priority) { // новый узел встаёт на место node, поддерево делится по key
+            Node<K, V>[] parts = split(node, key);
+            return new Node<>(key, value, priority, parts[0], parts[1]);
+        }
+        return comparator.compare(key, node.key) < 0 ? node.with(insert(node.left, key, value, priority), node.right)
+                : node.with(node.left, insert(node.right, key, value, priority));
+    }
+
+    private Node<K, V> remove(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+        int order = comparator.compare(key, node.key);
+        if (order == 0) {
+            return merge(node.left, node.right);
+        }
+        if (order < 0) {
+            Node<K, V> left = remove(node.left, key);
+            return left == node.left ? node : node.with(left, node.right);
+        }
+        Node<K, V> right = remove(node.right, key);
+        return right == node.right ? node : node.with(node.left, right);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Node<K, V>[] split(Node<K, V> node, K key) { // ключи меньше key и больше key; самого key в дереве нет
+        if (node == null) {
+            return new Node[2];
+        }
+        if (comparator.compare(key, node.key) < 0) {
+            Node<K, V>[] parts = split(node.left, key);
+            parts[1] = node.with(parts[1], node.right);
+            return parts;
+        }
+        Node<K, V>[] parts = split(node.right, key);
+        parts[0] = node.with(node.left, parts[0]);
+        return parts;
+    }
+
+    private Node<K, V> merge(Node<K, V> left, Node<K, V> right) { // все ключи left меньше ключей right
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return left.with(left.left, merge(left.right, right));
+        }
+        return right.with(merge(left, right.left), right.right);
+    }
+
+    private static <K, V> void collect(Node<K, V> node, List<V> result) {
+        while (node != null) {
+            collect(node.left, result);
+            result.add(node.value);
+            node = node.right;
+        }
+    }
+
+    private void collect(Node<K, V> node, K from, K to, List<V> result) {
+        while (node != null) {
+            if (comparator.compare(node.key, from) < 0) {
+                node = node.right;
+            } else if (comparator.compare(node.key, to) >= 0) {
+                node = node.left;
+            } else {
+                collect(node.left, from, to, result);
+                result.add(node.value);
+                node = node.right;
+            }
+        }
+    }
+
+    private static <K, V> void collect(Node<K, V> node, int skip, int limit, List<V> result) {
+        while (node != null && result.size() < limit) {
+            int left = size(node.left);
+            if (skip >= left) { // левое поддерево пропускается целиком
+                skip -= left;
+            } else {
+                collect(node.left, skip, limit, result);
+                skip = 0;
+            }
+            if (result.size() >= limit) {
+                return;
+            }
+            if (skip > 0) {
+                skip--;
+            } else {
+                result.add(node.value);
+            }
+            node = node.right;
+        }
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+}
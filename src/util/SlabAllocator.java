@@ -0,0 +1,109 @@
+package util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SlabAllocator { // участки памяти вне кучи для данных переменной длины
+
+    // Память выделяется slab-ами по SLAB_SIZE байт, каждый slab нарезается на участки одного класса:
+    // степени двойки от 16 байт до SLAB_SIZE. В начале участка - длина данных; освобождённый участок
+    // встаёт в список свободных своего класса (ссылка на следующий свободный лежит в нём самом) и выдаётся
+    // снова раньше, чем нарезается новый. Данные длиннее slab получают отдельный буфер, он освобождается целиком.
+    // Ссылка на участок: номер slab << 32 | смещение.
+    public static final long NULL = -1;
+
+    private static final int SLAB_SHIFT = 16; // 64 КБ: мелкая доска не держит мегабайты на каждый класс
+    private static final int SLAB_SIZE = 1 << SLAB_SHIFT;
+    private static final int MIN_SHIFT = 4;
+    private static final int HEADER = Integer.BYTES;
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final IntList freeSlabs = new IntList(); // номера освобождённых отдельных буферов
+    private final long[] freeChunks = new long[SLAB_SHIFT - MIN_SHIFT + 1]; // класс -> первый свободный участок
+    private final int[] currentSlab = new int[SLAB_SHIFT - MIN_SHIFT + 1]; // класс -> slab, который нарезается
+    private final int[] nextOffset = new int[SLAB_SHIFT - MIN_SHIFT + 1]; // класс -> начало ненарезанной части
+    private long reserved; // байт вне кучи под slab-ами
+
+    public SlabAllocator() {
+        Arrays.fill(freeChunks, NULL);
+        Arrays.fill(currentSlab, -1);
+    }
+
+    public long store(byte[] data) { // скопировать данные в свободный участок
+        int needed = data.length + HEADER;
+        long ref;
+        if (needed > SLAB_SIZE) {
+            ref = (long) addSlab(ByteBuffer.allocateDirect(needed)) << 32;
+        } else {
+            ref = allocate(sizeClass(needed));
+        }
+        ByteBuffer slab = slabs.get((int) (ref >>> 32));
+        int offset = (int) ref;
+        slab.putInt(offset, data.length);
+        slab.put(offset + HEADER, data);
+        return ref;
+    }
+
+    public byte[] load(long ref) {
+        ByteBuffer slab = slabs.get((int) (ref >>> 32));
+        int offset = (int) ref;
+        byte[] data = new byte[slab.getInt(offset)];
+        slab.get(offset + HEADER, data);
+        return data;
+    }
+
+    public void free(long ref) {
+        int slabIndex = (int) (ref >>> 32);
+        ByteBuffer slab = slabs.get(slabIndex);
+        int offset = (int) ref;
+        int needed = slab.getInt(offset) + HEADER;
+        if (needed > SLAB_SIZE) { // отдельный буфер освобождает сборщик мусора
+            reserved -= slab.capacity();
+            slabs.set(slabIndex, null);
+            freeSlabs.add(slabIndex);
+            return;
+        }
+        int sizeClass = sizeClass(needed);
+        slab.putLong(offset + HEADER, freeChunks[sizeClass]); // участок не короче 16 байт: ссылка помещается
+        freeChunks[sizeClass] = ref;
+    }
+
+    public long reservedBytes() { // память вне кучи, занятая slab-ами
+        return reserved;
+    }
+
+    private long allocate(int sizeClass) {
+        long ref = freeChunks[sizeClass];
+        if (ref != NULL) {
+            freeChunks[sizeClass] = slabs.get((int) (ref >>> 32)).getLong((int) ref + HEADER);
+            return ref;
+        }
+        int chunk = 1 << (sizeClass + MIN_SHIFT);
+        if (currentSlab[sizeClass] < 0 || nextOffset[sizeClass] + chunk > SLAB_SIZE) {
+            currentSlab[sizeClass] = addSlab(ByteBuffer.allocateDirect(SLAB_SIZE));
+            nextOffset[sizeClass] = 0;
+        }
+        ref = (long) currentSlab[sizeClass] << 32 | nextOffset[sizeClass];
+        nextOffset[sizeClass] += chunk;
+        return ref;
+    }
+
+    private int addSlab(ByteBuffer slab) {
+        reserved += slab.capacity();
+        if (freeSlabs.size() > 0) {
+            int index = freeSlabs.removeLast();
+            slabs.set(index, slab);
+            return index;
+        }
+        slabs.add(slab);
+        return slabs.size() - 1;
+    }
+
+    private static int sizeClass(int needed) { // наименьшая степень двойки не меньше needed, от 16 байт
+        int shift = 32 - Integer.numberOfLeadingZeros(needed - 1);
+        return Math.max(shift, MIN_SHIFT) - MIN_SHIFT;
+    }
+
+}
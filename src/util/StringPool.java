@@ -0,0 +1,109 @@
+package util;
+
+import java.util.Arrays;
+
+public class StringPool { // пул строк со счётчиками ссылок: одинаковые строки хранятся один раз
+
+    // Ссылка - номер строки в strings. Таблица поиска - открытая адресация по хешу строки: номер + 1
+    // (0 - пустая ячейка), удаление сдвигает цепочку назад, как в IntHashSet. Номера строк без ссылок
+    // попадают в список свободных и выдаются снова.
+    public static final int NULL = -1; // ссылка на null
+
+    private static final int MIN_CAPACITY = 16;
+
+    private String[] strings = new String[MIN_CAPACITY];
+    private int[] counts = new int[MIN_CAPACITY];
+    private int[] table = new int[MIN_CAPACITY * 2];
+    private final IntList free = new IntList();
+    private int used; // выданные номера, включая свободные
+    private int size;
+
+    public int acquire(String value) { // ссылка на строку с учётом ещё одного владельца
+        if (value == null) {
+            return NULL;
+        }
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        for (; table[slot] != 0; slot = (slot + 1) & mask) {
+            int ref = table[slot] - 1;
+            if (strings[ref].equals(value)) {
+                counts[ref]++;
+                return ref;
+            }
+        }
+        int ref;
+        if (free.size() > 0) {
+            ref = free.removeLast();
+        } else {
+            if (used == strings.length) {
+                strings = Arrays.copyOf(strings, used * 2);
+                counts = Arrays.copyOf(counts, used * 2);
+            }
+            ref = used++;
+        }
+        strings[ref] = value;
+        counts[ref] = 1;
+        table[slot] = ref + 1;
+        size++;
+        if (size * 2 > table.length) { // заполнение таблицы не больше половины
+            resize(table.length * 2);
+        }
+        return ref;
+    }
+
+    public void release(int ref) { // владелец отказался от строки; последний освобождает номер
+        if (ref == NULL || --counts[ref] > 0) {
+            return;
+        }
+        int mask = table.length - 1;
+        int slot = hash(strings[ref]) & mask;
+        while (table[slot] != ref + 1) {
+            slot = (slot + 1) & mask;
+        }
+        int next = slot;
+        while (true) { // сдвиг назад элементов, чья цепочка проходит через освобождённую ячейку
+            next = (next + 1) & mask;
+            if (table[next] == 0) {
+                break;
+            }
+            int home = hash(strings[table[next] - 1]) & mask;
+            boolean movable = slot <= next ? home <= slot || home > next : home <= slot && home > next;
+            if (movable) {
+                table[slot] = table[next];
+                slot = next;
+            }
+        }
+        table[slot] = 0;
+        strings[ref] = null;
+        free.add(ref);
+        size--;
+    }
+
+    public String get(int ref) {
+        return ref == NULL ? null : strings[ref];
+    }
+
+    public int size() { // число различных строк
+        return size;
+    }
+
+    private void resize(int capacity) {
+        table = new int[capacity];
+        int mask = capacity - 1;
+        for (int ref = 0; ref < used; ref++) {
+            if (strings[ref] != null) {
+                int slot = hash(strings[ref]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = ref + 1;
+            }
+        }
+    }
+
+    private static int hash(String value) {
+        int h = value.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
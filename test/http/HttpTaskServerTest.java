@@ -0,0 +1,192 @@
+package http;
+
+import manager.ConcurrentTaskManager;
+import manager.Managers;
+import manager.TaskManager;
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class HttpTaskServerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private TaskManager taskManager;
+    private HttpTaskServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        taskManager = Managers.getConcurrent();
+        server = new HttpTaskServer(taskManager, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void createGetUpdateAndDeleteTaskTest() throws Exception { // полный цикл задачи через API
+        HttpResponse<String> created = send("POST", "/tasks", "{\"name\":\"Задача\",\"description\":\"Описание \\\"в кавычках\\\"\","
+                + "\"status\":\"NEW\",\"startTime\":\"2025-01-01T10:00\",\"duration\":\"PT30M\"}");
+        assertEquals(201, created.statusCode(), "Задача создана");
+        Task saved = taskManager.getAllTasks().get(0);
+        assertEquals("Описание \"в кавычках\"", saved.getDescription(), "Экранирование в строке");
+        assertEquals(Duration.ofMinutes(30), saved.getDuration(), "Продолжительность");
+        assertTrue(created.body().contains("\"id\":" + saved.getId()), "В ответе id новой задачи");
+
+        HttpResponse<String> read = send("GET", "/tasks/" + saved.getId(), null);
+        assertEquals(200, read.statusCode());
+        assertTrue(read.body().contains("\"endTime\":\"2025-01-01T10:30\""), "Время окончания в ответе");
+
+        assertEquals(201, send("POST", "/tasks/" + saved.getId(), "{\"name\":\"Задача\",\"status\":\"DONE\"}")
+                .statusCode(), "Задача обновлена");
+        assertEquals(Status.DONE, taskManager.getTaskById(saved.getId()).getStatus());
+        assertEquals(404, send("POST", "/tasks/999", "{\"name\":\"Задача\"}").statusCode(), "Обновление несуществующей");
+
+        assertEquals(200, send("DELETE", "/tasks/" + saved.getId(), null).statusCode());
+        assertEquals(404, send("GET", "/tasks/" + saved.getId(), null).statusCode(), "Задача удалена");
+        assertEquals("[]", send("GET", "/tasks", null).body());
+    }
+
+    @Test
+    void epicsSubtasksHistoryAndPrioritizedTest() throws Exception {
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        HttpResponse<String> created = send("POST", "/subtasks", "{\"name\":\"Подзадача\",\"status\":\"DONE\",\"epicId\":"
+                + epic.getId() + ",\"startTime\":\"2025-01-01T12:00\",\"duration\":\"PT1H\"}");
+        assertEquals(201, created.statusCode());
+        Subtask subtask = taskManager.getAllSubtasks().get(0);
+        assertEquals(404, send("POST", "/subtasks", "{\"name\":\"Подзадача\",\"epicId\":999}").statusCode(),
+                "Подзадача без эпика");
+
+        HttpResponse<String> epicResponse = send("GET", "/epics/" + epic.getId(), null);
+        assertEquals(200, epicResponse.statusCode());
+        assertTrue(epicResponse.body().contains("\"status\":\"DONE\""), "Статус эпика по подзадачам");
+        assertTrue(epicResponse.body().contains("\"subtaskIds\":[" + subtask.getId() + "]"), "Подзадачи эпика");
+        HttpResponse<String> epicSubtasks = send("GET", "/epics/" + epic.getId() + "/subtasks", null);
+        assertTrue(epicSubtasks.body().contains("\"epicId\":" + epic.getId()), "Список подзадач эпика");
+        assertEquals(404, send("GET", "/epics/999/subtasks", null).statusCode());
+
+        taskManager.createTask(new Task("Задача", "Описание", Status.NEW, START, Duration.ofMinutes(15)));
+        String prioritized = send("GET", "/prioritized", null).body();
+        assertTrue(prioritized.indexOf("\"type\":\"TASK\"") < prioritized.indexOf("\"type\":\"SUBTASK\""),
+                "Задача начинается раньше подзадачи");
+        String history = send("GET", "/history", null).body();
+        assertTrue(history.contains("\"type\":\"EPIC\""), "Просмотр эпика в истории");
+
+        assertEquals(200, send("DELETE", "/epics/" + epic.getId(), null).statusCode());
+        assertTrue(taskManager.getAllSubtasks().isEmpty(), "Подзадачи удалены вместе с эпиком");
+    }
+
+    @Test
+    void updateRespondsWithStoredStateTest() throws Exception { // ответ на обновление - сохранённое состояние
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic.getId());
+        taskManager.createSubtask(subtask);
+
+        assertEquals(404, send("POST", "/subtasks/" + subtask.getId(), "{\"name\":\"Подзадача\",\"epicId\":999}")
+                .statusCode(), "Перенос в несуществующий эпик");
+        assertEquals(epic.getId(), taskManager.getSubtaskById(subtask.getId()).getEpicId(), "Подзадача не перенесена");
+
+        HttpResponse<String> updated = send("POST", "/epics/" + epic.getId(), "{\"name\":\"Эпик2\"}");
+        assertEquals(201, updated.statusCode());
+        assertTrue(updated.body().contains("\"subtaskIds\":[" + subtask.getId() + "]"), "Эпик из менеджера, а не из запроса");
+        taskManager.deleteEpic(epic.getId());
+        assertEquals(404, send("POST", "/epics/" + epic.getId(), "{\"name\":\"Эпик3\"}").statusCode(),
+                "Удалённый эпик не обновляется");
+    }
+
+    @Test
+    void errorsAreMappedToStatusCodesTest() throws Exception {
+        send("POST", "/tasks", "{\"name\":\"Задача\",\"startTime\":\"2025-01-01T10:00\",\"duration\":\"PT1H\"}");
+        assertEquals(406, send("POST", "/tasks", "{\"name\":\"Задача\",\"startTime\":\"2025-01-01T10:30\","
+                + "\"duration\":\"PT1H\"}").statusCode(), "Пересечение по времени");
+        assertEquals(400, send("POST", "/tasks", "{\"name\":").statusCode(), "Некорректный JSON");
+        assertEquals(400, send("POST", "/tasks", "{\"description\":\"Без названия\"}").statusCode(), "Нет названия");
+        assertEquals(400, send("POST", "/tasks", "{\"name\":\"Задача\",\"status\":\"LATER\"}").statusCode(),
+                "Неизвестный статус");
+        assertEquals(400, send("GET", "/tasks/abc", null).statusCode(), "Некорректный id");
+        assertEquals(404, send("GET", "/tasks/1/2", null).statusCode(), "Неизвестный путь");
+        assertEquals(405, send("PUT", "/history", "{}").statusCode(), "Метод не поддерживается");
+        assertEquals(1, taskManager.getAllTasks().size(), "Ошибочные запросы ничего не создали");
+    }
+
+    @Test
+    void concurrentRequestsCreateAllTasksTest() throws Exception { // одновременные запросы к общему менеджеру
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String json = "{\"name\":\"Задача " + i + "\",\"startTime\":\"" + START.plusHours(i) + "\",\"duration\":\"PT1H\"}";
+            responses.add(client.sendAsync(request("POST", "/tasks", json), HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(201, response.get().statusCode());
+        }
+        assertEquals(200, taskManager.getAllTasks().size(), "Все задачи созданы");
+        assertEquals(200, taskManager.getPrioritizedTasks().size(), "Пересечений нет");
+    }
+
+    @Test
+    void virtualThreadsAreUsedWhenAvailableTest() throws Exception { // на Java 21+ запрос обрабатывается в виртуальном потоке
+        boolean available = Arrays.stream(Executors.class.getMethods())
+                .anyMatch(method -> method.getName().equals("newVirtualThreadPerTaskExecutor"));
+        assertEquals(available, server.usesVirtualThreads(), "Виртуальные потоки - если их даёт JDK");
+        assumeTrue(available, "Виртуальных потоков нет до Java 21");
+
+        AtomicReference<Thread> handlerThread = new AtomicReference<>();
+        TaskManager recording = new ConcurrentTaskManager() {
+            @Override
+            public ArrayList<Task> getHistory() {
+                handlerThread.set(Thread.currentThread());
+                return super.getHistory();
+            }
+        };
+        HttpTaskServer virtualServer = new HttpTaskServer(recording, 0);
+        virtualServer.start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + virtualServer.getPort()
+                    + "/history")).GET().build();
+            assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        } finally {
+            virtualServer.stop();
+        }
+        assertEquals(true, Thread.class.getMethod("isVirtual").invoke(handlerThread.get()),
+                "Обработчик выполнялся в виртуальном потоке");
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        return client.send(request(method, path, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+}
@@ -0,0 +1,58 @@
+package http;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskJsonTest {
+
+    @Test
+    void subtaskSurvivesRoundTripTest() { // запись и разбор дают ту же подзадачу
+        Subtask subtask = new Subtask("Подзадача \"1\"", "Строка\nвторая\\\t", Status.IN_PROGRESS, 7,
+                LocalDateTime.of(2025, 1, 1, 10, 0, 30), Duration.ofSeconds(90));
+        subtask.setId(12);
+
+        Subtask parsed = TaskJson.subtaskFromJson(TaskJson.toJson(subtask));
+        assertEquals(12, parsed.getId());
+        assertEquals(subtask.getName(), parsed.getName(), "Кавычки в названии");
+        assertEquals(subtask.getDescription(), parsed.getDescription(), "Перевод строки, \\ и табуляция");
+        assertEquals(Status.IN_PROGRESS, parsed.getStatus());
+        assertEquals(7, parsed.getEpicId());
+        assertEquals(subtask.getStartTime(), parsed.getStartTime());
+        assertEquals(subtask.getDuration(), parsed.getDuration());
+    }
+
+    @Test
+    void optionalAndComputedFieldsTest() { // id, статус и время необязательны, вычисляемые поля не читаются
+        Task task = TaskJson.taskFromJson(" { \"name\" : \"Задача\", \"endTime\": \"2030-01-01T00:00\", \"extra\": [1, {\"a\": null}, true] } ");
+        assertEquals(0, task.getId(), "Новая задача");
+        assertEquals(Status.NEW, task.getStatus());
+        assertNull(task.getStartTime());
+        assertNull(task.getDescription());
+
+        Epic epic = TaskJson.epicFromJson("{\"id\":3,\"name\":\"Эпик\",\"status\":\"DONE\",\"subtaskIds\":[1,2]}");
+        assertEquals(Status.NEW, epic.getStatus(), "Статус эпика задаёт менеджер");
+        assertTrue(epic.getSubtaskIds().isEmpty(), "Подзадачи эпика задаёт менеджер");
+        assertEquals("[]", TaskJson.toJson(List.of()));
+    }
+
+    @Test
+    void invalidInputIsRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> TaskJson.taskFromJson("{\"name\":\"a\"} x"), "Лишние символы");
+        assertThrows(IllegalArgumentException.class, () -> TaskJson.taskFromJson("{\"name\":1}"), "Название не строка");
+        assertThrows(IllegalArgumentException.class, () -> TaskJson.taskFromJson("{\"name\":\"a\",\"id\":1.5}"),
+                "Дробный id");
+        assertThrows(IllegalArgumentException.class, () -> TaskJson.subtaskFromJson("{\"name\":\"a\"}"), "Нет эпика");
+        assertThrows(IllegalArgumentException.class,
+                () -> TaskJson.taskFromJson("{\"name\":\"a\",\"duration\":\"30 минут\"}"), "Продолжительность не ISO");
+    }
+
+}
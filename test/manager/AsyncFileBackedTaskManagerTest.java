@@ -0,0 +1,145 @@
+package manager;
+
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncFileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+
+    private static final int COMPACTION_THRESHOLD = 100;
+    private static final FlushPolicy ASYNC = FlushPolicy.async(1024, FlushPolicy.Durability.BATCH);
+
+    private File tempFile;
+
+    @Override
+    protected FileBackedTaskManager createTaskManager() {
+        try {
+            tempFile = Files.createTempFile("tasks", ".csv").toFile();
+            OperationJournal.fileFor(tempFile).deleteOnExit();
+            return new FileBackedTaskManager(tempFile, COMPACTION_THRESHOLD, ASYNC);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка создания временного файла", e);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskManager.close();
+    }
+
+    private int storedTaskCount() {
+        return FileBackedTaskManager.loadFromFile(tempFile, COMPACTION_THRESHOLD).getAllTasks().size();
+    }
+
+    @Test
+    void changesAreStoredWhenFutureCompletesTest() { // подтверждение записи и сжатие журнала в потоке записи
+        for (int i = 0; i < 250; i++) {
+            taskManager.createTask(new Task("Задача " + i, "Описание задачи " + i, Status.NEW));
+        }
+        taskManager.whenPersisted().join();
+
+        assertEquals(250, storedTaskCount(), "Все изменения записаны");
+        assertEquals(0, taskManager.getQueueDepth(), "Очередь пуста");
+        assertTrue(taskManager.getMaxWriteLag().compareTo(taskManager.getWriteLag()) >= 0, "Наибольшая задержка");
+        assertTrue(OperationJournal.fileFor(tempFile).length() < 100L * COMPACTION_THRESHOLD, "Журнал сжимается");
+    }
+
+    @Test
+    void fullQueueBlocksMutationsTest() throws Exception { // изменяющий поток ждёт места в очереди
+        CountDownLatch release = new CountDownLatch(1);
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, COMPACTION_THRESHOLD,
+                FlushPolicy.async(2, FlushPolicy.Durability.NONE)) {
+            @Override
+            WritableByteChannel snapshotChannel(WritableByteChannel channel) { // первый снимок ждёт разрешения
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return channel;
+            }
+        };
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 6; i++) { // поток записи держит не больше двух, очередь - ещё два
+                manager.createTask(new Task("Задача " + i, "Описание задачи " + i, Status.NEW));
+            }
+        });
+        producer.start();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (manager.getQueueDepth() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        producer.join(100);
+
+        assertTrue(producer.isAlive(), "Пятое изменение ждёт места в очереди");
+        assertEquals(2, manager.getQueueDepth(), "Очередь заполнена");
+
+        release.countDown();
+        producer.join(5_000);
+        manager.close();
+        assertEquals(6, storedTaskCount(), "После освобождения очереди записано всё");
+        assertTrue(manager.getMaxWriteLag().toMillis() >= 100, "Задержка записи учитывает ожидание");
+    }
+
+    @Test
+    void failedWriteIsReportedAndRecoveredBySnapshotTest() { // после ошибки следующий снимок восстанавливает файл
+        boolean[] broken = {true};
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, COMPACTION_THRESHOLD, ASYNC) {
+            @Override
+            WritableByteChannel snapshotChannel(WritableByteChannel channel) {
+                return broken[0] ? new BrokenChannel() : channel;
+            }
+        };
+        manager.createTask(new Task("Задача1", "Описание задачи1", Status.NEW));
+        CompletableFuture<Void> written = manager.whenPersisted();
+
+        CompletionException failure = assertThrows(CompletionException.class, written::join, "Запись не удалась");
+        assertInstanceOf(ManagerSaveException.class, failure.getCause(), "Причина - ошибка сохранения");
+        assertThrows(ManagerSaveException.class,
+                () -> manager.createTask(new Task("Задача2", "Описание задачи2", Status.NEW)),
+                "Ошибка сообщается следующему изменению");
+
+        broken[0] = false;
+        manager.createTask(new Task("Задача3", "Описание задачи3", Status.NEW));
+        manager.whenPersisted().join();
+        assertEquals(3, storedTaskCount(), "Снимок содержит и изменения, записать которые не удалось");
+        manager.close();
+    }
+
+    @Test
+    void asyncWritesRequireJournalTest() {
+        assertThrows(IllegalArgumentException.class, () -> new FileBackedTaskManager(tempFile, 0, ASYNC),
+                "Без журнала каждое изменение копировало бы всё состояние");
+        assertThrows(IllegalArgumentException.class, () -> FlushPolicy.async(0, FlushPolicy.Durability.NONE),
+                "Очередь не может быть пустой");
+    }
+
+    private static final class BrokenChannel implements WritableByteChannel { // диск недоступен
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            throw new IOException("Диск недоступен");
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package manager;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AtomicSaveFileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+
+    private static final FlushPolicy MANUAL_PIPELINE = FlushPolicy.pipelined(60_000, 1_000_000,
+            FlushPolicy.Durability.BATCH);
+
+    private File tempFile;
+
+    @Override
+    protected FileBackedTaskManager createTaskManager() {
+        try {
+            tempFile = Files.createTempFile("tasks", ".csv").toFile();
+            return new FileBackedTaskManager(tempFile, 0, MANUAL_PIPELINE);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка создания временного файла", e);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskManager.close();
+    }
+
+    @Test
+    void interruptedSaveKeepsPreviousSnapshotTest() throws IOException { // обрыв записи на любом байте
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            Random random = new Random(format.ordinal());
+            FaultyManager manager = new FaultyManager(tempFile, FlushPolicy.IMMEDIATE, format);
+            Epic epic = new Epic("Эпик", "Описание эпика");
+            manager.createEpic(epic);
+            for (int i = 0; i < 20; i++) {
+                manager.createTask(new Task("Задача " + i, "Описание, задачи\n" + i, Status.NEW));
+            }
+            for (int attempt = 0; attempt < 50; attempt++) {
+                byte[] saved = Files.readAllBytes(tempFile.toPath());
+                manager.failAfter = random.nextInt(saved.length); // новый снимок не короче прежнего
+                Subtask subtask = new Subtask("Подзадача " + attempt, "Описание", Status.DONE, epic.getId());
+
+                assertThrows(ManagerSaveException.class, () -> manager.createSubtask(subtask), "Запись оборвана");
+                assertArrayEquals(saved, Files.readAllBytes(tempFile.toPath()), "Прежний снимок на месте");
+                assertFalse(SnapshotFile.tempFor(tempFile, 0).exists(), "Недописанный файл удалён");
+
+                manager.failAfter = -1;
+                manager.deleteSubtask(subtask.getId());
+                assertEquals(manager.getAllSubtasks(), FileBackedTaskManager.loadFromFile(tempFile).getAllSubtasks(),
+                        "Следующая запись сохраняет состояние целиком");
+            }
+        }
+    }
+
+    @Test
+    void leftoverTempFileIsIgnoredTest() throws IOException { // процесс остановлен посреди записи снимка
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile);
+        manager.createTask(new Task("Задача", "Описание задачи", Status.NEW));
+        File temp = SnapshotFile.tempFor(tempFile, 0);
+        Files.writeString(temp.toPath(), "id,type,name,status,description,startTime,duration,epic\n2,TASK,Обо");
+
+        assertEquals(1, FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size(), "Читается целый снимок");
+
+        manager.createTask(new Task("Задача2", "Описание задачи2", Status.NEW));
+        assertEquals(2, FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size(), "Новый снимок записан");
+        assertFalse(temp.exists(), "Временный файл перезаписан и переименован");
+    }
+
+    @Test
+    void pipelinedFailureIsRetriedTest() { // ошибка фоновой записи не теряет изменения
+        FaultyManager manager = new FaultyManager(tempFile, MANUAL_PIPELINE, SnapshotFormat.BINARY);
+        manager.createTask(new Task("Задача1", "Описание задачи1", Status.NEW));
+        manager.flush();
+        manager.createTask(new Task("Задача2", "Описание задачи2", Status.NEW));
+        manager.failAfter = 7;
+
+        assertThrows(ManagerSaveException.class, manager::flush, "Запись оборвана");
+        assertEquals(1, FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size(), "Прежний снимок на месте");
+
+        manager.failAfter = -1;
+        manager.close();
+        assertEquals(2, FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size(), "Снимок записан повторно");
+    }
+
+    @Test
+    void pipelinedSnapshotsReplaceFileInOrderTest() throws InterruptedException { // фоновые снимки по порядку
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, 0,
+                FlushPolicy.pipelined(1, 5, FlushPolicy.Durability.NONE));
+        for (int i = 0; i < 500; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание задачи " + i, Status.NEW));
+            if (i % 50 == 0) {
+                Thread.sleep(2);
+            }
+        }
+        manager.close();
+
+        assertEquals(manager.getAllTasks(), FileBackedTaskManager.loadFromFile(tempFile).getAllTasks(),
+                "Последним записан последний снимок");
+        assertFalse(SnapshotFile.tempFor(tempFile, 1).exists() || SnapshotFile.tempFor(tempFile, 2).exists(),
+                "Временных файлов не осталось");
+        assertFalse(FlushPolicy.pipelined(1, 5, FlushPolicy.Durability.OPERATION).isPipelined(),
+                "Синхронизация каждой операции отключает конвейер");
+    }
+
+    private static final class FaultyManager extends FileBackedTaskManager { // снимок обрывается на байте failAfter
+        long failAfter = -1; // -1 - запись не обрывается
+
+        FaultyManager(File file, FlushPolicy flushPolicy, SnapshotFormat format) {
+            super(file, 0, flushPolicy, format);
+        }
+
+        @Override
+        WritableByteChannel snapshotChannel(WritableByteChannel channel) {
+            return failAfter < 0 ? channel : new FailingChannel(channel, failAfter);
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package manager;
+
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchedFileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+
+    private static final int COMPACTION_THRESHOLD = 100;
+    private static final FlushPolicy MANUAL_FLUSH = FlushPolicy.batched(60_000, 1_000_000, FlushPolicy.Durability.NONE);
+
+    private File tempFile;
+
+    @Override
+    protected FileBackedTaskManager createTaskManager() {
+        tempFile = createTempFile();
+        return new FileBackedTaskManager(tempFile, COMPACTION_THRESHOLD, MANUAL_FLUSH);
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskManager.close();
+    }
+
+    private static File createTempFile() {
+        try {
+            Path tempPath = Files.createTempFile("tasks", ".csv");
+            OperationJournal.fileFor(tempPath.toFile()).deleteOnExit();
+            return tempPath.toFile();
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка создания временного файла", e);
+        }
+    }
+
+    private int storedTaskCount() {
+        return FileBackedTaskManager.loadFromFile(tempFile, COMPACTION_THRESHOLD).getAllTasks().size();
+    }
+
+    private void awaitStoredTaskCount(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (storedTaskCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void changesAreWrittenOnlyOnFlushTest() { // изменения копятся до явной записи
+        taskManager.createTask(new Task("Задача1", "Описание задачи1", Status.NEW));
+        taskManager.createTask(new Task("Задача2", "Описание задачи2", Status.NEW));
+
+        assertEquals(0, storedTaskCount(), "До записи пакета файл не меняется");
+
+        taskManager.flush();
+        assertEquals(2, storedTaskCount(), "После записи пакета задачи сохранены");
+
+        taskManager.createTask(new Task("Задача3", "Описание задачи3", Status.NEW));
+        taskManager.flush();
+        assertEquals(3, storedTaskCount(), "Следующий пакет дописан в журнал");
+        assertTrue(OperationJournal.fileFor(tempFile).exists(), "Второй пакет записан в журнал");
+    }
+
+    @Test
+    void closeFlushesPendingChangesTest() { // закрытие менеджера записывает накопленные изменения
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, 0, MANUAL_FLUSH);
+        manager.createTask(new Task("Задача", "Описание задачи", Status.NEW));
+        manager.close();
+
+        assertEquals(1, storedTaskCount(), "Задача сохранена при закрытии");
+    }
+
+    @Test
+    void backgroundFlushBySizeTest() throws InterruptedException { // фоновая запись по количеству изменений
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, COMPACTION_THRESHOLD,
+                FlushPolicy.batched(60_000, 3, FlushPolicy.Durability.BATCH));
+        for (int i = 0; i < 3; i++) {
+            manager.createTask(new Task("Задача" + i, "Описание задачи" + i, Status.NEW));
+        }
+
+        awaitStoredTaskCount(3);
+        assertEquals(3, storedTaskCount(), "Пакет записан после порога количества изменений");
+        manager.close();
+    }
+
+    @Test
+    void backgroundFlushByTimeTest() throws InterruptedException { // фоновая запись по времени
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, COMPACTION_THRESHOLD,
+                FlushPolicy.batched(20, 1_000_000, FlushPolicy.Durability.NONE));
+        manager.createTask(new Task("Задача", "Описание задачи", Status.NEW));
+
+        awaitStoredTaskCount(1);
+        assertEquals(1, storedTaskCount(), "Пакет записан по истечении задержки");
+        manager.close();
+    }
+
+    @Test
+    void operationDurabilityDisablesBatchingTest() { // fsync каждого изменения отключает накопление пакетов
+        FlushPolicy policy = FlushPolicy.batched(50, 1_000, FlushPolicy.Durability.OPERATION);
+        assertFalse(policy.isBatched(), "Пакеты не копятся при синхронизации каждой операции");
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, COMPACTION_THRESHOLD, policy);
+        manager.createTask(new Task("Задача", "Описание задачи", Status.NEW));
+        assertEquals(1, storedTaskCount(), "Изменение записано сразу");
+        manager.close();
+    }
+
+    @Test
+    void failedFlushKeepsChangesTest() { // записи пакета не теряются при ошибке записи журнала
+        FaultyJournalManager manager = new FaultyJournalManager(tempFile);
+        manager.createTask(new Task("Задача1", "Описание задачи1", Status.NEW));
+        manager.flush();
+        manager.createTask(new Task("Задача2", "Описание задачи2", Status.NEW));
+        manager.createTask(new Task("Задача3", "Описание задачи3", Status.NEW));
+        manager.failAfter = 10;
+
+        assertThrows(ManagerSaveException.class, manager::flush, "Запись журнала оборвана");
+
+        manager.failAfter = -1;
+        manager.flush();
+        assertEquals(manager.getAllTasks(), FileBackedTaskManager.loadFromFile(tempFile, COMPACTION_THRESHOLD)
+                .getAllTasks(), "Повторная запись сохраняет все изменения");
+        assertEquals(3, storedTaskCount(), "Задачи из оборванного пакета сохранены");
+        manager.close();
+    }
+
+    private static final class FaultyJournalManager extends FileBackedTaskManager { // журнал обрывается на байте failAfter
+        long failAfter = -1; // -1 - запись не обрывается
+
+        FaultyJournalManager(File file) {
+            super(file, COMPACTION_THRESHOLD, MANUAL_FLUSH);
+        }
+
+        @Override
+        WritableByteChannel journalChannel(WritableByteChannel channel) {
+            return failAfter < 0 ? channel : new FailingChannel(channel, failAfter);
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package manager;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+
+    private File tempFile;
+
+    @Override
+    protected FileBackedTaskManager createTaskManager() {
+        try {
+            Path tempPath = Files.createTempFile("tasks", ".bin");
+            tempFile = tempPath.toFile();
+            return new FileBackedTaskManager(tempFile, 0, FlushPolicy.IMMEDIATE, SnapshotFormat.BINARY);
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка создания временного файла", e);
+        }
+    }
+
+    @Test
+    void saveAndLoadRoundTripTest() { // сохранение и загрузка двоичного снимка без потерь
+        fillManager();
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(SnapshotFormat.BINARY, SnapshotFormat.detect(tempFile), "Формат определён по сигнатуре");
+        assertEquals(rows(taskManager), rows(loadedManager), "Все поля задач восстановлены");
+        assertEquals(taskManager.getPrioritizedTasks(), loadedManager.getPrioritizedTasks(),
+                "Список приоритетов восстановлен");
+    }
+
+    @Test
+    void convertToCsvAndBackTest() throws Exception { // преобразование в CSV и обратно
+        fillManager();
+        File csvFile = Files.createTempFile("tasks", ".csv").toFile();
+        File binaryFile = Files.createTempFile("tasks", ".bin").toFile();
+
+        SnapshotFormat.convert(tempFile, csvFile, SnapshotFormat.CSV);
+        SnapshotFormat.convert(csvFile, binaryFile, SnapshotFormat.BINARY);
+
+        assertEquals(SnapshotFormat.CSV, SnapshotFormat.detect(csvFile), "Снимок записан в CSV");
+        assertEquals(rows(taskManager), rows(FileBackedTaskManager.loadFromFile(csvFile)), "Снимок CSV совпадает");
+        assertEquals(rows(taskManager), rows(FileBackedTaskManager.loadFromFile(binaryFile)),
+                "Двоичный снимок после преобразований совпадает");
+    }
+
+    @Test
+    void longTextIsStoredOutsideBufferTest() { // строка длиннее буфера записи
+        String description = "Описание ".repeat(20_000);
+        Task task = new Task("Задача", description, Status.NEW);
+        taskManager.createTask(task);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(description, loadedManager.getTaskById(task.getId()).getDescription(), "Длинное описание");
+    }
+
+    @Test
+    void truncatedSnapshotIsRejectedTest() throws Exception { // оборванный снимок не загружается молча
+        fillManager();
+        try (RandomAccessFile raf = new RandomAccessFile(tempFile, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFile(tempFile),
+                "Оборванный снимок - ошибка загрузки");
+    }
+
+    private void fillManager() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        taskManager.createTask(new Task("Задача, с запятой", "Строка1\nСтрока2", Status.IN_PROGRESS, start,
+                Duration.ofMinutes(30)));
+        taskManager.createTask(new Task("Задача до эпохи", "Описание", Status.NEW,
+                LocalDateTime.of(1960, 5, 6, 7, 8, 9, 123_000_000), Duration.ofMinutes(5)));
+        taskManager.createTask(new Task("Задача без времени", "", Status.DONE));
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        taskManager.createSubtask(new Subtask("Подзадача", "Описание подзадачи", Status.DONE, epic.getId(),
+                start.plusHours(1), Duration.ofMinutes(45)));
+    }
+
+    private static List<String> rows(TaskManager manager) { // все поля задач в виде строк CSV
+        return Stream.of(manager.getAllTasks(), manager.getAllEpics(), manager.getAllSubtasks())
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(Task::getId))
+                .map(CSVTaskFormat::toString)
+                .collect(Collectors.toList());
+    }
+
+}
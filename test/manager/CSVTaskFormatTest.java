@@ -0,0 +1,72 @@
+package manager;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CSVTaskFormatTest {
+
+    @Test
+    void formatKeepsOldLayoutTest() { // формат строки без спецсимволов не изменился
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.IN_PROGRESS, 2,
+                LocalDateTime.of(2025, 3, 4, 5, 6), Duration.ofMinutes(45));
+        subtask.setId(7);
+
+        assertEquals("7,SUBTASK,Подзадача,IN_PROGRESS,Описание,2025-03-04T05:06:00,45,2",
+                CSVTaskFormat.toString(subtask), "Неверная строка CSV");
+    }
+
+    @Test
+    void roundTripWithSeparatorsInTextTest() { // запятые, кавычки и переводы строк в названии и описании
+        Task task = new Task("Купить, \"срочно\"", "Строка1\nСтрока2,\r\nконец", Status.DONE,
+                LocalDateTime.of(2025, 1, 1, 10, 0, 30), Duration.ofMinutes(15));
+        task.setId(1);
+
+        String line = CSVTaskFormat.toString(task);
+        Task parsed = CSVTaskFormat.fromString(line);
+
+        assertTrue(CSVTaskFormat.isComplete(line), "Кавычки в строке сбалансированы");
+        assertEquals(task.getName(), parsed.getName(), "Название восстановлено");
+        assertEquals(task.getDescription(), parsed.getDescription(), "Описание восстановлено");
+        assertEquals(task.getStartTime(), parsed.getStartTime(), "Время начала восстановлено");
+        assertEquals(task.getDuration(), parsed.getDuration(), "Продолжительность восстановлена");
+    }
+
+    @Test
+    void parseEmptyFieldsAndEpicTest() { // пустые поля времени и эпик
+        Task parsed = CSVTaskFormat.fromString("3,EPIC,Эпик,NEW,,,,");
+
+        assertInstanceOf(Epic.class, parsed, "Тип задачи");
+        assertEquals(3, parsed.getId(), "Id задачи");
+        assertEquals("", parsed.getDescription(), "Пустое описание");
+        assertNull(parsed.getStartTime(), "Нет времени начала");
+    }
+
+    @Test
+    void parseDateTimeWithFractionTest() { // время с долями секунды разбирается стандартным форматом
+        Task task = new Task("Задача", "Описание", Status.NEW,
+                LocalDateTime.of(2025, 1, 1, 10, 0, 0, 500_000_000), Duration.ofMinutes(1));
+        task.setId(1);
+
+        assertEquals(task.getStartTime(), CSVTaskFormat.fromString(CSVTaskFormat.toString(task)).getStartTime(),
+                "Доли секунды сохранены");
+    }
+
+    @Test
+    void rejectMalformedLineTest() { // ошибки в строке
+        assertThrows(NumberFormatException.class, () -> CSVTaskFormat.fromString("x,TASK,a,NEW,b,,0,"),
+                "Неверный id");
+        assertThrows(IllegalArgumentException.class, () -> CSVTaskFormat.fromString("1,TASKS,a,NEW,b,,0,"),
+                "Неизвестный тип");
+        assertThrows(IllegalArgumentException.class, () -> CSVTaskFormat.fromString("1,TASK,\"a,NEW,b,,0,"),
+                "Незакрытые кавычки");
+    }
+
+}
@@ -0,0 +1,10 @@
+package manager;
+
+class ColumnarTaskManagerTest extends RecordTaskManagerTest<ColumnarTaskManager> {
+
+    @Override
+    protected ColumnarTaskManager createTaskManager() {
+        return new ColumnarTaskManager();
+    }
+
+}
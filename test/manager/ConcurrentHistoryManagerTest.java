@@ -0,0 +1,88 @@
+package manager;
+
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest extends HistoryManagerTest<ConcurrentHistoryManager> {
+
+    private static final int THREADS = 8;
+
+    @Override
+    protected ConcurrentHistoryManager createHistoryManager() {
+        return new ConcurrentHistoryManager();
+    }
+
+    @Override
+    protected ConcurrentHistoryManager createHistoryManager(int capacity) {
+        return new ConcurrentHistoryManager(capacity);
+    }
+
+    @Test
+    void concurrentViewsKeepOrderWithoutDuplicatesTest() throws InterruptedException { // одновременные просмотры
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int first = t * 100; // у каждого потока свои задачи
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int round = 0; round < 50; round++) {
+                    for (int id = first; id < first + 100; id++) {
+                        historyManager.add(task(id));
+                        historyManager.getHistory();
+                    }
+                }
+                historyManager.remove(first);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(THREADS * 99, history.size(), "В истории все просмотренные и не удалённые задачи");
+        assertEquals(history.size(), new HashSet<>(history).size(), "Дубликаты не должны создаваться");
+        for (int t = 0; t < THREADS; t++) {
+            int first = t * 100;
+            List<Integer> ids = history.stream().map(Task::getId)
+                    .filter(id -> id >= first && id < first + 100).toList();
+            for (int i = 0; i < ids.size(); i++) {
+                assertEquals(first + 1 + i, ids.get(i), "Порядок просмотров одного потока сохраняется");
+            }
+        }
+    }
+
+    @Test
+    void evictedStaleViewIsNotCountedTest() { // вытесненный устаревший просмотр больше не считается устаревшим
+        historyManager = createHistoryManager(2);
+        historyManager.add(task(1));
+        historyManager.add(task(2));
+        historyManager.add(task(1));
+        assertEquals(1, historyManager.staleViews(), "Первый просмотр задачи 1 устарел");
+
+        historyManager.add(task(3)); // вытесняет устаревший просмотр задачи 1 и задачу 2
+        assertEquals(0, historyManager.staleViews(), "Устаревших просмотров в очереди не осталось");
+        assertEquals(List.of(1, 3), historyManager.getHistory().stream().map(Task::getId).toList());
+    }
+
+    private static Task task(int id) {
+        Task task = new Task("Задача" + id, "Описание задачи" + id, Status.NEW);
+        task.setId(id);
+        return task;
+    }
+
+}
@@ -0,0 +1,244 @@
+package manager;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+
+    private static final int THREADS = 8;
+
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    @Test
+    void concurrentCreateAssignsUniqueIdsTest() throws Exception { // уникальные id при одновременном создании
+        List<Future<List<Integer>>> results = runInParallel(thread -> {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                Task task = new Task("Задача", "Описание задачи", Status.NEW);
+                taskManager.createTask(task);
+                ids.add(task.getId());
+            }
+            return ids;
+        });
+
+        Set<Integer> ids = new HashSet<>();
+        for (Future<List<Integer>> result : results) {
+            ids.addAll(result.get());
+        }
+        assertEquals(THREADS * 500, ids.size(), "Все id должны быть разными");
+        assertEquals(THREADS * 500, taskManager.getAllTasks().size(), "Все задачи сохранены");
+    }
+
+    @Test
+    void concurrentCreateNeverOverlapsTest() throws Exception { // одновременное создание не даёт пересечений
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        AtomicInteger conflicts = new AtomicInteger();
+        runInParallel(thread -> {
+            for (int slot = 0; slot < 200; slot++) { // все потоки претендуют на одни и те же интервалы
+                try {
+                    taskManager.createTask(new Task("Задача", "Описание задачи", Status.NEW,
+                            start.plusMinutes(slot * 30L), Duration.ofMinutes(30)));
+                } catch (TimeConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+            }
+            return null;
+        }).forEach(this::await);
+
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        assertEquals(200, prioritized.size(), "Каждый интервал занят ровно одной задачей");
+        assertEquals((THREADS - 1) * 200, conflicts.get(), "Остальные попытки отклонены");
+        for (int i = 1; i < prioritized.size(); i++) {
+            assertFalse(prioritized.get(i).getStartTime().isBefore(prioritized.get(i - 1).getEndTime()),
+                    "Задачи не должны пересекаться");
+        }
+    }
+
+    @Test
+    void prioritizedTasksAreAlwaysStoredTest() throws Exception { // задача из списка приоритетов уже есть в карте
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        AtomicInteger missing = new AtomicInteger();
+        runInParallel(thread -> {
+            for (int i = 0; i < 400; i++) {
+                if (thread % 2 == 0) {
+                    taskManager.createTask(new Task("Задача", "Описание задачи", Status.NEW,
+                            start.plusMinutes(thread * 1_000L + i), Duration.ofMinutes(1)));
+                } else {
+                    List<Task> prioritized = taskManager.getPrioritizedTasks();
+                    Set<Task> stored = taskManager.streamTasks().collect(Collectors.toSet());
+                    prioritized.stream().filter(task -> !stored.contains(task)).forEach(task -> missing.incrementAndGet());
+                }
+            }
+            return null;
+        }).forEach(this::await);
+
+        assertEquals(0, missing.get(), "Задачи в списке приоритетов без задачи в карте");
+        assertEquals(THREADS / 2 * 400, taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void concurrentSubtaskChangesKeepEpicConsistentTest() throws Exception { // эпик согласован с подзадачами
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+
+        runInParallel(thread -> {
+            for (int i = 0; i < 300; i++) {
+                Subtask subtask = new Subtask("Подзадача", "Описание подзадачи", Status.DONE, epic.getId());
+                taskManager.createSubtask(subtask);
+                if (i % 3 == 0) {
+                    taskManager.deleteSubtask(subtask.getId());
+                } else if (i % 3 == 1) {
+                    subtask.setStatus(Status.IN_PROGRESS);
+                    taskManager.updateSubtask(subtask);
+                }
+            }
+            return null;
+        }).forEach(this::await);
+
+        List<Subtask> subtasks = taskManager.getEpicSubtasks(epic.getId());
+        assertEquals(THREADS * 200, subtasks.size(), "Количество подзадач эпика");
+        assertEquals(new HashSet<>(taskManager.getAllSubtasks()), new HashSet<>(subtasks),
+                "Подзадачи эпика совпадают со всеми подзадачами");
+        assertEquals(Status.IN_PROGRESS, taskManager.getEpicById(epic.getId()).getStatus(), "Статус эпика по подзадачам");
+    }
+
+    @Test
+    void snapshotsAreConsistentDuringWritesTest() throws Exception { // эпик в снимке согласован с подзадачами
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Epic epic = new Epic("Эпик " + i, "Описание эпика");
+            taskManager.createEpic(epic);
+            epics.add(epic);
+        }
+        AtomicInteger writers = new AtomicInteger(THREADS / 2);
+        runInParallel(thread -> {
+            if (thread < THREADS / 2) { // писатели переносят подзадачи между эпиками
+                for (int i = 0; i < 500; i++) {
+                    Subtask subtask = new Subtask("Подзадача", "Описание подзадачи",
+                            i % 2 == 0 ? Status.DONE : Status.NEW, epics.get(i % THREADS).getId());
+                    taskManager.createSubtask(subtask);
+                    Subtask moved = new Subtask("Подзадача", "Описание подзадачи", Status.IN_PROGRESS,
+                            epics.get((i + thread) % THREADS).getId());
+                    moved.setId(subtask.getId());
+                    taskManager.updateSubtask(moved);
+                    if (i % 4 == 0) {
+                        taskManager.deleteSubtask(subtask.getId());
+                    }
+                }
+                writers.decrementAndGet();
+                return null;
+            }
+            while (writers.get() > 0) { // читатели проверяют каждый снимок целиком
+                TaskSnapshot snapshot = taskManager.snapshot();
+                int total = 0;
+                for (Epic epic : snapshot.getAllEpics()) {
+                    List<Subtask> subtasks = snapshot.getEpicSubtasks(epic.getId());
+                    assertEquals(epic.getSubtaskIds().size(), subtasks.size(), "Все подзадачи эпика в снимке");
+                    assertEquals(statusOf(subtasks), epic.getStatus(), "Статус эпика по подзадачам снимка");
+                    for (Subtask subtask : subtasks) {
+                        assertEquals(epic.getId(), subtask.getEpicId(), "Подзадача в своём эпике");
+                    }
+                    total += subtasks.size();
+                }
+                assertEquals(snapshot.getAllSubtasks().size(), total, "Лишних подзадач в снимке нет");
+            }
+            return null;
+        }).forEach(this::await);
+
+        TaskSnapshot snapshot = taskManager.snapshot();
+        assertEquals(new HashSet<>(taskManager.getAllSubtasks()), new HashSet<>(snapshot.getAllSubtasks()),
+                "Последний снимок совпадает с менеджером");
+    }
+
+    @Test
+    void snapshotKeepsLastVersionTest() throws Exception { // снимок не отстаёт от карты, с интервалами и без
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        runInParallel(thread -> {
+            for (int i = 0; i < 300; i++) {
+                if (thread % 2 == 0) { // создают задачи без времени
+                    taskManager.createTask(new Task("Задача", "Описание задачи", Status.NEW));
+                    continue;
+                }
+                Task task = taskManager.getTaskById(ThreadLocalRandom.current().nextInt(1, THREADS / 2 * 300 + 1));
+                if (task != null) { // меняют чужие задачи, в том числе только что созданные
+                    LocalDateTime slot = i % 2 == 0 ? start.plusMinutes(task.getId() * 10L) : null;
+                    taskManager.updateTask(task.withStatus(Status.values()[i % 3]).withStartTime(slot));
+                }
+            }
+            return null;
+        }).forEach(this::await);
+
+        TaskSnapshot snapshot = taskManager.snapshot();
+        assertEquals(THREADS / 2 * 300, snapshot.getAllTasks().size(), "В снимке все задачи");
+        for (Task task : taskManager.getAllTasks()) {
+            assertSame(task, snapshot.getTaskById(task.getId()), "В снимке последняя версия задачи");
+        }
+        assertEquals(taskManager.getPrioritizedTasks(), snapshot.getPrioritizedTasks(), "Список приоритетов совпадает");
+    }
+
+    @Test
+    void managersCreatesConcurrentManagerTest() { // фабрика создаёт потокобезопасный менеджер
+        assertInstanceOf(ConcurrentTaskManager.class, Managers.getConcurrent(), "Неверный тип менеджера");
+    }
+
+    private interface Job<R> {
+        R run(int thread) throws Exception;
+    }
+
+    private <R> List<Future<R>> runInParallel(Job<R> job) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<R>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int thread = i;
+            results.add(executor.submit(() -> {
+                start.await();
+                return job.run(thread);
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return results;
+    }
+
+    private static Status statusOf(List<Subtask> subtasks) {
+        if (subtasks.isEmpty() || subtasks.stream().allMatch(subtask -> subtask.getStatus() == Status.NEW)) {
+            return Status.NEW;
+        }
+        return subtasks.stream().allMatch(subtask -> subtask.getStatus() == Status.DONE) ? Status.DONE
+                : Status.IN_PROGRESS;
+    }
+
+    private void await(Future<?> result) {
+        try {
+            result.get();
+        } catch (Exception e) {
+            throw new AssertionError("Ошибка в рабочем потоке", e);
+        }
+    }
+
+}
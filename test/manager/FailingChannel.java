@@ -0,0 +1,42 @@
+package manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+final class FailingChannel implements WritableByteChannel { // пропускает limit байт, затем ошибка
+    private final WritableByteChannel channel;
+    private long remaining;
+
+    FailingChannel(WritableByteChannel channel, long limit) {
+        this.channel = channel;
+        this.remaining = limit;
+    }
+
+    @Override
+    public int write(ByteBuffer source) throws IOException { // часть до limit доходит до файла
+        ByteBuffer part = source.duplicate();
+        part.limit(part.position() + (int) Math.min(part.remaining(), remaining));
+        int written = 0;
+        while (part.hasRemaining()) {
+            written += channel.write(part);
+        }
+        source.position(part.position());
+        remaining -= written;
+        if (source.hasRemaining()) {
+            throw new IOException("Запись оборвана");
+        }
+        return written;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
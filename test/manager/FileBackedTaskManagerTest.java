@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -55,6 +56,91 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
                 "Списки подзадач не совпадают");
     }
 
+    @Test
+    void saveAndLoadBatchTest() { // сохранение и загрузка пакетных изменений
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        Subtask subtask1 = new Subtask("Подзадача1", "Описание подзадачи1", Status.NEW, epic.getId());
+        Subtask subtask2 = new Subtask("Подзадача2", "Описание подзадачи2", Status.DONE, epic.getId());
+        taskManager.createSubtasks(List.of(subtask1, subtask2));
+        taskManager.createTasks(List.of(new Task("Задача1", "Описание задачи1", Status.NEW),
+                new Task("Задача2", "Описание задачи2", Status.NEW)));
+        taskManager.deleteSubtasks(new int[]{subtask1.getId()});
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(taskManager.getAllTasks(), loadedManager.getAllTasks(), "Списки задач не совпадают");
+        assertEquals(List.of(subtask2), loadedManager.getAllSubtasks(), "Списки подзадач не совпадают");
+        assertEquals(Status.DONE, loadedManager.getEpicById(epic.getId()).getStatus(), "Статус эпика восстановлен");
+    }
+
+    @Test
+    void statusIndexAfterLoadTest() { // индекс статусов строится при загрузке, статус эпика - по подзадачам
+        taskManager.createTasks(List.of(new Task("Задача1", "Описание задачи1", Status.NEW),
+                new Task("Задача2", "Описание задачи2", Status.DONE)));
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        taskManager.createEpic(new Epic("Пустой эпик", "Без подзадач"));
+        taskManager.createSubtasks(List.of(
+                new Subtask("Подзадача1", "Описание подзадачи1", Status.DONE, epic.getId()),
+                new Subtask("Подзадача2", "Описание подзадачи2", Status.IN_PROGRESS, epic.getId())));
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertStatusQueriesMatchScan(loadedManager);
+        for (Status status : Status.values()) {
+            assertEquals(taskManager.countByStatus(status), loadedManager.countByStatus(status),
+                    "Число задач в статусе " + status);
+        }
+        assertEquals(List.of(epic), loadedManager.getEpicsByStatus(Status.IN_PROGRESS), "Эпик в работе");
+    }
+
+    @Test
+    void saveAndLoadTextWithSeparatorsTest() { // запятые и переводы строк в тексте задач
+        Task task = new Task("Задача, важная", "Строка1\nСтрока2", Status.NEW);
+        taskManager.createTask(task);
+        Epic epic = new Epic("Эпик \"главный\"", "Описание,\n\nэпика");
+        taskManager.createEpic(epic);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals("Строка1\nСтрока2", loadedManager.getTaskById(task.getId()).getDescription(),
+                "Описание задачи восстановлено");
+        assertEquals("Эпик \"главный\"", loadedManager.getEpicById(epic.getId()).getName(),
+                "Название эпика восстановлено");
+        assertEquals("Описание,\n\nэпика", loadedManager.getEpicById(epic.getId()).getDescription(),
+                "Описание эпика восстановлено");
+    }
+
+    @Test
+    void saveAndLoadCarriageReturnsInTextTest() { // \r и \r\n внутри полей не заменяются на \n
+        Task task = new Task("a\rb", "x\r\ny\r", Status.NEW);
+        taskManager.createTask(task);
+        Task empty = new Task("Задача", null, Status.NEW);
+        taskManager.createTask(empty);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals("a\rb", loadedManager.getTaskById(task.getId()).getName(), "Одиночный \\r в названии");
+        assertEquals("x\r\ny\r", loadedManager.getTaskById(task.getId()).getDescription(), "\\r\\n в описании");
+        assertEquals("", loadedManager.getTaskById(empty.getId()).getDescription(), "null читается пустой строкой");
+    }
+
+    @Test
+    void loadFileWithWindowsLineEndingsTest() throws Exception { // загрузка файла с переводами строк \r\n
+        Files.writeString(tempFile.toPath(), "id,type,name,status,description,startTime,duration,epic\r\n"
+                + "1,TASK,Задача,NEW,Описание задачи,,0,\r\n"
+                + "\r\n"
+                + "2,EPIC,Эпик,NEW,Описание эпика,,0,\r\n"
+                + "3,SUBTASK,Подзадача,DONE,Описание подзадачи,,0,2\r\n");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals("Задача", loadedManager.getTaskById(1).getName(), "Задача загружена");
+        assertEquals(List.of(3), loadedManager.getEpicById(2).getSubtaskIds(), "Подзадача привязана к эпику");
+        assertEquals(Status.DONE, loadedManager.getEpicById(2).getStatus(), "Статус эпика по подзадаче");
+    }
+
     @Test
     void epicStatusUpdateSubtaskTest() { // статус эпика после добавления подзадачи
         Epic epic = new Epic("Эпик", "Описание эпика");
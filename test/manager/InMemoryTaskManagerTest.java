@@ -1,8 +1,18 @@
 package manager;
 
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
 
@@ -19,4 +29,114 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         assertNotNull(historyManager, "HistoryManager не проинициализирован");
     }
 
+    @Test
+    void boundedHistoryKeepsLatestViewsTest() { // менеджер с ограниченной историей
+        TaskManager taskManager = Managers.getDefault(2);
+        Task task1 = new Task("Задача1", "Описание задачи1", Status.NEW);
+        Task task2 = new Task("Задача2", "Описание задачи2", Status.NEW);
+        Task task3 = new Task("Задача3", "Описание задачи3", Status.NEW);
+        taskManager.createTasks(List.of(task1, task2, task3));
+
+        taskManager.getTaskById(task1.getId());
+        taskManager.getTaskById(task2.getId());
+        taskManager.getTaskById(task3.getId());
+
+        assertEquals(List.of(task2, task3), taskManager.getHistory(), "В истории только два последних просмотра");
+        assertEquals(List.of(task3), taskManager.getHistory(1, 10), "Страница истории со смещением");
+    }
+
+    @Test
+    void epicIsReturnedWithoutCopyingTest() { // эпик отдаётся хранимым значением и заменяется при изменении подзадач
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        Epic before = taskManager.getEpicById(epic.getId());
+        assertSame(before, taskManager.getAllEpics().get(0), "Без копии при каждом чтении");
+
+        taskManager.createSubtask(new Subtask("Подзадача", "Описание подзадачи", Status.DONE, epic.getId()));
+        Epic after = taskManager.getEpicById(epic.getId());
+
+        assertEquals(Status.NEW, before.getStatus(), "Выданное значение не меняется");
+        assertEquals(List.of(), before.getSubtaskIds(), "Выданное значение хранит прежний состав");
+        assertEquals(Status.DONE, after.getStatus(), "Новое значение по подзадаче");
+        assertEquals(1, after.getSubtaskIds().size(), "Новое значение видит подзадачу");
+    }
+
+    @Test
+    void statusIndexAfterRandomMutationsTest() { // индекс статусов совпадает с обходом после случайных изменений
+        Random random = new Random(7);
+        Status[] statuses = Status.values();
+        for (int step = 0; step < 2_000; step++) {
+            List<Task> tasks = taskManager.getAllTasks();
+            List<Epic> epics = taskManager.getAllEpics();
+            List<Subtask> subtasks = taskManager.getAllSubtasks();
+            Status status = statuses[random.nextInt(statuses.length)];
+            switch (random.nextInt(10)) {
+                case 0:
+                    taskManager.createTask(new Task("Задача", "Описание", status));
+                    break;
+                case 1:
+                    if (!tasks.isEmpty()) {
+                        Task task = new Task("Задача", "Описание", status);
+                        task.setId(tasks.get(random.nextInt(tasks.size())).getId());
+                        taskManager.updateTask(task);
+                    }
+                    break;
+                case 2:
+                    if (!tasks.isEmpty()) {
+                        taskManager.deleteTask(tasks.get(random.nextInt(tasks.size())).getId());
+                    }
+                    break;
+                case 3:
+                    taskManager.createEpic(new Epic("Эпик", "Описание"));
+                    break;
+                case 4:
+                    if (!epics.isEmpty() && random.nextInt(4) == 0) {
+                        taskManager.deleteEpic(epics.get(random.nextInt(epics.size())).getId());
+                    }
+                    break;
+                case 5:
+                case 6:
+                    if (!epics.isEmpty()) {
+                        taskManager.createSubtask(new Subtask("Подзадача", "Описание", status,
+                                epics.get(random.nextInt(epics.size())).getId()));
+                    }
+                    break;
+                case 7:
+                    if (!subtasks.isEmpty() && !epics.isEmpty()) { // в том числе перенос в другой эпик
+                        Subtask subtask = new Subtask("Подзадача", "Описание", status,
+                                epics.get(random.nextInt(epics.size())).getId());
+                        subtask.setId(subtasks.get(random.nextInt(subtasks.size())).getId());
+                        taskManager.updateSubtask(subtask);
+                    }
+                    break;
+                case 8:
+                    if (!subtasks.isEmpty()) {
+                        taskManager.deleteSubtask(subtasks.get(random.nextInt(subtasks.size())).getId());
+                    }
+                    break;
+                default:
+                    int kind = random.nextInt(30);
+                    if (kind == 0) {
+                        taskManager.deleteAllSubtasks();
+                    } else if (kind == 1) {
+                        taskManager.deleteAllEpics();
+                    } else if (kind == 2) {
+                        taskManager.deleteAllTasks();
+                    } else if (!subtasks.isEmpty()) {
+                        List<Subtask> batch = new ArrayList<>();
+                        for (Subtask subtask : subtasks.subList(0, Math.min(3, subtasks.size()))) {
+                            Subtask update = new Subtask("Подзадача", "Описание", status, subtask.getEpicId());
+                            update.setId(subtask.getId());
+                            batch.add(update);
+                        }
+                        taskManager.updateSubtasks(batch);
+                    }
+            }
+            if (step % 50 == 0) {
+                assertStatusQueriesMatchScan(taskManager);
+            }
+        }
+        assertStatusQueriesMatchScan(taskManager);
+    }
+
 }
@@ -0,0 +1,185 @@
+package manager;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledFileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+
+    private static final int COMPACTION_THRESHOLD = 100;
+
+    private File tempFile;
+
+    @Override
+    protected FileBackedTaskManager createTaskManager() {
+        try {
+            Path tempPath = Files.createTempFile("tasks", ".csv");
+            tempFile = tempPath.toFile();
+            OperationJournal.fileFor(tempFile).deleteOnExit();
+            return new FileBackedTaskManager(tempFile, COMPACTION_THRESHOLD);
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка создания временного файла", e);
+        }
+    }
+
+    @Test
+    void replaySnapshotAndJournalTest() { // восстановление из снимка и журнала операций
+        Task task = new Task("Задача", "Описание задачи", Status.NEW,
+                LocalDateTime.of(2025, 1, 1, 10, 0), Duration.ofMinutes(30));
+        taskManager.createTask(task);
+        Epic epic1 = new Epic("Эпик1", "Описание эпика1");
+        taskManager.createEpic(epic1);
+        Epic epic2 = new Epic("Эпик2", "Описание эпика2");
+        taskManager.createEpic(epic2);
+        Subtask subtask1 = new Subtask("Подзадача1", "Описание подзадачи1", Status.NEW, epic1.getId());
+        taskManager.createSubtask(subtask1);
+        Subtask subtask2 = new Subtask("Подзадача2", "Описание подзадачи2", Status.NEW, epic1.getId());
+        taskManager.createSubtask(subtask2);
+        Subtask subtask3 = new Subtask("Подзадача3", "Описание подзадачи3", Status.NEW, epic2.getId());
+        taskManager.createSubtask(subtask3);
+
+        Task updatedTask = new Task("Обновленная задача", "Обновленное описание", Status.DONE,
+                LocalDateTime.of(2025, 1, 1, 12, 0), Duration.ofMinutes(30));
+        updatedTask.setId(task.getId());
+        taskManager.updateTask(updatedTask);
+        subtask1.setStatus(Status.DONE);
+        taskManager.updateSubtask(subtask1);
+        taskManager.deleteSubtask(subtask2.getId());
+        taskManager.deleteEpic(epic2.getId());
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, COMPACTION_THRESHOLD);
+
+        assertEquals(taskManager.getAllTasks(), loadedManager.getAllTasks(), "Списки задач не совпадают");
+        assertEquals(taskManager.getAllEpics(), loadedManager.getAllEpics(), "Списки эпиков не совпадают");
+        assertEquals(taskManager.getAllSubtasks(), loadedManager.getAllSubtasks(), "Списки подзадач не совпадают");
+        assertEquals("Обновленная задача", loadedManager.getTaskById(task.getId()).getName(),
+                "Восстановлена обновленная версия задачи");
+        assertEquals(Status.DONE, loadedManager.getEpicById(epic1.getId()).getStatus(),
+                "Статус эпика пересчитан после восстановления");
+        assertEquals(List.of(updatedTask), loadedManager.getPrioritizedTasks(), "Список приоритетов восстановлен");
+    }
+
+    @Test
+    void mutationAppendsToJournalWithoutRewritingSnapshotTest() { // изменение дописывается в журнал, снимок не переписывается
+        taskManager.createTask(new Task("Задача1", "Описание задачи1", Status.NEW));
+        long snapshotLength = tempFile.length();
+
+        taskManager.createTask(new Task("Задача2", "Описание задачи2", Status.NEW));
+        taskManager.createTask(new Task("Задача3", "Описание задачи3", Status.NEW));
+
+        assertEquals(snapshotLength, tempFile.length(), "Снимок не переписывается при каждом изменении");
+        assertTrue(OperationJournal.fileFor(tempFile).length() > 0, "Изменения записаны в журнал");
+    }
+
+    @Test
+    void batchIsJournaledTest() { // пакетные изменения попадают в журнал
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        Subtask subtask1 = new Subtask("Подзадача1", "Описание подзадачи1", Status.NEW, epic.getId());
+        Subtask subtask2 = new Subtask("Подзадача2", "Описание подзадачи2", Status.DONE, epic.getId());
+        taskManager.createSubtasks(List.of(subtask1, subtask2));
+        taskManager.deleteSubtasks(new int[]{subtask1.getId()});
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, COMPACTION_THRESHOLD);
+
+        assertEquals(List.of(subtask2), loadedManager.getAllSubtasks(), "Списки подзадач не совпадают");
+        assertEquals(Status.DONE, loadedManager.getEpicById(epic.getId()).getStatus(), "Статус эпика восстановлен");
+    }
+
+    @Test
+    void journalIsCompactedIntoSnapshotTest() { // журнал сжимается в снимок по достижении порога
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, 3);
+        for (int i = 0; i < 4; i++) {
+            manager.createTask(new Task("Задача" + i, "Описание задачи" + i, Status.NEW));
+        }
+
+        assertFalse(OperationJournal.fileFor(tempFile).exists(), "Журнал очищен после сжатия");
+        FileBackedTaskManager snapshotOnly = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(4, snapshotOnly.getAllTasks().size(), "Все задачи попали в снимок");
+    }
+
+    @Test
+    void truncatedJournalRecordIsDiscardedTest() throws Exception { // оборванная запись журнала отбрасывается
+        Task task1 = new Task("Задача1", "Описание задачи1", Status.NEW);
+        taskManager.createTask(task1);
+        Task task2 = new Task("Задача2", "Описание задачи2", Status.NEW);
+        taskManager.createTask(task2);
+        Task task3 = new Task("Задача3", "Описание задачи3", Status.NEW);
+        taskManager.createTask(task3);
+
+        File journalFile = OperationJournal.fileFor(tempFile);
+        try (RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) {
+            raf.setLength(raf.length() - 20); // обрыв посреди многобайтового символа
+        }
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, COMPACTION_THRESHOLD);
+
+        assertEquals(2, loadedManager.getAllTasks().size(), "Восстановлены только целые записи");
+        assertNotNull(loadedManager.getTaskById(task1.getId()), "Задача из снимка восстановлена");
+        assertNotNull(loadedManager.getTaskById(task2.getId()), "Задача из журнала восстановлена");
+        assertNull(loadedManager.getTaskById(task3.getId()), "Оборванная запись не применяется");
+    }
+
+    @Test
+    void multilineRecordIsReplayedTest() { // запись журнала с переводом строки внутри описания
+        Task task1 = new Task("Задача1", "Описание задачи1", Status.NEW);
+        taskManager.createTask(task1);
+        Task task2 = new Task("Задача2", "Строка1\nСтрока2, ещё", Status.NEW);
+        taskManager.createTask(task2);
+        taskManager.deleteTask(task1.getId());
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, COMPACTION_THRESHOLD);
+
+        assertEquals(1, loadedManager.getAllTasks().size(), "Удаление из журнала применено");
+        assertEquals("Строка1\nСтрока2, ещё", loadedManager.getTaskById(task2.getId()).getDescription(),
+                "Многострочное описание восстановлено из журнала");
+    }
+
+    @Test
+    void failedJournalWriteIsFollowedBySnapshotTest() { // после обрыва записи журнала изменения не теряются
+        FaultyJournalManager manager = new FaultyJournalManager(tempFile);
+        Task task1 = new Task("Задача1", "Описание задачи1", Status.NEW);
+        manager.createTask(task1);
+        Task task2 = new Task("Задача2", "Описание задачи2", Status.NEW);
+        manager.createTask(task2);
+        Task task3 = new Task("Задача3", "Описание задачи3", Status.NEW);
+        manager.failAfter = 10; // в журнале остаётся обрывок записи
+
+        assertThrows(ManagerSaveException.class, () -> manager.createTask(task3), "Запись журнала оборвана");
+
+        manager.failAfter = -1;
+        Task task4 = new Task("Задача4", "Описание задачи4", Status.NEW);
+        manager.createTask(task4);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, COMPACTION_THRESHOLD);
+        assertEquals(manager.getAllTasks(), loadedManager.getAllTasks(), "Восстановлены все задачи из памяти");
+        assertEquals(4, loadedManager.getAllTasks().size(), "Задача с оборванной записью тоже сохранена");
+    }
+
+    private static final class FaultyJournalManager extends FileBackedTaskManager { // журнал обрывается на байте failAfter
+        long failAfter = -1; // -1 - запись не обрывается
+
+        FaultyJournalManager(File file) {
+            super(file, COMPACTION_THRESHOLD);
+        }
+
+        @Override
+        WritableByteChannel journalChannel(WritableByteChannel channel) {
+            return failAfter < 0 ? channel : new FailingChannel(channel, failAfter);
+        }
+    }
+
+}
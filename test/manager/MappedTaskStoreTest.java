@@ -0,0 +1,143 @@
+package manager;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTaskStoreTest {
+
+    private File file;
+    private FileBackedTaskManager taskManager;
+    private Epic epic;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.createTempFile("tasks", ".bin").toFile();
+        taskManager = new FileBackedTaskManager(file, 0, FlushPolicy.IMMEDIATE, SnapshotFormat.BINARY);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        taskManager.createTask(new Task("Задача2", "Описание задачи2", Status.NEW, start.plusHours(3),
+                Duration.ofMinutes(30)));
+        taskManager.createTask(new Task("Задача1", "Описание задачи1", Status.IN_PROGRESS, start,
+                Duration.ofMinutes(30)));
+        taskManager.createTask(new Task("Задача без времени", "Описание", Status.NEW));
+        epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        taskManager.createSubtask(new Subtask("Подзадача1", "Описание подзадачи1", Status.DONE, epic.getId(),
+                start.plusHours(1), Duration.ofMinutes(15)));
+        taskManager.createSubtask(new Subtask("Подзадача2", "Описание подзадачи2", Status.NEW, epic.getId()));
+        taskManager.createEpic(new Epic("Пустой эпик", "Без подзадач"));
+    }
+
+    @Test
+    void readsSameDataAsManagerTest() { // хранилище видит те же данные, что и менеджер
+        try (MappedTaskStore store = MappedTaskStore.open(file)) {
+            assertEquals(new HashSet<>(taskManager.getAllTasks()), new HashSet<>(store.getAllTasks()), "Задачи");
+            assertEquals(new HashSet<>(taskManager.getAllEpics()), new HashSet<>(store.getAllEpics()), "Эпики");
+            assertEquals(new HashSet<>(taskManager.getAllSubtasks()), new HashSet<>(store.getAllSubtasks()),
+                    "Подзадачи");
+            assertEquals(taskManager.getPrioritizedTasks(), store.getPrioritizedTasks(), "Порядок приоритетов");
+            assertEquals(taskManager.getEpicSubtasks(epic.getId()), store.getEpicSubtasks(epic.getId()),
+                    "Подзадачи эпика");
+        }
+    }
+
+    @Test
+    void pagesAndStreamsTest() { // страницы читаются из файла без разбора остальных записей
+        try (MappedTaskStore store = MappedTaskStore.open(file)) {
+            List<Task> prioritized = store.getPrioritizedTasks();
+            assertEquals(prioritized.subList(1, 3), store.getPrioritizedTasks(1, 2), "Страница приоритетов");
+            assertEquals(prioritized, store.streamPrioritizedTasks().collect(Collectors.toList()),
+                    "Поток приоритетов");
+            assertEquals(store.getAllTasks().subList(0, 2), store.getTasks(0, 2), "Страница задач");
+            assertEquals(2, store.streamEpics().count(), "Поток эпиков");
+            assertEquals(store.getAllSubtasks(), store.getSubtasks(0, 10), "Страница подзадач");
+            assertTrue(store.getEpics(5, 1).isEmpty(), "Страница за концом списка пуста");
+            assertThrows(IllegalArgumentException.class, () -> store.getEpics(0, -1), "Отрицательный limit");
+        }
+    }
+
+    @Test
+    void timeQueriesMatchManagerTest() { // запросы по времени совпадают с менеджером, из которого сохранён снимок
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        try (MappedTaskStore store = MappedTaskStore.open(file)) {
+            for (int hour = 0; hour < 6; hour++) {
+                LocalDateTime from = start.plusMinutes(hour * 40L);
+                assertEquals(taskManager.getTasksInWindow(from, from.plusHours(2)),
+                        store.getTasksInWindow(from, from.plusHours(2)), "Окно с " + from);
+                assertEquals(taskManager.nextFreeSlot(Duration.ofMinutes(45), from),
+                        store.nextFreeSlot(Duration.ofMinutes(45), from), "Свободный интервал после " + from);
+            }
+        }
+    }
+
+    @Test
+    void epicStateIsComputedFromSubtasksTest() { // статус и время эпика считаются по подзадачам
+        try (MappedTaskStore store = MappedTaskStore.open(file)) {
+            Epic stored = store.getEpicById(epic.getId());
+            Epic expected = taskManager.getEpicById(epic.getId()); // переданный в create эпик менеджер не меняет
+
+            assertEquals(Status.IN_PROGRESS, stored.getStatus(), "Статус эпика");
+            assertEquals(expected.getStartTime(), stored.getStartTime(), "Начало эпика");
+            assertEquals(expected.getEndTime(), stored.getEndTime(), "Конец эпика");
+            assertEquals("Описание эпика", stored.getDescription(), "Описание эпика");
+        }
+    }
+
+    @Test
+    void lookupAndHistoryTest() { // поиск по id и история просмотров
+        try (MappedTaskStore store = MappedTaskStore.open(file)) {
+            Task task = taskManager.getAllTasks().get(0);
+
+            assertEquals(task.getName(), store.getTaskById(task.getId()).getName(), "Задача найдена по id");
+            assertNull(store.getTaskById(epic.getId()), "Эпик не ищется среди задач");
+            assertNull(store.getSubtaskById(1000), "Нет такой подзадачи");
+            assertEquals(List.of(task), store.getHistory(), "Просмотр записан в историю");
+        }
+    }
+
+    @Test
+    void mutationsAreRejectedTest() { // хранилище только для чтения
+        assertFalse(TaskManager.class.isAssignableFrom(MappedTaskStore.class), "Методов изменения у хранилища нет");
+        try (MappedTaskStore store = MappedTaskStore.open(file)) {
+            assertThrows(UnsupportedOperationException.class, () -> store.getPrioritizedTasks().clear(),
+                    "Представление неизменяемое");
+        }
+    }
+
+    @Test
+    void decodedTasksAreFrozenAndCloseReleasesMappingTest() { // задачи неизменяемы, после close чтение запрещено
+        MappedTaskStore store = MappedTaskStore.open(file);
+        Task task = store.getAllTasks().get(0);
+        assertThrows(IllegalStateException.class, () -> task.setName("Изменено"), "Задача неизменяема");
+        assertThrows(IllegalStateException.class, () -> store.getEpicById(epic.getId()).setName("Изменено"),
+                "Эпик неизменяем");
+        assertTrue(store.getEpicSubtasks(epic.getId()).stream().allMatch(Task::isFrozen), "Подзадачи неизменяемы");
+
+        store.close();
+        assertThrows(IllegalStateException.class, () -> store.getTaskById(task.getId()), "Хранилище закрыто");
+        assertEquals(taskManager.getTaskById(task.getId()).getName(), task.getName(),
+                "Объекты, полученные до close, читаются");
+    }
+
+    @Test
+    void csvSnapshotIsRejectedTest() throws Exception { // CSV нужно сначала преобразовать
+        File csvFile = Files.createTempFile("tasks", ".csv").toFile();
+        SnapshotFormat.convert(file, csvFile, SnapshotFormat.CSV);
+
+        assertThrows(IllegalArgumentException.class, () -> MappedTaskStore.open(csvFile), "CSV не отображается");
+    }
+
+}
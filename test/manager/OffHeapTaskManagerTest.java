@@ -0,0 +1,78 @@
+package manager;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTaskManagerTest extends RecordTaskManagerTest<OffHeapTaskManager> {
+
+    @Override
+    protected OffHeapTaskManager createTaskManager() {
+        return new OffHeapTaskManager();
+    }
+
+    @Test
+    void deletedRecordsAreReusedTest() { // после удаления записи и текст не занимают новую память (id - в пределах одной страницы)
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        for (int i = 0; i < 10_000; i++) {
+            taskManager.createTask(new Task("Задача " + i, "Описание задачи " + i, Status.NEW));
+        }
+        long reserved = taskManager.offHeapBytes();
+        for (int round = 0; round < 3; round++) {
+            taskManager.deleteAllTasks();
+            for (int i = 0; i < 10_000; i++) {
+                taskManager.createTask(new Task("Задача " + i, "Описание задачи " + i, Status.NEW));
+            }
+        }
+        for (int i = 0; i < 1_000; i++) {
+            Subtask subtask = new Subtask("Подзадача", "Описание подзадачи", Status.DONE, epic.getId());
+            taskManager.createSubtask(subtask);
+            taskManager.deleteSubtask(subtask.getId());
+        }
+
+        assertTrue(taskManager.offHeapBytes() <= reserved, "Записи и текст берутся из освобождённых");
+        assertEquals(10_000, taskManager.getAllTasks().size(), "Задачи пересозданы");
+        assertEquals(Status.NEW, taskManager.getEpicById(epic.getId()).getStatus(), "Счётчики эпика обнулились");
+    }
+
+    @Test
+    void creationOrderIsKeptAfterReuseTest() { // занятый заново слот не меняет порядок создания
+        Task first = new Task("Задача1", "Описание задачи1", Status.NEW);
+        Task second = new Task("Задача2", "Описание задачи2", Status.NEW);
+        Task third = new Task("Задача3", "Описание задачи3", Status.NEW);
+        taskManager.createTask(first);
+        taskManager.createTask(second);
+        taskManager.deleteTask(first.getId());
+        taskManager.createTask(third);
+
+        assertEquals(List.of(second, third), taskManager.getAllTasks(), "Новая задача в конце");
+    }
+
+    @Test
+    void textOfAnyLengthIsKeptTest() { // пустые, многобайтовые и длинные строки
+        String longDescription = "описание ".repeat(20_000); // больше одного slab
+        Task empty = new Task("", null, Status.NEW);
+        Task unicode = new Task("Задача ✓ 𝄞", longDescription, Status.NEW);
+        taskManager.createTask(empty);
+        taskManager.createTask(unicode);
+
+        Task savedEmpty = taskManager.getTaskById(empty.getId());
+        Task savedUnicode = taskManager.getTaskById(unicode.getId());
+        assertEquals("", savedEmpty.getName(), "Пустое название");
+        assertNull(savedEmpty.getDescription(), "Описания нет");
+        assertEquals("Задача ✓ 𝄞", savedUnicode.getName(), "Символы вне ASCII");
+        assertEquals(longDescription, savedUnicode.getDescription(), "Длинное описание");
+
+        unicode.setDescription("Короткое");
+        taskManager.updateTask(unicode);
+        assertEquals("Короткое", taskManager.getTaskById(unicode.getId()).getDescription(), "Описание заменено");
+    }
+
+}
@@ -0,0 +1,201 @@
+package manager;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+abstract class RecordTaskManagerTest<T extends RecordTaskManager> extends TaskManagerTest<T> { // общие проверки хранилищ записей
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    @Test
+    void timeNotAlignedToMinutesIsKeptTest() { // секунды и доли секунды не теряются при хранении
+        LocalDateTime exactStart = LocalDateTime.of(2025, 1, 1, 10, 0, 30, 500);
+        Task exact = new Task("Задача1", "Описание задачи1", Status.NEW, exactStart, Duration.ofSeconds(90));
+        Task point = new Task("Задача2", "Описание задачи2", Status.NEW, exactStart.plusSeconds(20), null);
+        Task early = new Task("Задача3", "Описание задачи3", Status.NEW, LocalDateTime.of(1900, 1, 1, 0, 0),
+                Duration.ofMinutes(-5));
+        taskManager.createTask(exact);
+        taskManager.createTask(early);
+
+        Task saved = taskManager.getTaskById(exact.getId());
+        assertEquals(exactStart, saved.getStartTime(), "Начало с точностью до наносекунд");
+        assertEquals(Duration.ofSeconds(90), saved.getDuration(), "Продолжительность в секундах");
+        assertEquals(Duration.ofMinutes(-5), taskManager.getTaskById(early.getId()).getDuration(),
+                "Отрицательная продолжительность");
+        assertThrows(TimeConflictException.class, () -> taskManager.createTask(point),
+                "Момент внутри интервала из секунд");
+        assertEquals(List.of(early, exact), taskManager.getPrioritizedTasks(), "Порядок по точному началу");
+    }
+
+    @Test
+    void returnedObjectsAreCopiesTest() { // объекты создаются при чтении и не связаны с хранилищем
+        Task task = new Task("Задача", "Описание задачи", Status.NEW);
+        taskManager.createTask(task);
+
+        Task saved = taskManager.getTaskById(task.getId());
+        assertThrows(IllegalStateException.class, () -> saved.setStatus(Status.DONE), "Прочитанная задача неизменяема");
+        saved.withStatus(Status.DONE).setDescription("Другое описание");
+        task.setName("Другое название");
+
+        Task again = taskManager.getTaskById(task.getId());
+        assertNotSame(saved, again, "Каждое чтение создаёт объект");
+        assertEquals(Status.NEW, again.getStatus(), "Изменение копии не попадает в хранилище");
+        assertEquals("Задача", again.getName(), "Изменение исходного объекта не попадает в хранилище");
+    }
+
+    @Test
+    void matchesInMemoryManagerAfterRandomMutationsTest() { // те же изменения дают то же состояние, что в InMemory
+        Random random = new Random(11);
+        TaskManager reference = new InMemoryTaskManager();
+        Status[] statuses = Status.values();
+        for (int step = 0; step < 3_000; step++) {
+            List<Task> tasks = reference.getAllTasks();
+            List<Epic> epics = reference.getAllEpics();
+            List<Subtask> subtasks = reference.getAllSubtasks();
+            Status status = statuses[random.nextInt(statuses.length)];
+            LocalDateTime start = random.nextInt(4) == 0 ? null : START.plusMinutes(random.nextInt(2_000) * 10L)
+                    .plusSeconds(random.nextInt(8) == 0 ? 30 : 0);
+            Duration duration = Duration.ofMinutes(random.nextInt(6) * 15L);
+            int kind = random.nextInt(10);
+            switch (kind) {
+                case 0:
+                case 1:
+                    String name = "Задача " + random.nextInt(50); // повторяющиеся названия делят строку пула
+                    apply(reference, manager -> manager.createTask(new Task(name, "Описание", status, start,
+                            duration)));
+                    break;
+                case 2:
+                    if (!tasks.isEmpty()) {
+                        int id = tasks.get(random.nextInt(tasks.size())).getId();
+                        if (random.nextBoolean()) {
+                            apply(reference, manager -> manager.deleteTask(id));
+                        } else {
+                            apply(reference, manager -> manager.updateTask(withId(new Task("Задача",
+                                    "Другое описание", status, start, duration), id)));
+                        }
+                    }
+                    break;
+                case 3:
+                    apply(reference, manager -> manager.createEpic(new Epic("Эпик", "Описание")));
+                    break;
+                case 4:
+                    if (!epics.isEmpty()) {
+                        int id = epics.get(random.nextInt(epics.size())).getId();
+                        if (random.nextInt(4) == 0) {
+                            apply(reference, manager -> manager.deleteEpic(id));
+                        } else {
+                            apply(reference, manager -> manager.updateEpic(withId(new Epic("Эпик " + id,
+                                    "Описание"), id)));
+                        }
+                    }
+                    break;
+                case 5:
+                case 6:
+                    if (!epics.isEmpty()) {
+                        int epicId = epics.get(random.nextInt(epics.size())).getId();
+                        apply(reference, manager -> manager.createSubtask(new Subtask("Подзадача", "Описание",
+                                status, epicId, start, duration)));
+                    }
+                    break;
+                case 7:
+                    if (!subtasks.isEmpty() && !epics.isEmpty()) { // в том числе перенос в другой эпик
+                        int id = subtasks.get(random.nextInt(subtasks.size())).getId();
+                        int epicId = epics.get(random.nextInt(epics.size())).getId();
+                        apply(reference, manager -> manager.updateSubtask(withId(new Subtask("Подзадача",
+                                "Описание", status, epicId, start, duration), id)));
+                    }
+                    break;
+                case 8:
+                    if (!subtasks.isEmpty()) {
+                        int id = subtasks.get(random.nextInt(subtasks.size())).getId();
+                        apply(reference, manager -> manager.deleteSubtask(id));
+                    }
+                    break;
+                default:
+                    int bulk = random.nextInt(40);
+                    if (bulk == 0) {
+                        apply(reference, TaskManager::deleteAllSubtasks);
+                    } else if (bulk == 1) {
+                        apply(reference, TaskManager::deleteAllEpics);
+                    } else if (bulk == 2) {
+                        apply(reference, TaskManager::deleteAllTasks);
+                    } else if (tasks.size() > 3) {
+                        List<Integer> ids = tasks.subList(0, 3).stream().map(Task::getId).collect(Collectors.toList());
+                        apply(reference, manager -> {
+                            List<Task> batch = new ArrayList<>();
+                            for (int i = 0; i < ids.size(); i++) {
+                                batch.add(withId(new Task("Задача", "Описание", status,
+                                        start != null ? start.plusMinutes(i * 20L) : null, duration), ids.get(i)));
+                            }
+                            manager.updateTasks(batch);
+                        });
+                    }
+            }
+            if (step % 100 == 0) {
+                assertSameState(reference, taskManager);
+            }
+        }
+        assertSameState(reference, taskManager);
+        assertStatusQueriesMatchScan(taskManager);
+    }
+
+    private void apply(TaskManager reference, Consumer<TaskManager> change) { // оба менеджера ведут себя одинаково
+        boolean conflict = false;
+        try {
+            change.accept(reference);
+        } catch (TimeConflictException e) {
+            conflict = true;
+        }
+        if (conflict) {
+            assertThrows(TimeConflictException.class, () -> change.accept(taskManager), "Пересечение у обоих");
+        } else {
+            change.accept(taskManager);
+        }
+    }
+
+    private static <T extends Task> T withId(T task, int id) {
+        task.setId(id);
+        return task;
+    }
+
+    private static void assertSameState(TaskManager expected, TaskManager actual) {
+        assertEquals(describe(expected.getAllTasks()), describe(actual.getAllTasks()), "Задачи");
+        assertEquals(describe(expected.getAllEpics()), describe(actual.getAllEpics()), "Эпики");
+        assertEquals(describe(expected.getAllSubtasks()), describe(actual.getAllSubtasks()), "Подзадачи");
+        assertEquals(describe(expected.getPrioritizedTasks()), describe(actual.getPrioritizedTasks()), "Приоритеты");
+        for (Epic epic : expected.getAllEpics()) {
+            assertEquals(describe(expected.getEpicSubtasks(epic.getId())), describe(actual.getEpicSubtasks(epic.getId())),
+                    "Подзадачи эпика " + epic.getId());
+        }
+        LocalDateTime from = START.plusHours(100);
+        assertEquals(describe(expected.getTasksInWindow(from, from.plusHours(12))),
+                describe(actual.getTasksInWindow(from, from.plusHours(12))), "Окно");
+        assertEquals(expected.nextFreeSlot(Duration.ofMinutes(45), from), actual.nextFreeSlot(Duration.ofMinutes(45), from),
+                "Свободный интервал");
+    }
+
+    private static List<String> describe(List<? extends Task> items) {
+        List<String> result = new ArrayList<>();
+        for (Task item : items) {
+            String epicId = item instanceof Subtask ? " эпик " + ((Subtask) item).getEpicId() : "";
+            result.add(item.getType() + " " + item.getId() + " " + item.getName() + " " + item.getDescription() + " "
+                    + item.getStatus() + " " + item.getStartTime() + " " + item.getDuration() + " "
+                    + item.getEndTime() + epicId);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,86 @@
+package manager;
+
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex();
+    }
+
+    private static Task task(int id, String name, String description) {
+        Task task = new Task(name, description, Status.NEW);
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    void tokenizeCyrillicTest() { // слова любого алфавита, нижний регистр, ё как е
+        List<String> words = new ArrayList<>();
+        SearchIndex.tokenize("Ёлка, ПЛАН-2024 и report_v2!", words::add);
+
+        assertEquals(List.of("елка", "план", "2024", "и", "report", "v2"), words, "Слова текста");
+    }
+
+    @Test
+    void allWordsMustMatchTest() { // многословный запрос - пересечение
+        index.put(task(1, "Купить ёлку", "До праздника"));
+        index.put(task(2, "Купить подарки", "Для семьи"));
+        index.put(task(3, "Нарядить елку", "После покупки"));
+
+        assertEquals(List.of(1), index.search("купить ЕЛКУ", 0, 10), "Оба слова есть только в первой задаче");
+        assertEquals(2, index.search("елку", 0, 10).size(), "Ё и е не различаются");
+        assertTrue(index.search("купить торт", 0, 10).isEmpty(), "Одного из слов нет ни в одной задаче");
+        assertTrue(index.search(" ,. ", 0, 10).isEmpty(), "Запрос без слов");
+    }
+
+    @Test
+    void prefixQueryTest() { // слово со звёздочкой ищется как префикс
+        index.put(task(1, "Отчёт за квартал", null));
+        index.put(task(2, "Отчётность", "Налоги"));
+        index.put(task(3, "Отпуск", null));
+
+        assertEquals(List.of(1, 2), index.search("отчет*", 0, 10), "Префикс отчет");
+        assertTrue(index.search("отчет", 0, 10).contains(1), "Без звёздочки - точное слово");
+        assertFalse(index.search("отчет", 0, 10).contains(2), "Точное слово не совпадает с длинным");
+        assertEquals(List.of(2), index.search("от* налоги", 0, 10), "Префикс вместе с точным словом");
+    }
+
+    @Test
+    void rankingAndPagingTest() { // слово в названии важнее, редкое слово важнее частого
+        index.put(task(1, "Встреча", "Обсудить бюджет"));
+        index.put(task(2, "Бюджет", "Встреча с командой"));
+        index.put(task(3, "Бюджет на год", "Бюджет отдела"));
+        index.put(task(4, "Созвон", "Без бюджета"));
+
+        assertEquals(List.of(3, 2, 1), index.search("бюджет", 0, 10), "Больше совпадений и название выше");
+        assertEquals(List.of(2, 1), index.search("бюджет", 1, 2), "Страница со смещением");
+        assertTrue(index.search("бюджет", 3, 10).isEmpty(), "Страница за концом результатов");
+        assertThrows(IllegalArgumentException.class, () -> index.search("бюджет", -1, 10), "Отрицательное смещение");
+    }
+
+    @Test
+    void putReplacesAndRemoveDropsWordsTest() { // повторная индексация заменяет слова задачи
+        index.put(task(1, "Черновик", "Старый текст"));
+        index.put(task(1, "Итог", "Новый текст"));
+
+        assertTrue(index.search("черновик", 0, 10).isEmpty(), "Старые слова удалены");
+        assertEquals(List.of(1), index.search("итог текст", 0, 10), "Новые слова найдены");
+
+        index.remove(1);
+        assertTrue(index.search("текст", 0, 10).isEmpty(), "Удалённая задача не находится");
+        assertEquals(0, index.size(), "Индекс пуст");
+    }
+
+}
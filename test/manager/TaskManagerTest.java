@@ -4,13 +4,16 @@ import model.Epic;
 import model.Status;
 import model.Subtask;
 import model.Task;
+import model.TaskType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -46,7 +49,7 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         taskManager.createSubtask(subtask1);
         taskManager.createSubtask(subtask2);
 
-        assertEquals(Status.IN_PROGRESS, epic.getStatus(), "Неверный статус эпика");
+        assertEquals(Status.IN_PROGRESS, taskManager.getEpicById(epic.getId()).getStatus(), "Неверный статус эпика");
     }
 
     @Test
@@ -75,6 +78,231 @@ public abstract class TaskManagerTest<T extends TaskManager> {
                 "Должно быть пересечение интервалов");
     }
 
+    @Test
+    void adjacentIntervalsDoNotConflictTest() { // задачи, идущие встык, не пересекаются
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        Duration duration = Duration.ofHours(1);
+
+        Task task1 = new Task("Задача1", "Описание задачи1", Status.NEW, start, duration);
+        Task task2 = new Task("Задача2", "Описание задачи2", Status.NEW, start.plusHours(1), duration);
+        Task task3 = new Task("Задача3", "Описание задачи3", Status.NEW, start.minusHours(1), duration);
+
+        taskManager.createTask(task1);
+        assertDoesNotThrow(() -> taskManager.createTask(task2), "Задача сразу после другой не пересекается");
+        assertDoesNotThrow(() -> taskManager.createTask(task3), "Задача сразу перед другой не пересекается");
+        assertEquals(3, taskManager.getPrioritizedTasks().size(), "В списке приоритетов 3 задачи");
+    }
+
+    @Test
+    void updateTaskDoesNotConflictWithItselfTest() { // обновление задачи не конфликтует с её прежним интервалом
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        Task task = new Task("Задача", "Описание задачи", Status.NEW, start, Duration.ofHours(2));
+        taskManager.createTask(task);
+
+        Task updatedTask = new Task("Задача", "Описание задачи", Status.DONE, start.plusMinutes(30), Duration.ofHours(2));
+        updatedTask.setId(task.getId());
+
+        assertDoesNotThrow(() -> taskManager.updateTask(updatedTask), "Задача не пересекается сама с собой");
+        assertEquals(start.plusMinutes(30), taskManager.getPrioritizedTasks().get(0).getStartTime(),
+                "В списке приоритетов новое время задачи");
+        assertEquals(1, taskManager.getPrioritizedTasks().size(), "В списке приоритетов 1 задача");
+    }
+
+    @Test
+    void deletedTaskReleasesTimeSlotTest() { // удалённая задача освобождает интервал
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        Task task1 = new Task("Задача1", "Описание задачи1", Status.NEW, start, Duration.ofHours(1));
+        taskManager.createTask(task1);
+        taskManager.deleteTask(task1.getId());
+
+        Task task2 = new Task("Задача2", "Описание задачи2", Status.NEW, start, Duration.ofHours(1));
+        assertDoesNotThrow(() -> taskManager.createTask(task2), "Интервал удалённой задачи свободен");
+    }
+
+    @Test
+    void subtaskConflictsWithTaskTest() { // подзадача пересекается с задачей
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        Task task = new Task("Задача", "Описание задачи", Status.NEW, start, Duration.ofHours(1));
+        taskManager.createTask(task);
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание подзадачи", Status.NEW, epic.getId(),
+                start.minusMinutes(30), Duration.ofHours(1));
+
+        assertThrows(TimeConflictException.class, () -> taskManager.createSubtask(subtask),
+                "Подзадача пересекается с задачей");
+    }
+
+    @Test
+    void createTasksBatchTest() { // создание пакета задач
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        Task task1 = new Task("Задача1", "Описание задачи1", Status.NEW, start, Duration.ofHours(1));
+        Task task2 = new Task("Задача2", "Описание задачи2", Status.NEW, start.plusHours(1), Duration.ofHours(1));
+        Task task3 = new Task("Задача3", "Описание задачи3", Status.NEW);
+
+        taskManager.createTasks(List.of(task1, task2, task3));
+
+        assertEquals(3, taskManager.getAllTasks().size(), "Создано 3 задачи");
+        assertNotEquals(task1.getId(), task2.getId(), "Задачам пакета назначены разные id");
+        assertEquals("Задача2", taskManager.getTaskById(task2.getId()).getName(), "Задача доступна по id");
+        assertEquals(2, taskManager.getPrioritizedTasks().size(), "В списке приоритетов 2 задачи со временем");
+    }
+
+    @Test
+    void createTasksBatchConflictCreatesNothingTest() { // пересечение внутри пакета отменяет весь пакет
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        Task task1 = new Task("Задача1", "Описание задачи1", Status.NEW, start, Duration.ofHours(1));
+        Task task2 = new Task("Задача2", "Описание задачи2", Status.NEW, start.plusHours(2), Duration.ofHours(1));
+        Task task3 = new Task("Задача3", "Описание задачи3", Status.NEW, start.plusMinutes(30), Duration.ofHours(1));
+
+        assertThrows(TimeConflictException.class, () -> taskManager.createTasks(List.of(task1, task2, task3)),
+                "Задачи пакета пересекаются между собой");
+        assertTrue(taskManager.getAllTasks().isEmpty(), "Ни одна задача пакета не создана");
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty(), "Список приоритетов пуст");
+    }
+
+    @Test
+    void updateTasksBatchSwapTimesTest() { // пакетное обновление позволяет поменять задачи местами
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        Task task1 = new Task("Задача1", "Описание задачи1", Status.NEW, start, Duration.ofHours(1));
+        Task task2 = new Task("Задача2", "Описание задачи2", Status.NEW, start.plusHours(1), Duration.ofHours(1));
+        taskManager.createTasks(List.of(task1, task2));
+
+        Task moved1 = new Task("Задача1", "Описание задачи1", Status.NEW, start.plusHours(1), Duration.ofHours(1));
+        moved1.setId(task1.getId());
+        Task moved2 = new Task("Задача2", "Описание задачи2", Status.NEW, start, Duration.ofHours(1));
+        moved2.setId(task2.getId());
+
+        assertDoesNotThrow(() -> taskManager.updateTasks(List.of(moved1, moved2)),
+                "Старые интервалы пакета не мешают новым");
+        assertEquals(task2.getId(), taskManager.getPrioritizedTasks().get(0).getId(), "Задачи поменялись местами");
+
+        Task clash = new Task("Задача1", "Описание задачи1", Status.NEW, start.plusMinutes(30), Duration.ofHours(1));
+        clash.setId(task1.getId());
+        assertThrows(TimeConflictException.class, () -> taskManager.updateTasks(List.of(clash)),
+                "Обновление пересекается с другой задачей");
+        assertEquals(start.plusHours(1), taskManager.getTaskById(task1.getId()).getStartTime(),
+                "Задача не изменилась после отказа");
+    }
+
+    @Test
+    void repeatedIdInBatchKeepsLastUpdateTest() { // повторный id в пакете: действует последнее обновление
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        Task task = new Task("Задача", "Описание задачи", Status.NEW, start, Duration.ofMinutes(30));
+        taskManager.createTask(task);
+        Task at11 = new Task("Задача", "Описание задачи", Status.NEW, start.plusHours(1), Duration.ofMinutes(30));
+        at11.setId(task.getId());
+        Task at12 = new Task("Задача", "Описание задачи", Status.DONE, start.plusHours(2), Duration.ofMinutes(30));
+        at12.setId(task.getId());
+
+        taskManager.updateTasks(List.of(at11, at12));
+
+        assertEquals(List.of(at12), taskManager.getPrioritizedTasks(), "В списке приоритетов только последнее");
+        assertEquals(start.plusHours(2), taskManager.getTaskById(task.getId()).getStartTime(), "Задача обновлена");
+
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание подзадачи", Status.NEW, epic.getId(),
+                start, Duration.ofMinutes(30));
+        taskManager.createSubtask(subtask);
+        Subtask first = new Subtask("Подзадача", "Описание подзадачи", Status.DONE, epic.getId(),
+                start.plusHours(3), Duration.ofMinutes(30));
+        first.setId(subtask.getId());
+        Subtask last = new Subtask("Подзадача", "Описание подзадачи", Status.IN_PROGRESS, epic.getId(),
+                start.plusHours(4), Duration.ofMinutes(30));
+        last.setId(subtask.getId());
+
+        taskManager.updateSubtasks(List.of(first, last));
+
+        assertEquals(List.of(at12, last), taskManager.getPrioritizedTasks(), "Подзадача в списке один раз");
+        Epic savedEpic = taskManager.getEpicById(epic.getId());
+        assertEquals(Status.IN_PROGRESS, savedEpic.getStatus(), "Статус эпика по последнему обновлению");
+        assertEquals(start.plusHours(4), savedEpic.getStartTime(), "Время эпика по последнему обновлению");
+    }
+
+    @Test
+    void moveToMissingEpicIsRejectedTest() { // подзадача не теряет эпик, дальнейшие изменения не зависают
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic.getId());
+        taskManager.createSubtask(subtask);
+
+        taskManager.updateSubtask(taskManager.getSubtaskById(subtask.getId()).withEpicId(999));
+        assertEquals(epic.getId(), taskManager.getSubtaskById(subtask.getId()).getEpicId(), "Перенос не выполнен");
+        assertEquals(List.of(subtask.getId()), taskManager.getEpicById(epic.getId()).getSubtaskIds());
+        taskManager.updateSubtasks(List.of(taskManager.getSubtaskById(subtask.getId()).withEpicId(999)));
+        assertEquals(epic.getId(), taskManager.getSubtaskById(subtask.getId()).getEpicId(), "Пакетный перенос не выполнен");
+        assertEquals(List.of(subtask), taskManager.getEpicSubtasks(epic.getId()), "Подзадача осталась в эпике");
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            taskManager.updateSubtask(taskManager.getSubtaskById(subtask.getId()).withStatus(Status.DONE));
+            assertEquals(Status.DONE, taskManager.getEpicById(epic.getId()).getStatus(), "Обновление выполнено");
+            taskManager.deleteSubtask(subtask.getId());
+        }, "Обновление и удаление не зацикливаются");
+        assertNull(taskManager.getSubtaskById(subtask.getId()), "Подзадача удалена");
+        assertTrue(taskManager.getEpicById(epic.getId()).getSubtaskIds().isEmpty());
+        assertTrue(taskManager.snapshot().getAllSubtasks().isEmpty(), "Снимок без подзадачи");
+    }
+
+    @Test
+    void createAndDeleteSubtasksBatchTest() { // пакетное создание и удаление подзадач пересчитывает эпик
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        Subtask subtask1 = new Subtask("Подзадача1", "Описание подзадачи1", Status.DONE, epic.getId(),
+                LocalDateTime.of(2025, 1, 1, 10, 0), Duration.ofMinutes(60));
+        Subtask subtask2 = new Subtask("Подзадача2", "Описание подзадачи2", Status.NEW, epic.getId(),
+                LocalDateTime.of(2025, 1, 1, 12, 0), Duration.ofMinutes(30));
+        Subtask subtask3 = new Subtask("Подзадача3", "Описание подзадачи3", Status.DONE, epic.getId());
+        Subtask orphan = new Subtask("Подзадача4", "Описание подзадачи4", Status.NEW, 999);
+
+        taskManager.createSubtasks(List.of(subtask1, subtask2, subtask3, orphan));
+
+        assertEquals(3, taskManager.getEpicSubtasks(epic.getId()).size(), "В эпике 3 подзадачи");
+        Epic savedEpic = taskManager.getEpicById(epic.getId());
+        assertEquals(Status.IN_PROGRESS, savedEpic.getStatus(), "Статус эпика пересчитан");
+        assertEquals(LocalDateTime.of(2025, 1, 1, 12, 30), savedEpic.getEndTime(), "Время эпика пересчитано");
+
+        taskManager.deleteSubtasks(new int[]{subtask2.getId(), subtask3.getId()});
+
+        assertEquals(List.of(subtask1), taskManager.getEpicSubtasks(epic.getId()), "В эпике осталась 1 подзадача");
+        savedEpic = taskManager.getEpicById(epic.getId());
+        assertEquals(Status.DONE, savedEpic.getStatus(), "Статус эпика пересчитан после удаления");
+        assertEquals(LocalDateTime.of(2025, 1, 1, 11, 0), savedEpic.getEndTime(), "Время эпика пересчитано после удаления");
+        assertEquals(1, taskManager.getPrioritizedTasks().size(), "В списке приоритетов 1 подзадача");
+    }
+
+    @Test
+    void updateSubtasksBatchTest() { // пакетное обновление подзадач
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        Subtask subtask1 = new Subtask("Подзадача1", "Описание подзадачи1", Status.NEW, epic.getId());
+        Subtask subtask2 = new Subtask("Подзадача2", "Описание подзадачи2", Status.NEW, epic.getId());
+        taskManager.createSubtasks(List.of(subtask1, subtask2));
+
+        Subtask done1 = new Subtask("Подзадача1", "Описание подзадачи1", Status.DONE, epic.getId());
+        done1.setId(subtask1.getId());
+        Subtask done2 = new Subtask("Подзадача2", "Описание подзадачи2", Status.DONE, epic.getId());
+        done2.setId(subtask2.getId());
+        taskManager.updateSubtasks(List.of(done1, done2));
+
+        assertEquals(Status.DONE, taskManager.getEpicById(epic.getId()).getStatus(), "Статус эпика DONE");
+    }
+
+    @Test
+    void deleteTasksBatchTest() { // удаление задач по списку id
+        Task task1 = new Task("Задача1", "Описание задачи1", Status.NEW);
+        Task task2 = new Task("Задача2", "Описание задачи2", Status.NEW);
+        Task task3 = new Task("Задача3", "Описание задачи3", Status.NEW);
+        taskManager.createTasks(List.of(task1, task2, task3));
+        taskManager.getTaskById(task1.getId());
+
+        taskManager.deleteTasks(new int[]{task1.getId(), task3.getId(), 999});
+
+        assertEquals(1, taskManager.getAllTasks().size(), "Осталась 1 задача");
+        assertEquals(task2.getId(), taskManager.getAllTasks().get(0).getId(), "Осталась Задача2");
+        assertTrue(taskManager.getHistory().isEmpty(), "Удалённые задачи убраны из истории");
+    }
+
     @Test
     void prioritizedTasksOrderTest() { // проверка порядка выполнения приоритетных задач
         LocalDateTime now = LocalDateTime.now();
@@ -101,7 +329,7 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         taskManager.createSubtask(subtask1);
         taskManager.createSubtask(subtask2);
 
-        assertEquals(Status.NEW, epic.getStatus(), "Статус должен быть NEW");
+        assertEquals(Status.NEW, taskManager.getEpicById(epic.getId()).getStatus(), "Статус должен быть NEW");
     }
 
     @Test
@@ -113,7 +341,7 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         taskManager.createSubtask(subtask1);
         taskManager.createSubtask(subtask2);
 
-        assertEquals(Status.DONE, epic.getStatus(), "Статус должен быть DONE");
+        assertEquals(Status.DONE, taskManager.getEpicById(epic.getId()).getStatus(), "Статус должен быть DONE");
     }
 
     @Test
@@ -125,7 +353,7 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         taskManager.createSubtask(subtask1);
         taskManager.createSubtask(subtask2);
 
-        assertEquals(Status.IN_PROGRESS, epic.getStatus(), "Статус должен быть IN_PROGRESS");
+        assertEquals(Status.IN_PROGRESS, taskManager.getEpicById(epic.getId()).getStatus(), "Статус должен быть IN_PROGRESS");
     }
 
     @Test
@@ -139,7 +367,7 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         taskManager.createSubtask(subtask1);
         taskManager.createSubtask(subtask2);
 
-        assertEquals(Status.IN_PROGRESS, epic.getStatus(), "Статус должен быть IN_PROGRESS");
+        assertEquals(Status.IN_PROGRESS, taskManager.getEpicById(epic.getId()).getStatus(), "Статус должен быть IN_PROGRESS");
     }
 
     @Test
@@ -327,15 +555,13 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         taskManager.createSubtask(subtask2);
 
         Subtask savedSubtask1 = taskManager.getSubtaskById(subtask1.getId());
-        savedSubtask1.setStatus(Status.DONE);
-        taskManager.updateSubtask(savedSubtask1);
+        taskManager.updateSubtask(savedSubtask1.withStatus(Status.DONE));
 
         Epic savedEpic = taskManager.getEpicById(epic.getId());
         assertEquals(Status.IN_PROGRESS, savedEpic.getStatus(), "Статус эпика IN_PROGRESS");
 
         Subtask savedSubtask2 = taskManager.getSubtaskById(subtask2.getId());
-        savedSubtask2.setStatus(Status.DONE);
-        taskManager.updateSubtask(savedSubtask2);
+        taskManager.updateSubtask(savedSubtask2.withStatus(Status.DONE));
 
         savedEpic = taskManager.getEpicById(epic.getId());
         assertEquals(Status.DONE, savedEpic.getStatus(), "Статус эпика DONE");
@@ -399,10 +625,269 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         Subtask subtask = new Subtask("Подзадача", "Описание подзадачи", Status.NEW, epic.getId());
         taskManager.createSubtask(subtask);
         Subtask savedSubtask = taskManager.getSubtaskById(subtask.getId());
-        savedSubtask.setStatus(Status.DONE);
+        assertThrows(IllegalStateException.class, () -> savedSubtask.setStatus(Status.DONE),
+                "Сохранённая подзадача неизменяема");
+        Subtask changed = savedSubtask.withStatus(Status.DONE);
 
+        assertEquals(Status.NEW, savedSubtask.getStatus(), "with-метод не меняет исходную подзадачу");
+        assertEquals(subtask.getId(), changed.getId(), "Копия с тем же id");
         Epic savedEpic = taskManager.getEpicById(epic.getId());
         assertEquals(Status.NEW, savedEpic.getStatus(), "Статус эпика не изменился без вызова updateSubtask");
     }
 
+    @Test
+    void pagedPrioritizedTasksTest() { // страница списка приоритетов совпадает с частью полного списка
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        for (int i = 4; i >= 0; i--) {
+            taskManager.createTask(new Task("Задача " + i, "Описание", Status.NEW,
+                    start.plusHours(i), Duration.ofMinutes(30)));
+        }
+        List<Task> all = taskManager.getPrioritizedTasks();
+
+        assertEquals(all.subList(1, 3), taskManager.getPrioritizedTasks(1, 2), "Вторая и третья задачи по времени");
+        assertEquals(all.subList(3, 5), taskManager.getPrioritizedTasks(3, 10), "Последняя страница короче limit");
+        assertTrue(taskManager.getPrioritizedTasks(5, 10).isEmpty(), "Страница за концом списка пуста");
+        assertEquals(all, taskManager.streamPrioritizedTasks().collect(Collectors.toList()),
+                "Поток идёт в порядке приоритета");
+    }
+
+    @Test
+    void pagedGettersTest() { // страницы и потоки задач, эпиков и подзадач
+        for (int i = 0; i < 5; i++) {
+            taskManager.createTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        taskManager.createSubtask(new Subtask("Подзадача", "Описание подзадачи", Status.NEW, epic.getId()));
+
+        List<Task> tasks = new ArrayList<>(taskManager.getTasks(0, 3));
+        tasks.addAll(taskManager.getTasks(3, 3));
+        assertEquals(5, tasks.size(), "Две страницы покрывают все задачи");
+        assertEquals(5, tasks.stream().map(Task::getId).distinct().count(), "Страницы не пересекаются");
+        assertEquals(5, taskManager.streamTasks().count(), "Поток задач");
+        assertEquals(List.of(epic.getId()), taskManager.getEpics(0, 10).stream().map(Task::getId)
+                .collect(Collectors.toList()), "Страница эпиков");
+        assertEquals(1, taskManager.getSubtasks(0, 10).size(), "Страница подзадач");
+        assertEquals(1, taskManager.streamSubtasks().count(), "Поток подзадач");
+        assertTrue(taskManager.getTasks(0, 0).isEmpty(), "Пустая страница при limit = 0");
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTasks(-1, 1),
+                "Отрицательное смещение недопустимо");
+    }
+
+    @Test
+    void tasksInWindowTest() { // задачи, пересекающие окно, включая начатую до окна
+        LocalDateTime day = LocalDateTime.of(2023, 1, 2, 0, 0);
+        Task night = new Task("Ночная", "Описание", Status.NEW, day.plusHours(7), Duration.ofHours(3));
+        Task noon = new Task("Обед", "Описание", Status.NEW, day.plusHours(12), Duration.ofHours(1));
+        Task reminder = new Task("Напоминание", "Описание", Status.NEW, day.plusHours(17), Duration.ZERO);
+        Task evening = new Task("Вечерняя", "Описание", Status.NEW, day.plusHours(17), Duration.ofHours(2));
+        Task late = new Task("Поздняя", "Описание", Status.NEW, day.plusHours(20), Duration.ofHours(1));
+        for (Task task : List.of(late, evening, reminder, noon, night)) {
+            taskManager.createTask(task);
+        }
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание подзадачи", Status.NEW, epic.getId(),
+                day.plusHours(15), Duration.ofMinutes(30));
+        taskManager.createSubtask(subtask);
+
+        List<Integer> ids = taskManager.getTasksInWindow(day.plusHours(9), day.plusHours(17)).stream()
+                .map(Task::getId).collect(Collectors.toList());
+        assertEquals(List.of(night.getId(), noon.getId(), subtask.getId()), ids,
+                "Окно 9:00-17:00: начатая до окна задача, обед и подзадача; задачи с 17:00 не входят");
+        assertEquals(2, taskManager.getTasksInWindow(day.plusHours(17), day.plusHours(18)).size(),
+                "Задача нулевой длительности в начале окна входит в окно");
+        assertTrue(taskManager.getTasksInWindow(day.plusHours(10), day.plusHours(12)).isEmpty(),
+                "Окно между задачами пусто");
+        assertTrue(taskManager.getTasksInWindow(day.plusHours(12), day.plusHours(12)).isEmpty(), "Пустое окно");
+        assertThrows(IllegalArgumentException.class,
+                () -> taskManager.getTasksInWindow(day.plusHours(12), day.plusHours(11)), "Конец раньше начала");
+    }
+
+    @Test
+    void nextFreeSlotTest() { // ближайший свободный интервал нужной длины
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 9, 0);
+        taskManager.createTask(new Task("Задача1", "Описание", Status.NEW, start, Duration.ofHours(1)));
+        taskManager.createTask(new Task("Задача2", "Описание", Status.NEW, start.plusMinutes(90),
+                Duration.ofMinutes(30)));
+        taskManager.createTask(new Task("Точка", "Описание", Status.NEW, start.plusMinutes(150), Duration.ZERO));
+
+        assertEquals(start.minusHours(1), taskManager.nextFreeSlot(Duration.ofHours(1), start.minusHours(1)),
+                "Свободно до первой задачи");
+        assertEquals(start.plusHours(1), taskManager.nextFreeSlot(Duration.ofMinutes(30), start.plusMinutes(10)),
+                "Промежуток после первой задачи");
+        assertEquals(start.plusMinutes(150), taskManager.nextFreeSlot(Duration.ofHours(1), start),
+                "Час помещается только с момента задачи нулевой длительности");
+        assertEquals(start.plusHours(1), taskManager.nextFreeSlot(Duration.ZERO, start.plusMinutes(30)),
+                "Момент внутри занятого интервала сдвигается к его концу");
+
+        LocalDateTime slot = taskManager.nextFreeSlot(Duration.ofMinutes(45), start);
+        taskManager.createTask(new Task("В найденный интервал", "Описание", Status.NEW, slot,
+                Duration.ofMinutes(45)));
+        assertEquals(4, taskManager.getPrioritizedTasks().size(), "Найденный интервал действительно свободен");
+        assertThrows(IllegalArgumentException.class, () -> taskManager.nextFreeSlot(Duration.ofMinutes(-1), start),
+                "Отрицательная продолжительность");
+    }
+
+    @Test
+    void statusQueriesTest() { // выборки и счётчики по статусу
+        Task task1 = new Task("Задача1", "Описание", Status.NEW);
+        Task task2 = new Task("Задача2", "Описание", Status.DONE);
+        taskManager.createTasks(List.of(task1, task2));
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание подзадачи", Status.IN_PROGRESS, epic.getId());
+        taskManager.createSubtask(subtask);
+
+        assertEquals(List.of(task2), taskManager.getTasksByStatus(Status.DONE), "Выполненные задачи");
+        assertEquals(List.of(epic), taskManager.getEpicsByStatus(Status.IN_PROGRESS), "Статус эпика по подзадаче");
+        assertEquals(2, taskManager.countByStatus(Status.IN_PROGRESS), "Эпик и подзадача в работе");
+        assertEquals(2, taskManager.countByType(TaskType.TASK), "Две задачи");
+
+        Subtask done = new Subtask("Подзадача", "Описание подзадачи", Status.DONE, epic.getId());
+        done.setId(subtask.getId());
+        taskManager.updateSubtask(done);
+        taskManager.deleteTask(task2.getId());
+
+        assertEquals(List.of(epic), taskManager.getEpicsByStatus(Status.DONE), "Эпик выполнен вместе с подзадачей");
+        assertTrue(taskManager.getTasksByStatus(Status.DONE).isEmpty(), "Удалённая задача не в выборке");
+        assertEquals(1, taskManager.countByStatus(TaskType.SUBTASK, Status.DONE), "Выполненная подзадача");
+        assertEquals(0, taskManager.countByStatus(Status.IN_PROGRESS), "В работе ничего нет");
+        assertStatusQueriesMatchScan(taskManager);
+    }
+
+    @Test
+    void searchFollowsTextChangesTest() { // поиск видит изменения текста задач, эпиков и подзадач
+        Task task = new Task("Подготовить отчёт", "Квартальный отчёт для руководства", Status.NEW);
+        taskManager.createTask(task);
+        Epic epic = new Epic("Переезд офиса", "Отчёт о переезде");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Упаковать технику", "Ноутбуки и мониторы", Status.NEW, epic.getId());
+        taskManager.createSubtask(subtask);
+
+        assertEquals(List.of(task, epic), taskManager.search("ОТЧЕТ", 0, 10), "Задача со словом в названии выше");
+        assertEquals(List.of(epic), taskManager.search("отчёт переезд*", 0, 10), "Все слова запроса");
+        assertEquals(List.of(subtask), taskManager.search("монитор*", 0, 10), "Подзадача по префиксу");
+
+        Task renamed = new Task("Провести встречу", "Без отчёта", Status.NEW);
+        renamed.setId(task.getId());
+        taskManager.updateTask(renamed);
+        Epic renamedEpic = new Epic("Ремонт офиса", "Отчёт о ремонте");
+        renamedEpic.setId(epic.getId());
+        taskManager.updateEpic(renamedEpic);
+
+        assertTrue(taskManager.search("подготовить", 0, 10).isEmpty(), "Старое название не находится");
+        assertEquals(List.of(renamed), taskManager.search("встречу", 0, 10), "Новое название находится");
+        assertTrue(taskManager.search("переезд*", 0, 10).isEmpty(), "Старое описание эпика не находится");
+        assertEquals(1, taskManager.search("ремонт*", 0, 10).size(), "Новое описание эпика находится");
+
+        taskManager.deleteEpic(epic.getId());
+        assertTrue(taskManager.search("ноутбуки", 0, 10).isEmpty(), "Подзадача удалена вместе с эпиком");
+        assertEquals(List.of(renamed), taskManager.search("отчёта", 0, 1), "Первая страница результатов");
+    }
+
+    @Test
+    void returnedEpicsAreFrozenTest() { // эпики отдаются неизменяемыми и не связаны с хранимыми
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        epic.setName("Изменено после создания");
+
+        Epic saved = taskManager.getEpicById(epic.getId());
+        assertThrows(IllegalStateException.class, () -> saved.setStatus(Status.DONE), "Эпик неизменяем");
+        assertThrows(IllegalStateException.class, () -> taskManager.getAllEpics().get(0).setName("Изменено"),
+                "Эпик из списка неизменяем");
+        taskManager.createSubtask(new Subtask("Подзадача", "Описание", Status.DONE, epic.getId()));
+
+        assertEquals("Эпик", taskManager.getEpicById(epic.getId()).getName(), "Переданный эпик не хранится");
+        assertEquals(Status.NEW, saved.getStatus(), "Полученный эпик не меняется вместе с менеджером");
+        assertEquals(Status.DONE, taskManager.getEpicById(epic.getId()).getStatus(), "Новое чтение видит подзадачу");
+    }
+
+    @Test
+    void frozenTaskIsRejectedBeforeChangesTest() { // неизменяемую задачу не создать, id и время не тратятся
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        Task task = new Task("Задача", "Описание задачи", Status.NEW, start, Duration.ofHours(1));
+        taskManager.createTask(task);
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        Task frozen = new Task("Задача2", "Описание", Status.NEW, start.plusHours(2), Duration.ofHours(1)).freeze();
+        Subtask frozenSubtask = new Subtask("Подзадача", "Описание", Status.NEW, epic.getId(), start.plusHours(4),
+                Duration.ofHours(1)).freeze();
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.createTask(frozen));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.createTasks(List.of(frozen)));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.createEpic(new Epic("Эпик", "").freeze()));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.createSubtask(frozenSubtask));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.createSubtasks(List.of(frozenSubtask)));
+
+        Task copy = frozen.copy();
+        taskManager.createTask(copy); // интервал не занят неудачной попыткой
+        assertEquals(epic.getId() + 1, copy.getId(), "Id не потрачен");
+        assertEquals(List.of(task, copy), taskManager.getPrioritizedTasks());
+    }
+
+    @Test
+    void snapshotIsNotChangedByLaterMutationsTest() { // снимок не видит последующих изменений
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        Task task = new Task("Задача", "Описание задачи", Status.NEW, start, Duration.ofHours(1));
+        taskManager.createTask(task);
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание подзадачи", Status.DONE, epic.getId(),
+                start.minusHours(2), Duration.ofHours(1));
+        taskManager.createSubtask(subtask);
+
+        TaskSnapshot snapshot = taskManager.snapshot();
+        Task updatedTask = new Task("Задача2", "Описание задачи", Status.DONE, start.plusHours(5), Duration.ofHours(1));
+        updatedTask.setId(task.getId());
+        taskManager.updateTask(updatedTask);
+        taskManager.createSubtask(new Subtask("Подзадача2", "Описание подзадачи", Status.NEW, epic.getId()));
+        taskManager.deleteSubtask(subtask.getId());
+        assertThrows(IllegalStateException.class, () -> snapshot.getTaskById(task.getId()).setName("Изменено"),
+                "Задачи снимка неизменяемы");
+
+        assertEquals(List.of(task), snapshot.getAllTasks(), "Задача в снимке");
+        assertEquals("Задача", snapshot.getTaskById(task.getId()).getName(), "Прежнее название задачи");
+        assertEquals(Status.DONE, snapshot.getEpicById(epic.getId()).getStatus(), "Прежний статус эпика");
+        assertEquals(List.of(subtask), snapshot.getEpicSubtasks(epic.getId()), "Прежние подзадачи эпика");
+        assertEquals(List.of(subtask, task), snapshot.getPrioritizedTasks(), "Прежний порядок приоритета");
+        assertEquals(start, snapshot.getPrioritizedTasks().get(1).getStartTime(), "Прежнее время задачи");
+
+        TaskSnapshot current = taskManager.snapshot();
+        assertEquals(Status.NEW, current.getEpicById(epic.getId()).getStatus(), "Новый статус эпика");
+        assertEquals(taskManager.getAllSubtasks(), current.getAllSubtasks(), "Подзадачи в новом снимке");
+        assertEquals(List.of(updatedTask), current.getPrioritizedTasks(), "Новый порядок приоритета");
+        taskManager.deleteEpic(epic.getId());
+        assertTrue(taskManager.snapshot().getAllSubtasks().isEmpty(), "Подзадачи удалены вместе с эпиком");
+    }
+
+    static void assertStatusQueriesMatchScan(TaskManager taskManager) { // выборки по статусу совпадают с обходом
+        for (Status status : Status.values()) {
+            List<Task> tasks = filter(taskManager.getAllTasks(), status);
+            List<Epic> epics = filter(taskManager.getAllEpics(), status);
+            List<Subtask> subtasks = filter(taskManager.getAllSubtasks(), status);
+            assertEquals(new HashSet<>(tasks), new HashSet<>(taskManager.getTasksByStatus(status)), "Задачи " + status);
+            assertEquals(new HashSet<>(epics), new HashSet<>(taskManager.getEpicsByStatus(status)), "Эпики " + status);
+            assertEquals(new HashSet<>(subtasks), new HashSet<>(taskManager.getSubtasksByStatus(status)),
+                    "Подзадачи " + status);
+            assertEquals(tasks.size(), taskManager.countByStatus(TaskType.TASK, status), "Число задач " + status);
+            assertEquals(epics.size(), taskManager.countByStatus(TaskType.EPIC, status), "Число эпиков " + status);
+            assertEquals(subtasks.size(), taskManager.countByStatus(TaskType.SUBTASK, status),
+                    "Число подзадач " + status);
+            assertEquals(tasks.size() + epics.size() + subtasks.size(), taskManager.countByStatus(status),
+                    "Всего в статусе " + status);
+        }
+        assertEquals(taskManager.getAllEpics().size(), taskManager.countByType(TaskType.EPIC), "Число эпиков");
+    }
+
+    private static <E extends Task> List<E> filter(List<E> items, Status status) {
+        List<E> result = new ArrayList<>();
+        for (E item : items) {
+            if (item.getStatus() == status) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
 }
@@ -0,0 +1,79 @@
+package manager;
+
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSlotIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private TimeSlotIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TimeSlotIndex();
+    }
+
+    private static Task task(int id, LocalDateTime start, long minutes) {
+        Task task = new Task("Задача" + id, "Описание задачи" + id, Status.NEW, start, Duration.ofMinutes(minutes));
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    void overlapWithNeighboursTest() { // пересечение с соседними интервалами
+        index.add(task(1, START, 60));
+        index.add(task(2, START.plusHours(2), 60));
+
+        assertTrue(index.overlaps(task(3, START.plusMinutes(59), 10)), "Пересечение с концом первого интервала");
+        assertTrue(index.overlaps(task(3, START.plusMinutes(90), 60)), "Пересечение с началом второго интервала");
+        assertTrue(index.overlaps(task(3, START.minusHours(1), 240)), "Интервал накрывает оба интервала");
+        assertFalse(index.overlaps(task(3, START.plusHours(1), 60)), "Интервал между задачами свободен");
+    }
+
+    @Test
+    void excludedIdIsIgnoredTest() { // интервал задачи с тем же id не считается пересечением
+        index.add(task(1, START, 60));
+        index.add(task(2, START.minusHours(1), 30));
+
+        assertFalse(index.overlaps(task(1, START.plusMinutes(10), 60)), "Задача не пересекается сама с собой");
+        assertTrue(index.overlaps(task(1, START.minusMinutes(45), 60)), "Пересечение с предыдущим интервалом");
+    }
+
+    @Test
+    void zeroDurationTasksTest() { // задачи нулевой длительности
+        index.add(task(1, START, 60));
+
+        assertTrue(index.overlaps(task(2, START.plusMinutes(30), 0)), "Момент внутри интервала занят");
+        assertFalse(index.overlaps(task(2, START, 0)), "Момент на границе интервала свободен");
+
+        index.add(task(2, START.plusHours(2), 0));
+        index.add(task(3, START.plusHours(2), 0));
+        assertTrue(index.overlaps(task(4, START.plusMinutes(90), 60)), "Интервал накрывает момент");
+
+        index.remove(2);
+        assertTrue(index.overlaps(task(4, START.plusMinutes(90), 60)), "Вторая задача в тот же момент осталась");
+        assertFalse(index.overlaps(task(3, START.plusMinutes(90), 60)), "Собственный момент не учитывается");
+
+        index.remove(3);
+        assertFalse(index.overlaps(task(4, START.plusMinutes(90), 60)), "Момент освобождён");
+    }
+
+    @Test
+    void tasksWithoutStartTimeAreIgnoredTest() { // задачи без времени начала не занимают интервал
+        Task task = new Task("Задача", "Описание задачи", Status.NEW);
+        task.setId(1);
+        index.add(task);
+
+        assertEquals(0, index.size(), "Индекс пустой");
+        assertFalse(index.overlaps(task), "Задача без времени ни с чем не пересекается");
+    }
+
+}
@@ -2,7 +2,18 @@ package model;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class EpicTest {
 
@@ -16,4 +27,125 @@ class EpicTest {
         assertEquals(epic1, epic2, "Эпики с одинаковым id должны быть равны");
     }
 
+    @Test
+    void removingEarliestAndLatestSubtaskTest() { // удаление крайних подзадач сдвигает время эпика
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        epic.putSubtask(subtask(1, Status.NEW, start, 60));
+        epic.putSubtask(subtask(2, Status.DONE, start.plusHours(2), 30));
+        epic.putSubtask(subtask(3, Status.NEW, start.plusHours(4), 15));
+
+        epic.removeSubtask(1);
+        epic.removeSubtask(3);
+
+        assertEquals(start.plusHours(2), epic.getStartTime(), "Начало эпика - начало оставшейся подзадачи");
+        assertEquals(start.plusHours(2).plusMinutes(30), epic.getEndTime(), "Конец эпика - конец оставшейся подзадачи");
+        assertEquals(Duration.ofMinutes(30), epic.getDuration(), "Продолжительность оставшейся подзадачи");
+        assertEquals(Status.DONE, epic.getStatus(), "Статус по оставшейся подзадаче");
+
+        epic.clearSubtasks();
+        assertNull(epic.getStartTime(), "У эпика без подзадач нет времени начала");
+        assertEquals(Status.NEW, epic.getStatus(), "Эпик без подзадач в статусе NEW");
+    }
+
+    @Test
+    void incrementalAggregationMatchesFullRecalculationTest() { // инкрементальный расчёт совпадает с полным пересчётом
+        Random random = new Random(42);
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        Map<Integer, Subtask> reference = new LinkedHashMap<>();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        for (int step = 0; step < 5_000; step++) {
+            int id = 1 + random.nextInt(50);
+            if (random.nextInt(4) == 0) {
+                epic.removeSubtask(id);
+                reference.remove(id);
+            } else {
+                Status status = Status.values()[random.nextInt(Status.values().length)];
+                LocalDateTime start = random.nextInt(5) == 0 ? null : base.plusMinutes(random.nextInt(10) * 30L);
+                Subtask subtask = subtask(id, status, start, random.nextInt(4) * 15L);
+                epic.putSubtask(subtask);
+                reference.put(id, subtask);
+            }
+
+            List<Subtask> subtasks = new ArrayList<>(reference.values());
+            assertEquals(expectedStatus(subtasks), epic.getStatus(), "Статус эпика на шаге " + step);
+            assertEquals(expectedStart(subtasks), epic.getStartTime(), "Начало эпика на шаге " + step);
+            assertEquals(expectedEnd(subtasks), epic.getEndTime(), "Конец эпика на шаге " + step);
+            assertEquals(expectedDuration(subtasks), epic.getDuration(), "Продолжительность эпика на шаге " + step);
+            assertEquals(new ArrayList<>(reference.keySet()), epic.getSubtaskIds(), "Подзадачи эпика на шаге " + step);
+            for (Status status : Status.values()) {
+                assertEquals(subtasks.stream().filter(subtask -> subtask.getStatus() == status).count(),
+                        epic.getSubtaskCount(status), "Подзадачи в статусе " + status + " на шаге " + step);
+            }
+        }
+    }
+
+    @Test
+    void changingSubtaskWithoutPutDoesNotAffectEpicTest() { // изменение подзадачи без putSubtask не влияет на эпик
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        Subtask subtask = subtask(1, Status.NEW, null, 0);
+        epic.putSubtask(subtask);
+
+        subtask.setStatus(Status.DONE);
+        assertEquals(Status.NEW, epic.getStatus(), "Статус эпика не изменился");
+
+        epic.putSubtask(subtask);
+        assertEquals(Status.DONE, epic.getStatus(), "Статус эпика обновлён");
+    }
+
+    @Test
+    void withTotalsDoesNotChangeEarlierValuesTest() { // эпик-значение не меняется вместе с итогом подзадач
+        Epic header = new Epic("Эпик", "Описание эпика");
+        header.setId(10);
+        SubtaskTotals totals = new SubtaskTotals();
+        totals.put(subtask(1, Status.DONE, null, 0));
+        Epic first = header.withTotals(totals);
+
+        totals.put(subtask(2, Status.NEW, LocalDateTime.of(2025, 1, 1, 10, 0), 30));
+        Epic second = first.withTotals(totals);
+
+        assertTrue(first.isFrozen(), "withTotals возвращает неизменяемый эпик");
+        assertEquals(List.of(1), first.getSubtaskIds(), "Прежнее значение хранит прежний состав");
+        assertEquals(Status.DONE, first.getStatus(), "Прежнее значение хранит прежний статус");
+        assertEquals(1, first.getSubtaskCount(Status.DONE), "Прежнее значение хранит прежние счётчики");
+        assertEquals(List.of(1, 2), second.getSubtaskIds(), "Новое значение видит обе подзадачи");
+        assertEquals(Status.IN_PROGRESS, second.getStatus(), "Статус по обеим подзадачам");
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 30), second.getEndTime(), "Конец по подзадаче со временем");
+        assertEquals("Эпик", second.getName(), "Название переносится из эпика");
+        assertThrows(IllegalStateException.class, () -> second.withName("Другой").putSubtask(subtask(3, Status.NEW,
+                null, 0)), "Подзадачи эпика-значения ведёт владелец итога");
+    }
+
+    private static Subtask subtask(int id, Status status, LocalDateTime start, long minutes) {
+        Subtask subtask = new Subtask("Подзадача" + id, "Описание подзадачи" + id, status, 0, start,
+                Duration.ofMinutes(minutes));
+        subtask.setId(id);
+        return subtask;
+    }
+
+    private static Status expectedStatus(List<Subtask> subtasks) {
+        if (subtasks.isEmpty() || subtasks.stream().allMatch(subtask -> subtask.getStatus() == Status.NEW)) {
+            return Status.NEW;
+        }
+        if (subtasks.stream().allMatch(subtask -> subtask.getStatus() == Status.DONE)) {
+            return Status.DONE;
+        }
+        return Status.IN_PROGRESS;
+    }
+
+    private static LocalDateTime expectedStart(List<Subtask> subtasks) {
+        return subtasks.stream().map(Subtask::getStartTime).filter(time -> time != null)
+                .min(LocalDateTime::compareTo).orElse(null);
+    }
+
+    private static LocalDateTime expectedEnd(List<Subtask> subtasks) {
+        return subtasks.stream().map(Subtask::getEndTime).filter(time -> time != null)
+                .max(LocalDateTime::compareTo).orElse(null);
+    }
+
+    private static Duration expectedDuration(List<Subtask> subtasks) {
+        return subtasks.stream().map(Subtask::getDuration).reduce(Duration.ZERO, Duration::plus);
+    }
+
 }
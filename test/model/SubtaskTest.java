@@ -2,7 +2,7 @@ package model;
 
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class SubtaskTest {
 
@@ -15,4 +15,17 @@ class SubtaskTest {
         assertEquals(subtask1, subtask2, "Подзадачи с одинаковым id должны быть равны");
     }
 
+    @Test
+    void withMethodsKeepSubtaskTypeTest() { // копия остаётся подзадачей и может перейти в другой эпик
+        Subtask subtask = new Subtask("Подзадача", "Описание подзадачи", Status.NEW, 1);
+        subtask.setId(2);
+        Subtask frozen = subtask.asFrozen();
+
+        Subtask moved = frozen.withEpicId(3).withStatus(Status.IN_PROGRESS);
+        assertEquals(3, moved.getEpicId(), "Новый эпик");
+        assertEquals(2, moved.getId(), "Тот же id");
+        assertEquals(1, frozen.getEpicId(), "Исходная подзадача не изменилась");
+        assertThrows(IllegalStateException.class, () -> frozen.setStatus(Status.DONE), "Сеттер отклонён");
+    }
+
 }
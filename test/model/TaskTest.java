@@ -2,7 +2,10 @@ package model;
 
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 class TaskTest {
 
@@ -15,4 +18,24 @@ class TaskTest {
         assertEquals(task1, task2, "Задачи с одинаковым id должны быть равны");
     }
 
+    @Test
+    void frozenTaskRejectsSettersTest() { // неизменяемую задачу меняют только через with-методы
+        Task task = new Task("Задача", "Описание задачи", Status.NEW);
+        task.setId(1);
+        Task frozen = task.asFrozen();
+
+        assertNotSame(task, frozen, "Изменяемая задача замораживается в копии");
+        assertSame(frozen, frozen.asFrozen(), "Неизменяемая задача не копируется");
+        assertThrows(IllegalStateException.class, () -> frozen.setName("Другое"), "Сеттер отклонён");
+        assertFalse(task.isFrozen(), "Исходная задача осталась изменяемой");
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        Task changed = frozen.withStatus(Status.DONE).withStartTime(start).withDuration(Duration.ofHours(1));
+        assertFalse(changed.isFrozen(), "Копия изменяема");
+        assertEquals(1, changed.getId(), "Тот же id");
+        assertEquals(Status.DONE, changed.getStatus(), "Новый статус");
+        assertEquals(start.plusHours(1), changed.getEndTime(), "Новое время");
+        assertEquals(Status.NEW, frozen.getStatus(), "Исходная задача не изменилась");
+    }
+
 }
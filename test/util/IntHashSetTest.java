@@ -0,0 +1,44 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashSetTest {
+
+    @Test
+    void matchesHashSetTest() { // случайные операции дают то же, что HashSet
+        Random random = new Random(5);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> reference = new HashSet<>();
+
+        for (int step = 0; step < 100_000; step++) {
+            int value = random.nextInt(3_000) - 100; // 0 хранится отдельно от таблицы
+            if (random.nextBoolean()) {
+                assertEquals(reference.add(value), set.add(value), "Добавление на шаге " + step);
+            } else {
+                assertEquals(reference.remove(value), set.remove(value), "Удаление на шаге " + step);
+            }
+            if (step % 5_000 == 0) {
+                int[] expected = reference.stream().mapToInt(Integer::intValue).sorted().toArray();
+                int[] actual = set.toArray();
+                Arrays.sort(actual);
+                assertArrayEquals(expected, actual, "Элементы на шаге " + step);
+            }
+        }
+        for (int value = -100; value < 2_900; value++) {
+            assertEquals(reference.contains(value), set.contains(value), "Наличие " + value);
+        }
+        assertEquals(reference.size(), set.size(), "Размер");
+
+        set.clear();
+        assertTrue(set.isEmpty(), "Множество пусто после очистки");
+        assertFalse(set.contains(0), "0 удалён при очистке");
+    }
+
+}
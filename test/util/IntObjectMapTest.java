@@ -0,0 +1,73 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectMapTest {
+
+    @Test
+    void matchesLinkedHashMapTest() { // случайные операции дают то же, что LinkedHashMap, включая порядок обхода
+        Random random = new Random(11);
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Map<Integer, String> reference = new LinkedHashMap<>();
+
+        for (int step = 0; step < 50_000; step++) {
+            int key = random.nextInt(2_000) - 1_000; // отрицательные ключи и 0 тоже
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key), map.remove(key), "Удаление на шаге " + step);
+            } else {
+                String value = "v" + step;
+                assertEquals(reference.put(key, value), map.put(key, value), "Добавление на шаге " + step);
+            }
+            if (step % 1_000 == 0) {
+                assertEquals(reference.size(), map.size(), "Размер на шаге " + step);
+                assertEquals(new ArrayList<>(reference.values()), new ArrayList<>(map.values()),
+                        "Значения в порядке добавления на шаге " + step);
+                assertArrayEquals(reference.keySet().stream().mapToInt(Integer::intValue).toArray(), map.keys(),
+                        "Ключи в порядке добавления на шаге " + step);
+            }
+        }
+        for (int key = -1_000; key < 1_000; key++) {
+            assertEquals(reference.containsKey(key), map.containsKey(key), "Наличие ключа " + key);
+            assertEquals(reference.get(key), map.get(key), "Значение ключа " + key);
+        }
+    }
+
+    @Test
+    void clearAndNullValuesTest() { // null - допустимое значение, clear очищает всё
+        IntObjectMap<String> map = new IntObjectMap<>(2);
+        map.put(1, null);
+        map.put(2, "два");
+
+        assertTrue(map.containsKey(1), "Ключ со значением null есть в отображении");
+        assertEquals(Arrays.asList(null, "два"), new ArrayList<>(map.values()), "Значения по порядку");
+
+        map.clear();
+        assertTrue(map.isEmpty(), "Отображение пусто");
+        assertFalse(map.containsKey(2), "Ключей нет");
+        map.put(3, "три");
+        assertArrayEquals(new int[]{3}, map.keys(), "После очистки отображение работает");
+    }
+
+    @Test
+    void modificationDuringIterationTest() { // изменение во время обхода обнаруживается
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, "один");
+        map.put(2, "два");
+        Iterator<String> iterator = map.values().iterator();
+        iterator.next();
+        map.put(3, "три");
+
+        assertThrows(ConcurrentModificationException.class, iterator::next, "Обход после добавления");
+    }
+
+}
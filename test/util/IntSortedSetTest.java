@@ -0,0 +1,72 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSortedSetTest {
+
+    private static final Comparator<Integer> ORDER = Comparator.<Integer>comparingInt(value -> value % 100)
+            .thenComparingInt(value -> value); // порядок не совпадает с естественным
+
+    @Test
+    void matchesTreeSetTest() { // случайные операции дают то же, что TreeSet; блоки делятся и сливаются
+        Random random = new Random(3);
+        IntSortedSet set = new IntSortedSet(ORDER::compare);
+        TreeSet<Integer> reference = new TreeSet<>(ORDER);
+
+        for (int step = 0; step < 200_000; step++) {
+            int value = random.nextInt(20_000);
+            if (random.nextInt(3) > 0 || step > 150_000 && random.nextBoolean()) {
+                assertEquals(reference.add(value), set.add(value), "Добавление на шаге " + step);
+            } else {
+                assertEquals(reference.remove(value), set.remove(value), "Удаление на шаге " + step);
+            }
+            if (step % 20_000 == 0) {
+                assertArrayEquals(reference.stream().mapToInt(Integer::intValue).toArray(), set.toArray(),
+                        "Порядок на шаге " + step);
+            }
+        }
+        assertEquals(reference.size(), set.size(), "Размер");
+
+        List<Integer> expected = new ArrayList<>(reference);
+        for (int position = 0; position < expected.size(); position += 97) {
+            assertEquals(expected.get(position), set.get(position), "Элемент на позиции " + position);
+        }
+        for (int bound = 0; bound < 100; bound += 7) {
+            int limit = bound;
+            assertEquals(reference.headSet(limit).size(), set.headCount(value -> value % 100 < limit),
+                    "Число элементов до границы " + bound);
+        }
+        PrimitiveIterator.OfInt tail = set.iterator(expected.size() - 10);
+        for (int position = expected.size() - 10; position < expected.size(); position++) {
+            assertEquals(expected.get(position), tail.nextInt(), "Обход с позиции");
+        }
+        assertFalse(tail.hasNext(), "Обход закончился");
+
+        for (int value : expected) {
+            assertTrue(set.remove(value), "Удаление " + value);
+        }
+        assertTrue(set.isEmpty(), "Множество пусто");
+        assertEquals(0, set.headCount(value -> true), "Пустое множество");
+    }
+
+    @Test
+    void iteratorFailsAfterModificationTest() { // изменение во время обхода обнаруживается
+        IntSortedSet set = new IntSortedSet(Integer::compare);
+        set.add(1);
+        set.add(2);
+        PrimitiveIterator.OfInt iterator = set.iterator(0);
+        set.add(3);
+        assertThrows(ConcurrentModificationException.class, iterator::nextInt);
+    }
+
+}
@@ -0,0 +1,72 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentSortedMapTest {
+
+    @Test
+    void matchesTreeMapTest() { // случайные операции дают то же, что TreeMap
+        Random random = new Random(5);
+        Comparator<Integer> order = Comparator.reverseOrder();
+        PersistentSortedMap<Integer, String> map = PersistentSortedMap.empty(order);
+        TreeMap<Integer, String> reference = new TreeMap<>(order);
+
+        for (int step = 0; step < 100_000; step++) {
+            int key = random.nextInt(5_000);
+            if (random.nextInt(3) > 0) {
+                map = map.put(key, "v" + step);
+                reference.put(key, "v" + step);
+            } else {
+                map = map.remove(key);
+                reference.remove(key);
+            }
+            assertEquals(reference.get(key), map.get(key), "Значение на шаге " + step);
+            assertEquals(reference.size(), map.size(), "Размер на шаге " + step);
+        }
+        assertEquals(new ArrayList<>(reference.values()), map.values(), "Порядок значений");
+    }
+
+    @Test
+    void oldVersionsAreNotChangedTest() { // изменение не затрагивает прежние версии
+        Random random = new Random(8);
+        List<PersistentSortedMap<Integer, Integer>> versions = new ArrayList<>();
+        List<TreeMap<Integer, Integer>> expected = new ArrayList<>();
+        PersistentSortedMap<Integer, Integer> map = PersistentSortedMap.empty();
+        TreeMap<Integer, Integer> reference = new TreeMap<>();
+        for (int step = 0; step < 2_000; step++) {
+            int key = random.nextInt(300);
+            if (random.nextBoolean()) {
+                map = map.put(key, step);
+                reference.put(key, step);
+            } else {
+                map = map.remove(key);
+                reference.remove(key);
+            }
+            versions.add(map);
+            expected.add(new TreeMap<>(reference));
+        }
+
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(new ArrayList<>(expected.get(i).values()), versions.get(i).values(), "Версия " + i);
+        }
+    }
+
+    @Test
+    void removeOfAbsentKeyKeepsVersionTest() {
+        PersistentSortedMap<Integer, String> map = PersistentSortedMap.<Integer, String>empty().put(1, "один");
+
+        assertSame(map, map.remove(2), "Без изменений новая версия не нужна");
+        assertTrue(map.remove(1).isEmpty(), "Пустая версия");
+        assertFalse(map.containsKey(2), "Ключа нет");
+        assertThrows(IllegalArgumentException.class, () -> map.put(3, null), "null не хранится");
+    }
+
+}
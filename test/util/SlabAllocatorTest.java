@@ -0,0 +1,84 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlabAllocatorTest {
+
+    @Test
+    void storedDataIsLoadedBackTest() {
+        SlabAllocator allocator = new SlabAllocator();
+        long empty = allocator.store(new byte[0]);
+        long text = allocator.store("Задача".getBytes(StandardCharsets.UTF_8));
+        byte[] large = new byte[200_000];
+        new Random(1).nextBytes(large);
+        long big = allocator.store(large);
+
+        assertArrayEquals(new byte[0], allocator.load(empty), "Пустые данные");
+        assertEquals("Задача", new String(allocator.load(text), StandardCharsets.UTF_8), "Строка");
+        assertArrayEquals(large, allocator.load(big), "Данные длиннее slab");
+    }
+
+    @Test
+    void freedChunksAreReusedTest() {
+        SlabAllocator allocator = new SlabAllocator();
+        List<Long> refs = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            refs.add(allocator.store(new byte[i % 100]));
+        }
+        long reserved = allocator.reservedBytes();
+        for (long ref : refs) {
+            allocator.free(ref);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            allocator.store(new byte[i % 100]);
+        }
+
+        assertEquals(reserved, allocator.reservedBytes(), "Новых slab нет");
+    }
+
+    @Test
+    void largeBuffersAreReleasedTest() {
+        SlabAllocator allocator = new SlabAllocator();
+        long small = allocator.store(new byte[10]);
+        long reserved = allocator.reservedBytes();
+        long big = allocator.store(new byte[100_000]);
+        assertTrue(allocator.reservedBytes() > reserved, "Отдельный буфер");
+
+        allocator.free(big);
+        assertEquals(reserved, allocator.reservedBytes(), "Буфер освобождён целиком");
+        long again = allocator.store(new byte[100_000]);
+        assertArrayEquals(new byte[100_000], allocator.load(again), "Номер буфера занят заново");
+        assertArrayEquals(new byte[10], allocator.load(small), "Мелкие данные не задеты");
+    }
+
+    @Test
+    void randomStoreAndFreeMatchCopiesTest() { // содержимое живых участков не портится при повторном использовании
+        Random random = new Random(7);
+        SlabAllocator allocator = new SlabAllocator();
+        List<Long> refs = new ArrayList<>();
+        List<byte[]> copies = new ArrayList<>();
+        for (int step = 0; step < 20_000; step++) {
+            if (!refs.isEmpty() && random.nextInt(3) == 0) {
+                int index = random.nextInt(refs.size());
+                allocator.free(refs.remove(index));
+                copies.remove(index);
+            } else {
+                byte[] data = new byte[random.nextInt(8) == 0 ? random.nextInt(70_000) : random.nextInt(300)];
+                random.nextBytes(data);
+                refs.add(allocator.store(data));
+                copies.add(data);
+            }
+        }
+        for (int i = 0; i < refs.size(); i++) {
+            assertArrayEquals(copies.get(i), allocator.load(refs.get(i)), "Участок " + i);
+        }
+    }
+
+}
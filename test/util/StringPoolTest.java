@@ -0,0 +1,52 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringPoolTest {
+
+    @Test
+    void equalStringsShareReferenceTest() { // одинаковые строки хранятся один раз до последнего освобождения
+        StringPool pool = new StringPool();
+        int first = pool.acquire("Задача");
+        int second = pool.acquire(new String("Задача"));
+        int other = pool.acquire("Описание");
+
+        assertEquals(first, second, "Одинаковые строки - одна ссылка");
+        assertNotEquals(first, other, "Разные строки - разные ссылки");
+        assertEquals(2, pool.size(), "Две различные строки");
+
+        pool.release(first);
+        assertEquals("Задача", pool.get(second), "Строка жива, пока есть владелец");
+        pool.release(second);
+        assertEquals(1, pool.size(), "Строка без владельцев освобождена");
+        assertEquals("Описание", pool.get(other), "Другая строка не задета");
+
+        int reused = pool.acquire("Новая");
+        assertEquals(first, reused, "Освобождённая ссылка выдаётся снова");
+        assertEquals(other, pool.acquire("Описание"), "Поиск после освобождения находит строку");
+    }
+
+    @Test
+    void nullAndManyStringsTest() { // null без записи в пул, рост таблицы и удаление из цепочек
+        StringPool pool = new StringPool();
+        assertEquals(StringPool.NULL, pool.acquire(null), "null не хранится");
+        assertNull(pool.get(StringPool.NULL), "Ссылка на null");
+        pool.release(StringPool.NULL);
+
+        int[] refs = new int[10_000];
+        for (int i = 0; i < refs.length; i++) {
+            refs[i] = pool.acquire("Строка " + i);
+        }
+        for (int i = 0; i < refs.length; i += 2) {
+            pool.release(refs[i]);
+        }
+        assertEquals(refs.length / 2, pool.size(), "Осталась половина строк");
+        for (int i = 1; i < refs.length; i += 2) {
+            assertEquals(refs[i], pool.acquire("Строка " + i), "Строка " + i + " находится по значению");
+            assertEquals("Строка " + i, pool.get(refs[i]), "Значение строки " + i);
+        }
+    }
+
+}